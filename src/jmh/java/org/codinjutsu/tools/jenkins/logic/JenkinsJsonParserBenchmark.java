@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JenkinsJsonParserBenchmark {
+
+    @Param({"10", "1000", "50000"})
+    private int jobCount;
+
+    private final JenkinsJsonParser jsonParser = new JenkinsJsonParser();
+    private final JenkinsJsonStreamParser jsonStreamParser = new JenkinsJsonStreamParser();
+
+    private String viewJson;
+    private String buildsJson;
+
+    @Setup
+    public void createPayloads() {
+        viewJson = JenkinsPayloads.viewJson(jobCount);
+        buildsJson = JenkinsPayloads.buildsJson(jobCount);
+    }
+
+    @Benchmark
+    public List<Job> createViewJobs() {
+        return jsonParser.createViewJobs(viewJson);
+    }
+
+    @Benchmark
+    public List<Job> createViewJobsStreamed() {
+        return jsonStreamParser.createViewJobs(new StringReader(viewJson));
+    }
+
+    @Benchmark
+    public List<Build> createBuilds() {
+        return jsonParser.createBuilds(buildsJson);
+    }
+
+    @Benchmark
+    public List<Build> createBuildsStreamed() {
+        return jsonStreamParser.createBuilds(new StringReader(buildsJson));
+    }
+}
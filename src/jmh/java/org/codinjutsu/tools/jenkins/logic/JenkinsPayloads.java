@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+/**
+ * Synthetic Jenkins answers shaped like the ones of the json api and of the rss feed, scaled to any job count.
+ */
+final class JenkinsPayloads {
+
+    static final String SERVER_URL = "http://myjenkins/";
+
+    private static final String[] COLORS = {"blue", "red", "yellow", "grey", "blue_anime", "disabled"};
+    private static final String[] RESULTS = {"SUCCESS", "FAILURE", "UNSTABLE", "ABORTED"};
+    private static final String[] RSS_STATUSES = {"stable", "broken since build #3", "back to normal", "aborted", "unstable", "?"};
+
+    private JenkinsPayloads() {
+    }
+
+    static String viewJson(int jobCount) {
+        StringBuilder json = new StringBuilder(jobCount * 512);
+        json.append("{\"name\":\"All\",\"url\":\"").append(SERVER_URL).append("\",\"jobs\":[");
+        for (int i = 0; i < jobCount; i++) {
+            String name = jobName(i);
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"").append(name).append("\",\"displayName\":\"").append(name)
+                    .append("\",\"url\":\"").append(jobUrl(i)).append("\",\"color\":\"").append(COLORS[i % COLORS.length])
+                    .append("\",\"buildable\":true,\"inQueue\":").append(i % 7 == 0)
+                    .append(",\"healthReport\":[{\"description\":\"Build stability: ").append(i % 5)
+                    .append(" out of the last 5 builds failed.\",\"iconUrl\":\"health-").append(i % 2 == 0 ? "80plus" : "00to19")
+                    .append(".png\"}],\"lastBuild\":");
+            appendBuild(json, i, 100 + i % 50);
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    static String buildsJson(int buildCount) {
+        StringBuilder json = new StringBuilder(buildCount * 192);
+        json.append("{\"builds\":[");
+        for (int i = 0; i < buildCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendBuild(json, 0, buildCount - i);
+        }
+        return json.append("]}").toString();
+    }
+
+    static String rssFeed(int jobCount) {
+        StringBuilder rss = new StringBuilder(jobCount * 448);
+        rss.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<feed xmlns=\"http://www.w3.org/2005/Atom\">")
+                .append("<title>All last builds only</title><updated>2011-03-16T14:28:59Z</updated>");
+        for (int i = 0; i < jobCount; i++) {
+            long number = 100 + i % 50;
+            rss.append("<entry><title>").append(rssTitle(jobName(i), number, i)).append("</title>")
+                    .append("<link type=\"text/html\" href=\"").append(jobUrl(i)).append(number).append("/\" rel=\"alternate\"/>")
+                    .append("<id>tag:hudson.dev.java.net,2008:").append(jobUrl(i)).append("</id>")
+                    .append("<published>2011-03-16T14:28:59Z</published><updated>2011-03-16T14:28:59Z</updated></entry>");
+        }
+        return rss.append("</feed>").toString();
+    }
+
+    static String rssTitle(String jobName, long number, int index) {
+        return jobName + " #" + number + " (" + RSS_STATUSES[index % RSS_STATUSES.length] + ")";
+    }
+
+    static String jobName(int index) {
+        return "module-" + index;
+    }
+
+    static String jobUrl(int index) {
+        return SERVER_URL + "job/" + jobName(index) + "/";
+    }
+
+    private static void appendBuild(StringBuilder json, int jobIndex, long number) {
+        json.append("{\"id\":\"2012-04-02_15-26-29\",\"building\":").append(number % 10 == 0)
+                .append(",\"result\":\"").append(RESULTS[(int) (number % RESULTS.length)])
+                .append("\",\"number\":").append(number).append(",\"url\":\"").append(jobUrl(jobIndex)).append(number)
+                .append("/\",\"timestamp\":1477640156281,\"duration\":4386421}");
+    }
+}
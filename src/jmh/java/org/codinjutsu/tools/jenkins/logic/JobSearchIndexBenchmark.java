@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searches the jobs of every view as the "Go to Jenkins job" popup does on each key stroke, and refreshes a view
+ * where a single job changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JobSearchIndexBenchmark {
+
+    private static final int VIEW_COUNT = 20;
+    private static final String[] PROJECTS = {"mint", "capri", "pastel", "legacy", "platform", "mobile", "billing", "search"};
+    private static final String[] KINDS = {"api", "ui", "batch", "integration-tests", "release", "nightly"};
+
+    @Param({"1000", "20000"})
+    private int jobCount;
+
+    @Param({"m", "mi", "mint", "ntegration-te", "unknown"})
+    private String query;
+
+    private final JobSearchIndex index = new JobSearchIndex();
+    private List<Job> firstView;
+
+    @Setup
+    public void indexJobs() {
+        List<List<Job>> views = new ArrayList<List<Job>>();
+        for (int v = 0; v < VIEW_COUNT; v++) {
+            views.add(new ArrayList<Job>());
+        }
+        for (int i = 0; i < jobCount; i++) {
+            String name = PROJECTS[i % PROJECTS.length] + "-" + KINDS[(i / PROJECTS.length) % KINDS.length] + "-" + i;
+            views.get(i % VIEW_COUNT).add(Job.createJob(name, name, "blue", JenkinsPayloads.jobUrl(i), "false", "true"));
+        }
+        for (int v = 0; v < VIEW_COUNT; v++) {
+            index.updateView(JenkinsPayloads.SERVER_URL, "view-" + v, views.get(v));
+        }
+        firstView = views.get(0);
+    }
+
+    @Benchmark
+    public List<JobSearchIndex.Match> search() {
+        return index.search(query, 50);
+    }
+
+    @Benchmark
+    public int refreshUnchangedView() {
+        index.updateView(JenkinsPayloads.SERVER_URL, "view-0", firstView);
+        return index.size();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the urls of every job of a view, as a refresh of the whole view does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class UrlBuilderBenchmark {
+
+    private static final int VIEW_PAGE_SIZE = 100;
+
+    @Param({"10", "1000", "50000"})
+    private int jobCount;
+
+    private final UrlBuilder urlBuilder = new UrlBuilder();
+    private final JenkinsAppSettings configuration = new JenkinsAppSettings();
+    private final Map<String, String> parameters = new LinkedHashMap<String, String>();
+
+    private String[] jobUrls;
+
+    @Setup
+    public void createJobUrls() {
+        configuration.setServerUrl(JenkinsPayloads.SERVER_URL);
+        parameters.put("branch", "feature/some branch");
+        parameters.put("skipTests", "true");
+
+        jobUrls = new String[jobCount];
+        for (int i = 0; i < jobCount; i++) {
+            jobUrls[i] = JenkinsPayloads.jobUrl(i);
+        }
+    }
+
+    @Benchmark
+    public void createJobUrl(Blackhole blackhole) {
+        for (String jobUrl : jobUrls) {
+            blackhole.consume(urlBuilder.createJobUrl(jobUrl));
+        }
+    }
+
+    @Benchmark
+    public void createBuildUrls(Blackhole blackhole) {
+        for (String jobUrl : jobUrls) {
+            String buildUrl = jobUrl + "42/";
+            blackhole.consume(urlBuilder.createBuildUrl(buildUrl));
+            blackhole.consume(urlBuilder.createBuildsUrl(jobUrl));
+            blackhole.consume(urlBuilder.createProgressiveTextUrl(buildUrl, 0));
+        }
+    }
+
+    @Benchmark
+    public void createRunJobUrls(Blackhole blackhole) {
+        for (String jobUrl : jobUrls) {
+            blackhole.consume(urlBuilder.createRunJobUrl(jobUrl, configuration));
+            blackhole.consume(urlBuilder.createRunParameterizedJobUrl(jobUrl, configuration, parameters));
+        }
+    }
+
+    @Benchmark
+    public void createViewUrls(Blackhole blackhole) {
+        String viewUrl = JenkinsPayloads.SERVER_URL + "view/All/";
+        blackhole.consume(urlBuilder.createViewUrl(JenkinsPlateform.CLASSIC, viewUrl));
+        for (int from = 0; from < jobCount; from += VIEW_PAGE_SIZE) {
+            blackhole.consume(urlBuilder.createViewPageUrl(viewUrl, from, from + VIEW_PAGE_SIZE));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the last build of every job of a view.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BuildBenchmark {
+
+    private static final String[] RESULTS = {"SUCCESS", "FAILURE", "UNSTABLE", "ABORTED"};
+
+    @Param({"10", "1000", "50000"})
+    private int jobCount;
+
+    private String[] buildUrls;
+
+    @Setup
+    public void createBuildUrls() {
+        buildUrls = new String[jobCount];
+        for (int i = 0; i < jobCount; i++) {
+            buildUrls[i] = "http://myjenkins/job/module-" + i + "/" + (100 + i % 50) + "/";
+        }
+    }
+
+    @Benchmark
+    public void createBuildFromWorkspace(Blackhole blackhole) {
+        for (int i = 0; i < buildUrls.length; i++) {
+            blackhole.consume(Build.createBuildFromWorkspace(buildUrls[i], Long.valueOf(100 + i % 50), RESULTS[i % RESULTS.length],
+                    Boolean.valueOf(i % 10 == 0), "2012-04-02_15-26-29", 1477640156281L, 4386421L));
+        }
+    }
+
+    @Benchmark
+    public void createBuildFromWorkspaceText(Blackhole blackhole) {
+        for (int i = 0; i < buildUrls.length; i++) {
+            blackhole.consume(Build.createBuildFromWorkspace(buildUrls[i], String.valueOf(100 + i % 50), RESULTS[i % RESULTS.length],
+                    String.valueOf(i % 10 == 0), "2012-04-02_15-26-29", 1477640156281L, 4386421L));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The fixed-format parsing of {@link DateUtil} against the {@link SimpleDateFormat} it replaces, which needs a
+ * formatter per thread (or a lock) to be used by parallel parsers.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(4)
+public class DateUtilBenchmark {
+
+    private static final String WORKSPACE_DATE = "2012-04-02_15-26-29";
+    private static final String RSS_DATE = "2011-03-16T14:28:59Z";
+
+    private final SimpleDateFormat workspaceDateFormat = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+    private final SimpleDateFormat rssDateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+
+    @Benchmark
+    public long parseWorkspaceDate() {
+        return DateUtil.parseWorkspaceDate(WORKSPACE_DATE);
+    }
+
+    @Benchmark
+    public long parseWorkspaceDateWithSimpleDateFormat() throws ParseException {
+        return workspaceDateFormat.parse(WORKSPACE_DATE).getTime();
+    }
+
+    @Benchmark
+    public long parseRssDate() {
+        return DateUtil.parseRssDate(RSS_DATE);
+    }
+
+    @Benchmark
+    public long parseRssDateWithSimpleDateFormat() throws ParseException {
+        return rssDateFormat.parse(RSS_DATE).getTime();
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracts the status and the build number of every entry title of a rss feed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RssUtilBenchmark {
+
+    private static final String[] STATUSES = {"stable", "broken since build #3", "back to normal", "aborted", "unstable", "?"};
+
+    @Param({"10", "1000", "50000"})
+    private int jobCount;
+
+    private String[] titles;
+
+    @Setup
+    public void createTitles() {
+        titles = new String[jobCount];
+        for (int i = 0; i < jobCount; i++) {
+            titles[i] = "module-" + i + " #" + (100 + i % 50) + " (" + STATUSES[i % STATUSES.length] + ")";
+        }
+    }
+
+    @Benchmark
+    public void extractStatus(Blackhole blackhole) {
+        for (String title : titles) {
+            blackhole.consume(RssUtil.extractStatus(title));
+        }
+    }
+
+    @Benchmark
+    public void extractBuildNumber(Blackhole blackhole) {
+        for (String title : titles) {
+            blackhole.consume(RssUtil.extractBuildNumber(title));
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.view;
+
+import org.codinjutsu.tools.jenkins.JenkinsSettings;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import javax.swing.*;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders every job row of a view, as a scroll through the whole job tree does, without any screen.
+ * The allocation rate reported by the gc profiler is the one of the labels, the icons being shared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class JenkinsTreeRendererBenchmark {
+
+    private static final String[] COLORS = {"blue", "red", "yellow", "disabled", "blue_anime", "aborted"};
+    private static final String[] HEALTH_LEVELS = {"health-00to19", "health-40to59", "health-80plus", null};
+
+    @Param({"3000"})
+    private int jobCount;
+
+    @Param({"0", "300"})
+    private int favoriteCount;
+
+    private JTree tree;
+    private JenkinsTreeRenderer renderer;
+    private DefaultMutableTreeNode[] nodes;
+
+    @Setup
+    public void createTree() {
+        JenkinsSettings jenkinsSettings = new JenkinsSettings();
+        DefaultMutableTreeNode root = new DefaultMutableTreeNode();
+        List<Job> favorites = new ArrayList<Job>();
+        nodes = new DefaultMutableTreeNode[jobCount];
+        for (int i = 0; i < jobCount; i++) {
+            Job job = Job.createJob("module-" + i, null, COLORS[i % COLORS.length], "http://myjenkins/job/module-" + i + "/", "false", "true");
+            String healthLevel = HEALTH_LEVELS[i % HEALTH_LEVELS.length];
+            if (healthLevel != null) {
+                job.setHealth(Job.Health.createHealth(healthLevel, "Build stability: no recent builds failed."));
+            }
+            job.setLastBuild(Build.createBuildFromWorkspace("http://myjenkins/job/module-" + i + "/42/", 42L, "SUCCESS", false, "2012-04-02_15-26-29", 1477640156281L, 4386421L));
+            if (i < favoriteCount) {
+                favorites.add(job);
+            }
+            nodes[i] = new DefaultMutableTreeNode(job);
+            root.add(nodes[i]);
+        }
+        jenkinsSettings.addFavorite(favorites);
+
+        tree = new JTree(new DefaultTreeModel(root));
+        tree.setRootVisible(false);
+        renderer = new JenkinsTreeRenderer(jenkinsSettings);
+    }
+
+    @Benchmark
+    public void renderJobRows(Blackhole blackhole) {
+        for (int row = 0; row < nodes.length; row++) {
+            blackhole.consume(renderer.getTreeCellRendererComponent(tree, nodes[row], false, false, true, row, false));
+        }
+    }
+}
@@ -22,9 +22,9 @@ import com.intellij.openapi.vcs.changes.ChangeListDecorator;
 import com.intellij.openapi.vcs.changes.LocalChangeList;
 import com.intellij.ui.ColoredTreeCellRenderer;
 import com.intellij.ui.SimpleTextAttributes;
+import org.codinjutsu.tools.jenkins.logic.BuildWatcher;
 import org.codinjutsu.tools.jenkins.model.Build;
 import org.codinjutsu.tools.jenkins.model.Job;
-import org.codinjutsu.tools.jenkins.view.BrowserPanel;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Map;
@@ -65,9 +65,7 @@ public class ChangesBarProjectComponent implements ProjectComponent, ChangeListD
 
     @Override
     public void decorateChangeList(LocalChangeList localChangeList, ColoredTreeCellRenderer coloredTreeCellRenderer, boolean b, boolean b2, boolean b3) {
-        BrowserPanel browserPanel = BrowserPanel.getInstance(project);
-        //browserPanel.watch();
-        Map<String, Job> jobs = browserPanel.getWatched();
+        Map<String, Job> jobs = BuildWatcher.getInstance(project).getWatched();
         if (jobs.containsKey(localChangeList.getName())) {
             Build build = jobs.get(localChangeList.getName()).getLastBuild();
             String status = build.getStatus().getStatus();
@@ -23,6 +23,9 @@ import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.jenkins.model.Build;
 import org.codinjutsu.tools.jenkins.model.BuildStatusEnum;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @State(
         name = "Jenkins.Application.Settings",
         storages = {
@@ -35,6 +38,8 @@ public class JenkinsAppSettings implements PersistentStateComponent<JenkinsAppSe
     public static final String DUMMY_JENKINS_SERVER_URL = "http://dummyjenkinsserver";
     public static final int DEFAULT_BUILD_DELAY = 0;
     public static final int RESET_PERIOD_VALUE = 0;
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 10;
+    public static final int DEFAULT_REQUEST_FRESHNESS_MILLIS = 1000;
 
     private State myState = new State();
 
@@ -68,6 +73,25 @@ public class JenkinsAppSettings implements PersistentStateComponent<JenkinsAppSe
         return StringUtils.isNotEmpty(myState.serverUrl) && !DUMMY_JENKINS_SERVER_URL.equals(myState.serverUrl);
     }
 
+    public List<String> getOtherServerUrls() {
+        return myState.otherServerUrls;
+    }
+
+    public void setOtherServerUrls(List<String> otherServerUrls) {
+        myState.otherServerUrls = otherServerUrls;
+    }
+
+    /**
+     * @return a copy of these settings pointing to another server
+     */
+    public JenkinsAppSettings forServer(String serverUrl) {
+        JenkinsAppSettings serverSettings = new JenkinsAppSettings();
+        XmlSerializerUtil.copyBean(myState, serverSettings.myState);
+        serverSettings.setServerUrl(serverUrl);
+        serverSettings.setOtherServerUrls(new ArrayList<String>());
+        return serverSettings;
+    }
+
 
     public int getBuildDelay() {
         return myState.delay;
@@ -97,6 +121,41 @@ public class JenkinsAppSettings implements PersistentStateComponent<JenkinsAppSe
         myState.rssRefreshPeriod = rssRefreshPeriod;
     }
 
+    public int getMaxConnectionsPerHost() {
+        return myState.maxConnectionsPerHost;
+    }
+
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        myState.maxConnectionsPerHost = maxConnectionsPerHost;
+    }
+
+    /**
+     * @return how long a loaded job, view or build is handed to the callers asking for it again, without a new request
+     */
+    public int getRequestFreshnessMillis() {
+        return myState.requestFreshnessMillis;
+    }
+
+    public void setRequestFreshnessMillis(int requestFreshnessMillis) {
+        myState.requestFreshnessMillis = requestFreshnessMillis;
+    }
+
+    public boolean isStreamingJsonParser() {
+        return myState.streamingJsonParser;
+    }
+
+    public void setStreamingJsonParser(boolean streamingJsonParser) {
+        myState.streamingJsonParser = streamingJsonParser;
+    }
+
+    public boolean isBuildEventStream() {
+        return myState.buildEventStream;
+    }
+
+    public void setBuildEventStream(boolean buildEventStream) {
+        myState.buildEventStream = buildEventStream;
+    }
+
     public String getSuffix() {
         return myState.suffix;
     }
@@ -147,9 +206,14 @@ public class JenkinsAppSettings implements PersistentStateComponent<JenkinsAppSe
     public static class State {
 
         public String serverUrl = DUMMY_JENKINS_SERVER_URL;
+        public List<String> otherServerUrls = new ArrayList<String>();
         public int delay = DEFAULT_BUILD_DELAY;
         public int jobRefreshPeriod = RESET_PERIOD_VALUE;
         public int rssRefreshPeriod = RESET_PERIOD_VALUE;
+        public int maxConnectionsPerHost = DEFAULT_MAX_CONNECTIONS_PER_HOST;
+        public int requestFreshnessMillis = DEFAULT_REQUEST_FRESHNESS_MILLIS;
+        public boolean streamingJsonParser = true;
+        public boolean buildEventStream = true;
         public String suffix = "";
 
         public RssSettings rssSettings = new RssSettings();
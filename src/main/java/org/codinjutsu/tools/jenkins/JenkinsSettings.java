@@ -32,9 +32,12 @@ import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.jenkins.model.Job;
 import org.codinjutsu.tools.jenkins.security.JenkinsVersion;
 
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 @State(
         name = "Jenkins.Settings",
@@ -50,6 +53,13 @@ public class JenkinsSettings implements PersistentStateComponent<JenkinsSettings
 
     private State myState = new State();
 
+    private String passwordKey = JENKINS_SETTINGS_PASSWORD_KEY;
+
+    /**
+     * The names of the favorite jobs, looked up by the tree renderer for every job row it paints.
+     */
+    private volatile Set<String> favoriteJobNames = Collections.emptySet();
+
     public static JenkinsSettings getSafeInstance(Project project) {
         JenkinsSettings settings = ServiceManager.getService(project, JenkinsSettings.class);
         return settings != null ? settings : new JenkinsSettings();
@@ -64,6 +74,7 @@ public class JenkinsSettings implements PersistentStateComponent<JenkinsSettings
     @Override
     public void loadState(State state) {
         XmlSerializerUtil.copyBean(state, myState);
+        indexFavorites();
     }
 
     public String getUsername() {
@@ -86,9 +97,9 @@ public class JenkinsSettings implements PersistentStateComponent<JenkinsSettings
         String password;
         try {
             PasswordSafeImpl passwordSafe = (PasswordSafeImpl) PasswordSafe.getInstance();
-            password = passwordSafe.getPassword(null, JenkinsAppSettings.class, JENKINS_SETTINGS_PASSWORD_KEY);
+            password = passwordSafe.getPassword(null, JenkinsAppSettings.class, passwordKey);
         } catch (PasswordSafeException e) {
-            LOG.info("Couldn't get password for key [" + JENKINS_SETTINGS_PASSWORD_KEY + "]", e);
+            LOG.info("Couldn't get password for key [" + passwordKey + "]", e);
             password = "";
         }
 
@@ -97,10 +108,47 @@ public class JenkinsSettings implements PersistentStateComponent<JenkinsSettings
 
     public void setPassword(String password) {
         try {
-            PasswordSafe.getInstance().storePassword(null, JenkinsAppSettings.class, JENKINS_SETTINGS_PASSWORD_KEY, StringUtils.isNotBlank(password) ? password : "");
+            PasswordSafe.getInstance().storePassword(null, JenkinsAppSettings.class, passwordKey, StringUtils.isNotBlank(password) ? password : "");
         } catch (PasswordSafeException e) {
-            LOG.info("Couldn't get password for key [" + JENKINS_SETTINGS_PASSWORD_KEY + "]", e);
+            LOG.info("Couldn't get password for key [" + passwordKey + "]", e);
+        }
+    }
+
+    /**
+     * @return the settings to authenticate on another server, with the credentials and crumb stored for it, or none
+     * at all when nothing is stored for it: the credentials of the main server are never sent to another host
+     */
+    public JenkinsSettings forServer(String serverUrl) {
+        JenkinsSettings serverSettings = new JenkinsSettings();
+        serverSettings.passwordKey = JENKINS_SETTINGS_PASSWORD_KEY + "@" + serverUrl;
+        serverSettings.setVersion(getVersion());
+        ServerCredentials credentials = findServerCredentials(serverUrl);
+        if (credentials != null) {
+            serverSettings.setUsername(StringUtils.defaultString(credentials.username));
+            serverSettings.setCrumbData(StringUtils.defaultString(credentials.crumbData));
+        }
+        return serverSettings;
+    }
+
+    public void setServerCredentials(String serverUrl, String username, String password, String crumbData) {
+        ServerCredentials credentials = findServerCredentials(serverUrl);
+        if (credentials == null) {
+            credentials = new ServerCredentials();
+            credentials.url = serverUrl;
+            myState.serverCredentials.add(credentials);
         }
+        credentials.username = username;
+        credentials.crumbData = crumbData;
+        forServer(serverUrl).setPassword(password);
+    }
+
+    private ServerCredentials findServerCredentials(String serverUrl) {
+        for (ServerCredentials credentials : myState.serverCredentials) {
+            if (StringUtils.equals(StringUtils.removeEnd(credentials.url, "/"), StringUtils.removeEnd(serverUrl, "/"))) {
+                return credentials;
+            }
+        }
+        return null;
     }
 
     public void addFavorite(List<Job> jobs) {
@@ -111,15 +159,11 @@ public class JenkinsSettings implements PersistentStateComponent<JenkinsSettings
             myState.favoriteJobs.add(favoriteJob);
 
         }
+        indexFavorites();
     }
 
     public boolean isAFavoriteJob(String jobName) {
-        for (FavoriteJob favoriteJob : myState.favoriteJobs) {
-            if (StringUtils.equals(jobName, favoriteJob.name)) {
-                return true;
-            }
-        }
-        return false;
+        return favoriteJobNames.contains(jobName);
     }
 
     public void removeFavorite(List<Job> selectedJobs) {//TODO need to refactor
@@ -131,12 +175,26 @@ public class JenkinsSettings implements PersistentStateComponent<JenkinsSettings
                 }
             }
         }
+        indexFavorites();
+    }
+
+    public void clearFavorites() {
+        myState.favoriteJobs.clear();
+        indexFavorites();
     }
 
     public List<FavoriteJob> getFavoriteJobs() {
         return myState.favoriteJobs;
     }
 
+    private void indexFavorites() {
+        Set<String> names = new HashSet<String>();
+        for (FavoriteJob favoriteJob : myState.favoriteJobs) {
+            names.add(favoriteJob.name);
+        }
+        favoriteJobNames = names;
+    }
+
     public boolean isFavoriteViewEmpty() {
         return myState.favoriteJobs.isEmpty();
     }
@@ -175,6 +233,24 @@ public class JenkinsSettings implements PersistentStateComponent<JenkinsSettings
 
         public JenkinsVersion jenkinsVersion = JenkinsVersion.VERSION_1;
 
+        public List<ServerCredentials> serverCredentials = new LinkedList<ServerCredentials>();
+
+    }
+
+    /**
+     * The credentials of a server configured next to the main one, whose password is kept in the password safe.
+     */
+    @Tag("server")
+    public static class ServerCredentials {
+
+        @Attribute("url")
+        public String url;
+
+        @Attribute("username")
+        public String username;
+
+        @Attribute("crumbData")
+        public String crumbData;
     }
 
     @Tag("favorite")
@@ -67,6 +67,7 @@ public class JenkinsWindowManager {
                 RssAuthenticationActionHandler.getInstance(project);
                 BrowserPanelAuthenticationHandler.getInstance(project);
                 browserPanel.init();
+                browserPanel.loadSnapshot();
                 rssLogic.init();
                 LoginService.getInstance(project).performAuthentication();
             }
@@ -81,7 +82,8 @@ public class JenkinsWindowManager {
         BrowserPanel.getInstance(project).dispose();
         JenkinsWidget.getInstance(project).dispose();
 
-        ExecutorService.getInstance(project).getExecutor().shutdown();
+        JenkinsMasters.getInstance(project).dispose();
+        JenkinsScheduler.getInstance(project).dispose();
     }
 
     public void reloadConfiguration() {
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Job;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks the delay before the next poll of a resource: a short one while builds are running, the configured
+ * period once something changed, then twice as long after each poll which brought nothing new.
+ * <p>
+ * The times of the last polls are kept to tell the effective poll rate.
+ */
+public class AdaptivePolling {
+
+    private static final Logger logger = Logger.getLogger(AdaptivePolling.class);
+
+    static final long ACTIVE_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(15);
+    static final int MAX_BACKOFF_FACTOR = 8;
+    private static final int RATE_WINDOW = 16;
+
+    private final String name;
+    private final long activeDelayMillis;
+    private final long periodMillis;
+    private final long maxDelayMillis;
+
+    private final long[] pollTimes = new long[RATE_WINDOW];
+    private int polls;
+    private long delayMillis;
+    private Integer lastJobsState;
+
+    public AdaptivePolling(String name, long period, TimeUnit unit) {
+        this(name, Math.min(ACTIVE_DELAY_MILLIS, unit.toMillis(period)), unit.toMillis(period), unit.toMillis(period) * MAX_BACKOFF_FACTOR);
+    }
+
+    AdaptivePolling(String name, long activeDelayMillis, long periodMillis, long maxDelayMillis) {
+        this.name = name;
+        this.activeDelayMillis = activeDelayMillis;
+        this.periodMillis = periodMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.delayMillis = periodMillis;
+    }
+
+    /**
+     * Records a poll of the given jobs: it changed something when a color or a last build differs from the
+     * previous poll, and builds are running when a color is animated or another build is known to run.
+     */
+    public long nextDelayMillis(List<Job> jobs, boolean otherBuildRunning) {
+        int jobsState = 1;
+        boolean building = otherBuildRunning;
+        for (Job job : jobs) {
+            Build lastBuild = job.getLastBuild();
+            jobsState = 31 * jobsState + (job.getUrl() == null ? 0 : job.getUrl().hashCode());
+            jobsState = 31 * jobsState + (job.getColor() == null ? 0 : job.getColor().hashCode());
+            jobsState = 31 * jobsState + (lastBuild == null ? 0 : lastBuild.getNumber());
+            building |= job.isBuilding();
+        }
+        boolean changed;
+        synchronized (this) {
+            changed = lastJobsState != null && lastJobsState != jobsState;
+            lastJobsState = jobsState;
+        }
+        return nextDelayMillis(building, changed);
+    }
+
+    public long nextDelayMillis(boolean building, boolean changed) {
+        return nextDelayMillis(building, changed, System.currentTimeMillis());
+    }
+
+    synchronized long nextDelayMillis(boolean building, boolean changed, long now) {
+        pollTimes[polls++ % RATE_WINDOW] = now;
+        if (building) {
+            delayMillis = activeDelayMillis;
+        } else if (changed || delayMillis < periodMillis) {
+            delayMillis = periodMillis;
+        } else {
+            delayMillis = Math.min(delayMillis * 2, maxDelayMillis);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("%s: next poll in %ds (%.1f polls/hour)", name, TimeUnit.MILLISECONDS.toSeconds(delayMillis), getPollsPerHour()));
+        }
+        return delayMillis;
+    }
+
+    public long getActiveDelayMillis() {
+        return activeDelayMillis;
+    }
+
+    /**
+     * @return the poll rate over the last polls, 0 until two polls have been recorded
+     */
+    public synchronized double getPollsPerHour() {
+        int count = Math.min(polls, RATE_WINDOW);
+        if (count < 2) {
+            return 0;
+        }
+        long last = pollTimes[(polls - 1) % RATE_WINDOW];
+        long first = pollTimes[(polls - count) % RATE_WINDOW];
+        if (last <= first) {
+            return 0;
+        }
+        return (count - 1) * (double) TimeUnit.HOURS.toMillis(1) / (last - first);
+    }
+}
@@ -48,6 +48,7 @@ public class BrowserPanelAuthenticationHandler implements AuthenticationNotifier
 
     @Override
     public void loginFailed(Exception ex) {
+        browser.setJobsUnavailable();
         browser.notifyErrorJenkinsToolWindow(ex.getLocalizedMessage());
     }
 
@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.model.Build;
+
+public interface BuildEventListener {
+
+    void streamOpened();
+
+    void buildStarted(String jobName, Build build);
+
+    void buildFinished(String jobName, Build build);
+
+    /**
+     * @param cause the error that ended the stream, or null when the server closed it
+     */
+    void streamClosed(Exception cause);
+}
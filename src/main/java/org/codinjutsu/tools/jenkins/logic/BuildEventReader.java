@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.math.NumberUtils;
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads the server-sent events of the Jenkins SSE Gateway plugin and dispatches the job run ones.
+ */
+class BuildEventReader {
+
+    private static final Logger logger = Logger.getLogger(BuildEventReader.class);
+
+    private static final String DATA_FIELD = "data:";
+
+    private static final String JOB_CHANNEL = "job";
+    private static final String RUN_STARTED = "job_run_started";
+    private static final String RUN_ENDED = "job_run_ended";
+
+    private final String serverUrl;
+
+    BuildEventReader(String serverUrl) {
+        this.serverUrl = StringUtils.removeEnd(serverUrl, "/");
+    }
+
+    /**
+     * Blocks until the stream ends or the current thread is interrupted.
+     */
+    void read(Reader eventStreamReader, BuildEventListener listener) throws IOException {
+        BufferedReader lineReader = new BufferedReader(eventStreamReader);
+        StringBuilder data = new StringBuilder();
+        String line;
+        while (!Thread.currentThread().isInterrupted() && (line = lineReader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    dispatch(data.toString(), listener);
+                    data.setLength(0);
+                }
+            } else if (line.startsWith(DATA_FIELD)) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(StringUtils.removeStart(line.substring(DATA_FIELD.length()), " "));
+            }
+        }
+    }
+
+    private void dispatch(String data, BuildEventListener listener) {
+        JSONObject event;
+        try {
+            Object parsedData = new JSONParser().parse(data);
+            if (!(parsedData instanceof JSONObject)) {
+                return;
+            }
+            event = (JSONObject) parsedData;
+        } catch (ParseException ex) {
+            logger.warn("Ignoring malformed Jenkins event: " + data);
+            return;
+        }
+
+        if (!JOB_CHANNEL.equals(event.get("jenkins_channel"))) {
+            return;
+        }
+        String eventName = (String) event.get("jenkins_event");
+        boolean started = RUN_STARTED.equals(eventName);
+        if (!started && !RUN_ENDED.equals(eventName)) {
+            return;
+        }
+
+        String jobName = (String) event.get("job_name");
+        String number = (String) event.get("jenkins_object_id");
+        if (jobName == null || !NumberUtils.isDigits(number)) {
+            return;
+        }
+        String status = started ? null : (String) event.get("job_run_status");
+        String buildUrl = serverUrl + "/" + StringUtils.removeStart((String) event.get("jenkins_object_url"), "/");
+        String message = String.format("%s #%s (%s)", jobName, number, started ? "started" : StringUtils.lowerCase(status));
+
+        Build build = Build.createBuildFromEvent(buildUrl, Long.valueOf(number), status, started, getTimestamp(event), message);
+        if (started) {
+            listener.buildStarted(jobName, build);
+        } else {
+            listener.buildFinished(jobName, build);
+        }
+    }
+
+    private static long getTimestamp(JSONObject event) {
+        Object timestamp = event.get("jenkins_event_timestamp");
+        if (timestamp instanceof Number) {
+            return ((Number) timestamp).longValue();
+        }
+        return NumberUtils.toLong((String) timestamp, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.security.StreamHandle;
+
+import java.util.UUID;
+
+/**
+ * Listens to the Jenkins build events on a thread of its own, since the request lasts as long as the server
+ * keeps the stream open. Nothing is forwarded to the listener once the stream has been stopped.
+ */
+public class BuildEventStream {
+
+    private final RequestManager requestManager;
+    private final JenkinsAppSettings configuration;
+    private final BuildEventListener listener;
+
+    private Thread thread;
+    private StreamHandle handle;
+
+    public BuildEventStream(RequestManager requestManager, JenkinsAppSettings configuration, BuildEventListener listener) {
+        this.requestManager = requestManager;
+        this.configuration = configuration;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        final StreamHandle streamHandle = new StreamHandle();
+        handle = streamHandle;
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                listen(streamHandle);
+            }
+        }, "Jenkins build events");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Aborts the request, which ends the blocked read of the listening thread and drops the connection.
+     */
+    public synchronized void stop() {
+        if (thread != null) {
+            handle.close();
+            thread.interrupt();
+            thread = null;
+            handle = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    private synchronized boolean isCurrentThread() {
+        return thread == Thread.currentThread();
+    }
+
+    private void listen(StreamHandle streamHandle) {
+        Exception cause = null;
+        try {
+            requestManager.listenToBuildEvents(configuration, "jenkins-control-" + UUID.randomUUID(), streamHandle, new BuildEventListener() {
+                @Override
+                public void streamOpened() {
+                    if (isCurrentThread()) {
+                        listener.streamOpened();
+                    }
+                }
+
+                @Override
+                public void buildStarted(String jobName, Build build) {
+                    if (isCurrentThread()) {
+                        listener.buildStarted(jobName, build);
+                    }
+                }
+
+                @Override
+                public void buildFinished(String jobName, Build build) {
+                    if (isCurrentThread()) {
+                        listener.buildFinished(jobName, build);
+                    }
+                }
+
+                @Override
+                public void streamClosed(Exception cause) {
+                }
+            });
+        } catch (RuntimeException ex) {
+            cause = ex;
+        }
+
+        synchronized (this) {
+            if (thread != Thread.currentThread()) {
+                return;
+            }
+            thread = null;
+            handle = null;
+        }
+        listener.streamClosed(cause);
+    }
+}
@@ -34,6 +34,14 @@ public class BuildStatusAggregator implements BuildStatusVisitor {
         this.nbJobs = nbJobs;
     }
 
+    BuildStatusAggregator(int nbJobs, int nbBrokenBuilds, int nbSucceededBuilds, int nbUnstableBuilds, int nbAbortedBuilds) {
+        this.nbJobs = nbJobs;
+        this.nbBrokenBuilds = nbBrokenBuilds;
+        this.nbSucceededBuilds = nbSucceededBuilds;
+        this.nbUnstableBuilds = nbUnstableBuilds;
+        this.nbAbortedBuilds = nbAbortedBuilds;
+    }
+
     public void visitFailed() {
         nbBrokenBuilds++;
     }
@@ -61,6 +69,18 @@ public class BuildStatusAggregator implements BuildStatusVisitor {
         return nbUnstableBuilds;
     }
 
+    public int getNbSucceededBuilds() {
+        return nbSucceededBuilds;
+    }
+
+    public int getNbAbortedBuilds() {
+        return nbAbortedBuilds;
+    }
+
+    public int getNbJobs() {
+        return nbJobs;
+    }
+
     public boolean hasNoResults() {
         return nbJobs == 0 || sumAll() == 0;
     }
@@ -68,4 +88,27 @@ public class BuildStatusAggregator implements BuildStatusVisitor {
     public int sumAll() {
         return nbSucceededBuilds + nbUnstableBuilds + nbBrokenBuilds + nbAbortedBuilds;
     }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof BuildStatusAggregator)) {
+            return false;
+        }
+        BuildStatusAggregator that = (BuildStatusAggregator) other;
+        return nbJobs == that.nbJobs && nbBrokenBuilds == that.nbBrokenBuilds && nbSucceededBuilds == that.nbSucceededBuilds
+                && nbUnstableBuilds == that.nbUnstableBuilds && nbAbortedBuilds == that.nbAbortedBuilds;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((((nbJobs * 31) + nbBrokenBuilds) * 31 + nbSucceededBuilds) * 31 + nbUnstableBuilds) * 31 + nbAbortedBuilds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d jobs: %d broken, %d unstable, %d aborted, %d succeeded", nbJobs, nbBrokenBuilds, nbUnstableBuilds, nbAbortedBuilds, nbSucceededBuilds);
+    }
 }
@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.lang.StringUtils;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.BuildStatusEnum;
+import org.codinjutsu.tools.jenkins.model.Job;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Build status counts of the loaded views, kept per server and view. The counts are only moved by the jobs whose
+ * status differs from the previous load of the same view, and the listeners are only called when a count actually
+ * changes.
+ * <p>
+ * The counts of a server are derived from the ones of its views, a job shown by several views being counted once.
+ * The views a server does not have anymore are dropped with {@link #retainViews(String, Collection)}.
+ */
+public class BuildStatusSummary {
+
+    public interface Listener {
+
+        /**
+         * Called on the thread which updated the jobs, once the counts have changed.
+         */
+        void statusChanged(BuildStatusSummary summary);
+    }
+
+    private enum JobStatus {
+        BROKEN, SUCCEEDED, UNSTABLE, ABORTED, UNKNOWN
+    }
+
+    private final Map<String, Map<String, ViewCounts>> countsByViewNameByServerUrl = new HashMap<String, Map<String, ViewCounts>>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<Listener>();
+
+    private String displayedServerUrl;
+    private String displayedViewName;
+
+    public static BuildStatusSummary getInstance(Project project) {
+        return ServiceManager.getService(project, BuildStatusSummary.class);
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Updates the view displayed by the job tree, which the status bar widget shows.
+     */
+    public void updateDisplayedView(String serverUrl, String viewName, List<Job> jobs) {
+        boolean changed;
+        synchronized (this) {
+            changed = !StringUtils.equals(serverUrl, displayedServerUrl) || !StringUtils.equals(viewName, displayedViewName);
+            displayedServerUrl = serverUrl;
+            displayedViewName = viewName;
+            changed |= updateServerCounts(serverUrl, viewName, jobs);
+        }
+        fireIfChanged(changed);
+    }
+
+    public void updateView(String serverUrl, String viewName, List<Job> jobs) {
+        boolean changed;
+        synchronized (this) {
+            changed = updateServerCounts(serverUrl, viewName, jobs);
+        }
+        fireIfChanged(changed);
+    }
+
+    /**
+     * Moves the counts of every loaded view showing the given job, e.g. once the job has been reloaded alone.
+     */
+    public void updateJob(Job job) {
+        JobStatus status = statusOf(job);
+        boolean changed = false;
+        synchronized (this) {
+            for (Map<String, ViewCounts> countsByViewName : countsByViewNameByServerUrl.values()) {
+                for (ViewCounts viewCounts : countsByViewName.values()) {
+                    changed |= viewCounts.update(job.getUrl(), status);
+                }
+            }
+        }
+        fireIfChanged(changed);
+    }
+
+    /**
+     * Drops the counts of the views of the server which are not among the given ones anymore, e.g. once they were
+     * removed or renamed. The displayed view is kept.
+     */
+    public void retainViews(String serverUrl, Collection<String> viewNames) {
+        boolean changed = false;
+        synchronized (this) {
+            Map<String, ViewCounts> countsByViewName = countsByViewNameByServerUrl.get(serverUrl);
+            if (countsByViewName == null) {
+                return;
+            }
+            for (Iterator<Map.Entry<String, ViewCounts>> iterator = countsByViewName.entrySet().iterator(); iterator.hasNext(); ) {
+                Map.Entry<String, ViewCounts> view = iterator.next();
+                boolean displayed = StringUtils.equals(serverUrl, displayedServerUrl) && StringUtils.equals(view.getKey(), displayedViewName);
+                if (!displayed && !viewNames.contains(view.getKey())) {
+                    iterator.remove();
+                    changed |= !view.getValue().statusByJobUrl.isEmpty();
+                }
+            }
+        }
+        fireIfChanged(changed);
+    }
+
+    public void removeServer(String serverUrl) {
+        boolean changed;
+        synchronized (this) {
+            changed = countsByViewNameByServerUrl.remove(serverUrl) != null;
+        }
+        fireIfChanged(changed);
+    }
+
+    public void clear() {
+        boolean changed;
+        synchronized (this) {
+            changed = !countsByViewNameByServerUrl.isEmpty() || displayedServerUrl != null;
+            countsByViewNameByServerUrl.clear();
+            displayedServerUrl = null;
+            displayedViewName = null;
+        }
+        fireIfChanged(changed);
+    }
+
+    public synchronized BuildStatusAggregator getDisplayedStatus() {
+        return displayedServerUrl == null ? BuildStatusAggregator.EMPTY : getViewStatus(displayedServerUrl, displayedViewName);
+    }
+
+    public synchronized BuildStatusAggregator getViewStatus(String serverUrl, String viewName) {
+        Map<String, ViewCounts> countsByViewName = countsByViewNameByServerUrl.get(serverUrl);
+        ViewCounts viewCounts = countsByViewName == null ? null : countsByViewName.get(viewName);
+        return viewCounts == null ? BuildStatusAggregator.EMPTY : viewCounts.toAggregator();
+    }
+
+    public synchronized BuildStatusAggregator getServerStatus(String serverUrl) {
+        Map<String, ViewCounts> countsByViewName = countsByViewNameByServerUrl.get(serverUrl);
+        if (countsByViewName == null) {
+            return BuildStatusAggregator.EMPTY;
+        }
+        Counts serverCounts = new Counts();
+        Map<String, JobStatus> statusByJobUrl = new HashMap<String, JobStatus>();
+        for (ViewCounts viewCounts : countsByViewName.values()) {
+            for (Map.Entry<String, JobStatus> job : viewCounts.statusByJobUrl.entrySet()) {
+                if (statusByJobUrl.put(job.getKey(), job.getValue()) == null) {
+                    serverCounts.add(job.getValue());
+                }
+            }
+        }
+        return serverCounts.toAggregator();
+    }
+
+    /**
+     * @return whether a count has changed
+     */
+    private boolean updateServerCounts(String serverUrl, String viewName, List<Job> jobs) {
+        Map<String, ViewCounts> countsByViewName = countsByViewNameByServerUrl.get(serverUrl);
+        if (countsByViewName == null) {
+            countsByViewName = new HashMap<String, ViewCounts>();
+            countsByViewNameByServerUrl.put(serverUrl, countsByViewName);
+        }
+        ViewCounts viewCounts = countsByViewName.get(viewName);
+        if (viewCounts == null) {
+            viewCounts = new ViewCounts();
+            countsByViewName.put(viewName, viewCounts);
+        }
+        return viewCounts.update(jobs);
+    }
+
+    private void fireIfChanged(boolean changed) {
+        if (!changed) {
+            return;
+        }
+        for (Listener listener : listeners) {
+            listener.statusChanged(this);
+        }
+    }
+
+    private static JobStatus statusOf(Job job) {
+        Build lastBuild = job.getLastBuild();
+        if (!job.isBuildable() || lastBuild == null) {
+            return JobStatus.UNKNOWN;
+        }
+        BuildStatusEnum status = lastBuild.getStatus();
+        if (BuildStatusEnum.FAILURE == status) {
+            return JobStatus.BROKEN;
+        }
+        if (BuildStatusEnum.SUCCESS == status) {
+            return JobStatus.SUCCEEDED;
+        }
+        if (BuildStatusEnum.UNSTABLE == status) {
+            return JobStatus.UNSTABLE;
+        }
+        if (BuildStatusEnum.ABORTED == status) {
+            return JobStatus.ABORTED;
+        }
+        return JobStatus.UNKNOWN;
+    }
+
+    private static class Counts {
+
+        private int jobs;
+        private final int[] jobsByStatus = new int[JobStatus.values().length];
+
+        void add(JobStatus status) {
+            jobs++;
+            jobsByStatus[status.ordinal()]++;
+        }
+
+        void remove(JobStatus status) {
+            jobs--;
+            jobsByStatus[status.ordinal()]--;
+        }
+
+        void move(JobStatus from, JobStatus to) {
+            jobsByStatus[from.ordinal()]--;
+            jobsByStatus[to.ordinal()]++;
+        }
+
+        BuildStatusAggregator toAggregator() {
+            return new BuildStatusAggregator(jobs, jobsByStatus[JobStatus.BROKEN.ordinal()], jobsByStatus[JobStatus.SUCCEEDED.ordinal()],
+                    jobsByStatus[JobStatus.UNSTABLE.ordinal()], jobsByStatus[JobStatus.ABORTED.ordinal()]);
+        }
+    }
+
+    private static class ViewCounts extends Counts {
+
+        private Map<String, JobStatus> statusByJobUrl = new HashMap<String, JobStatus>();
+
+        /**
+         * @return whether a count has changed
+         */
+        boolean update(List<Job> jobs) {
+            boolean changed = false;
+            Map<String, JobStatus> previousStatusByJobUrl = statusByJobUrl;
+            Map<String, JobStatus> currentStatusByJobUrl = new HashMap<String, JobStatus>(jobs.size() * 4 / 3 + 1);
+            for (Job job : jobs) {
+                JobStatus status = statusOf(job);
+                if (currentStatusByJobUrl.put(job.getUrl(), status) != null) {
+                    continue;
+                }
+                JobStatus previousStatus = previousStatusByJobUrl.remove(job.getUrl());
+                if (previousStatus == null) {
+                    add(status);
+                    changed = true;
+                } else if (previousStatus != status) {
+                    move(previousStatus, status);
+                    changed = true;
+                }
+            }
+            for (JobStatus removedStatus : previousStatusByJobUrl.values()) {
+                remove(removedStatus);
+                changed = true;
+            }
+            statusByJobUrl = currentStatusByJobUrl;
+            return changed;
+        }
+
+        boolean update(String jobUrl, JobStatus status) {
+            JobStatus previousStatus = statusByJobUrl.get(jobUrl);
+            if (previousStatus == null || previousStatus == status) {
+                return false;
+            }
+            statusByJobUrl.put(jobUrl, status);
+            move(previousStatus, status);
+            return true;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.util.messages.Topic;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Job;
+
+import java.util.Collection;
+
+public interface BuildWatchNotifier {
+    Topic<BuildWatchNotifier> BUILD_FINISHED = Topic.create("Jenkins Build Finished", BuildWatchNotifier.class);
+
+    /**
+     * Published on the EDT, once the last build of the job has been set to the finished one.
+     */
+    void buildFinished(Job job, Build build, Collection<String> changeListNames);
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Job;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Watches the running builds triggered from the IDE until they finish, then publishes them on the
+ * {@link BuildWatchNotifier#BUILD_FINISHED} topic.
+ * <p>
+ * Each poll costs one request per server, which tells every build running on its executors; only the builds
+ * which left them are loaded. The poll delay doubles while nothing finishes and polling stops once no watched
+ * build is running. A view refresh showing a finished build completes it without waiting for the next poll.
+ */
+public class BuildWatcher implements Disposable {
+
+    private static final Logger logger = Logger.getLogger(BuildWatcher.class);
+
+    static final long DEFAULT_MIN_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(5);
+    static final long DEFAULT_MAX_DELAY_MILLIS = TimeUnit.SECONDS.toMillis(60);
+
+    private final JenkinsScheduler scheduler;
+    private final Function<String, RequestManager> requestManagerByUrl;
+    private final Function<String, String> serverUrlByUrl;
+    private final BuildWatchNotifier publisher;
+    private final Executor edtExecutor;
+    private final long minDelayMillis;
+    private final long maxDelayMillis;
+
+    private final Map<String, WatchedBuild> runningBuildsByUrl = new ConcurrentHashMap<String, WatchedBuild>();
+    private final Map<String, Job> jobsByChangeList = new ConcurrentHashMap<String, Job>();
+    private final Map<String, Boolean> buildingByServerUrl = new ConcurrentHashMap<String, Boolean>();
+
+    private ScheduledFuture<?> nextPoll;
+    private long delayMillis;
+    private boolean disposed;
+
+    public static BuildWatcher getInstance(Project project) {
+        return ServiceManager.getService(project, BuildWatcher.class);
+    }
+
+    public BuildWatcher(final Project project) {
+        this(JenkinsScheduler.getInstance(project),
+                url -> JenkinsMasters.getInstance(project).getRequestManager(url),
+                url -> JenkinsMasters.getInstance(project).getServerUrl(url),
+                project.getMessageBus().syncPublisher(BuildWatchNotifier.BUILD_FINISHED),
+                runnable -> ApplicationManager.getApplication().invokeLater(runnable),
+                DEFAULT_MIN_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS);
+    }
+
+    BuildWatcher(JenkinsScheduler scheduler, Function<String, RequestManager> requestManagerByUrl, Function<String, String> serverUrlByUrl,
+                 BuildWatchNotifier publisher, Executor edtExecutor, long minDelayMillis, long maxDelayMillis) {
+        this.scheduler = scheduler;
+        this.requestManagerByUrl = requestManagerByUrl;
+        this.serverUrlByUrl = serverUrlByUrl;
+        this.publisher = publisher;
+        this.edtExecutor = edtExecutor;
+        this.minDelayMillis = minDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.delayMillis = minDelayMillis;
+    }
+
+    /**
+     * Watches the last build of the job, on behalf of the given change lists.
+     */
+    public void watch(Job job, String... changeListNames) {
+        for (String changeListName : changeListNames) {
+            jobsByChangeList.put(changeListName, job);
+        }
+        Build build = job.getLastBuild();
+        if (build == null || build.getUrl() == null || !build.isBuilding()) {
+            return;
+        }
+        WatchedBuild watchedBuild = runningBuildsByUrl.computeIfAbsent(build.getUrl(), url -> new WatchedBuild(job, build));
+        watchedBuild.changeListNames.addAll(Arrays.asList(changeListNames));
+        schedulePoll(true);
+    }
+
+    /**
+     * @return the job built for each watched change list
+     */
+    public Map<String, Job> getWatched() {
+        return Collections.unmodifiableMap(jobsByChangeList);
+    }
+
+    public boolean hasRunningBuilds() {
+        return !runningBuildsByUrl.isEmpty();
+    }
+
+    /**
+     * @return true when a watched build is running or the last loaded jobs of a server show a build, safe to call
+     * from any thread
+     */
+    public boolean isBuildActivity() {
+        return hasRunningBuilds() || buildingByServerUrl.containsValue(Boolean.TRUE);
+    }
+
+    public void serverRemoved(String serverUrl) {
+        buildingByServerUrl.remove(serverUrl);
+    }
+
+    synchronized long getDelayMillis() {
+        return delayMillis;
+    }
+
+    /**
+     * Records whether the freshly loaded jobs of the server are building, and completes the watched builds they
+     * show as finished.
+     */
+    public void jobsLoaded(String serverUrl, List<Job> jobs) {
+        buildingByServerUrl.put(serverUrl, isAnyBuilding(jobs));
+        if (runningBuildsByUrl.isEmpty()) {
+            return;
+        }
+        for (Job job : jobs) {
+            Build lastBuild = job.getLastBuild();
+            if (lastBuild == null || lastBuild.isBuilding() || lastBuild.getUrl() == null) {
+                continue;
+            }
+            WatchedBuild watchedBuild = runningBuildsByUrl.get(lastBuild.getUrl());
+            if (watchedBuild != null) {
+                finish(watchedBuild, lastBuild);
+            }
+        }
+    }
+
+    private static boolean isAnyBuilding(List<Job> jobs) {
+        for (Job job : jobs) {
+            if (job.isBuilding()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void poll() {
+        Map<String, List<WatchedBuild>> watchedBuildsByServerUrl = new HashMap<String, List<WatchedBuild>>();
+        for (WatchedBuild watchedBuild : runningBuildsByUrl.values()) {
+            String serverUrl = serverUrlByUrl.apply(watchedBuild.build.getUrl());
+            List<WatchedBuild> watchedBuilds = watchedBuildsByServerUrl.get(serverUrl);
+            if (watchedBuilds == null) {
+                watchedBuilds = new ArrayList<WatchedBuild>();
+                watchedBuildsByServerUrl.put(serverUrl, watchedBuilds);
+            }
+            watchedBuilds.add(watchedBuild);
+        }
+
+        boolean finished = false;
+        for (Map.Entry<String, List<WatchedBuild>> entry : watchedBuildsByServerUrl.entrySet()) {
+            finished |= poll(entry.getKey(), entry.getValue());
+        }
+
+        synchronized (this) {
+            nextPoll = null;
+            delayMillis = Math.min(delayMillis * 2, maxDelayMillis);
+        }
+        schedulePoll(finished);
+    }
+
+    private boolean poll(String serverUrl, List<WatchedBuild> watchedBuilds) {
+        RequestManager requestManager = requestManagerByUrl.apply(serverUrl);
+        Set<String> runningBuildUrls;
+        try {
+            runningBuildUrls = requestManager.loadRunningBuildUrls(serverUrl);
+        } catch (RuntimeException ex) {
+            logger.warn(String.format("Unable to load the running builds of %s", serverUrl), ex);
+            return false;
+        }
+        if (runningBuildUrls == null) {
+            return false;
+        }
+
+        boolean finished = false;
+        for (WatchedBuild watchedBuild : watchedBuilds) {
+            if (runningBuildUrls.contains(watchedBuild.build.getUrl())) {
+                continue;
+            }
+            try {
+                Build build = requestManager.loadBuild(watchedBuild.build);
+                if (build != null && !build.isBuilding()) {
+                    finished |= finish(watchedBuild, build);
+                }
+            } catch (RuntimeException ex) {
+                logger.warn(String.format("Unable to load the build %s", watchedBuild.build.getUrl()), ex);
+            }
+        }
+        return finished;
+    }
+
+    private boolean finish(final WatchedBuild watchedBuild, final Build build) {
+        if (!runningBuildsByUrl.remove(watchedBuild.build.getUrl(), watchedBuild)) {
+            return false;
+        }
+        edtExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                watchedBuild.job.setLastBuild(build);
+                publisher.buildFinished(watchedBuild.job, build, Collections.unmodifiableSet(watchedBuild.changeListNames));
+            }
+        });
+        return true;
+    }
+
+    private synchronized void schedulePoll(boolean reset) {
+        if (reset) {
+            delayMillis = minDelayMillis;
+        }
+        if (disposed || nextPoll != null || runningBuildsByUrl.isEmpty()) {
+            return;
+        }
+        nextPoll = scheduler.schedule(JenkinsScheduler.Lane.BUILD_WATCH, new Runnable() {
+            @Override
+            public void run() {
+                poll();
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void dispose() {
+        disposed = true;
+        if (nextPoll != null) {
+            nextPoll.cancel(false);
+            nextPoll = null;
+        }
+        runningBuildsByUrl.clear();
+    }
+
+    private static class WatchedBuild {
+
+        private final Job job;
+        private final Build build;
+        private final Set<String> changeListNames = new LinkedHashSet<String>();
+
+        WatchedBuild(Job job, Build build) {
+            this.job = job;
+            this.build = build;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import java.io.Writer;
+
+/**
+ * Hands a build console over from the thread downloading it to the EDT printing it. Only the tail is kept:
+ * once the capacity is reached the oldest characters are dropped, so memory stays bounded whatever the log size.
+ */
+public class ConsoleLogBuffer extends Writer {
+
+    private static final String SKIPPED_NOTICE = "[... %d characters skipped ...]%n";
+
+    private final char[] ring;
+    private int head;
+    private int size;
+    private long skipped;
+
+    public ConsoleLogBuffer(int capacity) {
+        this.ring = new char[capacity];
+    }
+
+    @Override
+    public synchronized void write(char[] chars, int offset, int length) {
+        if (length >= ring.length) {
+            skipped += size + length - ring.length;
+            offset += length - ring.length;
+            length = ring.length;
+            head = 0;
+            size = 0;
+        }
+        int overflow = size + length - ring.length;
+        if (overflow > 0) {
+            head = (head + overflow) % ring.length;
+            size -= overflow;
+            skipped += overflow;
+        }
+        int tail = (head + size) % ring.length;
+        int firstPart = Math.min(length, ring.length - tail);
+        System.arraycopy(chars, offset, ring, tail, firstPart);
+        System.arraycopy(chars, offset + firstPart, ring, 0, length - firstPart);
+        size += length;
+    }
+
+    public void writeLine(String text) {
+        char[] chars = String.format("%s%n", text).toCharArray();
+        write(chars, 0, chars.length);
+    }
+
+    /**
+     * @return the text written since the previous call, preceded by a notice when part of it has been dropped,
+     * or null when nothing has been written
+     */
+    public synchronized String drain() {
+        if (size == 0 && skipped == 0) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder(size + SKIPPED_NOTICE.length() + 20);
+        if (skipped > 0) {
+            text.append(String.format(SKIPPED_NOTICE, skipped));
+        }
+        int firstPart = Math.min(size, ring.length - head);
+        text.append(ring, head, firstPart).append(ring, 0, size - firstPart);
+        head = 0;
+        size = 0;
+        skipped = 0;
+        return text.toString();
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.security.ProgressiveText;
+
+/**
+ * Downloads the console of a build chunk by chunk, from the offset reached by the previous chunk, into a
+ * {@link ConsoleLogBuffer}. While following, the console is polled again until the build ends.
+ */
+public class ConsoleLogFollower {
+
+    private static final Logger logger = Logger.getLogger(ConsoleLogFollower.class);
+
+    private static final long POLL_DELAY_MILLIS = 2000;
+
+    private final RequestManager requestManager;
+    private final Build build;
+    private final ConsoleLogBuffer console;
+    private final long pollDelayMillis;
+
+    private volatile boolean follow;
+    private volatile boolean moreData = true;
+    private volatile long nextStart;
+
+    private Thread thread;
+
+    public ConsoleLogFollower(RequestManager requestManager, Build build, ConsoleLogBuffer console) {
+        this(requestManager, build, console, POLL_DELAY_MILLIS);
+    }
+
+    ConsoleLogFollower(RequestManager requestManager, Build build, ConsoleLogBuffer console, long pollDelayMillis) {
+        this.requestManager = requestManager;
+        this.build = build;
+        this.console = console;
+        this.pollDelayMillis = pollDelayMillis;
+    }
+
+    public synchronized void start() {
+        if (thread != null || !moreData) {
+            return;
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                read();
+            }
+        }, "Jenkins console " + build.getUrl());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public synchronized boolean isRunning() {
+        return thread != null;
+    }
+
+    private synchronized boolean isCurrentThread() {
+        return thread == Thread.currentThread();
+    }
+
+    public boolean isFollowing() {
+        return follow;
+    }
+
+    /**
+     * Following again resumes the reading where it stopped.
+     */
+    public void setFollow(boolean follow) {
+        this.follow = follow;
+        if (follow) {
+            start();
+        }
+    }
+
+    /**
+     * @return false once the console has been read up to the end of the build
+     */
+    public boolean hasMoreData() {
+        return moreData;
+    }
+
+    private void read() {
+        try {
+            while (isCurrentThread()) {
+                ProgressiveText text = requestManager.loadConsoleText(build, nextStart, console);
+                nextStart = text.getNextStart();
+                moreData = text.hasMoreData();
+                if (!moreData || !follow) {
+                    break;
+                }
+                Thread.sleep(pollDelayMillis);
+            }
+        } catch (InterruptedException ex) {
+            // stopped while waiting for the next poll
+        } catch (RuntimeException ex) {
+            if (isCurrentThread()) {
+                logger.warn("Unable to read the console of " + build.getUrl(), ex);
+                console.writeLine(String.format("Unable to read the console: %s", ex.getMessage()));
+            }
+        } finally {
+            synchronized (this) {
+                if (thread == Thread.currentThread()) {
+                    thread = null;
+                }
+            }
+        }
+    }
+}
@@ -19,13 +19,21 @@ package org.codinjutsu.tools.jenkins.logic;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.codinjutsu.tools.jenkins.model.*;
+import org.codinjutsu.tools.jenkins.util.IOUtils;
 import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 import org.json.simple.parser.JSONParser;
 import org.json.simple.parser.ParseException;
 
-import java.util.LinkedList;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public class JenkinsJsonParser implements JenkinsParser {
 
@@ -63,7 +71,7 @@ public class JenkinsJsonParser implements JenkinsParser {
     }
 
     private List<View> getViews(JSONArray viewsObjects) {
-        List<View> views = new LinkedList<View>();
+        List<View> views = new ArrayList<View>();
         for (Object obj : viewsObjects) {
             JSONObject viewObject = (JSONObject) obj;
             views.add(getView(viewObject));
@@ -139,6 +147,59 @@ public class JenkinsJsonParser implements JenkinsParser {
         }
     }
 
+    @Override
+    public QueueItem createQueueItem(String jsonData) {
+        checkJsonDataAndThrowExceptionIfNecessary(jsonData);
+
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject jsonObject = (JSONObject) parser.parse(jsonData);
+            Build executable = getBuild((JSONObject) jsonObject.get(QUEUE_ITEM_EXECUTABLE));
+            return new QueueItem(getBoolean(jsonObject.get(QUEUE_ITEM_CANCELLED)), (String) jsonObject.get(QUEUE_ITEM_WHY), executable);
+
+        } catch (ParseException e) {
+            String message = String.format("Error during parsing JSON data : %s", jsonData);
+            LOG.error(message, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public Set<String> createRunningBuildUrls(String jsonData) {
+        checkJsonDataAndThrowExceptionIfNecessary(jsonData);
+
+        JSONParser parser = new JSONParser();
+        try {
+            JSONObject jsonObject = (JSONObject) parser.parse(jsonData);
+            Set<String> buildUrls = new LinkedHashSet<>();
+            JSONArray computers = (JSONArray) jsonObject.get(COMPUTERS);
+            if (computers != null) {
+                for (Object computer : computers) {
+                    addExecutableUrls((JSONArray) ((JSONObject) computer).get(EXECUTORS), buildUrls);
+                    addExecutableUrls((JSONArray) ((JSONObject) computer).get(ONE_OFF_EXECUTORS), buildUrls);
+                }
+            }
+            return buildUrls;
+
+        } catch (ParseException e) {
+            String message = String.format("Error during parsing JSON data : %s", jsonData);
+            LOG.error(message, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void addExecutableUrls(JSONArray executors, Set<String> buildUrls) {
+        if (executors == null) {
+            return;
+        }
+        for (Object executor : executors) {
+            JSONObject executable = (JSONObject) ((JSONObject) executor).get(CURRENT_EXECUTABLE);
+            if (executable != null && executable.get(BUILD_URL) != null) {
+                buildUrls.add((String) executable.get(BUILD_URL));
+            }
+        }
+    }
+
     @Override
     public List<Build> createBuilds(String jsonData) {
         checkJsonDataAndThrowExceptionIfNecessary(jsonData);
@@ -185,7 +246,7 @@ public class JenkinsJsonParser implements JenkinsParser {
     }
 
     private List<Build> getBuilds(JSONArray buildsObjects) {
-        List<Build> builds = new LinkedList<>();
+        List<Build> builds = new ArrayList<>();
         for (Object obj: buildsObjects) {
             JSONObject buildObject = (JSONObject) obj;
             builds.add(getBuild(buildObject));
@@ -221,7 +282,7 @@ public class JenkinsJsonParser implements JenkinsParser {
     }
 
     private List<JobParameter> getParameters(JSONArray parameterProperties) {
-        List<JobParameter> jobParameters = new LinkedList<JobParameter>();
+        List<JobParameter> jobParameters = new ArrayList<JobParameter>();
         if (parameterProperties == null || parameterProperties.isEmpty()) {
             return jobParameters;
         }
@@ -262,7 +323,7 @@ public class JenkinsJsonParser implements JenkinsParser {
     }
 
     private List<String> getChoices(JSONArray choiceObjs) {
-        List<String> choices = new LinkedList<String>();
+        List<String> choices = new ArrayList<String>();
         if (choiceObjs == null || choiceObjs.isEmpty()) {
             return choices;
         }
@@ -312,7 +373,7 @@ public class JenkinsJsonParser implements JenkinsParser {
         JSONParser parser = new JSONParser();
 
         try {
-            List<Job> jobs = new LinkedList<Job>();
+            List<Job> jobs = new ArrayList<Job>();
             JSONObject jsonObject = (JSONObject) parser.parse(jsonData);
             JSONArray jobObjects = (JSONArray) jsonObject.get(JOBS);
             for (Object object : jobObjects) {
@@ -335,7 +396,7 @@ public class JenkinsJsonParser implements JenkinsParser {
         JSONParser parser = new JSONParser();
 
         try {
-            List<Job> jobs = new LinkedList<Job>();
+            List<Job> jobs = new ArrayList<Job>();
             JSONObject jsonObject = (JSONObject) parser.parse(jsonData);
             JSONArray viewObjs = (JSONArray) jsonObject.get(VIEWS);
             if (viewObjs == null && viewObjs.isEmpty()) {
@@ -361,6 +422,100 @@ public class JenkinsJsonParser implements JenkinsParser {
         }
     }
 
+    @Override
+    public Map<String, List<Job>> createJobsByViewName(String jsonData) {
+        checkJsonDataAndThrowExceptionIfNecessary(jsonData);
+
+        JSONParser parser = new JSONParser();
+
+        try {
+            Map<String, List<Job>> jobsByViewName = new LinkedHashMap<String, List<Job>>();
+            JSONObject jsonObject = (JSONObject) parser.parse(jsonData);
+            JSONArray viewObjs = (JSONArray) jsonObject.get(VIEWS);
+            if (viewObjs != null) {
+                addJobsByViewName(viewObjs, jobsByViewName);
+            }
+            return jobsByViewName;
+        } catch (ParseException e) {
+            String message = String.format("Error during parsing JSON data : %s", jsonData);
+            LOG.error(message, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void addJobsByViewName(JSONArray viewObjs, Map<String, List<Job>> jobsByViewName) {
+        for (Object obj : viewObjs) {
+            JSONObject viewObj = (JSONObject) obj;
+            List<Job> jobs = new ArrayList<Job>();
+            JSONArray jobObjs = (JSONArray) viewObj.get(JOBS);
+            if (jobObjs != null) {
+                for (Object jobObj : jobObjs) {
+                    jobs.add(getJob((JSONObject) jobObj));
+                }
+            }
+            jobsByViewName.put((String) viewObj.get(VIEW_NAME), jobs);
+            JSONArray subViewObjs = (JSONArray) viewObj.get(VIEWS);
+            if (subViewObjs != null) {
+                addJobsByViewName(subViewObjs, jobsByViewName);
+            }
+        }
+    }
+
+    @Override
+    public Jenkins createWorkspace(Reader jsonReader, String serverUrl) {
+        return createWorkspace(readJsonData(jsonReader), serverUrl);
+    }
+
+    @Override
+    public Job createJob(Reader jsonReader) {
+        return createJob(readJsonData(jsonReader));
+    }
+
+    @Override
+    public Build createBuild(Reader jsonReader) {
+        return createBuild(readJsonData(jsonReader));
+    }
+
+    @Override
+    public List<Build> createBuilds(Reader jsonReader) {
+        return createBuilds(readJsonData(jsonReader));
+    }
+
+    @Override
+    public List<Job> createViewJobs(Reader jsonReader) {
+        return createViewJobs(readJsonData(jsonReader));
+    }
+
+    @Override
+    public List<Job> createCloudbeesViewJobs(Reader jsonReader) {
+        return createCloudbeesViewJobs(readJsonData(jsonReader));
+    }
+
+    @Override
+    public Map<String, List<Job>> createJobsByViewName(Reader jsonReader) {
+        return createJobsByViewName(readJsonData(jsonReader));
+    }
+
+    @Override
+    public QueueItem createQueueItem(Reader jsonReader) {
+        return createQueueItem(readJsonData(jsonReader));
+    }
+
+    @Override
+    public Set<String> createRunningBuildUrls(Reader jsonReader) {
+        return createRunningBuildUrls(readJsonData(jsonReader));
+    }
+
+    private String readJsonData(Reader jsonReader) {
+        StringWriter jsonData = new StringWriter();
+        try {
+            IOUtils.copy(jsonReader, jsonData);
+        } catch (IOException e) {
+            LOG.error("Error during reading JSON data", e);
+            throw new RuntimeException(e);
+        }
+        return jsonData.toString();
+    }
 
     private void checkJsonDataAndThrowExceptionIfNecessary(String jsonData) {
         if (StringUtils.isEmpty(jsonData) || "{}".equals(jsonData)) {
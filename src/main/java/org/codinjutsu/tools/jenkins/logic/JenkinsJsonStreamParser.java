@@ -0,0 +1,686 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.jenkins.logic.JsonPullReader.Token;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Jenkins;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.model.JobParameter;
+import org.codinjutsu.tools.jenkins.model.QueueItem;
+import org.codinjutsu.tools.jenkins.model.View;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@link JenkinsParser} reading the Jenkins JSON API token by token, straight from the response stream.
+ * Jobs, builds and parameters are created as their fields go by; the payload is never held as a whole.
+ */
+public class JenkinsJsonStreamParser implements JenkinsParser {
+
+    private static final Logger LOG = Logger.getLogger(JenkinsJsonStreamParser.class);
+
+    @Override
+    public Jenkins createWorkspace(String jsonData, String serverUrl) {
+        return createWorkspace(new StringReader(StringUtils.defaultString(jsonData)), serverUrl);
+    }
+
+    @Override
+    public Job createJob(String jsonData) {
+        return createJob(new StringReader(StringUtils.defaultString(jsonData)));
+    }
+
+    @Override
+    public Build createBuild(String jsonData) {
+        return createBuild(new StringReader(StringUtils.defaultString(jsonData)));
+    }
+
+    @Override
+    public List<Build> createBuilds(String jsonData) {
+        return createBuilds(new StringReader(StringUtils.defaultString(jsonData)));
+    }
+
+    @Override
+    public List<Job> createViewJobs(String jsonData) {
+        return createViewJobs(new StringReader(StringUtils.defaultString(jsonData)));
+    }
+
+    @Override
+    public List<Job> createCloudbeesViewJobs(String jsonData) {
+        return createCloudbeesViewJobs(new StringReader(StringUtils.defaultString(jsonData)));
+    }
+
+    @Override
+    public Map<String, List<Job>> createJobsByViewName(String jsonData) {
+        return createJobsByViewName(new StringReader(StringUtils.defaultString(jsonData)));
+    }
+
+    @Override
+    public QueueItem createQueueItem(String jsonData) {
+        return createQueueItem(new StringReader(StringUtils.defaultString(jsonData)));
+    }
+
+    @Override
+    public Set<String> createRunningBuildUrls(String jsonData) {
+        return createRunningBuildUrls(new StringReader(StringUtils.defaultString(jsonData)));
+    }
+
+    @Override
+    public Jenkins createWorkspace(Reader jsonReader, String serverUrl) {
+        Jenkins jenkins = new Jenkins("", serverUrl);
+        try {
+            JsonPullReader reader = beginDocument(jsonReader);
+            while (reader.nextField()) {
+                String field = reader.fieldName();
+                if (PRIMARY_VIEW.equals(field)) {
+                    if (reader.next() == Token.START_OBJECT) {
+                        jenkins.setPrimaryView(readView(reader, false));
+                    }
+                } else if (VIEWS.equals(field)) {
+                    List<View> views = readViews(reader, false);
+                    if (views != null) {
+                        jenkins.setViews(views);
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+        return jenkins;
+    }
+
+    @Override
+    public Job createJob(Reader jsonReader) {
+        try {
+            return readJob(beginDocument(jsonReader));
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+    }
+
+    @Override
+    public Build createBuild(Reader jsonReader) {
+        try {
+            return readBuild(beginDocument(jsonReader));
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+    }
+
+    @Override
+    public QueueItem createQueueItem(Reader jsonReader) {
+        boolean cancelled = false;
+        String why = null;
+        Build executable = null;
+        try {
+            JsonPullReader reader = beginDocument(jsonReader);
+            while (reader.nextField()) {
+                String field = reader.fieldName();
+                if (QUEUE_ITEM_CANCELLED.equals(field)) {
+                    cancelled = reader.nextBoolean();
+                } else if (QUEUE_ITEM_WHY.equals(field)) {
+                    why = reader.nextString();
+                } else if (QUEUE_ITEM_EXECUTABLE.equals(field)) {
+                    if (reader.next() == Token.START_OBJECT) {
+                        executable = readBuild(reader);
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+        return new QueueItem(cancelled, why, executable);
+    }
+
+    @Override
+    public Set<String> createRunningBuildUrls(Reader jsonReader) {
+        Set<String> buildUrls = new LinkedHashSet<>();
+        try {
+            JsonPullReader reader = beginDocument(jsonReader);
+            while (reader.nextField()) {
+                if (COMPUTERS.equals(reader.fieldName())) {
+                    Token token = reader.next();
+                    if (token != Token.START_ARRAY) {
+                        reader.skipStructure(token);
+                        continue;
+                    }
+                    while ((token = reader.next()) != Token.END_ARRAY) {
+                        if (token == Token.START_OBJECT) {
+                            readComputerExecutables(reader, buildUrls);
+                        } else {
+                            reader.skipStructure(token);
+                        }
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+        return buildUrls;
+    }
+
+    @Override
+    public List<Build> createBuilds(Reader jsonReader) {
+        List<Build> builds = new ArrayList<>();
+        try {
+            JsonPullReader reader = beginDocument(jsonReader);
+            while (reader.nextField()) {
+                if (BUILDS.equals(reader.fieldName())) {
+                    Token token = reader.next();
+                    if (token != Token.START_ARRAY) {
+                        reader.skipStructure(token);
+                        continue;
+                    }
+                    while ((token = reader.next()) != Token.END_ARRAY) {
+                        builds.add(token == Token.START_OBJECT ? readBuild(reader) : null);
+                    }
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+        return builds;
+    }
+
+    @Override
+    public List<Job> createViewJobs(Reader jsonReader) {
+        List<Job> jobs = new ArrayList<Job>();
+        try {
+            JsonPullReader reader = beginDocument(jsonReader);
+            while (reader.nextField()) {
+                if (JOBS.equals(reader.fieldName())) {
+                    readJobs(reader, jobs);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+        return jobs;
+    }
+
+    @Override
+    public List<Job> createCloudbeesViewJobs(Reader jsonReader) {
+        List<Job> jobs = new ArrayList<Job>();
+        try {
+            JsonPullReader reader = beginDocument(jsonReader);
+            while (reader.nextField()) {
+                if (!VIEWS.equals(reader.fieldName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                Token token = reader.next();
+                if (token != Token.START_ARRAY) {
+                    reader.skipStructure(token);
+                    continue;
+                }
+                boolean firstView = true;
+                while ((token = reader.next()) != Token.END_ARRAY) {
+                    if (firstView && token == Token.START_OBJECT) {
+                        while (reader.nextField()) {
+                            if (JOBS.equals(reader.fieldName())) {
+                                readJobs(reader, jobs);
+                            } else {
+                                reader.skipValue();
+                            }
+                        }
+                    } else {
+                        reader.skipStructure(token);
+                    }
+                    firstView = false;
+                }
+            }
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+        return jobs;
+    }
+
+    @Override
+    public Map<String, List<Job>> createJobsByViewName(Reader jsonReader) {
+        Map<String, List<Job>> jobsByViewName = new LinkedHashMap<String, List<Job>>();
+        try {
+            JsonPullReader reader = beginDocument(jsonReader);
+            while (reader.nextField()) {
+                if (VIEWS.equals(reader.fieldName())) {
+                    readJobsByViewName(reader, jobsByViewName);
+                } else {
+                    reader.skipValue();
+                }
+            }
+        } catch (ParseException | IOException e) {
+            throw parseError(e);
+        }
+        return jobsByViewName;
+    }
+
+    private void readJobsByViewName(JsonPullReader reader, Map<String, List<Job>> jobsByViewName) throws IOException, ParseException {
+        Token token = reader.next();
+        if (token != Token.START_ARRAY) {
+            reader.skipStructure(token);
+            return;
+        }
+        while ((token = reader.next()) != Token.END_ARRAY) {
+            if (token != Token.START_OBJECT) {
+                reader.skipStructure(token);
+                continue;
+            }
+            String viewName = null;
+            List<Job> jobs = new ArrayList<Job>();
+            Map<String, List<Job>> jobsBySubViewName = new LinkedHashMap<String, List<Job>>();
+            while (reader.nextField()) {
+                String field = reader.fieldName();
+                if (VIEW_NAME.equals(field)) {
+                    viewName = reader.nextString();
+                } else if (JOBS.equals(field)) {
+                    readJobs(reader, jobs);
+                } else if (VIEWS.equals(field)) {
+                    readJobsByViewName(reader, jobsBySubViewName);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            jobsByViewName.put(viewName, jobs);
+            jobsByViewName.putAll(jobsBySubViewName);
+        }
+    }
+
+    private JsonPullReader beginDocument(Reader jsonReader) throws IOException, ParseException {
+        PushbackReader pushbackReader = new PushbackReader(jsonReader);
+        int firstChar;
+        do {
+            firstChar = pushbackReader.read();
+        } while (firstChar != -1 && Character.isWhitespace(firstChar));
+        if (firstChar == -1) {
+            throw emptyData();
+        }
+        pushbackReader.unread(firstChar);
+
+        JsonPullReader reader = new JsonPullReader(pushbackReader);
+        Token token = reader.next();
+        if (token != Token.START_OBJECT) {
+            throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN, token);
+        }
+        if (reader.next() == Token.END_OBJECT) {
+            throw emptyData();
+        }
+        reader.pushBack();
+        return reader;
+    }
+
+    private List<View> readViews(JsonPullReader reader, boolean nested) throws IOException, ParseException {
+        Token token = reader.next();
+        if (token != Token.START_ARRAY) {
+            reader.skipStructure(token);
+            return null;
+        }
+        List<View> views = new ArrayList<View>();
+        while ((token = reader.next()) != Token.END_ARRAY) {
+            if (token == Token.START_OBJECT) {
+                views.add(readView(reader, nested));
+            } else {
+                reader.skipStructure(token);
+            }
+        }
+        return views;
+    }
+
+    private View readView(JsonPullReader reader, boolean nested) throws IOException, ParseException {
+        View view = new View();
+        view.setNested(nested);
+        List<View> subViews = null;
+        while (reader.nextField()) {
+            String field = reader.fieldName();
+            if (VIEW_NAME.equals(field)) {
+                view.setName(reader.nextString());
+            } else if (VIEW_URL.equals(field)) {
+                view.setUrl(reader.nextString());
+            } else if (VIEWS.equals(field) && !nested) {
+                subViews = readViews(reader, true);
+            } else {
+                reader.skipValue();
+            }
+        }
+        if (subViews != null) {
+            for (View subView : subViews) {
+                view.addSubView(subView);
+            }
+        }
+        return view;
+    }
+
+    private void readJobs(JsonPullReader reader, List<Job> jobs) throws IOException, ParseException {
+        Token token = reader.next();
+        if (token != Token.START_ARRAY) {
+            reader.skipStructure(token);
+            return;
+        }
+        while ((token = reader.next()) != Token.END_ARRAY) {
+            if (token == Token.START_OBJECT) {
+                jobs.add(readJob(reader));
+            } else {
+                reader.skipStructure(token);
+            }
+        }
+    }
+
+    private Job readJob(JsonPullReader reader) throws IOException, ParseException {
+        String name = null;
+        String displayName = null;
+        String url = null;
+        String color = null;
+        Job.Health health = null;
+        boolean buildable = false;
+        boolean inQueue = false;
+        Build lastBuild = null;
+        List<JobParameter> parameters = new ArrayList<JobParameter>();
+
+        while (reader.nextField()) {
+            String field = reader.fieldName();
+            if (JOB_NAME.equals(field)) {
+                name = reader.nextString();
+            } else if (JOB_DISPLAY_NAME.equals(field)) {
+                displayName = reader.nextString();
+            } else if (JOB_URL.equals(field)) {
+                url = reader.nextString();
+            } else if (JOB_COLOR.equals(field)) {
+                color = reader.nextString();
+            } else if (JOB_HEALTH.equals(field)) {
+                health = readHealth(reader);
+            } else if (JOB_IS_BUILDABLE.equals(field)) {
+                buildable = reader.nextBoolean();
+            } else if (JOB_IS_IN_QUEUE.equals(field)) {
+                inQueue = reader.nextBoolean();
+            } else if (JOB_LAST_BUILD.equals(field)) {
+                Token token = reader.next();
+                if (token == Token.START_OBJECT) {
+                    lastBuild = readBuild(reader);
+                } else {
+                    reader.skipStructure(token);
+                }
+            } else if (PARAMETER_PROPERTY.equals(field)) {
+                readParameterProperties(reader, parameters);
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        Job job = new Job();
+        job.setName(name);
+        job.setDisplayName(displayName);
+        job.setUrl(url);
+        job.setColor(color);
+        job.setHealth(health);
+        job.setBuildable(buildable);
+        job.setInQueue(inQueue);
+        job.setLastBuild(lastBuild);
+        job.addParameters(parameters);
+        return job;
+    }
+
+    private Build readBuild(JsonPullReader reader) throws IOException, ParseException {
+        String buildDate = null;
+        boolean building = false;
+        Long number = null;
+        String status = null;
+        String url = null;
+        Long timestamp = null;
+        Long duration = null;
+
+        while (reader.nextField()) {
+            String field = reader.fieldName();
+            if (BUILD_ID.equals(field)) {
+                buildDate = reader.nextString();
+            } else if (BUILD_IS_BUILDING.equals(field)) {
+                building = reader.nextBoolean();
+            } else if (BUILD_NUMBER.equals(field)) {
+                number = reader.nextLong();
+            } else if (BUILD_RESULT.equals(field)) {
+                status = reader.nextString();
+            } else if (BUILD_URL.equals(field)) {
+                url = reader.nextString();
+            } else if (BUILD_TIMESTAMP.equals(field)) {
+                timestamp = reader.nextLong();
+            } else if (BUILD_DURATION.equals(field)) {
+                duration = reader.nextLong();
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        Build build = new Build();
+        build.setBuildDate(buildDate);
+        build.setBuilding(building);
+        if (number != null) {
+            build.setNumber(number.intValue());
+        }
+        build.setStatus(status);
+        build.setUrl(url);
+        if (timestamp != null) {
+            build.setTimestamp(timestamp);
+        }
+        if (duration != null) {
+            build.setDuration(duration);
+        }
+        return build;
+    }
+
+    private void readComputerExecutables(JsonPullReader reader, Set<String> buildUrls) throws IOException, ParseException {
+        while (reader.nextField()) {
+            String field = reader.fieldName();
+            if (!EXECUTORS.equals(field) && !ONE_OFF_EXECUTORS.equals(field)) {
+                reader.skipValue();
+                continue;
+            }
+            Token token = reader.next();
+            if (token != Token.START_ARRAY) {
+                reader.skipStructure(token);
+                continue;
+            }
+            while ((token = reader.next()) != Token.END_ARRAY) {
+                if (token != Token.START_OBJECT) {
+                    reader.skipStructure(token);
+                    continue;
+                }
+                while (reader.nextField()) {
+                    if (!CURRENT_EXECUTABLE.equals(reader.fieldName())) {
+                        reader.skipValue();
+                        continue;
+                    }
+                    Token executableToken = reader.next();
+                    if (executableToken != Token.START_OBJECT) {
+                        reader.skipStructure(executableToken);
+                        continue;
+                    }
+                    String buildUrl = readBuild(reader).getUrl();
+                    if (buildUrl != null) {
+                        buildUrls.add(buildUrl);
+                    }
+                }
+            }
+        }
+    }
+
+    private Job.Health readHealth(JsonPullReader reader) throws IOException, ParseException {
+        Token token = reader.next();
+        if (token != Token.START_ARRAY) {
+            reader.skipStructure(token);
+            return null;
+        }
+
+        String description = null;
+        String healthLevel = null;
+        boolean firstReport = true;
+        while ((token = reader.next()) != Token.END_ARRAY) {
+            if (firstReport && token == Token.START_OBJECT) {
+                while (reader.nextField()) {
+                    String field = reader.fieldName();
+                    if (JOB_HEALTH_DESCRIPTION.equals(field)) {
+                        description = reader.nextString();
+                    } else if (JOB_HEALTH_ICON.equals(field)) {
+                        healthLevel = reader.nextString();
+                    } else {
+                        reader.skipValue();
+                    }
+                }
+            } else {
+                reader.skipStructure(token);
+            }
+            firstReport = false;
+        }
+
+        if (StringUtils.isEmpty(healthLevel)) {
+            return null;
+        }
+        if (healthLevel.endsWith(".png")) {
+            healthLevel = healthLevel.substring(0, healthLevel.lastIndexOf(".png"));
+        } else {
+            healthLevel = healthLevel.substring(0, healthLevel.lastIndexOf(".gif"));
+        }
+        if (StringUtils.isEmpty(healthLevel)) {
+            return null;
+        }
+
+        Job.Health health = new Job.Health();
+        health.setDescription(description);
+        health.setLevel(healthLevel);
+        return health;
+    }
+
+    private void readParameterProperties(JsonPullReader reader, List<JobParameter> jobParameters) throws IOException, ParseException {
+        Token token = reader.next();
+        if (token != Token.START_ARRAY) {
+            reader.skipStructure(token);
+            return;
+        }
+        while ((token = reader.next()) != Token.END_ARRAY) {
+            if (token != Token.START_OBJECT) {
+                reader.skipStructure(token);
+                continue;
+            }
+            while (reader.nextField()) {
+                if (!PARAMETER_DEFINITIONS.equals(reader.fieldName())) {
+                    reader.skipValue();
+                    continue;
+                }
+                Token definitionsToken = reader.next();
+                if (definitionsToken != Token.START_ARRAY) {
+                    reader.skipStructure(definitionsToken);
+                    continue;
+                }
+                while ((definitionsToken = reader.next()) != Token.END_ARRAY) {
+                    if (definitionsToken == Token.START_OBJECT) {
+                        jobParameters.add(readParameter(reader));
+                    } else {
+                        reader.skipStructure(definitionsToken);
+                    }
+                }
+            }
+        }
+    }
+
+    private JobParameter readParameter(JsonPullReader reader) throws IOException, ParseException {
+        String defaultValue = null;
+        String name = null;
+        String type = null;
+        List<String> choices = new ArrayList<String>();
+
+        while (reader.nextField()) {
+            String field = reader.fieldName();
+            if (PARAMETER_DEFAULT_PARAM.equals(field)) {
+                defaultValue = readDefaultValue(reader);
+            } else if (PARAMETER_NAME.equals(field)) {
+                name = reader.nextString();
+            } else if (PARAMETER_TYPE.equals(field)) {
+                type = reader.nextString();
+            } else if (PARAMETER_CHOICE.equals(field)) {
+                Token token = reader.next();
+                if (token != Token.START_ARRAY) {
+                    reader.skipStructure(token);
+                    continue;
+                }
+                while ((token = reader.next()) != Token.END_ARRAY) {
+                    if (token == Token.VALUE) {
+                        choices.add((String) reader.value());
+                    } else {
+                        reader.skipStructure(token);
+                    }
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+
+        JobParameter jobParameter = new JobParameter();
+        if (defaultValue != null) {
+            jobParameter.setDefaultValue(defaultValue);
+        }
+        jobParameter.setName(name);
+        jobParameter.setType(type);
+        jobParameter.setChoices(choices);
+        return jobParameter;
+    }
+
+    private String readDefaultValue(JsonPullReader reader) throws IOException, ParseException {
+        Token token = reader.next();
+        if (token != Token.START_OBJECT) {
+            reader.skipStructure(token);
+            return null;
+        }
+        String defaultValue = null;
+        while (reader.nextField()) {
+            if (PARAMETER_DEFAULT_PARAM_VALUE.equals(reader.fieldName())) {
+                defaultValue = reader.nextString();
+            } else {
+                reader.skipValue();
+            }
+        }
+        return defaultValue;
+    }
+
+    private static IllegalStateException emptyData() {
+        String message = "Empty JSON data!";
+        LOG.error(message);
+        return new IllegalStateException(message);
+    }
+
+    private static RuntimeException parseError(Exception e) {
+        LOG.error("Error during parsing JSON data", e);
+        return new RuntimeException(e);
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.openapi.Disposable;
+import org.apache.commons.lang.StringUtils;
+import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+import org.codinjutsu.tools.jenkins.JenkinsSettings;
+import org.codinjutsu.tools.jenkins.model.Jenkins;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.security.HttpTransport;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A Jenkins server other than the configured one: it has its own connection pool, security client (and thus
+ * response cache) and scheduler lanes, and refreshes the jobs of its primary view on its own.
+ */
+public class JenkinsMaster implements Disposable {
+
+    public interface Listener {
+
+        void jobsLoaded(JenkinsMaster master, Jenkins workspace, List<Job> jobs);
+
+        void loadFailed(JenkinsMaster master, Exception cause);
+    }
+
+    private final JenkinsAppSettings configuration;
+    private final JenkinsSettings jenkinsSettings;
+    private final HttpTransport httpTransport;
+    private final RequestManager requestManager;
+    private final JenkinsScheduler scheduler = new JenkinsScheduler();
+    private final Jenkins jenkins;
+    private final String serverPrefix;
+
+    private volatile Jenkins workspace;
+    private Runnable refreshJob;
+    private volatile JenkinsScheduler.PeriodicTask refreshTask;
+    private AdaptivePolling polling;
+
+    JenkinsMaster(JenkinsAppSettings configuration, JenkinsSettings jenkinsSettings) {
+        this.configuration = configuration;
+        this.jenkinsSettings = jenkinsSettings;
+        this.httpTransport = new HttpTransport(configuration.getMaxConnectionsPerHost());
+        this.requestManager = new RequestManager(new UrlBuilder(), httpTransport);
+        this.jenkins = new Jenkins(configuration.getServerUrl(), configuration.getServerUrl());
+        this.serverPrefix = withTrailingSlash(configuration.getServerUrl());
+    }
+
+    void start(final Listener listener) {
+        refreshJob = new Runnable() {
+            @Override
+            public void run() {
+                refresh(listener);
+            }
+        };
+        int refreshPeriod = configuration.getJobRefreshPeriod();
+        if (refreshPeriod > 0) {
+            polling = new AdaptivePolling("Jenkins refresh of " + getServerUrl(), refreshPeriod, TimeUnit.MINUTES);
+            refreshTask = scheduler.scheduleWithFixedDelay(JenkinsScheduler.Lane.VIEW_REFRESH, refreshJob, 0, refreshPeriod, TimeUnit.MINUTES);
+        } else {
+            refreshNow();
+        }
+    }
+
+    public void refreshNow() {
+        if (refreshTask != null) {
+            refreshTask.runNow();
+        } else if (refreshJob != null) {
+            scheduler.submitCoalesced(JenkinsScheduler.Lane.VIEW_REFRESH, this, refreshJob);
+        }
+    }
+
+    private void refresh(Listener listener) {
+        try {
+            if (workspace == null) {
+                requestManager.authenticate(configuration, jenkinsSettings);
+                workspace = requestManager.loadJenkinsWorkspace(configuration);
+            }
+            List<Job> jobs = requestManager.refreshJenkinsView(workspace.getPrimaryView());
+            listener.jobsLoaded(this, workspace, jobs);
+            JenkinsScheduler.PeriodicTask task = refreshTask;
+            if (task != null) {
+                task.setDelay(polling.nextDelayMillis(jobs, false), TimeUnit.MILLISECONDS);
+            }
+        } catch (RuntimeException ex) {
+            workspace = null;
+            listener.loadFailed(this, ex);
+        }
+    }
+
+    /**
+     * Brings the next refresh forward, e.g. once a build of this server has been triggered.
+     */
+    public void refreshSoon() {
+        JenkinsScheduler.PeriodicTask task = refreshTask;
+        if (task != null && polling != null) {
+            task.setDelay(polling.getActiveDelayMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public String getServerUrl() {
+        return configuration.getServerUrl();
+    }
+
+    /**
+     * @return the server as displayed in the job tree, only to be updated from the EDT
+     */
+    public Jenkins getJenkins() {
+        return jenkins;
+    }
+
+    public JenkinsAppSettings getConfiguration() {
+        return configuration;
+    }
+
+    public RequestManager getRequestManager() {
+        return requestManager;
+    }
+
+    /**
+     * @return true when the url is the server url or one below it, <code>http://ci</code> does not own
+     * <code>http://ci2/</code> nor <code>http://ci:8080/</code>
+     */
+    public boolean owns(String url) {
+        return url != null && withTrailingSlash(url).startsWith(serverPrefix);
+    }
+
+    private static String withTrailingSlash(String url) {
+        return StringUtils.removeEnd(url, "/") + "/";
+    }
+
+    @Override
+    public void dispose() {
+        scheduler.dispose();
+        requestManager.dispose();
+        httpTransport.dispose();
+    }
+}
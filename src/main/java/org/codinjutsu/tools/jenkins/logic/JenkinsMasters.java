@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.lang.StringUtils;
+import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+import org.codinjutsu.tools.jenkins.JenkinsSettings;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The Jenkins masters configured next to the main server. The main server keeps going through the project
+ * {@link RequestManager}; each other master is loaded in parallel through its own {@link JenkinsMaster}.
+ */
+public class JenkinsMasters implements Disposable {
+
+    private final Project project;
+    private final List<JenkinsMaster> masters = new CopyOnWriteArrayList<JenkinsMaster>();
+
+    public static JenkinsMasters getInstance(Project project) {
+        return ServiceManager.getService(project, JenkinsMasters.class);
+    }
+
+    public JenkinsMasters(Project project) {
+        this.project = project;
+    }
+
+    public synchronized void reload(JenkinsMaster.Listener listener) {
+        dispose();
+
+        JenkinsAppSettings jenkinsAppSettings = JenkinsAppSettings.getSafeInstance(project);
+        if (!jenkinsAppSettings.isServerUrlSet()) {
+            return;
+        }
+        JenkinsSettings jenkinsSettings = JenkinsSettings.getSafeInstance(project);
+        for (String serverUrl : jenkinsAppSettings.getOtherServerUrls()) {
+            if (StringUtils.isBlank(serverUrl) || StringUtils.equals(serverUrl, jenkinsAppSettings.getServerUrl())) {
+                continue;
+            }
+            JenkinsMaster master = new JenkinsMaster(jenkinsAppSettings.forServer(serverUrl), jenkinsSettings.forServer(serverUrl));
+            masters.add(master);
+            master.start(listener);
+        }
+    }
+
+    public List<JenkinsMaster> getMasters() {
+        return masters;
+    }
+
+    public JenkinsMaster findMaster(String url) {
+        for (JenkinsMaster master : masters) {
+            if (master.owns(url)) {
+                return master;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the request manager of the server the given job or build url belongs to
+     */
+    public RequestManager getRequestManager(String url) {
+        JenkinsMaster master = findMaster(url);
+        return master != null ? master.getRequestManager() : RequestManager.getInstance(project);
+    }
+
+    /**
+     * @return the url of the server the given job or build url belongs to
+     */
+    public String getServerUrl(String url) {
+        JenkinsMaster master = findMaster(url);
+        return master != null ? master.getServerUrl() : JenkinsAppSettings.getSafeInstance(project).getServerUrl();
+    }
+
+    public void refreshAll() {
+        for (JenkinsMaster master : masters) {
+            master.refreshNow();
+        }
+    }
+
+    @Override
+    public synchronized void dispose() {
+        for (JenkinsMaster master : masters) {
+            master.dispose();
+        }
+        masters.clear();
+    }
+}
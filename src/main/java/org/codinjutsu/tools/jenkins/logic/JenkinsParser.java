@@ -19,8 +19,12 @@ package org.codinjutsu.tools.jenkins.logic;
 import org.codinjutsu.tools.jenkins.model.Build;
 import org.codinjutsu.tools.jenkins.model.Jenkins;
 import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.model.QueueItem;
 
+import java.io.Reader;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface JenkinsParser {
     String JOBS = "jobs";
@@ -53,6 +57,13 @@ public interface JenkinsParser {
     String PARAMETER_DEFAULT_PARAM = "defaultParameterValue";
     String PARAMETER_DEFAULT_PARAM_VALUE = "value";
     String PARAMETER_CHOICE = "choices";
+    String QUEUE_ITEM_CANCELLED = "cancelled";
+    String QUEUE_ITEM_WHY = "why";
+    String QUEUE_ITEM_EXECUTABLE = "executable";
+    String COMPUTERS = "computer";
+    String EXECUTORS = "executors";
+    String ONE_OFF_EXECUTORS = "oneOffExecutors";
+    String CURRENT_EXECUTABLE = "currentExecutable";
 
     Jenkins createWorkspace(String jsonData, String serverUrl);
 
@@ -65,4 +76,28 @@ public interface JenkinsParser {
     List<Job> createViewJobs(String jsonData);
 
     List<Job> createCloudbeesViewJobs(String jsonData);
+
+    Map<String, List<Job>> createJobsByViewName(String jsonData);
+
+    QueueItem createQueueItem(String jsonData);
+
+    Set<String> createRunningBuildUrls(String jsonData);
+
+    Jenkins createWorkspace(Reader jsonReader, String serverUrl);
+
+    Job createJob(Reader jsonReader);
+
+    Build createBuild(Reader jsonReader);
+
+    List<Build> createBuilds(Reader jsonReader);
+
+    List<Job> createViewJobs(Reader jsonReader);
+
+    List<Job> createCloudbeesViewJobs(Reader jsonReader);
+
+    Map<String, List<Job>> createJobsByViewName(Reader jsonReader);
+
+    QueueItem createQueueItem(Reader jsonReader);
+
+    Set<String> createRunningBuildUrls(Reader jsonReader);
 }
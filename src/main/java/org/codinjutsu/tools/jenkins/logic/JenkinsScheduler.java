@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.Application;
+import com.intellij.openapi.application.ApplicationActivationListener;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.IdeFrame;
+import com.intellij.util.messages.MessageBusConnection;
+import org.apache.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the plugin background work in separate lanes, so that a slow RSS fetch never delays a view refresh.
+ * <p>
+ * Periodic tasks are rescheduled once their run is over (with some jitter), so a run never overlaps the
+ * previous one; a tick arriving while the task is still queued is coalesced into it.
+ * <p>
+ * Nothing is polled while the IDE frame is inactive: the periodic tasks which came due and the delayed tasks
+ * run once it is activated again.
+ */
+public class JenkinsScheduler implements Disposable {
+
+    private static final Logger logger = Logger.getLogger(JenkinsScheduler.class);
+
+    static final double DEFAULT_JITTER_RATIO = 0.1;
+
+    public enum Lane {
+        VIEW_REFRESH("view refresh", 1),
+        RSS("rss", 1),
+        BUILD_WATCH("build watch", 1),
+        USER_ACTION("user action", 2);
+
+        private final String label;
+        private final int threads;
+
+        Lane(String label, int threads) {
+            this.label = label;
+            this.threads = threads;
+        }
+    }
+
+    private final double jitterRatio;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Map<Lane, LaneExecutor> laneExecutors = new EnumMap<Lane, LaneExecutor>(Lane.class);
+    private final List<Runnable> tasksDueWhilePaused = new ArrayList<Runnable>();
+    private final Set<PeriodicTask> periodicTasksDueWhilePaused = new LinkedHashSet<PeriodicTask>();
+    private boolean paused = false;
+    private MessageBusConnection connection;
+
+    public static JenkinsScheduler getInstance(Project project) {
+        return ServiceManager.getService(project, JenkinsScheduler.class);
+    }
+
+    public JenkinsScheduler() {
+        this(DEFAULT_JITTER_RATIO);
+    }
+
+    JenkinsScheduler(double jitterRatio) {
+        this.jitterRatio = jitterRatio;
+        this.timer = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("Jenkins scheduler"));
+        this.timer.setRemoveOnCancelPolicy(true);
+        for (Lane lane : Lane.values()) {
+            laneExecutors.put(lane, new LaneExecutor(lane));
+        }
+        Application application = ApplicationManager.getApplication();
+        if (application != null) {
+            connection = application.getMessageBus().connect();
+            connection.subscribe(ApplicationActivationListener.TOPIC, new ApplicationActivationListener.Adapter() {
+                @Override
+                public void applicationActivated(IdeFrame ideFrame) {
+                    resume();
+                }
+
+                @Override
+                public void delayedApplicationDeactivated(IdeFrame ideFrame) {
+                    pause();
+                }
+            });
+        }
+    }
+
+    public PeriodicTask scheduleWithFixedDelay(Lane lane, Runnable task, long initialDelay, long delay, TimeUnit unit) {
+        PeriodicTask periodicTask = new PeriodicTask(laneExecutors.get(lane), task, unit.toNanos(delay));
+        periodicTask.scheduleTick(unit.toNanos(initialDelay));
+        return periodicTask;
+    }
+
+    public ScheduledFuture<?> schedule(final Lane lane, final Runnable task, long delay, TimeUnit unit) {
+        return timer.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (!deferWhilePaused(this)) {
+                    submit(lane, task);
+                }
+            }
+        }, delay, unit);
+    }
+
+    /**
+     * Holds back the periodic and delayed tasks coming due until {@link #resume()}.
+     */
+    public void pause() {
+        synchronized (tasksDueWhilePaused) {
+            if (!paused) {
+                logger.debug("Jenkins polling paused");
+            }
+            paused = true;
+        }
+    }
+
+    public void resume() {
+        List<Runnable> dueTasks;
+        List<PeriodicTask> duePeriodicTasks;
+        synchronized (tasksDueWhilePaused) {
+            if (!paused) {
+                return;
+            }
+            paused = false;
+            dueTasks = new ArrayList<Runnable>(tasksDueWhilePaused);
+            duePeriodicTasks = new ArrayList<PeriodicTask>(periodicTasksDueWhilePaused);
+            tasksDueWhilePaused.clear();
+            periodicTasksDueWhilePaused.clear();
+        }
+        logger.debug(String.format("Jenkins polling resumed, %d tasks came due meanwhile", dueTasks.size() + duePeriodicTasks.size()));
+        for (PeriodicTask duePeriodicTask : duePeriodicTasks) {
+            duePeriodicTask.tick();
+        }
+        for (Runnable dueTask : dueTasks) {
+            dueTask.run();
+        }
+    }
+
+    public boolean isPaused() {
+        synchronized (tasksDueWhilePaused) {
+            return paused;
+        }
+    }
+
+    private boolean deferWhilePaused(Runnable dueTask) {
+        synchronized (tasksDueWhilePaused) {
+            if (paused) {
+                tasksDueWhilePaused.add(dueTask);
+            }
+            return paused;
+        }
+    }
+
+    private boolean deferWhilePaused(PeriodicTask duePeriodicTask) {
+        synchronized (tasksDueWhilePaused) {
+            if (paused) {
+                periodicTasksDueWhilePaused.add(duePeriodicTask);
+            }
+            return paused;
+        }
+    }
+
+    public Future<?> submit(Lane lane, Runnable task) {
+        return laneExecutors.get(lane).submit(task);
+    }
+
+    /**
+     * Submits the task unless a task with the same key is still waiting in the lane.
+     *
+     * @return false when the task has been coalesced into the waiting one
+     */
+    public boolean submitCoalesced(Lane lane, Object key, Runnable task) {
+        return laneExecutors.get(lane).submitCoalesced(key, task);
+    }
+
+    public LaneStats getStats(Lane lane) {
+        return laneExecutors.get(lane).getStats();
+    }
+
+    public void cancel(PeriodicTask periodicTask) {
+        if (periodicTask != null) {
+            periodicTask.cancel();
+        }
+    }
+
+    long jitter(long delayNanos) {
+        if (delayNanos <= 0 || jitterRatio <= 0) {
+            return delayNanos;
+        }
+        double factor = 1 + ThreadLocalRandom.current().nextDouble(-jitterRatio, jitterRatio);
+        return (long) (delayNanos * factor);
+    }
+
+    @Override
+    public void dispose() {
+        if (connection != null) {
+            connection.disconnect();
+        }
+        timer.shutdownNow();
+        for (LaneExecutor laneExecutor : laneExecutors.values()) {
+            laneExecutor.executor.shutdownNow();
+        }
+    }
+
+    private static ThreadFactory daemonThreadFactory(final String name) {
+        return new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    public class PeriodicTask {
+
+        private final LaneExecutor laneExecutor;
+        private final Runnable task;
+        private volatile long delayNanos;
+        private final AtomicBoolean queued = new AtomicBoolean(false);
+        private volatile boolean cancelled = false;
+        private volatile ScheduledFuture<?> nextTick;
+
+        private PeriodicTask(LaneExecutor laneExecutor, Runnable task, long delayNanos) {
+            this.laneExecutor = laneExecutor;
+            this.task = task;
+            this.delayNanos = delayNanos;
+        }
+
+        /**
+         * Runs the task as soon as possible, unless it is already queued or running.
+         */
+        public void runNow() {
+            tick();
+        }
+
+        public void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> tick = nextTick;
+            if (tick != null) {
+                tick.cancel(false);
+            }
+        }
+
+        /**
+         * Changes the delay between the end of a run and the next one. A shorter delay also brings the
+         * waiting tick forward.
+         */
+        public void setDelay(long delay, TimeUnit unit) {
+            delayNanos = unit.toNanos(delay);
+            ScheduledFuture<?> tick = nextTick;
+            if (tick != null && !queued.get() && tick.getDelay(TimeUnit.NANOSECONDS) > delayNanos && tick.cancel(false)) {
+                scheduleTick(delayNanos);
+            }
+        }
+
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        private void scheduleTick(long delay) {
+            if (cancelled || timer.isShutdown()) {
+                return;
+            }
+            nextTick = timer.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    tick();
+                }
+            }, jitter(delay), TimeUnit.NANOSECONDS);
+        }
+
+        private void tick() {
+            if (cancelled) {
+                return;
+            }
+            if (deferWhilePaused(this)) {
+                return;
+            }
+            if (!queued.compareAndSet(false, true)) {
+                laneExecutor.coalesced.incrementAndGet();
+                return;
+            }
+            ScheduledFuture<?> tick = nextTick;
+            if (tick != null) {
+                tick.cancel(false);
+            }
+            laneExecutor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        queued.set(false);
+                        scheduleTick(delayNanos);
+                    }
+                }
+            });
+        }
+    }
+
+    private class LaneExecutor {
+
+        private final Lane lane;
+        private final ThreadPoolExecutor executor;
+        private final Set<Object> waitingKeys = ConcurrentHashMap.newKeySet();
+
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong coalesced = new AtomicLong();
+        private final AtomicLong totalWaitNanos = new AtomicLong();
+        private final AtomicLong totalRunNanos = new AtomicLong();
+        private final AtomicLong maxRunNanos = new AtomicLong();
+
+        LaneExecutor(Lane lane) {
+            this.lane = lane;
+            this.executor = new ThreadPoolExecutor(lane.threads, lane.threads, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<Runnable>(), daemonThreadFactory("Jenkins " + lane.label));
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+
+        Future<?> submit(Runnable task) {
+            return executor.submit(new MeasuredTask(task, null));
+        }
+
+        boolean submitCoalesced(Object key, Runnable task) {
+            if (!waitingKeys.add(key)) {
+                coalesced.incrementAndGet();
+                return false;
+            }
+            executor.submit(new MeasuredTask(task, key));
+            return true;
+        }
+
+        LaneStats getStats() {
+            long runCount = runs.get();
+            return new LaneStats(lane, executor.getQueue().size(), executor.getActiveCount(), runCount, failures.get(), coalesced.get(),
+                    runCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.get() / runCount),
+                    runCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalRunNanos.get() / runCount),
+                    TimeUnit.NANOSECONDS.toMillis(maxRunNanos.get()));
+        }
+
+        private class MeasuredTask implements Runnable {
+
+            private final Runnable task;
+            private final Object key;
+            private final long submittedAt = System.nanoTime();
+
+            MeasuredTask(Runnable task, Object key) {
+                this.task = task;
+                this.key = key;
+            }
+
+            @Override
+            public void run() {
+                if (key != null) {
+                    waitingKeys.remove(key);
+                }
+                long startedAt = System.nanoTime();
+                totalWaitNanos.addAndGet(startedAt - submittedAt);
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    failures.incrementAndGet();
+                    logger.error(String.format("Error in Jenkins %s task", lane.label), ex);
+                } finally {
+                    long runNanos = System.nanoTime() - startedAt;
+                    runs.incrementAndGet();
+                    totalRunNanos.addAndGet(runNanos);
+                    long max;
+                    do {
+                        max = maxRunNanos.get();
+                    } while (runNanos > max && !maxRunNanos.compareAndSet(max, runNanos));
+                }
+            }
+        }
+    }
+
+    public static class LaneStats {
+
+        private final Lane lane;
+        private final int queueDepth;
+        private final int running;
+        private final long runs;
+        private final long failures;
+        private final long coalesced;
+        private final long averageWaitMillis;
+        private final long averageRunMillis;
+        private final long maxRunMillis;
+
+        LaneStats(Lane lane, int queueDepth, int running, long runs, long failures, long coalesced, long averageWaitMillis, long averageRunMillis, long maxRunMillis) {
+            this.lane = lane;
+            this.queueDepth = queueDepth;
+            this.running = running;
+            this.runs = runs;
+            this.failures = failures;
+            this.coalesced = coalesced;
+            this.averageWaitMillis = averageWaitMillis;
+            this.averageRunMillis = averageRunMillis;
+            this.maxRunMillis = maxRunMillis;
+        }
+
+        public Lane getLane() {
+            return lane;
+        }
+
+        public int getQueueDepth() {
+            return queueDepth;
+        }
+
+        public int getRunning() {
+            return running;
+        }
+
+        public long getRuns() {
+            return runs;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        public long getCoalesced() {
+            return coalesced;
+        }
+
+        public long getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        public long getAverageRunMillis() {
+            return averageRunMillis;
+        }
+
+        public long getMaxRunMillis() {
+            return maxRunMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: queued=%d, running=%d, runs=%d, failures=%d, coalesced=%d, avgWait=%dms, avgRun=%dms, maxRun=%dms",
+                    lane.label, queueDepth, running, runs, failures, coalesced, averageWaitMillis, averageRunMillis, maxRunMillis);
+        }
+    }
+}
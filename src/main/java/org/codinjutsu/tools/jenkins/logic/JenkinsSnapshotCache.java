@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.jenkins.model.*;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the last loaded workspace and the jobs of the last displayed views on disk, under the IDE system directory,
+ * so that the job tree can be shown right away at startup while the live data is being fetched.
+ * <p>
+ * The snapshot is only a hint: it is discarded on any read error or when it was taken on another server.
+ */
+public class JenkinsSnapshotCache {
+
+    private static final Logger logger = Logger.getLogger(JenkinsSnapshotCache.class);
+
+    private static final int FORMAT_MAGIC = 0x4A53;
+    private static final int FORMAT_VERSION = 2;
+    private static final int MAX_CACHED_VIEWS = 5;
+    /**
+     * The longest string {@link DataOutputStream#writeUTF} always accepts, whatever its characters.
+     */
+    private static final int MAX_STRING_LENGTH = 65535 / 3;
+
+    private final File snapshotFile;
+
+    private Snapshot snapshot;
+
+    public static JenkinsSnapshotCache getInstance(Project project) {
+        return ServiceManager.getService(project, JenkinsSnapshotCache.class);
+    }
+
+    public JenkinsSnapshotCache(Project project) {
+        this(new File(new File(PathManager.getSystemPath(), "jenkins-control"), project.getLocationHash() + ".snapshot"));
+    }
+
+    JenkinsSnapshotCache(File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * @return the snapshot taken on the given server, or null if there is none
+     */
+    public synchronized Snapshot load(String serverUrl) {
+        if (snapshot == null && snapshotFile.isFile()) {
+            try {
+                snapshot = read(snapshotFile);
+            } catch (IOException ex) {
+                logger.warn("Unable to read the Jenkins snapshot " + snapshotFile + ", it will be rebuilt", ex);
+                snapshotFile.delete();
+            }
+        }
+        if (snapshot == null || !StringUtils.equals(serverUrl, snapshot.getJenkins().getServerUrl())) {
+            return null;
+        }
+        return snapshot.copy();
+    }
+
+    /**
+     * Records the jobs of the given view and writes the snapshot to disk, unless neither the views nor the saved
+     * state of the jobs changed since the previous save. Must not be called from the EDT.
+     */
+    public synchronized void save(Jenkins jenkins, String viewName, List<Job> jobs) {
+        if (snapshot == null || !StringUtils.equals(jenkins.getServerUrl(), snapshot.getJenkins().getServerUrl())) {
+            snapshot = new Snapshot(copyOf(jenkins));
+        } else if (viewNamesOf(snapshot.getJenkins()).equals(viewNamesOf(jenkins)) && sameJobs(snapshot.getJobs(viewName), jobs)) {
+            return;
+        }
+        snapshot.jenkins = copyOf(jenkins);
+        snapshot.putJobs(viewName, jobs);
+
+        File tempFile = new File(snapshotFile.getPath() + ".tmp");
+        try {
+            snapshotFile.getParentFile().mkdirs();
+            write(snapshot, tempFile);
+            if (!tempFile.renameTo(snapshotFile)) {
+                snapshotFile.delete();
+                if (!tempFile.renameTo(snapshotFile)) {
+                    throw new IOException("Unable to rename " + tempFile + " to " + snapshotFile);
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Unable to write the Jenkins snapshot " + snapshotFile, ex);
+            tempFile.delete();
+        }
+    }
+
+    public synchronized void clear() {
+        snapshot = null;
+        snapshotFile.delete();
+    }
+
+    private static List<String> viewNamesOf(Jenkins jenkins) {
+        List<String> viewNames = new ArrayList<String>(jenkins.getViews().size());
+        for (View view : jenkins.getViews()) {
+            viewNames.add(view.getName());
+        }
+        return viewNames;
+    }
+
+    private static boolean sameJobs(List<Job> savedJobs, List<Job> jobs) {
+        if (savedJobs == null || savedJobs.size() != jobs.size()) {
+            return false;
+        }
+        for (int i = 0; i < jobs.size(); i++) {
+            if (!fingerprintOf(savedJobs.get(i)).equals(fingerprintOf(jobs.get(i)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String fingerprintOf(Job job) {
+        Job.Health health = job.getHealth();
+        Build lastBuild = job.getLastBuild();
+        return job.getUrl() + '|' + job.getRawName() + '|' + job.getName() + '|' + job.getColor() + '|' + job.isInQueue()
+                + '|' + job.isBuildable() + '|' + (health == null ? "" : health.getLevel() + '|' + health.getDescription())
+                + '|' + (lastBuild == null ? "" : lastBuild.getNumber() + "|" + lastBuild.getStatus() + '|' + lastBuild.isBuilding())
+                + '|' + job.getParameters().size();
+    }
+
+    private static Jenkins copyOf(Jenkins jenkins) {
+        Jenkins copy = new Jenkins(jenkins.getName(), jenkins.getServerUrl());
+        copy.setViews(new ArrayList<View>(jenkins.getViews()));
+        copy.setPrimaryView(jenkins.getPrimaryView());
+        return copy;
+    }
+
+    static void write(Snapshot snapshot, File file) throws IOException {
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(file))));
+        try {
+            output.writeShort(FORMAT_MAGIC);
+            output.writeShort(FORMAT_VERSION);
+
+            Jenkins jenkins = snapshot.getJenkins();
+            writeString(output, jenkins.getName());
+            writeString(output, jenkins.getServerUrl());
+            writeView(output, jenkins.getPrimaryView());
+            output.writeInt(jenkins.getViews().size());
+            for (View view : jenkins.getViews()) {
+                writeView(output, view);
+            }
+
+            output.writeInt(snapshot.jobsByViewName.size());
+            for (Map.Entry<String, List<Job>> entry : snapshot.jobsByViewName.entrySet()) {
+                writeString(output, entry.getKey());
+                output.writeInt(entry.getValue().size());
+                for (Job job : entry.getValue()) {
+                    writeJob(output, job);
+                }
+            }
+        } finally {
+            output.close();
+        }
+    }
+
+    static Snapshot read(File file) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(file))));
+        try {
+            if (input.readShort() != FORMAT_MAGIC || input.readShort() != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format");
+            }
+
+            Jenkins jenkins = new Jenkins(readString(input), readString(input));
+            jenkins.setPrimaryView(readView(input));
+            int viewCount = input.readInt();
+            List<View> views = new ArrayList<View>(viewCount);
+            for (int i = 0; i < viewCount; i++) {
+                views.add(readView(input));
+            }
+            jenkins.setViews(views);
+
+            Snapshot snapshot = new Snapshot(jenkins);
+            int cachedViewCount = input.readInt();
+            for (int i = 0; i < cachedViewCount; i++) {
+                String viewName = readString(input);
+                int jobCount = input.readInt();
+                List<Job> jobs = new ArrayList<Job>(jobCount);
+                for (int j = 0; j < jobCount; j++) {
+                    jobs.add(readJob(input));
+                }
+                snapshot.putJobs(viewName, jobs);
+            }
+            return snapshot;
+        } catch (RuntimeException ex) {
+            throw new IOException("Corrupted snapshot", ex);
+        } finally {
+            input.close();
+        }
+    }
+
+    private static void writeView(DataOutputStream output, View view) throws IOException {
+        output.writeBoolean(view != null);
+        if (view == null) {
+            return;
+        }
+        writeString(output, view.getName());
+        writeString(output, view.getUrl());
+        output.writeBoolean(view.isNested());
+        output.writeInt(view.getSubViews().size());
+        for (View subView : view.getSubViews()) {
+            writeView(output, subView);
+        }
+    }
+
+    private static View readView(DataInputStream input) throws IOException {
+        if (!input.readBoolean()) {
+            return null;
+        }
+        String name = readString(input);
+        String url = readString(input);
+        View view = input.readBoolean() ? View.createNestedView(name, url) : View.createView(name, url);
+        int subViewCount = input.readInt();
+        for (int i = 0; i < subViewCount; i++) {
+            view.addSubView(readView(input));
+        }
+        return view;
+    }
+
+    private static void writeJob(DataOutputStream output, Job job) throws IOException {
+        writeString(output, job.getRawName());
+        writeString(output, job.getName());
+        writeString(output, job.getUrl());
+        writeString(output, job.getColor());
+        output.writeBoolean(job.isInQueue());
+        output.writeBoolean(job.isBuildable());
+
+        Job.Health health = job.getHealth();
+        output.writeBoolean(health != null);
+        if (health != null) {
+            writeString(output, health.getLevel());
+            writeString(output, health.getDescription());
+        }
+
+        Build lastBuild = job.getLastBuild();
+        output.writeBoolean(lastBuild != null);
+        if (lastBuild != null) {
+            writeBuild(output, lastBuild);
+        }
+
+        output.writeInt(job.getParameters().size());
+        for (JobParameter parameter : job.getParameters()) {
+            writeString(output, parameter.getName());
+            writeString(output, parameter.getJobParameterType() == null ? null : parameter.getJobParameterType().name());
+            writeString(output, parameter.getDefaultValue());
+            output.writeInt(parameter.getValues().size());
+            for (String value : parameter.getValues()) {
+                writeString(output, value);
+            }
+        }
+    }
+
+    private static Job readJob(DataInputStream input) throws IOException {
+        Job job = new Job();
+        job.setName(readString(input));
+        job.setDisplayName(readString(input));
+        job.setUrl(readString(input));
+        job.setColor(readString(input));
+        job.setInQueue(input.readBoolean());
+        job.setBuildable(input.readBoolean());
+
+        if (input.readBoolean()) {
+            job.setHealth(Job.Health.createHealth(readString(input), readString(input)));
+        }
+
+        if (input.readBoolean()) {
+            job.setLastBuild(readBuild(input));
+        }
+
+        int parameterCount = input.readInt();
+        for (int i = 0; i < parameterCount; i++) {
+            String parameterName = readString(input);
+            String type = readString(input);
+            String defaultValue = readString(input);
+            String[] choices = new String[input.readInt()];
+            for (int j = 0; j < choices.length; j++) {
+                choices[j] = readString(input);
+            }
+            job.addParameter(parameterName, type, defaultValue, choices);
+        }
+        return job;
+    }
+
+    private static void writeBuild(DataOutputStream output, Build build) throws IOException {
+        writeString(output, build.getUrl());
+        output.writeInt(build.getNumber());
+        writeString(output, build.getStatus() == null ? null : build.getStatus().name());
+        output.writeBoolean(build.isBuilding());
+        writeDate(output, build.getBuildDate());
+        writeDate(output, build.getTimestamp());
+        output.writeLong(build.getDuration() == null ? -1 : build.getDuration());
+    }
+
+    private static Build readBuild(DataInputStream input) throws IOException {
+        Build build = new Build();
+        build.setUrl(readString(input));
+        build.setNumber(input.readInt());
+        build.setStatus(readString(input));
+        build.setBuilding(input.readBoolean());
+        build.setBuildDate(readDate(input));
+        Date timestamp = readDate(input);
+        if (timestamp != null) {
+            build.setTimestamp(timestamp.getTime());
+        }
+        long duration = input.readLong();
+        build.setDuration(duration < 0 ? null : duration);
+        return build;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value.length() > MAX_STRING_LENGTH ? value.substring(0, MAX_STRING_LENGTH) : value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutputStream output, Date date) throws IOException {
+        output.writeLong(date == null ? Long.MIN_VALUE : date.getTime());
+    }
+
+    private static Date readDate(DataInputStream input) throws IOException {
+        long time = input.readLong();
+        return time == Long.MIN_VALUE ? null : new Date(time);
+    }
+
+    public static class Snapshot {
+
+        private Jenkins jenkins;
+
+        private final Map<String, List<Job>> jobsByViewName = new LinkedHashMap<String, List<Job>>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<Job>> eldest) {
+                return size() > MAX_CACHED_VIEWS;
+            }
+        };
+
+        Snapshot(Jenkins jenkins) {
+            this.jenkins = jenkins;
+        }
+
+        public Jenkins getJenkins() {
+            return jenkins;
+        }
+
+        public List<Job> getJobs(String viewName) {
+            return jobsByViewName.get(viewName);
+        }
+
+        void putJobs(String viewName, List<Job> jobs) {
+            jobsByViewName.remove(viewName);
+            jobsByViewName.put(viewName, jobs);
+        }
+
+        Snapshot copy() {
+            Snapshot copy = new Snapshot(jenkins);
+            copy.jobsByViewName.putAll(jobsByViewName);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.apache.commons.lang.StringUtils;
+import org.codinjutsu.tools.jenkins.model.Job;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory index of the job names and display names of every loaded view of every server, kept up to date from
+ * each view refresh. Queries of less than three characters are answered from the sorted names, longer ones from
+ * the trigrams of the names, so that a search never goes through all the jobs.
+ */
+public class JobSearchIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    public static class Match {
+
+        private final Job job;
+        private final String serverUrl;
+        private final List<String> viewNames;
+
+        private Match(Job job, String serverUrl, List<String> viewNames) {
+            this.job = job;
+            this.serverUrl = serverUrl;
+            this.viewNames = viewNames;
+        }
+
+        public Job getJob() {
+            return job;
+        }
+
+        public String getServerUrl() {
+            return serverUrl;
+        }
+
+        public List<String> getViewNames() {
+            return viewNames;
+        }
+    }
+
+    private final Map<String, Entry> entriesByUrl = new HashMap<String, Entry>();
+    private final Map<String, Map<String, Set<String>>> jobUrlsByViewByServer = new HashMap<String, Map<String, Set<String>>>();
+    private final TreeMap<String, Entry> entriesByName = new TreeMap<String, Entry>();
+    private final Map<Long, IdList> idsByGram = new HashMap<Long, IdList>();
+    private final List<Entry> entriesById = new ArrayList<Entry>();
+    private int removedEntries;
+
+    public static JobSearchIndex getInstance(Project project) {
+        return ServiceManager.getService(project, JobSearchIndex.class);
+    }
+
+    /**
+     * Only the jobs added to or removed from the view, or renamed, are indexed again.
+     */
+    public synchronized void updateView(String serverUrl, String viewName, List<Job> jobs) {
+        Map<String, Set<String>> jobUrlsByView = jobUrlsByViewByServer.get(serverUrl);
+        if (jobUrlsByView == null) {
+            jobUrlsByView = new HashMap<String, Set<String>>();
+            jobUrlsByViewByServer.put(serverUrl, jobUrlsByView);
+        }
+        Set<String> previousJobUrls = jobUrlsByView.get(viewName);
+        if (previousJobUrls == null) {
+            previousJobUrls = Collections.emptySet();
+        }
+
+        Set<String> jobUrls = new HashSet<String>(jobs.size() * 4 / 3 + 1);
+        for (Job job : jobs) {
+            String jobUrl = job.getUrl();
+            if (jobUrl == null || !jobUrls.add(jobUrl)) {
+                continue;
+            }
+            Entry entry = entriesByUrl.get(jobUrl);
+            if (entry == null) {
+                entry = add(job, serverUrl, Collections.<String>emptySet());
+            } else if (!entry.hasNamesOf(job)) {
+                remove(entry);
+                entry = add(job, serverUrl, entry.viewNames);
+            } else {
+                entry.job = job;
+            }
+            entry.viewNames.add(viewName);
+        }
+        for (String jobUrl : previousJobUrls) {
+            if (!jobUrls.contains(jobUrl)) {
+                removeFromView(jobUrl, viewName);
+            }
+        }
+        jobUrlsByView.put(viewName, jobUrls);
+        compactIfNecessary();
+    }
+
+    /**
+     * Forgets the views of the server which are not among the given ones anymore, e.g. once they were removed.
+     */
+    public synchronized void retainViews(String serverUrl, Collection<String> viewNames) {
+        Map<String, Set<String>> jobUrlsByView = jobUrlsByViewByServer.get(serverUrl);
+        if (jobUrlsByView == null) {
+            return;
+        }
+        for (Iterator<Map.Entry<String, Set<String>>> iterator = jobUrlsByView.entrySet().iterator(); iterator.hasNext(); ) {
+            Map.Entry<String, Set<String>> view = iterator.next();
+            if (viewNames.contains(view.getKey())) {
+                continue;
+            }
+            for (String jobUrl : view.getValue()) {
+                removeFromView(jobUrl, view.getKey());
+            }
+            iterator.remove();
+        }
+        compactIfNecessary();
+    }
+
+    public synchronized void removeServer(String serverUrl) {
+        Map<String, Set<String>> jobUrlsByView = jobUrlsByViewByServer.remove(serverUrl);
+        if (jobUrlsByView == null) {
+            return;
+        }
+        for (Set<String> jobUrls : jobUrlsByView.values()) {
+            for (String jobUrl : jobUrls) {
+                Entry entry = entriesByUrl.get(jobUrl);
+                if (entry != null) {
+                    remove(entry);
+                }
+            }
+        }
+        compactIfNecessary();
+    }
+
+    public synchronized void clear() {
+        entriesByUrl.clear();
+        jobUrlsByViewByServer.clear();
+        entriesByName.clear();
+        idsByGram.clear();
+        entriesById.clear();
+        removedEntries = 0;
+    }
+
+    public synchronized int size() {
+        return entriesByUrl.size();
+    }
+
+    /**
+     * @return at most the given number of jobs whose name or display name contains the query, those starting with
+     * it first, then the shortest names
+     */
+    public synchronized List<Match> search(String query, int maxResults) {
+        final String lowerQuery = StringUtils.trimToEmpty(query).toLowerCase(Locale.ENGLISH);
+        if (lowerQuery.isEmpty() || maxResults <= 0) {
+            return Collections.emptyList();
+        }
+
+        PriorityQueue<Candidate> bestCandidates = new PriorityQueue<Candidate>(maxResults + 1, Collections.reverseOrder(CANDIDATE_COMPARATOR));
+        if (lowerQuery.length() < GRAM_LENGTH) {
+            Set<Entry> prefixMatches = new LinkedHashSet<Entry>(entriesByName.subMap(lowerQuery, lowerQuery + Character.MAX_VALUE).values());
+            for (Entry entry : prefixMatches) {
+                offer(bestCandidates, new Candidate(entry, 0), maxResults);
+            }
+        } else {
+            for (int id : findIdsWithGramsOf(lowerQuery)) {
+                Entry entry = entriesById.get(id);
+                int rank = entry.rank(lowerQuery);
+                if (rank >= 0) {
+                    offer(bestCandidates, new Candidate(entry, rank), maxResults);
+                }
+            }
+        }
+
+        Candidate[] candidates = bestCandidates.toArray(new Candidate[bestCandidates.size()]);
+        Arrays.sort(candidates, CANDIDATE_COMPARATOR);
+        List<Match> matches = new ArrayList<Match>(candidates.length);
+        for (Candidate candidate : candidates) {
+            Entry entry = candidate.entry;
+            matches.add(new Match(entry.job, entry.serverUrl, Collections.unmodifiableList(new ArrayList<String>(entry.viewNames))));
+        }
+        return matches;
+    }
+
+    private static void offer(PriorityQueue<Candidate> bestCandidates, Candidate candidate, int maxResults) {
+        bestCandidates.add(candidate);
+        if (bestCandidates.size() > maxResults) {
+            bestCandidates.poll();
+        }
+    }
+
+    private int[] findIdsWithGramsOf(String lowerQuery) {
+        Set<Long> grams = gramsOf(lowerQuery, new HashSet<Long>());
+        IdList[] postings = new IdList[grams.size()];
+        int i = 0;
+        for (Long gram : grams) {
+            IdList ids = idsByGram.get(gram);
+            if (ids == null) {
+                return new int[0];
+            }
+            postings[i++] = ids;
+        }
+        Arrays.sort(postings, new Comparator<IdList>() {
+            @Override
+            public int compare(IdList ids1, IdList ids2) {
+                return Integer.compare(ids1.size, ids2.size);
+            }
+        });
+
+        int[] ids = Arrays.copyOf(postings[0].ids, postings[0].size);
+        int size = ids.length;
+        for (int p = 1; p < postings.length && size > 0; p++) {
+            size = intersect(ids, size, postings[p]);
+        }
+        return Arrays.copyOf(ids, size);
+    }
+
+    /**
+     * Keeps in place the ids which are also in the given sorted list.
+     */
+    private static int intersect(int[] ids, int size, IdList other) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < other.size; i++) {
+            while (j < other.size && other.ids[j] < ids[i]) {
+                j++;
+            }
+            if (j < other.size && other.ids[j] == ids[i]) {
+                ids[kept++] = ids[i];
+            }
+        }
+        return kept;
+    }
+
+    private Entry add(Job job, String serverUrl, Set<String> viewNames) {
+        Entry entry = new Entry(entriesById.size(), job, serverUrl, viewNames);
+        entriesById.add(entry);
+        entriesByUrl.put(entry.url, entry);
+        index(entry);
+        return entry;
+    }
+
+    private void index(Entry entry) {
+        entriesByName.put(entry.lowerName + KEY_SEPARATOR + entry.id, entry);
+        if (entry.lowerDisplayName != null) {
+            entriesByName.put(entry.lowerDisplayName + KEY_SEPARATOR + entry.id, entry);
+        }
+        Set<Long> grams = gramsOf(entry.lowerName, new HashSet<Long>());
+        if (entry.lowerDisplayName != null) {
+            gramsOf(entry.lowerDisplayName, grams);
+        }
+        for (Long gram : grams) {
+            IdList ids = idsByGram.get(gram);
+            if (ids == null) {
+                ids = new IdList();
+                idsByGram.put(gram, ids);
+            }
+            ids.add(entry.id);
+        }
+    }
+
+    private void removeFromView(String jobUrl, String viewName) {
+        Entry entry = entriesByUrl.get(jobUrl);
+        if (entry == null) {
+            return;
+        }
+        entry.viewNames.remove(viewName);
+        if (entry.viewNames.isEmpty()) {
+            remove(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        entriesByUrl.remove(entry.url);
+        entriesById.set(entry.id, null);
+        removedEntries++;
+        entriesByName.remove(entry.lowerName + KEY_SEPARATOR + entry.id);
+        if (entry.lowerDisplayName != null) {
+            entriesByName.remove(entry.lowerDisplayName + KEY_SEPARATOR + entry.id);
+        }
+        Set<Long> grams = gramsOf(entry.lowerName, new HashSet<Long>());
+        if (entry.lowerDisplayName != null) {
+            gramsOf(entry.lowerDisplayName, grams);
+        }
+        for (Long gram : grams) {
+            IdList ids = idsByGram.get(gram);
+            ids.remove(entry.id);
+            if (ids.size == 0) {
+                idsByGram.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Ids are never reused, so the id lists stay sorted by appending; they are given again once half of them
+     * belong to removed jobs.
+     */
+    private void compactIfNecessary() {
+        if (removedEntries == 0 || removedEntries * 2 < entriesById.size()) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<Entry>(entriesByUrl.values());
+        entriesByName.clear();
+        idsByGram.clear();
+        entriesById.clear();
+        removedEntries = 0;
+        for (Entry entry : entries) {
+            entry.id = entriesById.size();
+            entriesById.add(entry);
+            index(entry);
+        }
+    }
+
+    private static Set<Long> gramsOf(String text, Set<Long> grams) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return grams;
+    }
+
+    private static boolean isWordStart(String text, int index) {
+        return index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1));
+    }
+
+    private static final Comparator<Candidate> CANDIDATE_COMPARATOR = new Comparator<Candidate>() {
+        @Override
+        public int compare(Candidate candidate1, Candidate candidate2) {
+            if (candidate1.rank != candidate2.rank) {
+                return Integer.compare(candidate1.rank, candidate2.rank);
+            }
+            String name1 = candidate1.entry.lowerName;
+            String name2 = candidate2.entry.lowerName;
+            if (name1.length() != name2.length()) {
+                return Integer.compare(name1.length(), name2.length());
+            }
+            int byName = name1.compareTo(name2);
+            return byName != 0 ? byName : candidate1.entry.url.compareTo(candidate2.entry.url);
+        }
+    };
+
+    private static class Candidate {
+
+        private final Entry entry;
+        private final int rank;
+
+        Candidate(Entry entry, int rank) {
+            this.entry = entry;
+            this.rank = rank;
+        }
+    }
+
+    private static class Entry {
+
+        private int id;
+        private volatile Job job;
+        private final String url;
+        private final String serverUrl;
+        private final String lowerName;
+        private final String lowerDisplayName;
+        private final Set<String> viewNames;
+
+        Entry(int id, Job job, String serverUrl, Set<String> viewNames) {
+            this.id = id;
+            this.job = job;
+            this.url = job.getUrl();
+            this.serverUrl = serverUrl;
+            this.lowerName = StringUtils.defaultString(job.getRawName()).toLowerCase(Locale.ENGLISH);
+            String displayName = StringUtils.defaultString(job.getName()).toLowerCase(Locale.ENGLISH);
+            this.lowerDisplayName = displayName.equals(lowerName) ? null : displayName;
+            this.viewNames = new LinkedHashSet<String>(viewNames);
+        }
+
+        boolean hasNamesOf(Job job) {
+            return StringUtils.equals(this.job.getRawName(), job.getRawName()) && StringUtils.equals(this.job.getName(), job.getName());
+        }
+
+        /**
+         * @return 0 when a name starts with the query, 1 when one of its words does, 2 when a name only contains
+         * the query, -1 otherwise
+         */
+        int rank(String lowerQuery) {
+            int rank = rank(lowerName, lowerQuery);
+            if (lowerDisplayName != null && rank != 0) {
+                int displayNameRank = rank(lowerDisplayName, lowerQuery);
+                if (displayNameRank >= 0 && (rank < 0 || displayNameRank < rank)) {
+                    rank = displayNameRank;
+                }
+            }
+            return rank;
+        }
+
+        private static int rank(String lowerText, String lowerQuery) {
+            int index = lowerText.indexOf(lowerQuery);
+            if (index < 0) {
+                return -1;
+            }
+            if (index == 0) {
+                return 0;
+            }
+            for (; index >= 0; index = lowerText.indexOf(lowerQuery, index + 1)) {
+                if (isWordStart(lowerText, index)) {
+                    return 1;
+                }
+            }
+            return 2;
+        }
+    }
+
+    /**
+     * Sorted ids of the jobs sharing a trigram.
+     */
+    private static class IdList {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        void add(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pull-style view of the json-simple SAX parser: each call to {@link #next()} resumes the
+ * underlying parse for exactly one token, so no intermediate JSONObject tree is ever built.
+ */
+class JsonPullReader {
+
+    enum Token {
+        START_OBJECT, END_OBJECT, FIELD_NAME, START_ARRAY, END_ARRAY, VALUE, END_DOCUMENT
+    }
+
+    private final JSONParser parser = new JSONParser();
+    private final TokenHandler handler = new TokenHandler();
+    private final Reader reader;
+    private boolean started = false;
+    private boolean pushedBack = false;
+
+    JsonPullReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    Token next() throws IOException, ParseException {
+        if (pushedBack) {
+            pushedBack = false;
+            return handler.token;
+        }
+        if (handler.token == Token.END_DOCUMENT) {
+            return Token.END_DOCUMENT;
+        }
+        handler.token = null;
+        parser.parse(reader, handler, started);
+        started = true;
+        if (handler.token == null) {
+            handler.token = Token.END_DOCUMENT;
+        }
+        return handler.token;
+    }
+
+    /**
+     * Makes the next call to {@link #next()} return the current token again.
+     */
+    void pushBack() {
+        pushedBack = true;
+    }
+
+    String fieldName() {
+        return (String) handler.value;
+    }
+
+    Object value() {
+        return handler.value;
+    }
+
+    /**
+     * Reads the next primitive value, skipping it when it is an object or an array.
+     */
+    Object nextValue() throws IOException, ParseException {
+        Token token = next();
+        if (token == Token.VALUE) {
+            return handler.value;
+        }
+        skipStructure(token);
+        return null;
+    }
+
+    String nextString() throws IOException, ParseException {
+        Object value = nextValue();
+        return value == null ? null : value.toString();
+    }
+
+    Long nextLong() throws IOException, ParseException {
+        Object value = nextValue();
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    boolean nextBoolean() throws IOException, ParseException {
+        return Boolean.TRUE.equals(nextValue());
+    }
+
+    /**
+     * Inside an object, moves to the next field name. Returns false once the object is closed.
+     */
+    boolean nextField() throws IOException, ParseException {
+        Token token = next();
+        if (token == Token.FIELD_NAME) {
+            return true;
+        }
+        if (token == Token.END_OBJECT) {
+            return false;
+        }
+        throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN, token);
+    }
+
+    /**
+     * Skips the value of the field which has just been read.
+     */
+    void skipValue() throws IOException, ParseException {
+        skipStructure(next());
+    }
+
+    void skipStructure(Token token) throws IOException, ParseException {
+        if (token != Token.START_OBJECT && token != Token.START_ARRAY) {
+            return;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            Token current = next();
+            if (current == Token.START_OBJECT || current == Token.START_ARRAY) {
+                depth++;
+            } else if (current == Token.END_OBJECT || current == Token.END_ARRAY) {
+                depth--;
+            } else if (current == Token.END_DOCUMENT) {
+                throw new ParseException(ParseException.ERROR_UNEXPECTED_TOKEN, current);
+            }
+        }
+    }
+
+    private static class TokenHandler implements ContentHandler {
+
+        private Token token;
+        private Object value;
+
+        @Override
+        public void startJSON() {
+        }
+
+        @Override
+        public void endJSON() {
+        }
+
+        @Override
+        public boolean startObject() {
+            return emit(Token.START_OBJECT, null);
+        }
+
+        @Override
+        public boolean endObject() {
+            return emit(Token.END_OBJECT, null);
+        }
+
+        @Override
+        public boolean startObjectEntry(String key) {
+            return emit(Token.FIELD_NAME, key);
+        }
+
+        @Override
+        public boolean endObjectEntry() {
+            return true;
+        }
+
+        @Override
+        public boolean startArray() {
+            return emit(Token.START_ARRAY, null);
+        }
+
+        @Override
+        public boolean endArray() {
+            return emit(Token.END_ARRAY, null);
+        }
+
+        @Override
+        public boolean primitive(Object value) {
+            return emit(Token.VALUE, value);
+        }
+
+        private boolean emit(Token token, Object value) {
+            this.token = token;
+            this.value = value;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.QueueItem;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Follows the queue item Jenkins created for a triggered build until an executor starts the build, reading it
+ * less and less often while it waits in the queue. A failed read is retried the same way, up to
+ * {@value #MAX_FAILED_POLLS} times in a row.
+ * <p>
+ * A build still queued after {@value #MAX_QUEUE_WAIT_MINUTES} minutes is reported as not started, and nothing is
+ * tracked anymore once the project is closed.
+ */
+public class QueueItemTracker implements Disposable {
+
+    public interface Listener {
+
+        void buildStarted(Build build);
+
+        void buildNotStarted(String reason);
+    }
+
+    private static final long FIRST_POLL_DELAY_MILLIS = 1000;
+    private static final long MAX_POLL_DELAY_MILLIS = 30000;
+    static final int MAX_FAILED_POLLS = 5;
+    static final int MAX_QUEUE_WAIT_MINUTES = 60;
+
+    private final JenkinsScheduler scheduler;
+    private final long firstPollDelayMillis;
+    private final long maxPollDelayMillis;
+    private final long maxQueueWaitMillis;
+
+    private volatile boolean disposed;
+
+    public static QueueItemTracker getInstance(Project project) {
+        return ServiceManager.getService(project, QueueItemTracker.class);
+    }
+
+    public QueueItemTracker(Project project) {
+        this(JenkinsScheduler.getInstance(project), FIRST_POLL_DELAY_MILLIS, MAX_POLL_DELAY_MILLIS, TimeUnit.MINUTES.toMillis(MAX_QUEUE_WAIT_MINUTES));
+    }
+
+    QueueItemTracker(JenkinsScheduler scheduler, long firstPollDelayMillis, long maxPollDelayMillis, long maxQueueWaitMillis) {
+        this.scheduler = scheduler;
+        this.firstPollDelayMillis = firstPollDelayMillis;
+        this.maxPollDelayMillis = maxPollDelayMillis;
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+    }
+
+    /**
+     * The listener is called once, from a scheduler thread, unless the tracker is disposed before.
+     */
+    public void track(RequestManager requestManager, String queueItemUrl, Listener listener) {
+        TrackedItem trackedItem = new TrackedItem(requestManager, queueItemUrl, listener, System.currentTimeMillis() + maxQueueWaitMillis);
+        schedulePoll(trackedItem, firstPollDelayMillis, 0);
+    }
+
+    @Override
+    public void dispose() {
+        disposed = true;
+    }
+
+    private void schedulePoll(final TrackedItem trackedItem, final long delayMillis, final int failedPolls) {
+        if (disposed) {
+            return;
+        }
+        scheduler.schedule(JenkinsScheduler.Lane.BUILD_WATCH, new Runnable() {
+            @Override
+            public void run() {
+                poll(trackedItem, delayMillis, failedPolls);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(TrackedItem trackedItem, long delayMillis, int failedPolls) {
+        if (disposed) {
+            return;
+        }
+        Listener listener = trackedItem.listener;
+        long nextDelayMillis = Math.min(delayMillis * 2, maxPollDelayMillis);
+        QueueItem queueItem;
+        try {
+            queueItem = trackedItem.requestManager.loadQueueItem(trackedItem.queueItemUrl);
+        } catch (RuntimeException ex) {
+            if (failedPolls + 1 >= MAX_FAILED_POLLS) {
+                listener.buildNotStarted(ex.getMessage());
+            } else {
+                schedulePoll(trackedItem, nextDelayMillis, failedPolls + 1);
+            }
+            return;
+        }
+        if (queueItem == null) {
+            listener.buildNotStarted("not logged in");
+        } else if (queueItem.isCancelled()) {
+            listener.buildNotStarted("cancelled");
+        } else if (queueItem.getExecutable() != null) {
+            Build build = queueItem.getExecutable();
+            build.setBuilding(true);
+            listener.buildStarted(build);
+        } else if (System.currentTimeMillis() >= trackedItem.deadlineMillis) {
+            listener.buildNotStarted(String.format("still queued after %d minutes", TimeUnit.MILLISECONDS.toMinutes(maxQueueWaitMillis)));
+        } else {
+            schedulePoll(trackedItem, nextDelayMillis, 0);
+        }
+    }
+
+    private static class TrackedItem {
+
+        private final RequestManager requestManager;
+        private final String queueItemUrl;
+        private final Listener listener;
+        private final long deadlineMillis;
+
+        TrackedItem(RequestManager requestManager, String queueItemUrl, Listener listener, long deadlineMillis) {
+            this.requestManager = requestManager;
+            this.queueItemUrl = queueItemUrl;
+            this.listener = listener;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
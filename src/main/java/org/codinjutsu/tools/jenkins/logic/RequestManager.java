@@ -16,6 +16,7 @@
 
 package org.codinjutsu.tools.jenkins.logic;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
@@ -30,34 +31,72 @@ import org.codinjutsu.tools.jenkins.exception.ConfigurationException;
 import org.codinjutsu.tools.jenkins.model.Build;
 import org.codinjutsu.tools.jenkins.model.Jenkins;
 import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.model.JobParameter;
+import org.codinjutsu.tools.jenkins.model.QueueItem;
 import org.codinjutsu.tools.jenkins.model.View;
+import org.codinjutsu.tools.jenkins.security.HttpTransport;
 import org.codinjutsu.tools.jenkins.security.JenkinsVersion;
+import org.codinjutsu.tools.jenkins.security.ProgressiveText;
+import org.codinjutsu.tools.jenkins.security.ResponseParser;
 import org.codinjutsu.tools.jenkins.security.SecurityClient;
 import org.codinjutsu.tools.jenkins.security.SecurityClientFactory;
+import org.codinjutsu.tools.jenkins.security.StreamHandle;
 
 import javax.swing.*;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
 import java.net.URL;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
-public class RequestManager implements RequestManagerInterface {
+public class RequestManager implements RequestManagerInterface, Disposable {
 
     private static final Logger logger = Logger.getLogger(RequestManager.class);
 
     private static final String BUILDHIVE_CLOUDBEES = "buildhive";
 
+    private static final int FAVORITE_JOB_TIMEOUT_SECONDS = 15;
+    private static final int VIEW_PAGE_SIZE = 100;
+    private static final int MAX_CHANGED_JOBS_TO_LOAD = 10;
+    private static final int MAX_VIEW_SNAPSHOTS = 16;
+    private static final long PARAMETER_DEFINITIONS_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int EVENT_STREAM_IDLE_TIMEOUT_MILLIS = (int) TimeUnit.MINUTES.toMillis(3);
+    private static final int CONSOLE_BUFFER_SIZE = 8192;
+    private static final String JOB_EVENTS_SUBSCRIPTION = "{\"dispatcherId\":\"%s\",\"subscribe\":[{\"jenkins_channel\":\"job\"}]}";
+
     private UrlBuilder urlBuilder;
 
+    private HttpTransport httpTransport;
+
     private SecurityClient securityClient;
 
     private JenkinsPlateform jenkinsPlateform = JenkinsPlateform.CLASSIC;
 
     private RssParser rssParser = new RssParser();
 
-    private JenkinsParser jsonParser = new JenkinsJsonParser();
+    private JenkinsParser jsonParser = new JenkinsJsonStreamParser();
     private JenkinsServer jenkinsServer;
 
+    private ThreadPoolExecutor favoriteJobsExecutor;
+    private final AtomicInteger eventStreamBatchId = new AtomicInteger();
+    private final Map<String, ParameterDefinitions> parameterDefinitionsByJobUrl = new ConcurrentHashMap<>();
+    private final SingleFlight singleFlight = new SingleFlight(JenkinsAppSettings.DEFAULT_REQUEST_FRESHNESS_MILLIS);
+    private final Map<String, ViewSnapshot> viewSnapshotByUrl = Collections.synchronizedMap(
+            new LinkedHashMap<String, ViewSnapshot>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, ViewSnapshot> eldest) {
+                    return size() > MAX_VIEW_SNAPSHOTS;
+                }
+            });
+    private final AtomicLong unchangedViewRefreshes = new AtomicLong();
+    private final AtomicLong changedJobsViewRefreshes = new AtomicLong();
+    private final AtomicLong fullViewRefreshes = new AtomicLong();
+
     public static RequestManager getInstance(Project project) {
         return ServiceManager.getService(project, RequestManager.class);
     }
@@ -65,6 +104,12 @@ public class RequestManager implements RequestManagerInterface {
 
     public RequestManager(Project project) {
         this.urlBuilder = UrlBuilder.getInstance(project);
+        this.httpTransport = HttpTransport.getInstance(project);
+    }
+
+    RequestManager(UrlBuilder urlBuilder, HttpTransport httpTransport) {
+        this.urlBuilder = urlBuilder;
+        this.httpTransport = httpTransport;
     }
 
     RequestManager(UrlBuilder urlBuilder, SecurityClient securityClient) {
@@ -76,7 +121,6 @@ public class RequestManager implements RequestManagerInterface {
     public Jenkins loadJenkinsWorkspace(JenkinsAppSettings configuration) {
         if (handleNotYetLoggedInState()) return null;
         URL url = urlBuilder.createJenkinsWorkspaceUrl(configuration);
-        String jenkinsWorkspaceData = securityClient.execute(url);
 
         if (configuration.getServerUrl().contains(BUILDHIVE_CLOUDBEES)) {//TODO hack need to refactor
             jenkinsPlateform = JenkinsPlateform.CLOUDBEES;
@@ -84,7 +128,7 @@ public class RequestManager implements RequestManagerInterface {
             jenkinsPlateform = JenkinsPlateform.CLASSIC;
         }
 
-        Jenkins jenkins = jsonParser.createWorkspace(jenkinsWorkspaceData, configuration.getServerUrl());
+        Jenkins jenkins = securityClient.get(url, jenkinsWorkspaceReader -> jsonParser.createWorkspace(jenkinsWorkspaceReader, configuration.getServerUrl()));
 
         int jenkinsPort = url.getPort();
         URL viewUrl = urlBuilder.createViewUrl(jenkinsPlateform, jenkins.getPrimaryView().getUrl());
@@ -113,25 +157,78 @@ public class RequestManager implements RequestManagerInterface {
      */
     @Override
     public Map<String, Build> loadJenkinsRssLatestBuilds(JenkinsAppSettings configuration) {
+        return loadJenkinsRssLatestBuilds(configuration, Collections.<String, Build>emptyMap());
+    }
+
+    /**
+     * Same as {@link #loadJenkinsRssLatestBuilds(JenkinsAppSettings)}, without the builds which are not newer than
+     * the last seen build of their job. The result depends on the caller, so it is not shared with other reads.
+     */
+    @Override
+    public Map<String, Build> loadJenkinsRssLatestBuilds(JenkinsAppSettings configuration, Map<String, Build> lastSeenBuilds) {
         if (handleNotYetLoggedInState()) return Collections.emptyMap();
         URL url = urlBuilder.createRssLatestUrl(configuration.getServerUrl());
 
-        String rssData = securityClient.execute(url);
+        if (lastSeenBuilds.isEmpty()) {
+            return get(url, rssParser::loadJenkinsRssLatestBuilds);
+        }
+        return securityClient.get(url, rssReader -> rssParser.loadJenkinsRssLatestBuilds(rssReader, lastSeenBuilds));
+    }
 
-        return rssParser.loadJenkinsRssLatestBuilds(rssData);
+    /**
+     * Subscribes to the job events of the SSE Gateway plugin, then blocks while they are dispatched to the listener,
+     * until the server ends the stream or the handle is closed.
+     */
+    @Override
+    public void listenToBuildEvents(JenkinsAppSettings configuration, String clientId, StreamHandle handle, final BuildEventListener listener) {
+        if (handleNotYetLoggedInState() || handle.isClosed()) return;
+        String serverUrl = configuration.getServerUrl();
+
+        securityClient.get(urlBuilder.createEventStreamConnectUrl(serverUrl, clientId), connectReader -> null);
+        securityClient.execute(urlBuilder.createEventStreamConfigureUrl(serverUrl, eventStreamBatchId.incrementAndGet()),
+                String.format(JOB_EVENTS_SUBSCRIPTION, clientId));
+
+        BuildEventReader buildEventReader = new BuildEventReader(serverUrl);
+        securityClient.stream(urlBuilder.createEventStreamListenUrl(serverUrl, clientId), EVENT_STREAM_IDLE_TIMEOUT_MILLIS, handle, eventStreamReader -> {
+            listener.streamOpened();
+            buildEventReader.read(eventStreamReader, listener);
+            return null;
+        });
     }
 
     private List<Job> loadJenkinsView(String viewUrl) {
         if (handleNotYetLoggedInState()) return Collections.emptyList();
         URL url = urlBuilder.createViewUrl(jenkinsPlateform, viewUrl);
-        String jenkinsViewData = securityClient.execute(url);
         if (jenkinsPlateform.equals(JenkinsPlateform.CLASSIC)) {
-            return jsonParser.createViewJobs(jenkinsViewData);
+            return get(url, jsonParser::createViewJobs);
         } else {
-            return jsonParser.createCloudbeesViewJobs(jenkinsViewData);
+            return get(url, jsonParser::createCloudbeesViewJobs);
         }
     }
 
+    /**
+     * Concurrent reads of a same url, and the ones following within the freshness window, share one request.
+     * The flights are keyed by url only: the parser must give the same result whoever calls, so a parser bound to
+     * per-call state has to go through the security client directly.
+     */
+    private <T> T get(URL url, ResponseParser<T> responseParser) {
+        return singleFlight.load(url.toString(), () -> securityClient.get(url, responseParser));
+    }
+
+    /**
+     * @return the number of job, view, build and RSS reads which went to the server
+     */
+    public long getIssuedRequestCount() {
+        return singleFlight.getIssuedCount();
+    }
+
+    /**
+     * @return the number of job, view, build and RSS reads answered by a request issued for another caller
+     */
+    public long getCoalescedRequestCount() {
+        return singleFlight.getCoalescedCount();
+    }
+
     private boolean handleNotYetLoggedInState() {
         boolean threadStack = false;
         boolean result = false;
@@ -152,33 +249,31 @@ public class RequestManager implements RequestManagerInterface {
     private Job loadJob(String jenkinsJobUrl) {
         if (handleNotYetLoggedInState()) return null;
         URL url = urlBuilder.createJobUrl(jenkinsJobUrl);
-        String jenkinsJobData = securityClient.execute(url);
-        return jsonParser.createJob(jenkinsJobData);
+        return get(url, jsonParser::createJob);
     }
 
     private void stopBuild(String jenkinsBuildUrl) {
         if (handleNotYetLoggedInState()) return;
         URL url = urlBuilder.createStopBuildUrl(jenkinsBuildUrl);
         securityClient.execute(url);
+        singleFlight.forgetCompleted();
     }
 
     private Build loadBuild(String jenkinsBuildUrl) {
         if (handleNotYetLoggedInState()) return null;
         URL url = urlBuilder.createBuildUrl(jenkinsBuildUrl);
-        String jenkinsJobData = securityClient.execute(url);
-        return jsonParser.createBuild(jenkinsJobData);
+        return get(url, jsonParser::createBuild);
     }
 
     private List<Build> loadBuilds(String jenkinsBuildUrl) {
         if (handleNotYetLoggedInState()) return null;
         URL url = urlBuilder.createBuildsUrl(jenkinsBuildUrl);
-        String jenkinsJobData = securityClient.execute(url);
-        return jsonParser.createBuilds(jenkinsJobData);
+        return get(url, jsonParser::createBuilds);
     }
 
     @Override
-    public void runBuild(Job job, JenkinsAppSettings configuration, Map<String, VirtualFile> files) {
-        if (handleNotYetLoggedInState()) return;
+    public String runBuild(Job job, JenkinsAppSettings configuration, Map<String, VirtualFile> files) {
+        if (handleNotYetLoggedInState()) return null;
         if (job.hasParameters()) {
             if (files.size() > 0) {
                 for (String key : files.keySet()) {
@@ -189,57 +284,166 @@ public class RequestManager implements RequestManagerInterface {
                 securityClient.setFiles(files);
             }
         }
-        runBuild(job, configuration);
+        return runBuild(job, configuration);
     }
 
+    /**
+     * @return the url of the queue item of the build, or null when the server does not tell it
+     */
     @Override
-    public void runBuild(Job job, JenkinsAppSettings configuration) {
-        if (handleNotYetLoggedInState()) return;
+    public String runBuild(Job job, JenkinsAppSettings configuration) {
+        if (handleNotYetLoggedInState()) return null;
         URL url = urlBuilder.createRunJobUrl(job.getUrl(), configuration);
-        securityClient.execute(url);
+        String queueItemUrl = securityClient.trigger(url);
+        singleFlight.forgetCompleted();
+        return queueItemUrl;
     }
 
     @Override
-    public void runParameterizedBuild(Job job, JenkinsAppSettings configuration, Map<String, String> paramValueMap) {
-        if (handleNotYetLoggedInState()) return;
+    public String runParameterizedBuild(Job job, JenkinsAppSettings configuration, Map<String, String> paramValueMap) {
+        if (handleNotYetLoggedInState()) return null;
         URL url = urlBuilder.createRunParameterizedJobUrl(job.getUrl(), configuration, paramValueMap);
-        securityClient.execute(url);
+        String queueItemUrl = securityClient.trigger(url);
+        singleFlight.forgetCompleted();
+        return queueItemUrl;
+    }
+
+    @Override
+    public QueueItem loadQueueItem(String queueItemUrl) {
+        if (handleNotYetLoggedInState()) return null;
+        URL url = urlBuilder.createQueueItemUrl(queueItemUrl);
+        return get(url, jsonParser::createQueueItem);
+    }
+
+    /**
+     * @return the urls of the builds currently running on any executor of the server, in a single request
+     */
+    @Override
+    public Set<String> loadRunningBuildUrls(String serverUrl) {
+        if (handleNotYetLoggedInState()) return null;
+        URL url = urlBuilder.createRunningBuildsUrl(serverUrl);
+        return get(url, jsonParser::createRunningBuildUrls);
+    }
+
+    /**
+     * @return the names, urls and colors of the jobs of every view and nested view of the server by view name, in a
+     * single request which is enough for the job search
+     */
+    @Override
+    public Map<String, List<Job>> loadJobNamesByViewName(String serverUrl) {
+        if (handleNotYetLoggedInState() || !JenkinsPlateform.CLASSIC.equals(jenkinsPlateform)) return Collections.emptyMap();
+        URL url = urlBuilder.createViewsJobNamesUrl(serverUrl);
+        return get(url, jsonParser::createJobsByViewName);
     }
 
     @Override
     public void authenticate(JenkinsAppSettings jenkinsAppSettings, JenkinsSettings jenkinsSettings) {
         SecurityClientFactory.setVersion(jenkinsSettings.getVersion());
+        httpTransport.setMaxConnectionsPerHost(jenkinsAppSettings.getMaxConnectionsPerHost());
+        jsonParser = jenkinsAppSettings.isStreamingJsonParser() ? new JenkinsJsonStreamParser() : new JenkinsJsonParser();
+        singleFlight.setFreshnessMillis(jenkinsAppSettings.getRequestFreshnessMillis());
+        singleFlight.forgetCompleted();
+        parameterDefinitionsByJobUrl.clear();
         if (jenkinsSettings.isSecurityMode()) {
-            securityClient = SecurityClientFactory.basic(jenkinsSettings.getUsername(), jenkinsSettings.getPassword(), jenkinsSettings.getCrumbData());
+            securityClient = SecurityClientFactory.basic(jenkinsSettings.getUsername(), jenkinsSettings.getPassword(), jenkinsSettings.getCrumbData(), httpTransport);
         } else {
-            securityClient = SecurityClientFactory.none(jenkinsSettings.getCrumbData());
+            securityClient = SecurityClientFactory.none(jenkinsSettings.getCrumbData(), httpTransport);
         }
         securityClient.connect(urlBuilder.createAuthenticationUrl(jenkinsAppSettings.getServerUrl()));
 
-        jenkinsServer = new JenkinsServer(urlBuilder.createServerUrl(jenkinsAppSettings.getServerUrl()), jenkinsSettings.getUsername(), jenkinsSettings.getPassword());
+        jenkinsServer = httpTransport.createJenkinsServer(urlBuilder.createServerUrl(jenkinsAppSettings.getServerUrl()), jenkinsSettings.getUsername(), jenkinsSettings.getPassword());
     }
 
     @Override
     public void authenticate(String serverUrl, String username, String password, String crumbData, JenkinsVersion version) {
         SecurityClientFactory.setVersion(version);
         if (StringUtils.isNotBlank(username)) {
-            securityClient = SecurityClientFactory.basic(username, password, crumbData);
+            securityClient = SecurityClientFactory.basic(username, password, crumbData, httpTransport);
         } else {
-            securityClient = SecurityClientFactory.none(crumbData);
+            securityClient = SecurityClientFactory.none(crumbData, httpTransport);
         }
         securityClient.connect(urlBuilder.createAuthenticationUrl(serverUrl));
     }
 
+    /**
+     * Favorites are loaded concurrently, at most one request per pooled connection. A favorite which cannot be
+     * loaded in time is left out; the error is only raised when none of them could be loaded.
+     */
     @Override
     public List<Job> loadFavoriteJobs(List<JenkinsSettings.FavoriteJob> favoriteJobs) {
         if (handleNotYetLoggedInState()) return Collections.emptyList();
-        List<Job> jobs = new LinkedList<>();
-        for (JenkinsSettings.FavoriteJob favoriteJob : favoriteJobs) {
-            jobs.add(loadJob(favoriteJob.url));
+
+        Map<JenkinsSettings.FavoriteJob, Future<Job>> futureJobs = new LinkedHashMap<>();
+        for (final JenkinsSettings.FavoriteJob favoriteJob : favoriteJobs) {
+            futureJobs.put(favoriteJob, getFavoriteJobsExecutor().submit(() -> loadJob(favoriteJob.url)));
+        }
+
+        List<Job> jobs = new ArrayList<>(favoriteJobs.size());
+        RuntimeException firstError = null;
+        for (Map.Entry<JenkinsSettings.FavoriteJob, Future<Job>> futureJob : futureJobs.entrySet()) {
+            String favoriteName = futureJob.getKey().name;
+            try {
+                Job job = futureJob.getValue().get(FAVORITE_JOB_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                if (job != null) {
+                    jobs.add(job);
+                }
+            } catch (TimeoutException ex) {
+                futureJob.getValue().cancel(true);
+                logger.warn(String.format("Timeout while loading favorite job '%s'", favoriteName));
+                firstError = firstError != null ? firstError : new ConfigurationException(String.format("Timeout while loading favorite job '%s'", favoriteName));
+            } catch (ExecutionException ex) {
+                logger.warn(String.format("Unable to load favorite job '%s'", favoriteName), ex.getCause());
+                firstError = firstError != null ? firstError : asRuntimeException(ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                for (Future<Job> pendingJob : futureJobs.values()) {
+                    pendingJob.cancel(true);
+                }
+                break;
+            }
+        }
+
+        if (jobs.isEmpty() && firstError != null) {
+            throw firstError;
         }
         return jobs;
     }
 
+    private static RuntimeException asRuntimeException(Throwable throwable) {
+        return throwable instanceof RuntimeException ? (RuntimeException) throwable : new RuntimeException(throwable);
+    }
+
+    private synchronized ThreadPoolExecutor getFavoriteJobsExecutor() {
+        int maxConcurrentRequests = httpTransport != null ? httpTransport.getMaxConnectionsPerHost() : JenkinsAppSettings.DEFAULT_MAX_CONNECTIONS_PER_HOST;
+        if (favoriteJobsExecutor == null) {
+            final AtomicInteger threadCount = new AtomicInteger();
+            favoriteJobsExecutor = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "Jenkins favorite job loader " + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            favoriteJobsExecutor.allowCoreThreadTimeOut(true);
+        } else if (favoriteJobsExecutor.getMaximumPoolSize() != maxConcurrentRequests) {
+            if (maxConcurrentRequests > favoriteJobsExecutor.getMaximumPoolSize()) {
+                favoriteJobsExecutor.setMaximumPoolSize(maxConcurrentRequests);
+                favoriteJobsExecutor.setCorePoolSize(maxConcurrentRequests);
+            } else {
+                favoriteJobsExecutor.setCorePoolSize(maxConcurrentRequests);
+                favoriteJobsExecutor.setMaximumPoolSize(maxConcurrentRequests);
+            }
+        }
+        return favoriteJobsExecutor;
+    }
+
+    @Override
+    public synchronized void dispose() {
+        if (favoriteJobsExecutor != null) {
+            favoriteJobsExecutor.shutdownNow();
+            favoriteJobsExecutor = null;
+        }
+    }
+
     @Override
     public void stopBuild(Build build) {
         stopBuild(build.getUrl());
@@ -252,7 +456,119 @@ public class RequestManager implements RequestManagerInterface {
 
     @Override
     public List<Job> loadJenkinsView(View view) {
-        return loadJenkinsView(view.getUrl());
+        return loadJenkinsView(view, null);
+    }
+
+    /**
+     * Loads the jobs of a classic view by pages, so that a large view does not come as one huge response.
+     * Each page is handed to the listener, when there is one, as soon as it is read. The loaded jobs are the
+     * snapshot the next {@link #refreshJenkinsView(View)} of the view compares its probe to.
+     */
+    @Override
+    public List<Job> loadJenkinsView(View view, Consumer<List<Job>> pageListener) {
+        if (handleNotYetLoggedInState()) return Collections.emptyList();
+        if (!JenkinsPlateform.CLASSIC.equals(jenkinsPlateform)) {
+            return loadJenkinsView(view.getUrl());
+        }
+
+        List<Job> jobs = new ArrayList<>();
+        Set<String> jobUrls = new HashSet<>();
+        List<Job> page;
+        do {
+            URL url = urlBuilder.createViewPageUrl(view.getUrl(), jobs.size(), jobs.size() + VIEW_PAGE_SIZE);
+            page = get(url, jsonParser::createViewJobs);
+            // a server ignoring the range answers the whole view to each page request
+            if (!page.isEmpty() && !jobUrls.add(page.get(0).getUrl())) {
+                break;
+            }
+            jobs.addAll(page);
+            if (pageListener != null && !page.isEmpty()) {
+                pageListener.accept(page);
+            }
+        } while (page.size() == VIEW_PAGE_SIZE);
+        viewSnapshotByUrl.put(view.getUrl(), ViewSnapshot.of(jobs));
+        return jobs;
+    }
+
+    /**
+     * Refreshes the jobs of a classic view in two phases. A probe first reads the color and the last build number
+     * of each job, which are compared to the previous refresh of the view: nothing else is loaded when they are the
+     * same, only the changed jobs when a few of them changed, and the whole view otherwise.
+     */
+    @Override
+    public List<Job> refreshJenkinsView(View view) {
+        if (handleNotYetLoggedInState()) return Collections.emptyList();
+        if (!JenkinsPlateform.CLASSIC.equals(jenkinsPlateform)) {
+            return loadJenkinsView(view);
+        }
+
+        // not shared with other callers: the probe has to tell the state of the jobs right now
+        URL probeUrl = urlBuilder.createViewProbeUrl(view.getUrl());
+        Map<String, String> fingerprints = new LinkedHashMap<>();
+        for (Job probedJob : securityClient.get(probeUrl, jsonParser::createViewJobs)) {
+            fingerprints.put(probedJob.getUrl(), ViewSnapshot.fingerprintOf(probedJob));
+        }
+
+        List<Job> jobs = null;
+        ViewSnapshot previousSnapshot = viewSnapshotByUrl.get(view.getUrl());
+        if (previousSnapshot != null) {
+            List<String> changedJobUrls = previousSnapshot.getChangedJobUrls(fingerprints);
+            if (changedJobUrls.isEmpty()) {
+                jobs = previousSnapshot.getJobs(fingerprints.keySet(), Collections.<String, Job>emptyMap());
+                unchangedViewRefreshes.incrementAndGet();
+            } else if (changedJobUrls.size() <= MAX_CHANGED_JOBS_TO_LOAD) {
+                Map<String, Job> changedJobs = loadChangedJobs(changedJobUrls);
+                if (changedJobs != null) {
+                    jobs = previousSnapshot.getJobs(fingerprints.keySet(), changedJobs);
+                    changedJobsViewRefreshes.incrementAndGet();
+                }
+            }
+        }
+        if (jobs == null) {
+            jobs = loadJenkinsView(view);
+            fullViewRefreshes.incrementAndGet();
+        }
+        viewSnapshotByUrl.put(view.getUrl(), new ViewSnapshot(fingerprints, jobs));
+        if (logger.isDebugEnabled()) {
+            logger.debug(String.format("View refreshes: %d unchanged, %d with changed jobs only, %d full",
+                    unchangedViewRefreshes.get(), changedJobsViewRefreshes.get(), fullViewRefreshes.get()));
+        }
+        return jobs;
+    }
+
+    private Map<String, Job> loadChangedJobs(List<String> changedJobUrls) {
+        Map<String, Job> changedJobs = new HashMap<>();
+        for (String changedJobUrl : changedJobUrls) {
+            try {
+                Job changedJob = loadJob(changedJobUrl);
+                if (changedJob == null) {
+                    return null;
+                }
+                changedJobs.put(changedJobUrl, changedJob);
+            } catch (RuntimeException ex) {
+                logger.debug(String.format("Unable to load the changed job %s, the whole view is loaded", changedJobUrl), ex);
+                return null;
+            }
+        }
+        return changedJobs;
+    }
+
+    /**
+     * @return the number of view refreshes which the probe alone answered
+     */
+    public long getUnchangedViewRefreshCount() {
+        return unchangedViewRefreshes.get();
+    }
+
+    /**
+     * @return the number of view refreshes which only loaded the jobs the probe found changed
+     */
+    public long getChangedJobsViewRefreshCount() {
+        return changedJobsViewRefreshes.get();
+    }
+
+    public long getFullViewRefreshCount() {
+        return fullViewRefreshes.get();
     }
 
     @Override
@@ -260,19 +576,49 @@ public class RequestManager implements RequestManagerInterface {
         return loadBuilds(job.getUrl());
     }
 
+    /**
+     * Views and jobs only come with the names and types of the job parameters. Their default values and choices
+     * are loaded here, when a build is about to be configured. They are kept for the next builds of the job while
+     * the names and types of its parameters stay the same, for a minute at most since a default value or a choice
+     * can change without them. The jobs share the same immutable definitions.
+     */
+    @Override
+    public void loadParameterDefinitions(Job job) {
+        if (!job.hasParameters() || handleNotYetLoggedInState()) return;
+        String signature = ParameterDefinitions.signatureOf(job.getParameters());
+        ParameterDefinitions parameterDefinitions = parameterDefinitionsByJobUrl.get(job.getUrl());
+        if (parameterDefinitions == null || !parameterDefinitions.isValidFor(signature, System.currentTimeMillis())) {
+            URL url = urlBuilder.createJobParametersUrl(job.getUrl());
+            parameterDefinitions = new ParameterDefinitions(signature, get(url, jsonParser::createJob).getParameters(), System.currentTimeMillis());
+            parameterDefinitionsByJobUrl.put(job.getUrl(), parameterDefinitions);
+        }
+        job.setParameters(parameterDefinitions.parameters);
+    }
+
     @Override
     public Build loadBuild(Build build) {
         return loadBuild(build.getUrl());
     }
 
+    /**
+     * Writes the console of the build, from the given offset, to the writer as it is downloaded.
+     * The download stops with a {@link ConfigurationException} when the current thread is interrupted.
+     */
     @Override
-    public String loadConsoleTextFor(Job job) {
-        try {
-            return jenkinsServer.getJob(job.getName()).getLastCompletedBuild().details().getConsoleOutputText();
-        } catch (IOException e) {
-            logger.warn("cannot load log for " + job.getName());
+    public ProgressiveText loadConsoleText(Build build, long start, final Writer console) {
+        if (handleNotYetLoggedInState()) return new ProgressiveText(start, false);
+        URL url = urlBuilder.createProgressiveTextUrl(build.getUrl(), start);
+        return securityClient.progressiveText(url, consoleReader -> {
+            char[] buffer = new char[CONSOLE_BUFFER_SIZE];
+            int read;
+            while ((read = consoleReader.read(buffer)) != -1) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Console download interrupted");
+                }
+                console.write(buffer, 0, read);
+            }
             return null;
-        }
+        });
     }
 
     @Override
@@ -294,4 +640,82 @@ public class RequestManager implements RequestManagerInterface {
             return Collections.emptyList();
         }
     }
+
+    /**
+     * The jobs of a snapshot are copies: the callers update the jobs they are given, which must not change the
+     * snapshot handed to the next refresh.
+     */
+    private static class ViewSnapshot {
+
+        private final Map<String, String> fingerprintByJobUrl;
+        private final Map<String, Job> jobByUrl = new HashMap<>();
+
+        private ViewSnapshot(Map<String, String> fingerprintByJobUrl, List<Job> jobs) {
+            this.fingerprintByJobUrl = fingerprintByJobUrl;
+            for (Job job : jobs) {
+                jobByUrl.put(job.getUrl(), job.copy());
+            }
+        }
+
+        static ViewSnapshot of(List<Job> jobs) {
+            Map<String, String> fingerprints = new HashMap<>();
+            for (Job job : jobs) {
+                fingerprints.put(job.getUrl(), fingerprintOf(job));
+            }
+            return new ViewSnapshot(fingerprints, jobs);
+        }
+
+        static String fingerprintOf(Job job) {
+            Build lastBuild = job.getLastBuild();
+            return job.getColor() + '|' + job.isInQueue() + '|' + (lastBuild == null ? "" : lastBuild.getNumber());
+        }
+
+        /**
+         * @return the urls of the jobs which are new, or whose fingerprint differs from this snapshot
+         */
+        List<String> getChangedJobUrls(Map<String, String> fingerprints) {
+            List<String> changedJobUrls = new ArrayList<>();
+            for (Map.Entry<String, String> fingerprint : fingerprints.entrySet()) {
+                String jobUrl = fingerprint.getKey();
+                if (!jobByUrl.containsKey(jobUrl) || !fingerprint.getValue().equals(fingerprintByJobUrl.get(jobUrl))) {
+                    changedJobUrls.add(jobUrl);
+                }
+            }
+            return changedJobUrls;
+        }
+
+        List<Job> getJobs(Collection<String> jobUrls, Map<String, Job> changedJobs) {
+            List<Job> jobs = new ArrayList<>(jobUrls.size());
+            for (String jobUrl : jobUrls) {
+                Job changedJob = changedJobs.get(jobUrl);
+                jobs.add(changedJob != null ? changedJob : jobByUrl.get(jobUrl).copy());
+            }
+            return jobs;
+        }
+    }
+
+    private static class ParameterDefinitions {
+
+        private final String signature;
+        private final List<JobParameter> parameters;
+        private final long loadTime;
+
+        private ParameterDefinitions(String signature, List<JobParameter> parameters, long loadTime) {
+            this.signature = signature;
+            this.parameters = parameters;
+            this.loadTime = loadTime;
+        }
+
+        boolean isValidFor(String jobSignature, long now) {
+            return signature.equals(jobSignature) && now - loadTime < PARAMETER_DEFINITIONS_TTL_MILLIS;
+        }
+
+        static String signatureOf(List<JobParameter> parameters) {
+            StringBuilder signature = new StringBuilder();
+            for (JobParameter parameter : parameters) {
+                signature.append(parameter.getName()).append(':').append(parameter.getJobParameterType()).append(';');
+            }
+            return signature.toString();
+        }
+    }
 }
@@ -7,22 +7,32 @@ import org.codinjutsu.tools.jenkins.JenkinsSettings;
 import org.codinjutsu.tools.jenkins.model.Build;
 import org.codinjutsu.tools.jenkins.model.Jenkins;
 import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.model.QueueItem;
 import org.codinjutsu.tools.jenkins.model.View;
 import org.codinjutsu.tools.jenkins.security.JenkinsVersion;
+import org.codinjutsu.tools.jenkins.security.ProgressiveText;
+import org.codinjutsu.tools.jenkins.security.StreamHandle;
 
+import java.io.Writer;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface RequestManagerInterface {
     Jenkins loadJenkinsWorkspace(JenkinsAppSettings configuration);
 
     Map<String, Build> loadJenkinsRssLatestBuilds(JenkinsAppSettings configuration);
 
-    void runBuild(Job job, JenkinsAppSettings configuration, Map<String, VirtualFile> files);
+    Map<String, Build> loadJenkinsRssLatestBuilds(JenkinsAppSettings configuration, Map<String, Build> lastSeenBuilds);
 
-    void runBuild(Job job, JenkinsAppSettings configuration);
+    void listenToBuildEvents(JenkinsAppSettings configuration, String clientId, StreamHandle handle, BuildEventListener listener);
 
-    void runParameterizedBuild(Job job, JenkinsAppSettings configuration, Map<String, String> paramValueMap);
+    String runBuild(Job job, JenkinsAppSettings configuration, Map<String, VirtualFile> files);
+
+    String runBuild(Job job, JenkinsAppSettings configuration);
+
+    String runParameterizedBuild(Job job, JenkinsAppSettings configuration, Map<String, String> paramValueMap);
 
     void authenticate(JenkinsAppSettings jenkinsAppSettings, JenkinsSettings jenkinsSettings);
 
@@ -36,11 +46,23 @@ public interface RequestManagerInterface {
 
     List<Job>loadJenkinsView (View view);
 
+    List<Job> loadJenkinsView(View view, Consumer<List<Job>> pageListener);
+
+    List<Job> refreshJenkinsView(View view);
+
+    void loadParameterDefinitions(Job job);
+
     Build loadBuild(Build build);
 
+    QueueItem loadQueueItem(String queueItemUrl);
+
+    Set<String> loadRunningBuildUrls(String serverUrl);
+
+    Map<String, List<Job>> loadJobNamesByViewName(String serverUrl);
+
     List<Build> loadBuilds(Job job);
 
-    String loadConsoleTextFor(Job job);
+    ProgressiveText loadConsoleText(Build build, long start, Writer console);
 
     List<TestResult> loadTestResultsFor(Job job);
 }
@@ -35,17 +35,20 @@ import org.codinjutsu.tools.jenkins.model.Build;
 import org.codinjutsu.tools.jenkins.model.BuildStatusEnum;
 import org.codinjutsu.tools.jenkins.util.GuiUtil;
 import org.codinjutsu.tools.jenkins.view.JenkinsWidget;
+import org.apache.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 
 import java.awt.*;
 import java.util.*;
 import java.util.List;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 public class RssLogic implements Disposable {
 
+    private static final Logger logger = Logger.getLogger(RssLogic.class);
+
+    private static final int EVENT_STREAM_RETRY_DELAY_MINUTES = 5;
+
     private final NotificationGroup JENKINS_RSS_GROUP = NotificationGroup.logOnlyGroup("Jenkins Rss");
 
     private final Project project;
@@ -54,7 +57,9 @@ public class RssLogic implements Disposable {
     private Map<String, Build> currentBuildMap = new HashMap<String, Build>();
 
     private final Runnable refreshRssBuildsJob;
-    private ScheduledFuture<?> refreshRssBuildFutureTask;
+    private JenkinsScheduler.PeriodicTask refreshRssBuildsTask;
+    private AdaptivePolling rssPolling;
+    private BuildEventStream buildEventStream;
 
     public static RssLogic getInstance(Project project) {
         return ServiceManager.getService(project, RssLogic.class);
@@ -67,7 +72,8 @@ public class RssLogic implements Disposable {
         refreshRssBuildsJob = new Runnable() {
             @Override
             public void run() {
-                GuiUtil.runInSwingThread(new LoadLatestBuildsJob(project, true));
+                boolean newBuilds = loadLatestBuildsAndNotify(true);
+                adaptRssPollingDelay(newBuilds);
             }
         };
     }
@@ -81,21 +87,58 @@ public class RssLogic implements Disposable {
         }
     }
 
-    public void initScheduledJobs() {
-        final ExecutorService executorProvider = ExecutorService.getInstance(project);
-        ScheduledThreadPoolExecutor executor = executorProvider.getExecutor();
+    /**
+     * Polls the RSS feed, unless the server pushes its build events: polling then only resumes while the event
+     * stream is down.
+     */
+    public synchronized void initScheduledJobs() {
+        stopBuildEventStream();
+        stopRssPolling();
 
-        executorProvider.safeTaskCancel(refreshRssBuildFutureTask);
+        if (jenkinsAppSettings.isServerUrlSet() && jenkinsAppSettings.getRssRefreshPeriod() > 0) {
+            startRssPolling();
+            if (jenkinsAppSettings.isBuildEventStream()) {
+                buildEventStream = new BuildEventStream(requestManager, jenkinsAppSettings, new BuildEventHandler());
+                buildEventStream.start();
+            }
+        }
+    }
 
-        executor.remove(refreshRssBuildsJob);
+    private synchronized void startRssPolling() {
+        if (refreshRssBuildsTask == null) {
+            rssPolling = new AdaptivePolling("Jenkins RSS polling", jenkinsAppSettings.getRssRefreshPeriod(), TimeUnit.MINUTES);
+            refreshRssBuildsTask = JenkinsScheduler.getInstance(project).scheduleWithFixedDelay(JenkinsScheduler.Lane.RSS, refreshRssBuildsJob, 0, jenkinsAppSettings.getRssRefreshPeriod(), TimeUnit.MINUTES);
+        }
+    }
 
-        if (jenkinsAppSettings.isServerUrlSet() && jenkinsAppSettings.getRssRefreshPeriod() > 0) {
-            refreshRssBuildFutureTask = executor.scheduleWithFixedDelay(refreshRssBuildsJob, 0, jenkinsAppSettings.getRssRefreshPeriod(), TimeUnit.MINUTES);
+    private synchronized void adaptRssPollingDelay(boolean newBuilds) {
+        if (refreshRssBuildsTask != null) {
+            boolean building = BuildWatcher.getInstance(project).isBuildActivity();
+            refreshRssBuildsTask.setDelay(rssPolling.nextDelayMillis(building, newBuilds), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void stopRssPolling() {
+        JenkinsScheduler.getInstance(project).cancel(refreshRssBuildsTask);
+        refreshRssBuildsTask = null;
+    }
+
+    private synchronized void stopBuildEventStream() {
+        if (buildEventStream != null) {
+            buildEventStream.stop();
+            buildEventStream = null;
         }
     }
 
     private Map<String, Build> loadAndReturnNewLatestBuilds() {
-        Map<String, Build> latestBuildMap = requestManager.loadJenkinsRssLatestBuilds(jenkinsAppSettings);
+        return collectNewBuilds(requestManager.loadJenkinsRssLatestBuilds(jenkinsAppSettings, getLastSeenBuilds()));
+    }
+
+    private synchronized Map<String, Build> getLastSeenBuilds() {
+        return new HashMap<String, Build>(currentBuildMap);
+    }
+
+    private synchronized Map<String, Build> collectNewBuilds(Map<String, Build> latestBuildMap) {
         Map<String, Build> newBuildMap = new HashMap<String, Build>();
         for (Map.Entry<String, Build> entry : latestBuildMap.entrySet()) {
             String jobName = entry.getKey();
@@ -138,7 +181,7 @@ public class RssLogic implements Disposable {
         Collections.sort(buildToSortByDateDescending, new Comparator<Build>() {
             @Override
             public int compare(Build firstBuild, Build secondBuild) {
-                return firstBuild.getBuildDate().compareTo(secondBuild.getBuildDate());
+                return Long.compare(firstBuild.getBuildDateMillis(), secondBuild.getBuildDateMillis());
             }
         });
         return buildToSortByDateDescending;
@@ -186,6 +229,7 @@ public class RssLogic implements Disposable {
 
     @Override
     public void dispose() {
+        stopBuildEventStream();
         currentBuildMap = null;
     }
 
@@ -200,23 +244,81 @@ public class RssLogic implements Disposable {
         @Override
         public void run(@NotNull ProgressIndicator indicator) {
             indicator.setIndeterminate(true);
-            final Map<String, Build> finishedBuilds;
-            try {
-                finishedBuilds = loadAndReturnNewLatestBuilds();
-            } catch (ConfigurationException ex) {
-                displayErrorMessageInABalloon(ex.getMessage());
-                return;
-            }
-            if (!shouldDisplayResult || finishedBuilds.isEmpty()) {
-                return;
-            }
+            loadLatestBuildsAndNotify(shouldDisplayResult);
+        }
 
-            sendNotificationForEachBuild(sortByDateDescending(finishedBuilds));
 
-            displayTheFirstFailedBuildInABalloon(getFirstFailedBuild(finishedBuilds));
+    }
+
+    /**
+     * @return true when the feed had new builds
+     */
+    private boolean loadLatestBuildsAndNotify(boolean shouldDisplayResult) {
+        final Map<String, Build> finishedBuilds;
+        try {
+            finishedBuilds = loadAndReturnNewLatestBuilds();
+        } catch (ConfigurationException ex) {
+            displayErrorMessageInABalloon(ex.getMessage());
+            return false;
+        }
+        if (shouldDisplayResult) {
+            notifyFinishedBuilds(finishedBuilds);
+        }
+        return !finishedBuilds.isEmpty();
+    }
+
+    private void notifyFinishedBuilds(Map<String, Build> finishedBuilds) {
+        if (finishedBuilds.isEmpty()) {
+            return;
         }
 
+        sendNotificationForEachBuild(sortByDateDescending(finishedBuilds));
+
+        displayTheFirstFailedBuildInABalloon(getFirstFailedBuild(finishedBuilds));
+    }
+
+    private class BuildEventHandler implements BuildEventListener {
+
+        @Override
+        public void streamOpened() {
+            logger.info("Listening to Jenkins build events, RSS polling suspended");
+            stopRssPolling();
+        }
 
+        @Override
+        public void buildStarted(String jobName, Build build) {
+            logger.debug(String.format("Build started: %s", build.getMessage()));
+        }
+
+        @Override
+        public void buildFinished(String jobName, Build build) {
+            notifyFinishedBuilds(collectNewBuilds(Collections.singletonMap(jobName, build)));
+        }
+
+        @Override
+        public void streamClosed(Exception cause) {
+            if (cause != null) {
+                logger.info("Jenkins build events unavailable, falling back to RSS polling: " + cause.getMessage());
+            }
+            final BuildEventStream closedStream;
+            synchronized (RssLogic.this) {
+                closedStream = buildEventStream;
+                if (closedStream == null) {
+                    return;
+                }
+                startRssPolling();
+            }
+            JenkinsScheduler.getInstance(project).schedule(JenkinsScheduler.Lane.RSS, new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (RssLogic.this) {
+                        if (closedStream == buildEventStream) {
+                            closedStream.start();
+                        }
+                    }
+                }
+            }, EVENT_STREAM_RETRY_DELAY_MINUTES, TimeUnit.MINUTES);
+        }
     }
 
 
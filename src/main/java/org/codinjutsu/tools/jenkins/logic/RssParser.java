@@ -16,24 +16,27 @@
 
 package org.codinjutsu.tools.jenkins.logic;
 
-//import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
 import org.codinjutsu.tools.jenkins.model.Build;
 import org.codinjutsu.tools.jenkins.model.BuildStatusEnum;
+import org.codinjutsu.tools.jenkins.util.DateUtil;
 import org.codinjutsu.tools.jenkins.util.RssUtil;
-import org.jdom.Document;
-import org.jdom.Element;
-import org.jdom.JDOMException;
-import org.jdom.input.SAXBuilder;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.IOException;
 import java.io.Reader;
 import java.io.StringReader;
+import java.util.Collections;
 import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
 
+/**
+ * Streams the entries of the Jenkins latest builds feed straight from the response. An entry whose build is not
+ * newer than the last seen build of its job is dropped before any build is created for it.
+ */
 public class RssParser {
 
     private static final Logger LOG = Logger.getLogger(RssParser.class);
@@ -44,53 +47,108 @@ public class RssParser {
     private static final String RSS_LINK_HREF = "href";
     private static final String RSS_PUBLISHED = "published";
 
+    private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
     public RssParser() {
     }
 
     public Map<String, Build> loadJenkinsRssLatestBuilds(String rssData) {
-        Document doc = buildDocument(rssData);
-        return createLatestBuildList(doc);
-    }
-
-    private Document buildDocument(String xmlData) {
-        if (StringUtils.isEmpty(xmlData)) {
+        if (StringUtils.isEmpty(rssData)) {
             LOG.error("Empty XML data");
             throw new IllegalStateException("Empty XML data");
         }
+        return loadJenkinsRssLatestBuilds(new StringReader(rssData));
+    }
+
+    public Map<String, Build> loadJenkinsRssLatestBuilds(Reader rssReader) {
+        return loadJenkinsRssLatestBuilds(rssReader, Collections.<String, Build>emptyMap());
+    }
 
-        try(Reader jenkinsDataReader = new StringReader(xmlData)) {
-            return new SAXBuilder(false).build(jenkinsDataReader);
-        } catch (JDOMException e) {
-            LOG.error("Invalid data received from the Jenkins Server. Actual :\n" + xmlData, e);
+    /**
+     * @param lastSeenBuilds the last build seen for each job name
+     */
+    public Map<String, Build> loadJenkinsRssLatestBuilds(Reader rssReader, Map<String, Build> lastSeenBuilds) {
+        XMLStreamReader xmlReader = null;
+        try {
+            xmlReader = XML_INPUT_FACTORY.createXMLStreamReader(rssReader);
+            return createLatestBuildList(xmlReader, lastSeenBuilds);
+        } catch (XMLStreamException e) {
+            if (e.getNestedException() instanceof IOException) {
+                LOG.error("Error during analyzing the Jenkins data.", e);
+                throw new RuntimeException("Error during analyzing the Jenkins data.");
+            }
+            LOG.error("Invalid data received from the Jenkins Server.", e);
             throw new RuntimeException("Invalid data received from the Jenkins Server. Please retry");
-        } catch (IOException e) {
-            LOG.error("Error during analyzing the Jenkins data.", e);
-            throw new RuntimeException("Error during analyzing the Jenkins data.");
+        } finally {
+            close(xmlReader);
         }
     }
 
-    private Map<String, Build> createLatestBuildList(Document doc) {
-
+    private static Map<String, Build> createLatestBuildList(XMLStreamReader xmlReader, Map<String, Build> lastSeenBuilds) throws XMLStreamException {
         Map<String, Build> buildMap = new LinkedHashMap<String, Build>();
-        Element rootElement = doc.getRootElement();
-
-        List<Element> elements = rootElement.getChildren(RSS_ENTRY, rootElement.getNamespace());
-        for (Element element : elements) {
-            String title = element.getChildText(RSS_TITLE, rootElement.getNamespace());
-            String publishedBuild = element.getChildText(RSS_PUBLISHED, rootElement.getNamespace());
-            String jobName = RssUtil.extractBuildJob(title);
-            String number = RssUtil.extractBuildNumber(title);
-            BuildStatusEnum status = RssUtil.extractStatus(title);
-            Element linkElement = element.getChild(RSS_LINK, rootElement.getNamespace());
-            String link = linkElement.getAttributeValue(RSS_LINK_HREF);
-
-            if (!BuildStatusEnum.NULL.equals(status)) {
-                buildMap.put(jobName, Build.createBuildFromRss(link, number, status.getStatus(), Boolean.FALSE.toString(), publishedBuild, title));
+        while (xmlReader.hasNext()) {
+            if (xmlReader.next() == XMLStreamReader.START_ELEMENT && RSS_ENTRY.equals(xmlReader.getLocalName())) {
+                readEntry(xmlReader, buildMap, lastSeenBuilds);
+            }
+        }
+        return buildMap;
+    }
 
+    private static void readEntry(XMLStreamReader xmlReader, Map<String, Build> buildMap, Map<String, Build> lastSeenBuilds) throws XMLStreamException {
+        String title = null;
+        String link = null;
+        String publishedBuild = null;
+        int depth = 0;
+        while (xmlReader.hasNext()) {
+            int event = xmlReader.next();
+            if (event == XMLStreamReader.START_ELEMENT) {
+                String name = xmlReader.getLocalName();
+                if (depth == 0 && RSS_TITLE.equals(name)) {
+                    title = xmlReader.getElementText();
+                    continue;
+                }
+                if (depth == 0 && RSS_PUBLISHED.equals(name)) {
+                    publishedBuild = xmlReader.getElementText();
+                    continue;
+                }
+                if (depth == 0 && RSS_LINK.equals(name) && link == null) {
+                    link = xmlReader.getAttributeValue(null, RSS_LINK_HREF);
+                }
+                depth++;
+            } else if (event == XMLStreamReader.END_ELEMENT) {
+                if (depth == 0) {
+                    break;
+                }
+                depth--;
             }
+        }
 
+        RssUtil.RssTitle rssTitle = title != null ? RssUtil.parseTitle(title) : null;
+        if (rssTitle == null || BuildStatusEnum.NULL.equals(rssTitle.getStatus())) {
+            return;
+        }
+        Build lastSeenBuild = lastSeenBuilds.get(rssTitle.getJobName());
+        if (lastSeenBuild != null && DateUtil.parseRssDate(publishedBuild) <= lastSeenBuild.getBuildDateMillis()) {
+            return;
         }
+        buildMap.put(rssTitle.getJobName(), Build.createBuildFromRss(link, rssTitle.getBuildNumber(), rssTitle.getStatus().getStatus(), Boolean.FALSE.toString(), publishedBuild, title));
+    }
 
-        return buildMap;
+    private static XMLInputFactory createXmlInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+
+    private static void close(XMLStreamReader xmlReader) {
+        if (xmlReader == null) {
+            return;
+        }
+        try {
+            xmlReader.close();
+        } catch (XMLStreamException e) {
+            LOG.debug("Unable to close the feed reader", e);
+        }
     }
 }
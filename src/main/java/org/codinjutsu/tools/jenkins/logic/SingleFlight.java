@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Lets the concurrent loads of a same url share one request and one parsed result. The result keeps being
+ * shared during a short freshness window after the request ends, so that a burst of refreshes costs one request.
+ * Failures are never shared with later callers. Flights are keyed by url, so every loader of a url must produce
+ * the same result.
+ */
+class SingleFlight {
+
+    private static final int PURGE_THRESHOLD = 256;
+
+    private final ConcurrentMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final AtomicLong issuedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    private volatile long freshnessMillis;
+
+    SingleFlight(long freshnessMillis) {
+        this.freshnessMillis = freshnessMillis;
+    }
+
+    void setFreshnessMillis(long freshnessMillis) {
+        this.freshnessMillis = freshnessMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> T load(String url, Supplier<T> loader) {
+        while (true) {
+            Flight flight = flights.get(url);
+            if (flight != null) {
+                if (flight.isSharable(System.currentTimeMillis(), freshnessMillis)) {
+                    coalescedCount.incrementAndGet();
+                    return (T) flight.await();
+                }
+                flights.remove(url, flight);
+            }
+
+            Flight ownFlight = new Flight();
+            if (flights.putIfAbsent(url, ownFlight) != null) {
+                continue;
+            }
+            issuedCount.incrementAndGet();
+            purgeIfNeeded();
+            try {
+                T result = loader.get();
+                ownFlight.complete(result);
+                if (freshnessMillis <= 0) {
+                    flights.remove(url, ownFlight);
+                }
+                return result;
+            } catch (Throwable ex) {
+                flights.remove(url, ownFlight);
+                ownFlight.fail(ex);
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Makes the next loads issue their own request, e.g. once a build has been started or stopped.
+     */
+    void forgetCompleted() {
+        for (Iterator<Flight> iterator = flights.values().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    long getIssuedCount() {
+        return issuedCount.get();
+    }
+
+    long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    private void purgeIfNeeded() {
+        if (flights.size() <= PURGE_THRESHOLD) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Iterator<Flight> iterator = flights.values().iterator(); iterator.hasNext(); ) {
+            Flight flight = iterator.next();
+            if (flight.isDone() && !flight.isSharable(now, freshnessMillis)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Flight {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private volatile long completedAt;
+
+        void complete(Object value) {
+            completedAt = System.currentTimeMillis();
+            result.complete(value);
+        }
+
+        void fail(Throwable ex) {
+            result.completeExceptionally(ex);
+        }
+
+        boolean isDone() {
+            return result.isDone();
+        }
+
+        boolean isSharable(long now, long freshnessMillis) {
+            return !result.isDone() || (!result.isCompletedExceptionally() && now - completedAt < freshnessMillis);
+        }
+
+        Object await() {
+            try {
+                return result.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+                if (ex.getCause() instanceof Error) {
+                    throw (Error) ex.getCause();
+                }
+                throw ex;
+            }
+        }
+    }
+}
@@ -20,6 +20,7 @@ import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
 import org.apache.commons.httpclient.URIException;
 import org.apache.commons.httpclient.util.URIUtil;
+import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
 
 import java.net.MalformedURLException;
@@ -33,14 +34,26 @@ public class UrlBuilder {
     private static final String BUILD = "/build";
     private static final String PARAMETERIZED_BUILD = "/buildWithParameters";
     private static final String RSS_LATEST = "/rssLatest";
+    private static final String EVENT_STREAM_CONNECT = "/sse-gateway/connect?clientId=";
+    private static final String EVENT_STREAM_CONFIGURE = "/sse-gateway/configure?batchId=";
+    private static final String EVENT_STREAM_LISTEN = "/sse-gateway/listen/";
+    private static final String PROGRESSIVE_TEXT = "/logText/progressiveText?start=";
     private static final String TREE_PARAM = "?tree=";
     private static final String BASIC_JENKINS_INFO = "nodeName,nodeDescription,primaryView[name,url],views[name,url,views[name,url]]";
-    private static final String BASIC_JOB_INFO = "name,displayName,url,color,buildable,inQueue,healthReport[description,iconUrl],lastBuild[id,url,building,result,number,timestamp,duration],property[parameterDefinitions[name,type,defaultParameterValue[value],choices]]";
+    private static final String BASIC_JOB_INFO = "name,displayName,url,color,buildable,inQueue,healthReport[description,iconUrl],lastBuild[id,url,building,result,number,timestamp,duration],property[parameterDefinitions[name,type]]";
+    private static final String JOB_PARAMETERS_INFO = "property[parameterDefinitions[name,type,defaultParameterValue[value],choices]]";
     private static final String BASIC_VIEW_INFO = "name,url,jobs[" + BASIC_JOB_INFO + "]";
+    private static final String VIEW_PAGE_INFO = "name,url,jobs[" + BASIC_JOB_INFO + "]{%d,%d}";
+    private static final String VIEW_PROBE_INFO = "jobs[url,color,inQueue,lastBuild[number]]";
+    private static final String VIEW_JOB_NAMES_INFO = "name,jobs[name,displayName,url,color]";
+    private static final String VIEWS_JOB_NAMES_INFO = "views[" + VIEW_JOB_NAMES_INFO + ",views[" + VIEW_JOB_NAMES_INFO + "]]";
     private static final String CLOUDBEES_VIEW_INFO = "name,url,views[jobs[" + BASIC_JOB_INFO + "]]";
     private static final String TEST_CONNECTION_REQUEST = "?tree=nodeName";
     private static final String BASIC_BUILD_INFO = "id,url,building,result,number,timestamp,duration";
     private static final String BASIC_BUILDS_INFO = "builds[" + BASIC_BUILD_INFO + "]";
+    private static final String QUEUE_ITEM_INFO = "cancelled,why,executable[number,url]";
+    private static final String COMPUTERS = "/computer";
+    private static final String RUNNING_BUILDS_INFO = "computer[executors[currentExecutable[url]],oneOffExecutors[currentExecutable[url]]]";
 
     public static UrlBuilder getInstance(Project project) {
         return ServiceManager.getService(project, UrlBuilder.class);
@@ -102,6 +115,30 @@ public class UrlBuilder {
         return null;
     }
 
+    /**
+     * @return the url of the jobs of the view from index <code>from</code> (inclusive) to <code>to</code> (exclusive)
+     */
+    public URL createViewPageUrl(String viewUrl, int from, int to) {
+        try {
+            return new URL(viewUrl + URIUtil.encodePathQuery(API_JSON + TREE_PARAM + String.format(VIEW_PAGE_INFO, from, to)));
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
+    /**
+     * @return the url of the colors and last build numbers of the jobs of the view, which tell whether they changed
+     */
+    public URL createViewProbeUrl(String viewUrl) {
+        try {
+            return new URL(viewUrl + URIUtil.encodePathQuery(API_JSON + TREE_PARAM + VIEW_PROBE_INFO));
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
     public URL createJobUrl(String jobUrl) {
         try {
             return new URL(jobUrl + URIUtil.encodePathQuery(API_JSON + TREE_PARAM + BASIC_JOB_INFO));
@@ -111,6 +148,15 @@ public class UrlBuilder {
         return null;
     }
 
+    public URL createJobParametersUrl(String jobUrl) {
+        try {
+            return new URL(jobUrl + URIUtil.encodePathQuery(API_JSON + TREE_PARAM + JOB_PARAMETERS_INFO));
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
     public URL createBuildUrl(String buildUrl) {
         try {
             return new URL(buildUrl + URIUtil.encodePathQuery(API_JSON + TREE_PARAM + BASIC_BUILD_INFO));
@@ -129,6 +175,42 @@ public class UrlBuilder {
         return null;
     }
 
+    public URL createQueueItemUrl(String queueItemUrl) {
+        try {
+            return new URL(StringUtils.removeEnd(queueItemUrl, "/") + URIUtil.encodePathQuery(API_JSON + TREE_PARAM + QUEUE_ITEM_INFO));
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
+    public URL createViewsJobNamesUrl(String serverUrl) {
+        try {
+            return new URL(StringUtils.removeEnd(serverUrl, "/") + URIUtil.encodePathQuery(API_JSON + TREE_PARAM + VIEWS_JOB_NAMES_INFO));
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
+    public URL createRunningBuildsUrl(String serverUrl) {
+        try {
+            return new URL(StringUtils.removeEnd(serverUrl, "/") + COMPUTERS + URIUtil.encodePathQuery(API_JSON + TREE_PARAM + RUNNING_BUILDS_INFO));
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
+    public URL createProgressiveTextUrl(String buildUrl, long start) {
+        try {
+            return new URL(StringUtils.removeEnd(buildUrl, "/") + PROGRESSIVE_TEXT + start);
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
     public URL createRssLatestUrl(String serverUrl) {
         try {
             return new URL(serverUrl + RSS_LATEST);
@@ -138,6 +220,33 @@ public class UrlBuilder {
         return null;
     }
 
+    public URL createEventStreamConnectUrl(String serverUrl, String clientId) {
+        try {
+            return new URL(serverUrl + EVENT_STREAM_CONNECT + URIUtil.encodeWithinQuery(clientId));
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
+    public URL createEventStreamConfigureUrl(String serverUrl, int batchId) {
+        try {
+            return new URL(serverUrl + EVENT_STREAM_CONFIGURE + batchId);
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
+    public URL createEventStreamListenUrl(String serverUrl, String clientId) {
+        try {
+            return new URL(serverUrl + EVENT_STREAM_LISTEN + URIUtil.encodeWithinPath(clientId));
+        } catch (Exception ex) {
+            handleException(ex);
+        }
+        return null;
+    }
+
     public URL createAuthenticationUrl(String serverUrl) {
         try {
             return new URL(serverUrl + API_JSON + TEST_CONNECTION_REQUEST);
@@ -20,22 +20,27 @@ import org.codinjutsu.tools.jenkins.util.DateUtil;
 import org.codinjutsu.tools.jenkins.util.GuiUtil;
 
 import javax.swing.*;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Dates and duration are kept as epoch millis, a view of several thousand jobs holds one build per job.
+ */
 public class Build {
 
     public static final Map<BuildStatusEnum, Icon> ICON_BY_BUILD_STATUS_MAP = new HashMap<BuildStatusEnum, Icon>();
 
+    private static final long UNKNOWN = Long.MIN_VALUE;
+    private static final BuildStatusEnum[] BUILD_STATUSES = BuildStatusEnum.values();
+
     private String url;
-    private Date buildDate;
+    private long buildDate = UNKNOWN;
     private int number;
     private boolean building;
     private String message;
-    private Date timestamp;
-    private Long duration;
+    private long timestamp = UNKNOWN;
+    private long duration = UNKNOWN;
 
     private BuildStatusEnum status;
 
@@ -51,28 +56,31 @@ public class Build {
 
 
     public static Build createBuildFromWorkspace(String buildUrl, Long number, String status, Boolean isBuilding, String buildDate, Long timestamp, Long duration) {
-        return createBuild(buildUrl, number, status, isBuilding, buildDate, DateUtil.WORKSPACE_DATE_FORMAT, null, timestamp, duration);
+        return createBuild(buildUrl, number, status, isBuilding, DateUtil.parseWorkspaceDate(buildDate), null, timestamp, duration);
     }
 
     public static Build createBuildFromWorkspace(String buildUrl, String number, String status, String isBuilding, String buildDate, Long timestamp, Long duration) {
-        return createBuild(buildUrl, Long.parseLong(number), status, Boolean.parseBoolean(isBuilding), buildDate, DateUtil.WORKSPACE_DATE_FORMAT, null, timestamp, duration);
+        return createBuild(buildUrl, Long.parseLong(number), status, Boolean.parseBoolean(isBuilding), DateUtil.parseWorkspaceDate(buildDate), null, timestamp, duration);
     }
 
     public static Build createBuildFromRss(String buildUrl, String number, String status, String isBuilding, String buildDate, String message) {
-        return createBuild(buildUrl, Long.parseLong(number), status, Boolean.parseBoolean(isBuilding), buildDate, DateUtil.RSS_DATE_FORMAT, message, 0l, 0l);
+        return createBuild(buildUrl, Long.parseLong(number), status, Boolean.parseBoolean(isBuilding), DateUtil.parseRssDate(buildDate), message, 0l, 0l);
+    }
+
+    public static Build createBuildFromEvent(String buildUrl, Long number, String status, boolean isBuilding, long timestamp, String message) {
+        return new Build(buildUrl, number.intValue(), timestamp, BuildStatusEnum.parseStatus(status), isBuilding, message, timestamp, 0l);
     }
 
-    private static Build createBuild(String buildUrl, Long number, String status, Boolean isBuilding, String buildDate, SimpleDateFormat simpleDateFormat, String message, Long timestamp, Long duration) {
+    private static Build createBuild(String buildUrl, Long number, String status, Boolean isBuilding, long buildDate, String message, Long timestamp, Long duration) {
         BuildStatusEnum buildStatusEnum = BuildStatusEnum.parseStatus(status);
-        Date date = DateUtil.parseDate(buildDate, simpleDateFormat);
 
-        return new Build(buildUrl, number.intValue(), date, buildStatusEnum, isBuilding, message, timestamp, duration);
+        return new Build(buildUrl, number.intValue(), buildDate, buildStatusEnum, isBuilding, message, timestamp, duration);
     }
 
     public Build() {
     }
 
-    private Build(String url, int number, Date buildDate, BuildStatusEnum status, boolean isBuilding, String message, Long timestamp, Long duration) {
+    private Build(String url, int number, long buildDate, BuildStatusEnum status, boolean isBuilding, String message, Long timestamp, Long duration) {
         this.url = url;
         this.number = number;
         this.buildDate = buildDate;
@@ -80,7 +88,7 @@ public class Build {
         this.building = isBuilding;
         this.message = message;
         setTimestamp(timestamp);
-        this.duration = duration;
+        setDuration(duration);
     }
 
 
@@ -90,8 +98,7 @@ public class Build {
             // TODO: handle the folder-case explicitly
             return ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.FOLDER);
         }
-        BuildStatusEnum[] jobStates = BuildStatusEnum.values();
-        for (BuildStatusEnum jobState : jobStates) {
+        for (BuildStatusEnum jobState : BUILD_STATUSES) {
             String stateName = jobState.getColor();
             if (jobColor.startsWith(stateName)) {
                 return ICON_BY_BUILD_STATUS_MAP.get(jobState);
@@ -131,27 +138,38 @@ public class Build {
     }
 
     public Date getBuildDate() {
+        return toDate(buildDate);
+    }
+
+    /**
+     * @return the build date in epoch millis, {@link Long#MIN_VALUE} when unknown
+     */
+    public long getBuildDateMillis() {
         return buildDate;
     }
 
     public void setBuildDate(String buildDate) {
-        this.buildDate = DateUtil.parseDate(buildDate, DateUtil.WORKSPACE_DATE_FORMAT);
+        this.buildDate = DateUtil.parseWorkspaceDate(buildDate);
+    }
+
+    public void setBuildDate(Date buildDate) {
+        this.buildDate = toMillis(buildDate);
     }
 
     public Date getTimestamp() {
-        return timestamp;
+        return toDate(timestamp);
     }
 
     public void setTimestamp(Long timestamp) {
-        this.timestamp = new Date(timestamp);
+        this.timestamp = timestamp == null ? UNKNOWN : timestamp;
     }
 
     public Long getDuration() {
-        return duration;
+        return duration == UNKNOWN ? null : duration;
     }
 
     public void setDuration(Long duration) {
-        this.duration = duration;
+        this.duration = duration == null ? UNKNOWN : duration;
     }
 
     public boolean isBuilding() {
@@ -169,4 +187,12 @@ public class Build {
     public String getMessage() {
         return message;
     }
+
+    private static long toMillis(Date date) {
+        return date == null ? UNKNOWN : date.getTime();
+    }
+
+    private static Date toDate(long millis) {
+        return millis == UNKNOWN ? null : new Date(millis);
+    }
 }
@@ -96,10 +96,8 @@ public class Jenkins {
     public void update(Jenkins jenkins) {
         this.name = jenkins.getName();
         this.serverUrl = jenkins.getServerUrl();
-        this.jobs.clear();
-        this.jobs.addAll(jenkins.getJobs());
-        this.views.clear();
-        this.views.addAll(jenkins.getViews());
+        this.jobs = new LinkedList<Job>(jenkins.getJobs());
+        this.views = new LinkedList<View>(jenkins.getViews());
         this.primaryView = jenkins.getPrimaryView();
     }
 
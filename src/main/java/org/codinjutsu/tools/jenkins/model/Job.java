@@ -20,14 +20,21 @@ import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.jenkins.util.GuiUtil;
 
 import javax.swing.*;
+import java.util.AbstractList;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.RandomAccess;
 
+/**
+ * Colors and health reports mostly come from a small set of values and are interned. The parameters are kept in an
+ * immutable list, which jobs with the same parameter definitions share.
+ */
 public class Job {
 
     private static final Map<String, Icon> ICON_BY_JOB_HEALTH_MAP = new HashMap<String, Icon>();
+    private static final String BUILDING_COLOR_SUFFIX = "_anime";
     private String name;
 
     private String displayName;
@@ -42,9 +49,9 @@ public class Job {
 
     private Build lastBuild;
 
-    private List<Build> lastBuilds = new LinkedList<>();
+    private List<Build> lastBuilds = Collections.emptyList();
 
-    private final List<JobParameter> parameters = new LinkedList<JobParameter>();
+    private List<JobParameter> parameters = ParameterList.EMPTY;
 
     static {
         ICON_BY_JOB_HEALTH_MAP.put("health-00to19", GuiUtil.loadIcon("health-00to19.png"));
@@ -60,9 +67,9 @@ public class Job {
     }
 
     private Job(String name, String displayName, String color, String url, Boolean inQueue, Boolean buildable) {
-        this.name = name;
-        this.displayName = displayName;
-        this.color = color;
+        setName(name);
+        setDisplayName(displayName);
+        setColor(color);
         this.url = url;
         this.inQueue = inQueue;
         this.buildable = buildable;
@@ -93,6 +100,26 @@ public class Job {
     }
 
 
+    /**
+     * @return a job whose fields can be updated without changing this one. The health, builds and parameters are
+     * shared, as they are replaced rather than updated in place.
+     */
+    public Job copy() {
+        Job copy = new Job();
+        copy.name = name;
+        copy.displayName = displayName;
+        copy.url = url;
+        copy.color = color;
+        copy.inQueue = inQueue;
+        copy.buildable = buildable;
+        copy.fetchBuild = fetchBuild;
+        copy.health = health;
+        copy.lastBuild = lastBuild;
+        copy.lastBuilds = lastBuilds;
+        copy.parameters = parameters;
+        return copy;
+    }
+
     public void updateContentWith(Job updatedJob) {
         this.color = updatedJob.getColor();
         this.health = updatedJob.getHealth();
@@ -103,7 +130,7 @@ public class Job {
 
 
     public void addParameter(String paramName, String paramType, String defaultValue, String... choices) {
-        parameters.add(JobParameter.create(paramName, paramType, defaultValue, choices));
+        addParameters(Collections.singletonList(JobParameter.create(paramName, paramType, defaultValue, choices)));
     }
 
     public void setName(String name) {
@@ -117,8 +144,15 @@ public class Job {
         return displayName;
     }
 
+    /**
+     * @return the name the job has in its url, even when it has a display name
+     */
+    public String getRawName() {
+        return name;
+    }
+
     public void setDisplayName(String displayName) {
-        this.displayName = displayName;
+        this.displayName = StringUtils.equals(displayName, name) ? name : displayName;
     }
 
     public String getColor() {
@@ -126,7 +160,14 @@ public class Job {
     }
 
     public void setColor(String color) {
-        this.color = color;
+        this.color = color == null ? null : color.intern();
+    }
+
+    /**
+     * @return true when the color is animated, i.e. a build of the job is running
+     */
+    public boolean isBuilding() {
+        return color != null && color.endsWith(BUILDING_COLOR_SUFFIX);
     }
 
     public String getUrl() {
@@ -169,7 +210,7 @@ public class Job {
         lastBuilds = builds;
     }
 
-    Health getHealth() {
+    public Health getHealth() {
         return health;
     }
 
@@ -206,17 +247,56 @@ public class Job {
     }
 
     public void setParameter(JobParameter jobParameter) {
-        if (parameters.size() > 0) {
-            for(JobParameter parameter: parameters) {
-                if (parameter.getName().equals(jobParameter.getName())) {
-                    parameters.set(parameters.indexOf(parameter), jobParameter);
-                }
+        JobParameter[] updatedParameters = parameters.toArray(new JobParameter[parameters.size()]);
+        for (int i = 0; i < updatedParameters.length; i++) {
+            if (updatedParameters[i].getName().equals(jobParameter.getName())) {
+                updatedParameters[i] = jobParameter;
             }
         }
+        parameters = new ParameterList(updatedParameters);
     }
 
     public void addParameters(List<JobParameter> jobParameters) {
-        parameters.addAll(jobParameters);
+        if (jobParameters.isEmpty()) {
+            return;
+        }
+        JobParameter[] allParameters = parameters.toArray(new JobParameter[parameters.size() + jobParameters.size()]);
+        for (int i = 0; i < jobParameters.size(); i++) {
+            allParameters[parameters.size() + i] = jobParameters.get(i);
+        }
+        parameters = new ParameterList(allParameters);
+    }
+
+    /**
+     * The given list is shared, not copied, when it comes from {@link #getParameters()} of another job.
+     */
+    public void setParameters(List<JobParameter> jobParameters) {
+        if (jobParameters instanceof ParameterList) {
+            parameters = jobParameters;
+        } else {
+            parameters = jobParameters.isEmpty() ? ParameterList.EMPTY : new ParameterList(jobParameters.toArray(new JobParameter[jobParameters.size()]));
+        }
+    }
+
+    private static class ParameterList extends AbstractList<JobParameter> implements RandomAccess {
+
+        private static final ParameterList EMPTY = new ParameterList(new JobParameter[0]);
+
+        private final JobParameter[] parameters;
+
+        private ParameterList(JobParameter[] parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public JobParameter get(int index) {
+            return parameters[index];
+        }
+
+        @Override
+        public int size() {
+            return parameters.length;
+        }
     }
 
     public static class Health {
@@ -228,8 +308,8 @@ public class Job {
         }
 
         private Health(String healthLevel, String description) {
-            this.healthLevel = healthLevel;
-            this.description = description;
+            setLevel(healthLevel);
+            setDescription(description);
         }
 
         public String getLevel() {
@@ -237,7 +317,7 @@ public class Job {
         }
 
         public void setLevel(String healthLevel) {
-            this.healthLevel = healthLevel;
+            this.healthLevel = healthLevel == null ? null : healthLevel.intern();
         }
 
         public String getDescription() {
@@ -245,7 +325,7 @@ public class Job {
         }
 
         public void setDescription(String description) {
-            this.description = description;
+            this.description = description == null ? null : description.intern();
         }
 
         public static Health createHealth(String healthLevel, String healthDescription) {
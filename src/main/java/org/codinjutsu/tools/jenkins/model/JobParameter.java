@@ -18,8 +18,9 @@ package org.codinjutsu.tools.jenkins.model;
 
 import com.intellij.openapi.vfs.VirtualFile;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 public class JobParameter {
@@ -43,7 +44,7 @@ public class JobParameter {
 
     private VirtualFile virtualFile;
 
-    private final List<String> values = new LinkedList<String>();
+    private List<String> values = Collections.emptyList();
 
     public JobParameter() {
     }
@@ -68,11 +69,17 @@ public class JobParameter {
 
 
     public void setChoices(String... choices) {
-        Collections.addAll(values, choices);
+        setChoices(Arrays.asList(choices));
     }
 
     public void setChoices(List<String> choices) {
-        values.addAll(choices);
+        if (choices.isEmpty()) {
+            return;
+        }
+        List<String> allValues = new ArrayList<String>(values.size() + choices.size());
+        allValues.addAll(values);
+        allValues.addAll(choices);
+        values = Collections.unmodifiableList(allValues);
     }
 
 
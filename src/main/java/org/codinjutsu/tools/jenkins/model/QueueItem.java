@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.model;
+
+/**
+ * A build request waiting in the Jenkins queue. Once an executor takes it, it refers to the build it started.
+ */
+public class QueueItem {
+
+    private final boolean cancelled;
+    private final String why;
+    private final Build executable;
+
+    public QueueItem(boolean cancelled, String why, Build executable) {
+        this.cancelled = cancelled;
+        this.why = why;
+        this.executable = executable;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return why the item is still waiting, as Jenkins tells it
+     */
+    public String getWhy() {
+        return why;
+    }
+
+    /**
+     * @return the build started for the item, or null while it is waiting
+     */
+    public Build getExecutable() {
+        return executable;
+    }
+}
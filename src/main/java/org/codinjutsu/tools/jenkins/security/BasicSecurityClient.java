@@ -19,7 +19,7 @@ package org.codinjutsu.tools.jenkins.security;
 import org.apache.commons.httpclient.HttpException;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
-import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.lang.StringUtils;
 import org.codinjutsu.tools.jenkins.exception.ConfigurationException;
 import org.codinjutsu.tools.jenkins.util.IOUtils;
@@ -36,8 +36,8 @@ class BasicSecurityClient extends DefaultSecurityClient {
     private String password = null;
 
 
-    BasicSecurityClient(String username, String password, String crumbData) {
-        super(crumbData);
+    BasicSecurityClient(String username, String password, String crumbData, HttpTransport httpTransport) {
+        super(crumbData, httpTransport);
         this.username = username;
         this.password = password;
     }
@@ -58,18 +58,18 @@ class BasicSecurityClient extends DefaultSecurityClient {
 
         httpClient.getParams().setAuthenticationPreemptive(true);
 
-        PostMethod post = new PostMethod(jenkinsUrl.toString());
+        GetMethod get = new GetMethod(jenkinsUrl.toString());
 
         try {
             if (isCrumbDataSet()) {
-                post.addRequestHeader(jenkinsVersion.getCrumbName(), crumbData);
+                get.addRequestHeader(jenkinsVersion.getCrumbName(), crumbData);
             }
 
-            post.setDoAuthentication(true);
-            int responseCode = httpClient.executeMethod(post);
+            get.setDoAuthentication(true);
+            int responseCode = httpClient.executeMethod(get);
             final String responseBody;
-            try(InputStream inputStream = post.getResponseBodyAsStream();) {
-                responseBody = IOUtils.toString(inputStream, post.getResponseCharSet());
+            try(InputStream inputStream = get.getResponseBodyAsStream();) {
+                responseBody = IOUtils.toString(inputStream, get.getResponseCharSet());
             }
             if (responseCode != HttpURLConnection.HTTP_OK) {
                 checkResponse(responseCode, responseBody);
@@ -79,7 +79,7 @@ class BasicSecurityClient extends DefaultSecurityClient {
         } catch (IOException ioEx) {
             throw new ConfigurationException(String.format("IO Error during method execution '%s': %s", jenkinsUrl.toString(), ioEx.getMessage()), ioEx);
         } finally {
-            post.releaseConnection();
+            get.releaseConnection();
         }
     }
 }
@@ -17,10 +17,13 @@
 package org.codinjutsu.tools.jenkins.security;
 
 import com.intellij.openapi.vfs.VirtualFile;
+import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.HttpException;
-import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.methods.GetMethod;
 import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.methods.StringRequestEntity;
 import org.apache.commons.httpclient.methods.multipart.FilePart;
 import org.apache.commons.httpclient.methods.multipart.MultipartRequestEntity;
 import org.apache.commons.httpclient.methods.multipart.Part;
@@ -32,11 +35,16 @@ import org.codinjutsu.tools.jenkins.util.IOUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 class DefaultSecurityClient implements SecurityClient {
@@ -44,34 +52,235 @@ class DefaultSecurityClient implements SecurityClient {
     private static final String BAD_CRUMB_DATA = "No valid crumb was included in the request";
     private static final int DEFAULT_SOCKET_TIMEOUT = 10000;
     private static final int DEFAULT_CONNECTION_TIMEOUT = 10000;
+    private static final int MAX_CACHED_RESPONSES = 256;
+
+    private static final ResponseParser<Void> IGNORE_BODY = new ResponseParser<Void>() {
+        @Override
+        public Void parse(Reader responseReader) {
+            return null;
+        }
+    };
 
     protected String crumbData;
     protected JenkinsVersion jenkinsVersion = JenkinsVersion.VERSION_1;
 
     protected final HttpClient httpClient;
+    private final TransferStatistics transferStatistics;
     protected Map<String, VirtualFile> files = new HashMap<String, VirtualFile>();
 
-    DefaultSecurityClient(String crumbData) {
-        this.httpClient = new HttpClient(new MultiThreadedHttpConnectionManager());
+    private final Map<String, CachedResponse> responseCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                    return size() > MAX_CACHED_RESPONSES;
+                }
+            });
+
+    DefaultSecurityClient(String crumbData, HttpTransport httpTransport) {
+        this.httpClient = httpTransport.createHttpClient();
+        this.transferStatistics = httpTransport.getTransferStatistics();
         this.crumbData = crumbData;
     }
 
     @Override
     public void connect(URL jenkinsUrl) {
-        execute(jenkinsUrl);
+        get(jenkinsUrl, IGNORE_BODY);
     }
 
     public String execute(URL url) {
+        return execute(url, null);
+    }
+
+    @Override
+    public String execute(URL url, String jsonBody) {
+        return post(url, jsonBody).data;
+    }
+
+    @Override
+    public String trigger(URL url) {
+        return post(url, null).location;
+    }
+
+    private ResponseCollector post(URL url, String jsonBody) {
         String urlStr = url.toString();
 
         ResponseCollector responseCollector = new ResponseCollector();
-        runMethod(urlStr, responseCollector);
+        runMethod(urlStr, jsonBody, responseCollector);
 
         if (isRedirection(responseCollector.statusCode)) {
-            runMethod(responseCollector.data, responseCollector);
+            runMethod(responseCollector.data, jsonBody, responseCollector);
+        }
+
+        return responseCollector;
+    }
+
+    /**
+     * Reads the given url with a GET, revalidated against the ETag/Last-Modified of the previous answer.
+     * When Jenkins answers 304, the body of the previous answer is parsed again, so that each caller gets its own
+     * model which no other caller nor the cache holds.
+     */
+    @Override
+    public <T> T get(URL url, ResponseParser<T> responseParser) {
+        String urlStr = url.toString();
+        CachedResponse cachedResponse = responseCache.get(urlStr);
+
+        GetMethod get = new GetMethod(urlStr);
+        get.setFollowRedirects(true);
+        get.addRequestHeader("Accept-Encoding", TransferStatistics.ACCEPTED_ENCODINGS);
+        if (cachedResponse != null) {
+            cachedResponse.addValidatorsTo(get);
         }
 
-        return responseCollector.data;
+        try {
+            httpClient.getParams().setParameter("http.socket.timeout", DEFAULT_SOCKET_TIMEOUT);
+            httpClient.getParams().setParameter("http.connection.timeout", DEFAULT_CONNECTION_TIMEOUT);
+
+            int statusCode = httpClient.executeMethod(get);
+            if (statusCode == HttpURLConnection.HTTP_NOT_MODIFIED && cachedResponse != null) {
+                return responseParser.parse(new StringReader(cachedResponse.body));
+            }
+
+            if (statusCode != HttpURLConnection.HTTP_OK) {
+                final String responseBody;
+                try(InputStream inputStream = responseBodyOf(urlStr, get);) {
+                    responseBody = inputStream == null ? null : IOUtils.toString(inputStream, get.getResponseCharSet());
+                }
+                checkResponse(statusCode, responseBody);
+                throw new ConfigurationException(String.format("Unexpected HTTP status %d for '%s'", statusCode, urlStr));
+            }
+
+            InputStream inputStream = responseBodyOf(urlStr, get);
+            if (CachedResponse.hasValidators(get)) {
+                final String body;
+                try(InputStream bodyStream = inputStream) {
+                    body = bodyStream == null ? "" : IOUtils.toString(bodyStream, get.getResponseCharSet());
+                }
+                responseCache.put(urlStr, CachedResponse.from(get, body));
+                return responseParser.parse(new StringReader(body));
+            }
+
+            responseCache.remove(urlStr);
+            try(Reader responseReader = inputStream == null ? new StringReader("") : new InputStreamReader(inputStream, get.getResponseCharSet())) {
+                return responseParser.parse(responseReader);
+            }
+        } catch (HttpException httpEx) {
+            throw new ConfigurationException(String.format("HTTP Error during method execution '%s': %s", urlStr, httpEx.getMessage()), httpEx);
+        } catch (UnknownHostException uhEx) {
+            throw new ConfigurationException(String.format("Unknown server: %s", uhEx.getMessage()), uhEx);
+        } catch (IOException ioEx) {
+            throw new ConfigurationException(String.format("IO Error during method execution '%s': %s", urlStr, ioEx.getMessage()), ioEx);
+        } finally {
+            get.releaseConnection();
+        }
+    }
+
+    /**
+     * Reads a response that may never end, such as an event stream, with a GET. Nothing is cached and the read
+     * only times out when the server stays silent for longer than the given delay, or ends when the handle is closed.
+     */
+    @Override
+    public <T> T stream(URL url, int idleTimeoutMillis, StreamHandle handle, ResponseParser<T> responseParser) {
+        String urlStr = url.toString();
+
+        GetMethod get = new GetMethod(urlStr);
+        get.setFollowRedirects(true);
+        get.addRequestHeader("Accept", "text/event-stream");
+        get.getParams().setSoTimeout(idleTimeoutMillis);
+
+        handle.attach(get::abort);
+        try {
+            if (handle.isClosed()) {
+                return null;
+            }
+            httpClient.getParams().setParameter("http.connection.timeout", DEFAULT_CONNECTION_TIMEOUT);
+
+            int statusCode = httpClient.executeMethod(get);
+            if (statusCode != HttpURLConnection.HTTP_OK) {
+                final String responseBody;
+                try(InputStream inputStream = responseBodyOf(urlStr, get);) {
+                    responseBody = inputStream == null ? null : IOUtils.toString(inputStream, get.getResponseCharSet());
+                }
+                checkResponse(statusCode, responseBody);
+                throw new ConfigurationException(String.format("Unexpected HTTP status %d for '%s'", statusCode, urlStr));
+            }
+
+            InputStream inputStream = responseBodyOf(urlStr, get);
+            return responseParser.parse(inputStream == null ? new StringReader("") : new InputStreamReader(inputStream, "UTF-8"));
+        } catch (HttpException httpEx) {
+            throw new ConfigurationException(String.format("HTTP Error during method execution '%s': %s", urlStr, httpEx.getMessage()), httpEx);
+        } catch (UnknownHostException uhEx) {
+            throw new ConfigurationException(String.format("Unknown server: %s", uhEx.getMessage()), uhEx);
+        } catch (IOException ioEx) {
+            throw new ConfigurationException(String.format("IO Error during method execution '%s': %s", urlStr, ioEx.getMessage()), ioEx);
+        } finally {
+            handle.detach();
+            // closing the body would drain it, which never returns on a stream that is still open
+            get.abort();
+            get.releaseConnection();
+        }
+    }
+
+    /**
+     * Reads a progressive text, whose url carries the offset to start from, with a GET. The text goes to the
+     * parser as it arrives, so a large build console never has to fit in memory.
+     */
+    @Override
+    public ProgressiveText progressiveText(URL url, ResponseParser<?> textParser) {
+        String urlStr = url.toString();
+
+        GetMethod get = new GetMethod(urlStr);
+        get.setFollowRedirects(true);
+        get.addRequestHeader("Accept-Encoding", TransferStatistics.ACCEPTED_ENCODINGS);
+        boolean fullyRead = false;
+
+        try {
+            httpClient.getParams().setParameter("http.socket.timeout", DEFAULT_SOCKET_TIMEOUT);
+            httpClient.getParams().setParameter("http.connection.timeout", DEFAULT_CONNECTION_TIMEOUT);
+
+            int statusCode = httpClient.executeMethod(get);
+            if (statusCode != HttpURLConnection.HTTP_OK) {
+                final String responseBody;
+                try(InputStream inputStream = responseBodyOf(urlStr, get);) {
+                    responseBody = inputStream == null ? null : IOUtils.toString(inputStream, get.getResponseCharSet());
+                }
+                checkResponse(statusCode, responseBody);
+                throw new ConfigurationException(String.format("Unexpected HTTP status %d for '%s'", statusCode, urlStr));
+            }
+
+            InputStream inputStream = responseBodyOf(urlStr, get);
+            textParser.parse(inputStream == null ? new StringReader("") : new InputStreamReader(inputStream, get.getResponseCharSet()));
+
+            fullyRead = true;
+
+            Header textSize = get.getResponseHeader("X-Text-Size");
+            Header moreData = get.getResponseHeader("X-More-Data");
+            if (textSize == null) {
+                throw new ConfigurationException(String.format("No progressive text at '%s'", urlStr));
+            }
+            return new ProgressiveText(Long.parseLong(textSize.getValue().trim()), moreData != null && Boolean.parseBoolean(moreData.getValue().trim()));
+        } catch (HttpException httpEx) {
+            throw new ConfigurationException(String.format("HTTP Error during method execution '%s': %s", urlStr, httpEx.getMessage()), httpEx);
+        } catch (UnknownHostException uhEx) {
+            throw new ConfigurationException(String.format("Unknown server: %s", uhEx.getMessage()), uhEx);
+        } catch (IOException ioEx) {
+            throw new ConfigurationException(String.format("IO Error during method execution '%s': %s", urlStr, ioEx.getMessage()), ioEx);
+        } catch (NumberFormatException nfEx) {
+            throw new ConfigurationException(String.format("Unexpected text size for '%s': %s", urlStr, nfEx.getMessage()), nfEx);
+        } finally {
+            if (!fullyRead) {
+                // the parser has been interrupted, draining the rest of a large console would be wasted
+                get.abort();
+            }
+            get.releaseConnection();
+        }
+    }
+
+    /**
+     * @return the response body, decoded as it is read when the server compressed it
+     */
+    private InputStream responseBodyOf(String url, HttpMethod method) throws IOException {
+        Header contentEncoding = method.getResponseHeader("Content-Encoding");
+        return transferStatistics.decode(url, contentEncoding == null ? null : contentEncoding.getValue(), method.getResponseBodyAsStream());
     }
 
     @Override
@@ -97,7 +306,7 @@ class DefaultSecurityClient implements SecurityClient {
         return post;
     }
 
-    private void runMethod(String url, ResponseCollector responseCollector) {
+    private void runMethod(String url, String jsonBody, ResponseCollector responseCollector) {
         PostMethod post = new PostMethod(url);
 
         if (isCrumbDataSet()) {
@@ -108,6 +317,9 @@ class DefaultSecurityClient implements SecurityClient {
 
 
         try {
+            if (jsonBody != null) {
+                post.setRequestEntity(new StringRequestEntity(jsonBody, "application/json", "UTF-8"));
+            }
             if (files.isEmpty()) {
                 httpClient.getParams().setParameter("http.socket.timeout", DEFAULT_SOCKET_TIMEOUT);
                 httpClient.getParams().setParameter("http.connection.timeout", DEFAULT_CONNECTION_TIMEOUT);
@@ -118,7 +330,7 @@ class DefaultSecurityClient implements SecurityClient {
 
             int statusCode = httpClient.executeMethod(post);
             final String responseBody;
-            try(InputStream inputStream = post.getResponseBodyAsStream();) {
+            try(InputStream inputStream = responseBodyOf(url, post);) {
                 responseBody = IOUtils.toString(inputStream, post.getResponseCharSet());
             }
             checkResponse(statusCode, responseBody);
@@ -129,6 +341,10 @@ class DefaultSecurityClient implements SecurityClient {
             if (isRedirection(statusCode)) {
                 responseCollector.collect(statusCode, post.getResponseHeader("Location").getValue());
             }
+            if (HttpURLConnection.HTTP_CREATED == statusCode) {
+                responseCollector.collect(statusCode, responseBody);
+                responseCollector.location = CachedResponse.headerValue(post, "Location");
+            }
         } catch (HttpException httpEx) {
             throw new ConfigurationException(String.format("HTTP Error during method execution '%s': %s", url, httpEx.getMessage()), httpEx);
         } catch (UnknownHostException uhEx) {
@@ -171,6 +387,7 @@ class DefaultSecurityClient implements SecurityClient {
 
         private int statusCode;
         private String data;
+        private String location;
 
         void collect(int statusCode, String body) {
             this.statusCode = statusCode;
@@ -179,6 +396,41 @@ class DefaultSecurityClient implements SecurityClient {
 
     }
 
+    private static class CachedResponse {
+
+        private final String etag;
+        private final String lastModified;
+        private final String body;
+
+        private CachedResponse(String etag, String lastModified, String body) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.body = body;
+        }
+
+        static boolean hasValidators(HttpMethod method) {
+            return headerValue(method, "ETag") != null || headerValue(method, "Last-Modified") != null;
+        }
+
+        static CachedResponse from(HttpMethod method, String body) {
+            return new CachedResponse(headerValue(method, "ETag"), headerValue(method, "Last-Modified"), body);
+        }
+
+        void addValidatorsTo(HttpMethod method) {
+            if (etag != null) {
+                method.addRequestHeader("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                method.addRequestHeader("If-Modified-Since", lastModified);
+            }
+        }
+
+        private static String headerValue(HttpMethod method, String name) {
+            Header header = method.getResponseHeader(name);
+            return header == null ? null : header.getValue();
+        }
+    }
+
     public void setJenkinsVersion(JenkinsVersion jenkinsVersion) {
         this.jenkinsVersion = jenkinsVersion;
     }
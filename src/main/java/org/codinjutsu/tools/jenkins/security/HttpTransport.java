@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.security;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.offbytwo.jenkins.JenkinsServer;
+import com.offbytwo.jenkins.client.JenkinsHttpClient;
+import org.apache.commons.httpclient.ConnectionPoolTimeoutException;
+import org.apache.commons.httpclient.HostConfiguration;
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.HttpConnection;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.log4j.Logger;
+import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+
+import java.net.URI;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Project-wide HTTP transport: owns the bounded, keep-alive connection pools shared by every
+ * {@link SecurityClient} and by the {@link JenkinsServer} used for console and test results.
+ * <p>
+ * Each security client still gets its own {@link HttpClient} (credentials live in its state),
+ * but connections are leased from the same pool, so a re-login reuses the open sockets.
+ */
+public class HttpTransport implements Disposable {
+
+    private static final Logger logger = Logger.getLogger(HttpTransport.class);
+
+    private static final int MAX_TOTAL_CONNECTIONS_FACTOR = 2;
+    private static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 60;
+
+    private final StatsConnectionManager connectionManager = new StatsConnectionManager();
+    private final PoolingHttpClientConnectionManager jenkinsServerConnectionManager = new PoolingHttpClientConnectionManager();
+    private final ScheduledExecutorService idleConnectionEvictor;
+    private final TransferStatistics transferStatistics = new TransferStatistics();
+
+    public static HttpTransport getInstance(Project project) {
+        return ServiceManager.getService(project, HttpTransport.class);
+    }
+
+    public HttpTransport(Project project) {
+        this(JenkinsAppSettings.getSafeInstance(project).getMaxConnectionsPerHost());
+    }
+
+    public HttpTransport(int maxConnectionsPerHost) {
+        setMaxConnectionsPerHost(maxConnectionsPerHost);
+        connectionManager.getParams().setStaleCheckingEnabled(true);
+
+        idleConnectionEvictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Jenkins idle connection evictor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        idleConnectionEvictor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                closeIdleConnections();
+            }
+        }, IDLE_CONNECTION_TIMEOUT_SECONDS, IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) {
+        int maxPerHost = Math.max(1, maxConnectionsPerHost);
+        int maxTotal = maxPerHost * MAX_TOTAL_CONNECTIONS_FACTOR;
+
+        connectionManager.getParams().setDefaultMaxConnectionsPerHost(maxPerHost);
+        connectionManager.getParams().setMaxTotalConnections(maxTotal);
+
+        jenkinsServerConnectionManager.setDefaultMaxPerRoute(maxPerHost);
+        jenkinsServerConnectionManager.setMaxTotal(maxTotal);
+    }
+
+    public int getMaxConnectionsPerHost() {
+        return connectionManager.getParams().getDefaultMaxConnectionsPerHost();
+    }
+
+    HttpClient createHttpClient() {
+        return new HttpClient(connectionManager);
+    }
+
+    public JenkinsServer createJenkinsServer(URI serverUri, String username, String password) {
+        return new JenkinsServer(new PooledJenkinsHttpClient(serverUri, username, password, jenkinsServerConnectionManager));
+    }
+
+    public Stats getStats() {
+        int inPool = connectionManager.getConnectionsInPool();
+        int inUse = connectionManager.getConnectionsInUse();
+        org.apache.http.pool.PoolStats jenkinsServerStats = jenkinsServerConnectionManager.getTotalStats();
+        return new Stats(
+                inUse + jenkinsServerStats.getLeased(),
+                (inPool - inUse) + jenkinsServerStats.getAvailable(),
+                connectionManager.getPendingCount() + jenkinsServerStats.getPending());
+    }
+
+    public TransferStatistics getTransferStatistics() {
+        return transferStatistics;
+    }
+
+    private void closeIdleConnections() {
+        transferStatistics.logCounters();
+        try {
+            connectionManager.closeIdleConnections(TimeUnit.SECONDS.toMillis(IDLE_CONNECTION_TIMEOUT_SECONDS));
+            jenkinsServerConnectionManager.closeIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            jenkinsServerConnectionManager.closeExpiredConnections();
+        } catch (RuntimeException ex) {
+            logger.warn("Unable to evict idle connections", ex);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        transferStatistics.logCounters();
+        idleConnectionEvictor.shutdownNow();
+        connectionManager.shutdown();
+        jenkinsServerConnectionManager.shutdown();
+    }
+
+    public static class Stats {
+
+        private final int leased;
+        private final int idle;
+        private final int pending;
+
+        Stats(int leased, int idle, int pending) {
+            this.leased = leased;
+            this.idle = idle;
+            this.pending = pending;
+        }
+
+        public int getLeased() {
+            return leased;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getPending() {
+            return pending;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("leased=%d, idle=%d, pending=%d", leased, idle, pending);
+        }
+    }
+
+    private static class StatsConnectionManager extends MultiThreadedHttpConnectionManager {
+
+        private final AtomicInteger pending = new AtomicInteger();
+
+        @Override
+        public HttpConnection getConnectionWithTimeout(HostConfiguration hostConfiguration, long timeout) throws ConnectionPoolTimeoutException {
+            pending.incrementAndGet();
+            try {
+                return super.getConnectionWithTimeout(hostConfiguration, timeout);
+            } finally {
+                pending.decrementAndGet();
+            }
+        }
+
+        int getPendingCount() {
+            return pending.get();
+        }
+    }
+
+    private static class PooledJenkinsHttpClient extends JenkinsHttpClient {
+
+        PooledJenkinsHttpClient(URI uri, String username, String password, PoolingHttpClientConnectionManager connectionManager) {
+            super(uri, addAuthentication(HttpClientBuilder.create().setConnectionManager(connectionManager), uri, username, password));
+        }
+    }
+}
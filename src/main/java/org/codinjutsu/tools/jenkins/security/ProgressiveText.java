@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.security;
+
+/**
+ * Where a progressive text (such as a build console) has been read up to, as told by the X-Text-Size and
+ * X-More-Data headers of Jenkins.
+ */
+public class ProgressiveText {
+
+    private final long nextStart;
+    private final boolean moreData;
+
+    public ProgressiveText(long nextStart, boolean moreData) {
+        this.nextStart = nextStart;
+        this.moreData = moreData;
+    }
+
+    /**
+     * @return the offset the next read has to start from
+     */
+    public long getNextStart() {
+        return nextStart;
+    }
+
+    /**
+     * @return true while the text is still being written, i.e. the build is running
+     */
+    public boolean hasMoreData() {
+        return moreData;
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.security;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Turns the body of a read request into the model the caller works with.
+ * The reader is bound to the response stream: it is only valid during the call.
+ */
+public interface ResponseParser<T> {
+
+    T parse(Reader responseReader) throws IOException;
+}
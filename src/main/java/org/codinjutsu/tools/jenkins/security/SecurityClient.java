@@ -27,5 +27,23 @@ public interface SecurityClient {
 
     String execute(URL url);
 
+    String execute(URL url, String jsonBody);
+
+    /**
+     * Posts a build request.
+     *
+     * @return the url of the queue item Jenkins created for it, or null when the server does not tell it
+     */
+    String trigger(URL url);
+
+    <T> T get(URL url, ResponseParser<T> responseParser);
+
+    /**
+     * @param handle closing it from another thread aborts the request and ends the read
+     */
+    <T> T stream(URL url, int idleTimeoutMillis, StreamHandle handle, ResponseParser<T> responseParser);
+
+    ProgressiveText progressiveText(URL url, ResponseParser<?> textParser);
+
     void setFiles(Map<String, VirtualFile> files);
 }
@@ -23,15 +23,15 @@ public class SecurityClientFactory {
         _version = version;
     }
 
-    public static SecurityClient basic(String username, String password, String crumbData) {
-        BasicSecurityClient basicSecurityClient = new BasicSecurityClient(username, password, crumbData);
+    public static SecurityClient basic(String username, String password, String crumbData, HttpTransport httpTransport) {
+        BasicSecurityClient basicSecurityClient = new BasicSecurityClient(username, password, crumbData, httpTransport);
         basicSecurityClient.setJenkinsVersion(_version);
 
         return basicSecurityClient;
     }
 
-    public static SecurityClient none(String crumbData) {
-        DefaultSecurityClient defaultSecurityClient = new DefaultSecurityClient(crumbData);
+    public static SecurityClient none(String crumbData, HttpTransport httpTransport) {
+        DefaultSecurityClient defaultSecurityClient = new DefaultSecurityClient(crumbData, httpTransport);
         defaultSecurityClient.setJenkinsVersion(_version);
 
         return defaultSecurityClient;
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.security;
+
+/**
+ * Lets another thread close a stream being read, since interrupting the reading thread does not unblock a
+ * socket read. A handle closed before the request starts aborts it as soon as it is attached.
+ */
+public class StreamHandle {
+
+    private Runnable abort;
+    private boolean closed;
+
+    synchronized void attach(Runnable abort) {
+        this.abort = abort;
+        if (closed) {
+            abort.run();
+        }
+    }
+
+    synchronized void detach() {
+        abort = null;
+    }
+
+    public synchronized void close() {
+        closed = true;
+        if (abort != null) {
+            abort.run();
+            abort = null;
+        }
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.security;
+
+import org.apache.log4j.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decodes the gzip or deflate response bodies as they are read, and counts per endpoint the bytes received
+ * on the wire and the bytes handed to the parsers. Job, view and build names are left out of the endpoints,
+ * e.g. <code>/job/&#42;/&#42;/api/json</code>.
+ */
+public class TransferStatistics {
+
+    private static final Logger logger = Logger.getLogger(TransferStatistics.class);
+
+    static final String ACCEPTED_ENCODINGS = "gzip, deflate";
+
+    private static final int DECODER_BUFFER_SIZE = 8192;
+
+    private final ConcurrentMap<String, Counter> counterByEndpoint = new ConcurrentHashMap<String, Counter>();
+
+    InputStream decode(String url, String contentEncoding, InputStream wireStream) throws IOException {
+        if (wireStream == null) {
+            return null;
+        }
+        Counter counter = getCounter(endpointOf(url));
+        counter.responses.incrementAndGet();
+        InputStream countedWireStream = new CountingInputStream(wireStream, counter.wireBytes);
+
+        InputStream decodedStream;
+        try {
+            if ("gzip".equalsIgnoreCase(contentEncoding) || "x-gzip".equalsIgnoreCase(contentEncoding)) {
+                decodedStream = new GZIPInputStream(countedWireStream, DECODER_BUFFER_SIZE);
+            } else if ("deflate".equalsIgnoreCase(contentEncoding)) {
+                decodedStream = inflate(countedWireStream);
+            } else {
+                decodedStream = countedWireStream;
+            }
+        } catch (EOFException ex) {
+            // no body, e.g. a HEAD-like answer which still declares its encoding
+            decodedStream = new ByteArrayInputStream(new byte[0]);
+        }
+        return new CountingInputStream(decodedStream, counter.decodedBytes);
+    }
+
+    /**
+     * "deflate" should be zlib wrapped, but some servers send the raw deflate stream.
+     */
+    private static InputStream inflate(InputStream wireStream) throws IOException {
+        BufferedInputStream bufferedStream = new BufferedInputStream(wireStream, DECODER_BUFFER_SIZE);
+        bufferedStream.mark(2);
+        int firstByte = bufferedStream.read();
+        int secondByte = bufferedStream.read();
+        bufferedStream.reset();
+        if (firstByte == -1) {
+            throw new EOFException();
+        }
+        boolean zlibWrapped = (firstByte & 0x0F) == 8 && secondByte != -1 && ((firstByte << 8) | secondByte) % 31 == 0;
+        return new InflaterInputStream(bufferedStream, new Inflater(!zlibWrapped), DECODER_BUFFER_SIZE);
+    }
+
+    /**
+     * @return the counters of each endpoint read so far, sorted by endpoint
+     */
+    public Map<String, Counter> getCounters() {
+        return new TreeMap<String, Counter>(counterByEndpoint);
+    }
+
+    void logCounters() {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        for (Map.Entry<String, Counter> counter : getCounters().entrySet()) {
+            logger.debug(counter.getKey() + ": " + counter.getValue());
+        }
+    }
+
+    private Counter getCounter(String endpoint) {
+        Counter counter = counterByEndpoint.get(endpoint);
+        if (counter == null) {
+            Counter newCounter = new Counter();
+            counter = counterByEndpoint.putIfAbsent(endpoint, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        return counter;
+    }
+
+    static String endpointOf(String url) {
+        String path;
+        try {
+            path = new URL(url).getPath();
+        } catch (MalformedURLException ex) {
+            path = url;
+        }
+        StringBuilder endpoint = new StringBuilder();
+        String previousSegment = null;
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            boolean named = "job".equals(previousSegment) || "view".equals(previousSegment) || segment.matches("\\d+");
+            endpoint.append('/').append(named ? "*" : segment);
+            previousSegment = segment;
+        }
+        return endpoint.length() == 0 ? "/" : endpoint.toString();
+    }
+
+    public static class Counter {
+
+        private final AtomicLong responses = new AtomicLong();
+        private final AtomicLong wireBytes = new AtomicLong();
+        private final AtomicLong decodedBytes = new AtomicLong();
+
+        public long getResponses() {
+            return responses.get();
+        }
+
+        public long getWireBytes() {
+            return wireBytes.get();
+        }
+
+        /**
+         * @return the bytes handed to the parsers, which is the wire size when the response is not compressed
+         */
+        public long getDecodedBytes() {
+            return decodedBytes.get();
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d responses, %d bytes received, %d bytes decoded", getResponses(), getWireBytes(), getDecodedBytes());
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+
+        private final AtomicLong count;
+
+        CountingInputStream(InputStream inputStream, AtomicLong count) {
+            super(inputStream);
+            this.count = count;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = super.read();
+            if (read != -1) {
+                count.incrementAndGet();
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count.addAndGet(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long length) throws IOException {
+            long skipped = super.skip(length);
+            count.addAndGet(skipped);
+            return skipped;
+        }
+    }
+}
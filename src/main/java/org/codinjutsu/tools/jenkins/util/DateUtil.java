@@ -16,34 +16,125 @@
 
 package org.codinjutsu.tools.jenkins.util;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import org.apache.log4j.Logger;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneRules;
 import java.util.Date;
 import java.util.Locale;
 
+/**
+ * Parses the fixed formats of the Jenkins dates into epoch millis without any shared mutable formatter, so that
+ * it can be called from several parsing threads at once. The fields are read in place, only a time zone which
+ * is not a fixed offset costs an allocation.
+ */
 public class DateUtil {
 
-    public static final SimpleDateFormat WORKSPACE_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
-    public static final SimpleDateFormat RSS_DATE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'");
+    private static final Logger logger = Logger.getLogger(DateUtil.class);
+
+    private static final String WORKSPACE_DATE_PATTERN = "yyyy-MM-dd_HH-mm-ss";
+    private static final String RSS_DATE_PATTERN = "yyyy-MM-dd'T'HH:mm:ss'Z'";
+
+    private static final ZoneRules LOCAL_ZONE_RULES = ZoneId.systemDefault().getRules();
 
+    private static final DateTimeFormatter LOG_DATE_IN_HOUR_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss", Locale.getDefault());
 
-    private static final SimpleDateFormat LOG_DATE_IN_HOUR_FORMAT = new SimpleDateFormat("HH:mm:ss", Locale.getDefault());
+    private static final long INVALID_DATE = Long.MIN_VALUE;
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
 
     private DateUtil() {
     }
 
-    public static Date parseDate(String buildDate, SimpleDateFormat dateFormat) {
-        Date date;
-        try {
-            date = dateFormat.parse(buildDate);
-        } catch (ParseException | NumberFormatException e) {
-            System.out.println("invalid date format: " + buildDate + " with formater '" + dateFormat.toPattern() + "'");
-            date = new Date();
-        }
-        return date;
+    /**
+     * @return the epoch millis of a workspace build id such as <code>2012-04-02_15-26-29</code>, read in the
+     * local time zone, or the current time when the id is not a date
+     */
+    public static long parseWorkspaceDate(String buildDate) {
+        long millis = parse(buildDate, '_', '-', false);
+        return millis != INVALID_DATE ? millis : invalidDate(buildDate, WORKSPACE_DATE_PATTERN);
+    }
+
+    /**
+     * @return the epoch millis of a rss date such as <code>2011-03-16T14:28:59Z</code>, or the current time when
+     * it is not a date
+     */
+    public static long parseRssDate(String buildDate) {
+        long millis = parse(buildDate, 'T', ':', true);
+        return millis != INVALID_DATE ? millis : invalidDate(buildDate, RSS_DATE_PATTERN);
     }
 
     public static String formatDateInTime(Date date) {
-        return LOG_DATE_IN_HOUR_FORMAT.format(date);
+        return LOG_DATE_IN_HOUR_FORMAT.format(LocalDateTime.ofInstant(date.toInstant(), ZoneId.systemDefault()));
+    }
+
+    private static long parse(String date, char dateTimeSeparator, char timeSeparator, boolean utc) {
+        if (date == null || date.length() != (utc ? 20 : 19)
+                || date.charAt(4) != '-' || date.charAt(7) != '-' || date.charAt(10) != dateTimeSeparator
+                || date.charAt(13) != timeSeparator || date.charAt(16) != timeSeparator || (utc && date.charAt(19) != 'Z')) {
+            return INVALID_DATE;
+        }
+        int year = digits(date, 0, 4);
+        int month = digits(date, 5, 7);
+        int day = digits(date, 8, 10);
+        int hour = digits(date, 11, 13);
+        int minute = digits(date, 14, 16);
+        int second = digits(date, 17, 19);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID_DATE;
+        }
+
+        long epochSecond = epochDay(year, month, day) * 86400 + hour * 3600 + minute * 60 + second;
+        if (!utc) {
+            epochSecond -= localOffsetSeconds(epochSecond);
+        }
+        return epochSecond * 1000;
+    }
+
+    private static int localOffsetSeconds(long localEpochSecond) {
+        if (LOCAL_ZONE_RULES.isFixedOffset()) {
+            return LOCAL_ZONE_RULES.getOffset(Instant.EPOCH).getTotalSeconds();
+        }
+        return LOCAL_ZONE_RULES.getOffset(LocalDateTime.ofEpochSecond(localEpochSecond, 0, ZoneOffset.UTC)).getTotalSeconds();
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char digit = text.charAt(i);
+            if (digit < '0' || digit > '9') {
+                return -1;
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        boolean leapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return month == 2 && leapYear ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    /**
+     * Days since 1970-01-01 of a date of the proleptic gregorian calendar.
+     */
+    private static long epochDay(int year, int month, int day) {
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(shiftedYear, 400);
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static long invalidDate(String buildDate, String pattern) {
+        if (buildDate != null && logger.isDebugEnabled()) {
+            logger.debug("invalid date format: " + buildDate + " with formater '" + pattern + "'");
+        }
+        return System.currentTimeMillis();
     }
 }
@@ -20,20 +20,15 @@ import org.codinjutsu.tools.jenkins.logic.BuildStatusVisitor;
 import org.codinjutsu.tools.jenkins.logic.RssBuildStatusVisitor;
 import org.codinjutsu.tools.jenkins.model.BuildStatusEnum;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public class RssUtil {
 
-    private static final Pattern BUILD_NUMBER_MATCHER = Pattern.compile("#[0-9]{1,}+");
-
-    private static final Pattern SUCCESS_MATCHER = Pattern.compile("normal|stable");
+    private static final String[] SUCCESS_KEYWORDS = {"normal", "stable"};
 
-    private static final Pattern FAILED_MATCHER = Pattern.compile("failing|broken");
+    private static final String[] FAILED_KEYWORDS = {"failing", "broken"};
 
-    private static final Pattern UNSTABLE_MATCHER = Pattern.compile("unstable");
+    private static final String[] UNSTABLE_KEYWORDS = {"unstable"};
 
-    private static final Pattern ABORTED_MATCHER = Pattern.compile("aborted");
+    private static final String[] ABORTED_KEYWORDS = {"aborted"};
 
     private RssUtil() {
     }
@@ -46,40 +41,55 @@ public class RssUtil {
     }
 
     public static String extractBuildNumber(String rssEntryTitle) {
-        Matcher matcher = BUILD_NUMBER_MATCHER.matcher(rssEntryTitle);
-        if (matcher.find()) {
-            String foundBuildNumber = matcher.group();
-            return foundBuildNumber.substring(1, foundBuildNumber.length());
-        }
-        return null;
-
+        RssTitle rssTitle = parseTitle(rssEntryTitle);
+        return rssTitle != null ? rssTitle.getBuildNumber() : null;
     }
 
 
     public static String extractBuildJob(String rssEntryTitle) {
-        String[] splitStrings = BUILD_NUMBER_MATCHER.split(rssEntryTitle);
-        if (splitStrings.length > 1) {
-            return splitStrings[0].trim();
+        RssTitle rssTitle = parseTitle(rssEntryTitle);
+        return rssTitle != null ? rssTitle.getJobName() : null;
+    }
+
+    /**
+     * Splits a title such as <code>gerrit_master #170 (broken since build #165)</code> around its first build
+     * number in a single scan.
+     *
+     * @return null when the title holds no build number
+     */
+    public static RssTitle parseTitle(String rssEntryTitle) {
+        for (int hash = rssEntryTitle.indexOf('#'); hash >= 0; hash = rssEntryTitle.indexOf('#', hash + 1)) {
+            int end = hash + 1;
+            while (end < rssEntryTitle.length() && isDigit(rssEntryTitle.charAt(end))) {
+                end++;
+            }
+            if (end > hash + 1) {
+                return new RssTitle(rssEntryTitle.substring(0, hash).trim(), rssEntryTitle.substring(hash + 1, end), extractStatus(rssEntryTitle));
+            }
         }
         return null;
     }
 
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
 
     private static void visit(BuildStatusVisitor statusVisitor, String rssEntryTitle) {
-        if (matches(rssEntryTitle, SUCCESS_MATCHER)) {
+        if (contains(rssEntryTitle, SUCCESS_KEYWORDS)) {
             statusVisitor.visitSuccess();
             return;
         }
-        if (matches(rssEntryTitle, FAILED_MATCHER)) {
+        if (contains(rssEntryTitle, FAILED_KEYWORDS)) {
             statusVisitor.visitFailed();
             return;
         }
-        if (matches(rssEntryTitle, ABORTED_MATCHER)) {
+        if (contains(rssEntryTitle, ABORTED_KEYWORDS)) {
             statusVisitor.visitAborted();
             return;
         }
 
-        if (matches(rssEntryTitle, UNSTABLE_MATCHER)) {
+        if (contains(rssEntryTitle, UNSTABLE_KEYWORDS)) {
             statusVisitor.visitUnstable();
             return;
         }
@@ -87,9 +97,37 @@ public class RssUtil {
         statusVisitor.visitUnknown();
     }
 
-    private static boolean matches(String rssEntryTitle, Pattern pattern) {
-        Matcher matcher = pattern.matcher(rssEntryTitle);
-        return matcher.find();
+    private static boolean contains(String rssEntryTitle, String[] keywords) {
+        for (String keyword : keywords) {
+            if (rssEntryTitle.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
     }
 
+    public static class RssTitle {
+
+        private final String jobName;
+        private final String buildNumber;
+        private final BuildStatusEnum status;
+
+        private RssTitle(String jobName, String buildNumber, BuildStatusEnum status) {
+            this.jobName = jobName;
+            this.buildNumber = buildNumber;
+            this.status = status;
+        }
+
+        public String getJobName() {
+            return jobName;
+        }
+
+        public String getBuildNumber() {
+            return buildNumber;
+        }
+
+        public BuildStatusEnum getStatus() {
+            return status;
+        }
+    }
 }
@@ -16,9 +16,11 @@
 
 package org.codinjutsu.tools.jenkins.view;
 
+import com.intellij.ide.BrowserUtil;
 import com.intellij.openapi.Disposable;
 import com.intellij.openapi.actionSystem.ActionManager;
 import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.progress.ProgressIndicator;
 import com.intellij.openapi.progress.Task;
@@ -33,6 +35,7 @@ import com.intellij.ui.TreeSpeedSearch;
 import com.intellij.ui.treeStructure.SimpleTree;
 import com.intellij.ui.treeStructure.Tree;
 import com.intellij.util.containers.Convertor;
+import com.intellij.util.ui.JBUI;
 import com.intellij.util.ui.tree.TreeUtil;
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -43,6 +46,7 @@ import org.codinjutsu.tools.jenkins.exception.ConfigurationException;
 import org.codinjutsu.tools.jenkins.logic.*;
 import org.codinjutsu.tools.jenkins.model.*;
 import org.codinjutsu.tools.jenkins.util.GuiUtil;
+import org.codinjutsu.tools.jenkins.util.HtmlUtil;
 import org.codinjutsu.tools.jenkins.view.action.*;
 import org.codinjutsu.tools.jenkins.view.action.settings.SortByStatusAction;
 import org.jetbrains.annotations.NotNull;
@@ -54,13 +58,20 @@ import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
 
@@ -70,6 +81,8 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
 
     private static final String LOADING = "Loading...";
 
+    private static final int ROW_HEIGHT = 20;
+
     private JPanel rootPanel;
 
     private JPanel jobPanel;
@@ -78,7 +91,8 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
     private boolean sortedByBuildStatus;
 
     private final Runnable refreshViewJob;
-    private ScheduledFuture<?> refreshViewFutureTask;
+    private volatile JenkinsScheduler.PeriodicTask refreshViewTask;
+    private volatile AdaptivePolling viewPolling;
 
     private final Project project;
 
@@ -86,31 +100,53 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
     private final JenkinsSettings jenkinsSettings;
 
     private final RequestManager requestManager;
+    private final JenkinsMasters jenkinsMasters;
+    private final JenkinsSnapshotCache snapshotCache;
+    private final BuildStatusSummary buildStatusSummary;
+    private final JobSearchIndex jobSearchIndex;
+    private final BuildWatcher buildWatcher;
+    private static final int VIEW_INDEX_REFRESH_MINUTES = 10;
+
+    private volatile boolean liveDataLoaded;
+    private final Map<String, Long> indexTimeByServerUrl = new ConcurrentHashMap<String, Long>();
+    // the view the job tree shows, and the view whose jobs were last loaded from the server
+    private volatile String displayedViewName;
+    private volatile String liveViewName;
 
     private final Jenkins jenkins;
+    private final DefaultMutableTreeNode jenkinsNode;
+    private final Map<JenkinsMaster, DefaultMutableTreeNode> masterNodes = new HashMap<JenkinsMaster, DefaultMutableTreeNode>();
+    private final JenkinsMaster.Listener masterListener;
     private FavoriteView favoriteView;
     private View currentSelectedView;
+    private String jobUrlToSelect;
 
-    private final Map<String, Job> watchedJobs = new ConcurrentHashMap<String, Job>();
-
-    private static final Comparator<DefaultMutableTreeNode> sortByStatusComparator = new Comparator<DefaultMutableTreeNode>() {
+    private static final Comparator<Job> jobByStatusComparator = new Comparator<Job>() {
         @Override
-        public int compare(DefaultMutableTreeNode treeNode1, DefaultMutableTreeNode treeNode2) {
-            Job job1 = ((Job) treeNode1.getUserObject());
-            Job job2 = ((Job) treeNode2.getUserObject());
-
+        public int compare(Job job1, Job job2) {
             return new Integer(BuildStatusEnum.getStatus(job1.getColor()).ordinal()).compareTo(BuildStatusEnum.getStatus(job2.getColor()).ordinal());
         }
     };
-    private static final Comparator<DefaultMutableTreeNode> sortByNameComparator = new Comparator<DefaultMutableTreeNode>() {
+    private static final Comparator<Job> jobByNameComparator = new Comparator<Job>() {
         @Override
-        public int compare(DefaultMutableTreeNode treeNode1, DefaultMutableTreeNode treeNode2) {
-            Job job1 = ((Job) treeNode1.getUserObject());
-            Job job2 = ((Job) treeNode2.getUserObject());
-
+        public int compare(Job job1, Job job2) {
             return job1.getName().compareTo(job2.getName());
         }
     };
+    private static final Comparator<DefaultMutableTreeNode> sortByStatusComparator = byJob(jobByStatusComparator);
+    private static final Comparator<DefaultMutableTreeNode> sortByNameComparator = byJob(jobByNameComparator);
+
+    private static Comparator<DefaultMutableTreeNode> byJob(final Comparator<Job> jobComparator) {
+        return new Comparator<DefaultMutableTreeNode>() {
+            @Override
+            public int compare(DefaultMutableTreeNode treeNode1, DefaultMutableTreeNode treeNode2) {
+                if (!(treeNode1.getUserObject() instanceof Job) || !(treeNode2.getUserObject() instanceof Job)) {
+                    return 0;
+                }
+                return jobComparator.compare((Job) treeNode1.getUserObject(), (Job) treeNode2.getUserObject());
+            }
+        };
+    }
 
 
     public static BrowserPanel getInstance(Project project) {
@@ -125,17 +161,57 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         refreshViewJob = new Runnable() {
             @Override
             public void run() {
-                GuiUtil.runInSwingThread(new LoadSelectedViewJob(project));
+                loadSelectedView();
+                displayLoadedJobs();
+                adaptRefreshDelay();
+                indexViews(requestManager, jenkins.getServerUrl(), currentSelectedView);
             }
         };
 
         requestManager = RequestManager.getInstance(project);
+        jenkinsMasters = JenkinsMasters.getInstance(project);
+        snapshotCache = JenkinsSnapshotCache.getInstance(project);
+        buildStatusSummary = BuildStatusSummary.getInstance(project);
+        jobSearchIndex = JobSearchIndex.getInstance(project);
+        buildWatcher = BuildWatcher.getInstance(project);
         jenkinsAppSettings = JenkinsAppSettings.getSafeInstance(project);
         jenkinsSettings = JenkinsSettings.getSafeInstance(project);
         setProvideQuickActions(false);
 
         jenkins = Jenkins.byDefault();
-        jobTree = createTree(jenkinsSettings.getFavoriteJobs());
+        jenkinsNode = new DefaultMutableTreeNode(jenkins);
+        jobTree = createTree(jenkinsSettings);
+
+        masterListener = new JenkinsMaster.Listener() {
+            @Override
+            public void jobsLoaded(final JenkinsMaster master, final Jenkins workspace, final List<Job> jobs) {
+                View primaryView = workspace.getPrimaryView();
+                jobSearchIndex.updateView(master.getServerUrl(), primaryView == null ? null : primaryView.getName(), jobs);
+                GuiUtil.runInSwingThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        displayMasterJobs(master, workspace, jobs);
+                    }
+                });
+            }
+
+            @Override
+            public void loadFailed(JenkinsMaster master, Exception cause) {
+                logger.warn(String.format("Unable to load the jobs of %s", master.getServerUrl()), cause);
+            }
+        };
+
+        project.getMessageBus().connect(this).subscribe(BuildWatchNotifier.BUILD_FINISHED, new BuildWatchNotifier() {
+            @Override
+            public void buildFinished(Job job, Build build, Collection<String> changeListNames) {
+                refreshJob(job);
+                String message = String.format("%s #%d: %s", job.getName(), build.getNumber(), build.getStatus().getStatus());
+                if (!changeListNames.isEmpty()) {
+                    message += String.format(" (changelist %s)", StringUtils.join(changeListNames, ", "));
+                }
+                notifyInfoJenkinsToolWindow(HtmlUtil.createHtmlLinkMessage(message, build.getUrl()));
+            }
+        });
 
 
         jobPanel.setLayout(new BorderLayout());
@@ -144,16 +220,31 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         setContent(rootPanel);
     }
 
-    /*whole method could be moved inside of ExecutorProvider (executor would expose interface that would allow to schedule
-      new task previously cancelling previous ones) */
     public void initScheduledJobs() {
-        final ExecutorService executorService = ExecutorService.getInstance(project);
-        final ScheduledThreadPoolExecutor executor = executorService.getExecutor();
-        executorService.safeTaskCancel(refreshViewFutureTask);
-        executor.remove(refreshViewJob);
+        final JenkinsScheduler scheduler = JenkinsScheduler.getInstance(project);
+        scheduler.cancel(refreshViewTask);
+        refreshViewTask = null;
 
         if (jenkinsAppSettings.isServerUrlSet() && jenkinsAppSettings.getJobRefreshPeriod() > 0) {
-            refreshViewFutureTask = executor.scheduleWithFixedDelay(refreshViewJob, jenkinsAppSettings.getJobRefreshPeriod(), jenkinsAppSettings.getJobRefreshPeriod(), TimeUnit.MINUTES);
+            viewPolling = new AdaptivePolling("Jenkins view refresh", jenkinsAppSettings.getJobRefreshPeriod(), TimeUnit.MINUTES);
+            refreshViewTask = scheduler.scheduleWithFixedDelay(JenkinsScheduler.Lane.VIEW_REFRESH, refreshViewJob,
+                    jenkinsAppSettings.getJobRefreshPeriod(), jenkinsAppSettings.getJobRefreshPeriod(), TimeUnit.MINUTES);
+        }
+
+        GuiUtil.runInSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                removeMasterNodes();
+            }
+        });
+        jenkinsMasters.reload(masterListener);
+    }
+
+    private void adaptRefreshDelay() {
+        JenkinsScheduler.PeriodicTask task = refreshViewTask;
+        AdaptivePolling polling = viewPolling;
+        if (task != null && polling != null) {
+            task.setDelay(polling.nextDelayMillis(jenkins.getJobs(), buildWatcher.hasRunningBuilds()), TimeUnit.MILLISECONDS);
         }
     }
 
@@ -168,6 +259,20 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         return null;
     }
 
+    /**
+     * @return the job the selected build node belongs to
+     */
+    public Job getSelectedBuildJob() {
+        DefaultMutableTreeNode treeNode = (DefaultMutableTreeNode) jobTree.getLastSelectedPathComponent();
+        if (treeNode != null && treeNode.getUserObject() instanceof Build) {
+            Object parentObject = ((DefaultMutableTreeNode) treeNode.getParent()).getUserObject();
+            if (parentObject instanceof Job) {
+                return (Job) parentObject;
+            }
+        }
+        return null;
+    }
+
     public Job getSelectedJob() {
         DefaultMutableTreeNode treeNode = (DefaultMutableTreeNode) jobTree.getLastSelectedPathComponent();
         if (treeNode != null) {
@@ -221,35 +326,6 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         ToolWindowManager.getInstance(project).unregisterToolWindow(JenkinsWindowManager.JENKINS_BROWSER);
     }
 
-    private static void visit(Job job, BuildStatusVisitor buildStatusVisitor) {
-        Build lastBuild = job.getLastBuild();
-        if (job.isBuildable() && lastBuild != null) {
-            BuildStatusEnum status = lastBuild.getStatus();
-            if (BuildStatusEnum.FAILURE == status) {
-                buildStatusVisitor.visitFailed();
-                return;
-            }
-            if (BuildStatusEnum.SUCCESS == status) {
-                buildStatusVisitor.visitSuccess();
-                return;
-            }
-            if (BuildStatusEnum.UNSTABLE == status) {
-                buildStatusVisitor.visitUnstable();
-                return;
-            }
-            if (BuildStatusEnum.ABORTED == status) {
-                buildStatusVisitor.visitAborted();
-                return;
-            }
-            if (BuildStatusEnum.NULL == status) {
-                buildStatusVisitor.visitUnknown();
-                return;
-            }
-        }
-
-        buildStatusVisitor.visitUnknown();
-    }
-
     private void update() {
         ((DefaultTreeModel) jobTree.getModel()).nodeChanged((TreeNode) jobTree.getSelectionPath().getLastPathComponent());
     }
@@ -266,6 +342,17 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         return requestManager;
     }
 
+    /**
+     * @return the request manager of the server the job belongs to
+     */
+    public RequestManager getJenkinsManager(Job job) {
+        return jenkinsMasters.getRequestManager(job.getUrl());
+    }
+
+    public RequestManager getJenkinsManager(Build build) {
+        return jenkinsMasters.getRequestManager(build.getUrl());
+    }
+
     public void loadSelectedJob() {
         if (SwingUtilities.isEventDispatchThread()) {
             logger.warn("BrowserPanel.loadSelectedJob called from EDT");
@@ -285,7 +372,7 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
 
             @Override
             public void run(@NotNull ProgressIndicator indicator) {
-                returnJob = requestManager.loadJob(job);
+                returnJob = getJenkinsManager(job).loadJob(job);
             }
 
             @Override
@@ -302,20 +389,106 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
     }
 
     private void updateJobNode(Job job) {
+        buildStatusSummary.updateJob(job);
         final DefaultTreeModel model = (DefaultTreeModel) jobTree.getModel();
-        final Object modelRoot = model.getRoot();
-        final int childCount = model.getChildCount(modelRoot);
-        for (int i = 0; i < childCount; ++i) {
-            Object child = model.getChild(modelRoot, i);
-            if (child instanceof DefaultMutableTreeNode) {
-                DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) child;
+        final DefaultMutableTreeNode rootNode = (DefaultMutableTreeNode) model.getRoot();
+        for (int i = 0; i < rootNode.getChildCount(); ++i) {
+            DefaultMutableTreeNode serverNode = (DefaultMutableTreeNode) rootNode.getChildAt(i);
+            for (int j = 0; j < serverNode.getChildCount(); ++j) {
+                DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) serverNode.getChildAt(j);
                 if (childNode.getUserObject() == job) {
                     model.nodeChanged(childNode);
                     fillBuildsTree(job, childNode);
-                    break;
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Selects the job in the tree, after loading a view which shows it if the current one does not.
+     */
+    public void selectJob(JobSearchIndex.Match match) {
+        Job job = match.getJob();
+        jobUrlToSelect = null;
+        if (selectJobNode(job.getUrl())) {
+            return;
+        }
+        if (StringUtils.equals(match.getServerUrl(), jenkins.getServerUrl())) {
+            for (String viewName : match.getViewNames()) {
+                View view = findView(viewName);
+                if (view != null) {
+                    jobUrlToSelect = job.getUrl();
+                    loadView(view);
+                    return;
+                }
+            }
+        }
+        BrowserUtil.browse(job.getUrl());
+    }
+
+    private boolean selectJobNode(String jobUrl) {
+        DefaultMutableTreeNode rootNode = (DefaultMutableTreeNode) jobTree.getModel().getRoot();
+        for (int i = 0; i < rootNode.getChildCount(); ++i) {
+            DefaultMutableTreeNode serverNode = (DefaultMutableTreeNode) rootNode.getChildAt(i);
+            for (int j = 0; j < serverNode.getChildCount(); ++j) {
+                DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) serverNode.getChildAt(j);
+                Object userObject = childNode.getUserObject();
+                if (userObject instanceof Job && StringUtils.equals(jobUrl, ((Job) userObject).getUrl())) {
+                    TreeUtil.selectPath(jobTree, new TreePath(childNode.getPath()));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private View findView(String viewName) {
+        if (favoriteView != null && StringUtils.equals(viewName, favoriteView.getName())) {
+            return favoriteView;
+        }
+        for (View view : jenkins.getViews()) {
+            if (StringUtils.equals(viewName, view.getName())) {
+                return view;
+            }
+            for (View subView : view.getSubViews()) {
+                if (StringUtils.equals(viewName, subView.getName())) {
+                    return subView;
                 }
             }
         }
+        return null;
+    }
+
+    /**
+     * Indexes the jobs of the views of a server other than the loaded one from a single request, again once the
+     * index of the server is {@value #VIEW_INDEX_REFRESH_MINUTES} minutes old.
+     */
+    private void indexViews(final RequestManager viewRequestManager, final String serverUrl, final View loadedView) {
+        Long indexTime = indexTimeByServerUrl.get(serverUrl);
+        if (indexTime != null && indexTime > System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(VIEW_INDEX_REFRESH_MINUTES)) {
+            return;
+        }
+        indexTimeByServerUrl.put(serverUrl, System.currentTimeMillis());
+        JenkinsScheduler.getInstance(project).submitCoalesced(JenkinsScheduler.Lane.VIEW_REFRESH, "index " + serverUrl, new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    String loadedViewName = loadedView == null ? null : loadedView.getName();
+                    Map<String, List<Job>> jobsByViewName = viewRequestManager.loadJobNamesByViewName(serverUrl);
+                    for (Map.Entry<String, List<Job>> viewJobs : jobsByViewName.entrySet()) {
+                        if (!StringUtils.equals(viewJobs.getKey(), loadedViewName)) {
+                            jobSearchIndex.updateView(serverUrl, viewJobs.getKey(), viewJobs.getValue());
+                        }
+                    }
+                    Set<String> viewNames = new HashSet<String>(jobsByViewName.keySet());
+                    viewNames.add(loadedViewName);
+                    jobSearchIndex.retainViews(serverUrl, viewNames);
+                } catch (RuntimeException ex) {
+                    logger.warn(String.format("Unable to index the jobs of the views of %s", serverUrl), ex);
+                }
+            }
+        });
     }
 
     public boolean hasFavoriteJobs() {
@@ -340,13 +513,18 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         });
     }
 
-    private Tree createTree(final List<JenkinsSettings.FavoriteJob> favoriteJobs) {
+    private Tree createTree(JenkinsSettings jenkinsSettings) {
 
         SimpleTree tree = new SimpleTree();
         tree.getEmptyText().setText(LOADING);
-        tree.setCellRenderer(new JenkinsTreeRenderer(favoriteJobs));
+        tree.setCellRenderer(new JenkinsTreeRenderer(jenkinsSettings));
         tree.setName("jobTree");
-        tree.setModel(new DefaultTreeModel(new DefaultMutableTreeNode(jenkins)));
+        tree.setModel(new DefaultTreeModel(new DefaultMutableTreeNode()));
+        tree.setRootVisible(false);
+        tree.setShowsRootHandles(true);
+        // with a fixed row height, the tree only lays out the rows that are expanded and scrolled into view
+        tree.setRowHeight(Math.max(JBUI.scale(ROW_HEIGHT), tree.getFontMetrics(tree.getFont()).getHeight() + JBUI.scale(4)));
+        tree.setLargeModel(true);
 
         new TreeSpeedSearch(tree, new Convertor<TreePath, String>() {
 
@@ -366,12 +544,15 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
 
 
     public void handleEmptyConfiguration() {
-        JenkinsWidget.getInstance(project).updateStatusIcon(BuildStatusAggregator.EMPTY); //FIXME could be handled elsehwere
+        buildStatusSummary.clear();
+        jobSearchIndex.clear();
         DefaultTreeModel model = (DefaultTreeModel) jobTree.getModel();
         DefaultMutableTreeNode root = (DefaultMutableTreeNode) model.getRoot();
+        jenkinsNode.removeAllChildren();
         root.removeAllChildren();
         model.nodeStructureChanged(root);
-        jobTree.setRootVisible(false);
+        masterNodes.clear();
+        jenkinsMasters.dispose();
 
         jenkins.update(Jenkins.byDefault());
 
@@ -381,6 +562,7 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
 
     public void setJobsUnavailable() {
         jobTree.getEmptyText().setText(UNAVAILABLE);
+        setTreeBusy(false);
     }
 
     public void postAuthenticationInitialization() {
@@ -398,6 +580,7 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
             viewToLoad = jenkins.getViewByName(lastSelectedViewName);
         }
         loadView(viewToLoad);
+        indexViews(requestManager, jenkins.getServerUrl(), viewToLoad);
     }
 
     public void init() {
@@ -415,6 +598,7 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
     private void installActionsInToolbar() {
         DefaultActionGroup actionGroup = new DefaultActionGroup("JenkinsToolbarGroup", false);
         actionGroup.add(new SelectViewAction(this));
+        actionGroup.add(new GotoJobAction());
         actionGroup.add(new RefreshNodeAction(this));
         actionGroup.add(new LoadBuildsAction(this));
         actionGroup.add(new RunBuildAction(this));
@@ -463,6 +647,7 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
             logger.warn("BrowserPanel.refreshCurrentView called outside EDT");
         }
         new LoadSelectedViewJob(project).queue();
+        jenkinsMasters.refreshAll();
     }
 
     private void loadJobs() {
@@ -472,13 +657,33 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         final List<Job> jobList;
         if (currentSelectedView instanceof FavoriteView) {
             jobList = requestManager.loadFavoriteJobs(jenkinsSettings.getFavoriteJobs());
+        } else if (StringUtils.equals(currentSelectedView.getName(), liveViewName)) {
+            jobList = requestManager.refreshJenkinsView(currentSelectedView);
         } else {
-            jobList = requestManager.loadJenkinsView(currentSelectedView);
+            // first load, view switch or snapshot shown: show each page of a large view as soon as it arrives
+            final String viewName = currentSelectedView.getName();
+            final AtomicBoolean replaceShownJobs = new AtomicBoolean(!StringUtils.equals(viewName, displayedViewName));
+            jobList = requestManager.loadJenkinsView(currentSelectedView, new Consumer<List<Job>>() {
+                @Override
+                public void accept(final List<Job> page) {
+                    final boolean firstPageOfAnotherView = replaceShownJobs.getAndSet(false);
+                    GuiUtil.runInSwingThread(new Runnable() {
+                        @Override
+                        public void run() {
+                            displayPage(viewName, page, firstPageOfAnotherView);
+                        }
+                    });
+                }
+            });
         }
 
         jenkinsSettings.setLastSelectedView(currentSelectedView.getName());
+        liveViewName = currentSelectedView instanceof FavoriteView ? null : currentSelectedView.getName();
 
         jenkins.setJobs(jobList);
+        jobSearchIndex.updateView(jenkins.getServerUrl(), currentSelectedView.getName(), jobList);
+        liveDataLoaded = true;
+        snapshotCache.save(jenkins, currentSelectedView.getName(), jobList);
     }
 
     private View getViewToLoad() {
@@ -503,30 +708,139 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         }
     }
 
-    private void fillJobTree(final BuildStatusVisitor buildStatusVisitor) {
-        final List<Job> jobList = jenkins.getJobs();
+    /**
+     * Adds a page of the view being loaded to the job tree, until the whole view is set. The first page of another
+     * view replaces the jobs shown.
+     */
+    private void displayPage(String viewName, List<Job> page, boolean firstPageOfAnotherView) {
+        if (!StringUtils.equals(viewName, getCurrentViewName())) {
+            return;
+        }
+        if (firstPageOfAnotherView) {
+            fillJobTree(page, viewName);
+            return;
+        }
+        DefaultTreeModel model = (DefaultTreeModel) jobTree.getModel();
+        JobTreeUpdater.Delta delta = new JobTreeUpdater(model).append(jenkinsNode, page, sortedByBuildStatus ? jobByStatusComparator : jobByNameComparator);
+        logger.debug(String.format("Page of %s added to the job tree: %s", viewName, delta));
+    }
+
+    private void fillJobTree(String viewName) {
+        fillJobTree(jenkins.getJobs(), viewName);
+    }
+
+    private void fillJobTree(List<Job> jobList, String viewName) {
         if (jobList.isEmpty()) {
             return;
         }
+        displayedViewName = viewName;
 
         DefaultTreeModel model = (DefaultTreeModel) jobTree.getModel();
         final DefaultMutableTreeNode rootNode = (DefaultMutableTreeNode) model.getRoot();
-        rootNode.removeAllChildren();
+        if (jenkinsNode.getParent() == null) {
+            model.insertNodeInto(jenkinsNode, rootNode, 0);
+        } else {
+            model.nodeChanged(jenkinsNode);
+        }
+        updateServerNode(jenkinsNode, jobList);
+        jobTree.expandPath(new TreePath(jenkinsNode.getPath()));
+
+        buildStatusSummary.updateDisplayedView(jenkins.getServerUrl(), viewName, jobList);
+        if (jobUrlToSelect != null && selectJobNode(jobUrlToSelect)) {
+            jobUrlToSelect = null;
+        }
 
-        for (Job job : jobList) {
-            DefaultMutableTreeNode jobNode = new DefaultMutableTreeNode(job);
-            if (job.isFetchBuild()) {
-                fillBuildsTree(job, jobNode);
+        buildWatcher.jobsLoaded(jenkins.getServerUrl(), jobList);
+    }
+
+    private void updateServerNode(DefaultMutableTreeNode serverNode, List<Job> jobList) {
+        DefaultTreeModel model = (DefaultTreeModel) jobTree.getModel();
+        DefaultMutableTreeNode rootNode = (DefaultMutableTreeNode) model.getRoot();
+        List<TreePath> expandedPaths = getExpandedPaths(serverNode);
+        TreePath[] selectionPaths = jobTree.getSelectionPaths();
+
+        JobTreeUpdater.Delta delta = new JobTreeUpdater(model).update(serverNode, jobList, sortedByBuildStatus ? jobByStatusComparator : jobByNameComparator);
+        logger.debug(String.format("Job tree of %s refreshed: %s", serverNode.getUserObject(), delta));
+
+        if (delta.getMoved() > 0 || delta.getRemoved() > 0) {
+            restoreTreeState(rootNode, expandedPaths, selectionPaths);
+        }
+    }
+
+    private void displayMasterJobs(JenkinsMaster master, Jenkins workspace, List<Job> jobs) {
+        if (!jenkinsMasters.getMasters().contains(master)) {
+            return;
+        }
+        DefaultTreeModel model = (DefaultTreeModel) jobTree.getModel();
+        DefaultMutableTreeNode masterNode = masterNodes.get(master);
+        master.getJenkins().update(workspace);
+        master.getJenkins().setJobs(jobs);
+        buildStatusSummary.retainViews(master.getServerUrl(), getViewNames(workspace));
+        indexViews(master.getRequestManager(), master.getServerUrl(), workspace.getPrimaryView());
+        if (masterNode == null) {
+            masterNode = new DefaultMutableTreeNode(master.getJenkins());
+            masterNodes.put(master, masterNode);
+            DefaultMutableTreeNode rootNode = (DefaultMutableTreeNode) model.getRoot();
+            model.insertNodeInto(masterNode, rootNode, rootNode.getChildCount());
+        } else {
+            model.nodeChanged(masterNode);
+        }
+        updateServerNode(masterNode, jobs);
+        View primaryView = workspace.getPrimaryView();
+        buildStatusSummary.updateView(master.getServerUrl(), primaryView == null ? null : primaryView.getName(), jobs);
+        buildWatcher.jobsLoaded(master.getServerUrl(), jobs);
+    }
+
+    private void removeMasterNodes() {
+        DefaultTreeModel model = (DefaultTreeModel) jobTree.getModel();
+        for (Map.Entry<JenkinsMaster, DefaultMutableTreeNode> masterNode : masterNodes.entrySet()) {
+            if (masterNode.getValue().getParent() != null) {
+                model.removeNodeFromParent(masterNode.getValue());
             }
-            rootNode.add(jobNode);
-            visit(job, buildStatusVisitor);
+            jobSearchIndex.removeServer(masterNode.getKey().getServerUrl());
+            buildStatusSummary.removeServer(masterNode.getKey().getServerUrl());
+            buildWatcher.serverRemoved(masterNode.getKey().getServerUrl());
+        }
+        masterNodes.clear();
+        indexTimeByServerUrl.clear();
+    }
+
+    private List<TreePath> getExpandedPaths(DefaultMutableTreeNode rootNode) {
+        List<TreePath> expandedPaths = new ArrayList<TreePath>();
+        Enumeration<TreePath> expandedDescendants = jobTree.getExpandedDescendants(new TreePath(rootNode));
+        if (expandedDescendants != null) {
+            expandedPaths.addAll(Collections.list(expandedDescendants));
         }
+        return expandedPaths;
+    }
 
-        watch();
+    /**
+     * Moved job nodes are notified as removed then inserted, which makes JTree forget their state.
+     */
+    private void restoreTreeState(DefaultMutableTreeNode rootNode, List<TreePath> expandedPaths, TreePath[] selectionPaths) {
+        for (TreePath expandedPath : expandedPaths) {
+            if (isAttached(rootNode, expandedPath) && !jobTree.isExpanded(expandedPath)) {
+                jobTree.expandPath(expandedPath);
+            }
+        }
 
-        setSortedByStatus(sortedByBuildStatus);
+        if (selectionPaths == null) {
+            return;
+        }
+        List<TreePath> remainingSelection = new ArrayList<TreePath>();
+        for (TreePath selectionPath : selectionPaths) {
+            if (isAttached(rootNode, selectionPath)) {
+                remainingSelection.add(selectionPath);
+            }
+        }
+        TreePath[] currentSelection = jobTree.getSelectionPaths();
+        if (currentSelection == null || currentSelection.length != remainingSelection.size()) {
+            jobTree.setSelectionPaths(remainingSelection.toArray(new TreePath[remainingSelection.size()]));
+        }
+    }
 
-        jobTree.setRootVisible(true);
+    private static boolean isAttached(DefaultMutableTreeNode rootNode, TreePath path) {
+        return ((DefaultMutableTreeNode) path.getLastPathComponent()).getRoot() == rootNode;
     }
 
     public void setAsFavorite(final List<Job> jobs) {
@@ -573,7 +887,72 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
     }
 
     public void updateWorkspace(Jenkins jenkinsWorkspace) {
+        liveDataLoaded = true;
+        if (!StringUtils.equals(jenkins.getServerUrl(), jenkinsWorkspace.getServerUrl())) {
+            jobSearchIndex.removeServer(jenkins.getServerUrl());
+            buildStatusSummary.removeServer(jenkins.getServerUrl());
+            liveViewName = null;
+        }
         jenkins.update(jenkinsWorkspace);
+        buildStatusSummary.retainViews(jenkinsWorkspace.getServerUrl(), getViewNames(jenkinsWorkspace));
+    }
+
+    private static Set<String> getViewNames(Jenkins workspace) {
+        Set<String> viewNames = new HashSet<String>();
+        View primaryView = workspace.getPrimaryView();
+        viewNames.add(primaryView == null ? null : primaryView.getName());
+        for (View view : workspace.getViews()) {
+            viewNames.add(view.getName());
+            for (View subView : view.getSubViews()) {
+                viewNames.add(subView.getName());
+            }
+        }
+        return viewNames;
+    }
+
+    /**
+     * Displays the jobs saved by the previous session, busy-painted, until the live ones are loaded.
+     */
+    public void loadSnapshot() {
+        if (!isConfigured()) {
+            return;
+        }
+        final String serverUrl = jenkinsAppSettings.getServerUrl();
+        ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+            @Override
+            public void run() {
+                final JenkinsSnapshotCache.Snapshot snapshot = snapshotCache.load(serverUrl);
+                if (snapshot == null) {
+                    return;
+                }
+                GuiUtil.runInSwingThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        displaySnapshot(snapshot);
+                    }
+                });
+            }
+        });
+    }
+
+    private void displaySnapshot(JenkinsSnapshotCache.Snapshot snapshot) {
+        if (liveDataLoaded) {
+            return;
+        }
+        String viewName = jenkinsSettings.getLastSelectedView();
+        View primaryView = snapshot.getJenkins().getPrimaryView();
+        if (StringUtils.isEmpty(viewName) && primaryView != null) {
+            viewName = primaryView.getName();
+        }
+        List<Job> jobs = snapshot.getJobs(viewName);
+        if (jobs == null) {
+            return;
+        }
+
+        jenkins.update(snapshot.getJenkins());
+        jenkins.setJobs(jobs);
+        fillJobTree(viewName);
+        jobTree.setPaintBusy(true);
     }
 
 
@@ -585,76 +964,116 @@ public class BrowserPanel extends SimpleToolWindowPanel implements Disposable {
         @Override
         public void run(@NotNull ProgressIndicator indicator) {
             indicator.setIndeterminate(true);
-            try {
-                setTreeBusy(true);
-                View viewToLoad = getViewToLoad();
-                if (viewToLoad == null) {
-                    return;
-                }
-                currentSelectedView = viewToLoad;
-                loadJobs();
-
-            } catch (ConfigurationException ex) {
-                notifyErrorJenkinsToolWindow(ex.getMessage());
-            } finally {
-                setTreeBusy(false);
-            }
+            loadSelectedView();
         }
 
         @Override
         public void onSuccess() {
-            final BuildStatusAggregator buildStatusAggregator = new BuildStatusAggregator(jenkins.getJobs().size());
+            displayLoadedJobs();
+        }
+    }
 
-            GuiUtil.runInSwingThread(new Runnable() {
-                @Override
-                public void run() {
-                    fillJobTree(buildStatusAggregator);
-                    JenkinsWidget.getInstance(project).updateStatusIcon(buildStatusAggregator);
-                }
-            });
+    private void loadSelectedView() {
+        try {
+            setTreeBusy(true);
+            View viewToLoad = getViewToLoad();
+            if (viewToLoad == null) {
+                return;
+            }
+            currentSelectedView = viewToLoad;
+            loadJobs();
 
+        } catch (ConfigurationException ex) {
+            notifyErrorJenkinsToolWindow(ex.getMessage());
+        } finally {
+            setTreeBusy(false);
         }
     }
 
-    public void addToWatch(String changeListName, Job job) {
-        JenkinsAppSettings settings = JenkinsAppSettings.getSafeInstance(project);
-        Build build = job.getLastBuild();
-        build.setNumber(build.getNumber() + 1);
-        build.setUrl(settings.getServerUrl() + String.format("/job/%s/%d/", job.getName(), build.getNumber()));
-        watchedJobs.put(changeListName, job);
+    private void displayLoadedJobs() {
+        GuiUtil.runInSwingThread(new Runnable() {
+            @Override
+            public void run() {
+                fillJobTree(getCurrentViewName());
+            }
+        });
+    }
+
+    private String getCurrentViewName() {
+        View view = currentSelectedView;
+        return view == null ? null : view.getName();
     }
 
-    private void watch() {
-        if (!SwingUtilities.isEventDispatchThread()) {
-            logger.warn("BrowserPanel.watch called from outside EDT");
+    /**
+     * Follows the queue item of a triggered build until the build starts, then notifies with a link to that build
+     * and watches it, on behalf of the given change lists, until it finishes. Older servers do not tell the queue
+     * item: the job is then reloaded a bit later and its last build is watched.
+     */
+    public void followTriggeredBuild(final Job job, String queueItemUrl, final String... changeListNames) {
+        if (queueItemUrl == null) {
+            reloadTriggeredJob(job, changeListNames);
+            return;
         }
-        if (!watchedJobs.isEmpty()) {
-            for (final Map.Entry<String, Job> entry : watchedJobs.entrySet()) {
-                final Job job = entry.getValue();
-                final Build lastBuild = job.getLastBuild();
-                new Task.Backgroundable(project, "Jenkins build watch", true, JenkinsLoadingTaskOption.INSTANCE) {
-
-                    private Build build;
-
+        QueueItemTracker.getInstance(project).track(getJenkinsManager(job), queueItemUrl, new QueueItemTracker.Listener() {
+            @Override
+            public void buildStarted(final Build build) {
+                GuiUtil.runInSwingThread(new Runnable() {
                     @Override
-                    public void onSuccess() {
-                        if (lastBuild.isBuilding() && !build.isBuilding()) {
-                            notifyInfoJenkinsToolWindow(String.format("Status of build for Changelist \"%s\" is %s", entry, build.getStatus().getStatus()));
-                        }
+                    public void run() {
                         job.setLastBuild(build);
+                        refreshJob(job);
+                        refreshSoon(job);
+                        notifyInfoJenkinsToolWindow(HtmlUtil.createHtmlLinkMessage(
+                                String.format("%s #%d started", job.getName(), build.getNumber()), build.getUrl()));
+                        buildWatcher.watch(job, changeListNames);
                     }
+                });
+            }
 
-                    @Override
-                    public void run(@NotNull ProgressIndicator indicator) {
-                        indicator.setIndeterminate(true);
-                        build = requestManager.loadBuild(lastBuild);
-                    }
-                }.queue();
+            @Override
+            public void buildNotStarted(String reason) {
+                notifyErrorJenkinsToolWindow(String.format("%s build did not start: %s", job.getName(), reason));
             }
+        });
+    }
+
+    /**
+     * Brings forward the next refresh of the server the job belongs to.
+     */
+    private void refreshSoon(Job job) {
+        JenkinsMaster master = jenkinsMasters.findMaster(job.getUrl());
+        if (master != null) {
+            master.refreshSoon();
+            return;
+        }
+        JenkinsScheduler.PeriodicTask task = refreshViewTask;
+        AdaptivePolling polling = viewPolling;
+        if (task != null && polling != null) {
+            task.setDelay(polling.getActiveDelayMillis(), TimeUnit.MILLISECONDS);
         }
     }
 
-    public Map<String, Job> getWatched() {
-        return watchedJobs;
+    private void reloadTriggeredJob(final Job job, final String... changeListNames) {
+        final RequestManager jobRequestManager = getJenkinsManager(job);
+        JenkinsScheduler.getInstance(project).schedule(JenkinsScheduler.Lane.USER_ACTION, new Runnable() {
+            @Override
+            public void run() {
+                final Job loadedJob;
+                try {
+                    loadedJob = jobRequestManager.loadJob(job);
+                } catch (RuntimeException ex) {
+                    logger.warn(String.format("Unable to reload the %s job after its build was triggered", job.getName()), ex);
+                    return;
+                }
+                GuiUtil.runInSwingThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        job.updateContentWith(loadedJob);
+                        updateJobNode(job);
+                        buildWatcher.watch(job, changeListNames);
+                    }
+                });
+            }
+        }, RunBuildAction.BUILD_STATUS_UPDATE_DELAY, TimeUnit.SECONDS);
     }
 }
\ No newline at end of file
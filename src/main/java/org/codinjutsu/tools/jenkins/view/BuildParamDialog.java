@@ -188,19 +188,17 @@ public class BuildParamDialog extends JDialog {
     private void onOK() {
         final Map<String, String> paramValueMap = getParamValueMap();
 
-            new SwingWorker<Void, Void>(){ //FIXME don't use swing worker
+            new SwingWorker<String, Void>(){ //FIXME don't use swing worker
                 @Override
-                protected Void doInBackground() throws Exception {
-                    requestManager.runParameterizedBuild(job, configuration, paramValueMap);
-                    return null;
+                protected String doInBackground() throws Exception {
+                    return requestManager.runParameterizedBuild(job, configuration, paramValueMap);
                 }
 
                 @Override
                 protected void done() {
                     dispose();
                     try {
-                        get();
-                        runBuildCallback.notifyOnOk(job);
+                        runBuildCallback.notifyOnOk(job, get());
                     } catch (InterruptedException e) {
                         logger.log(Level.WARN, "Exception occured while...", e);
                     } catch (ExecutionException e) {
@@ -273,7 +271,10 @@ public class BuildParamDialog extends JDialog {
 
     public interface RunBuildCallback {
 
-        void notifyOnOk(Job job);
+        /**
+         * @param queueItemUrl the queue item of the build, or null when the server did not tell it
+         */
+        void notifyOnOk(Job job, String queueItemUrl);
 
         void notifyOnError(Job job, Exception ex);
     }
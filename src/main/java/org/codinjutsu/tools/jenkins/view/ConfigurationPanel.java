@@ -42,6 +42,8 @@ import javax.swing.text.html.HTMLEditorKit;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.codinjutsu.tools.jenkins.view.validator.ValidatorTypeEnum.URL;
 
@@ -54,6 +56,8 @@ public class ConfigurationPanel {
     @GuiField(validators = URL)
     private JTextField serverUrl;
 
+    private JTextField otherServerUrls;
+
     private JTextField crumbDataField;
 
     private JTextField username;
@@ -88,6 +92,7 @@ public class ConfigurationPanel {
     public ConfigurationPanel(final Project project) {
 
         serverUrl.setName("serverUrl");
+        otherServerUrls.setName("otherServerUrls");
         buildDelay.setName("buildDelay");
         jobRefreshPeriod.setName("jobRefreshPeriod");
         rssRefreshPeriod.setName("rssRefreshPeriod");
@@ -190,6 +195,7 @@ public class ConfigurationPanel {
                 || abortedCheckBox.isSelected() != jenkinsAppSettings.shouldDisplayAborted();
 
         return !jenkinsAppSettings.getServerUrl().equals(serverUrl.getText())
+                || !jenkinsAppSettings.getOtherServerUrls().equals(getOtherServerUrls())
                 || !(jenkinsAppSettings.getBuildDelay() == getBuildDelay())
                 || !(jenkinsAppSettings.getJobRefreshPeriod() == getJobRefreshPeriod())
                 || !(jenkinsAppSettings.getRssRefreshPeriod() == getRssRefreshPeriod())
@@ -203,11 +209,12 @@ public class ConfigurationPanel {
         formValidator.validate();
 
         if (!StringUtils.equals(jenkinsAppSettings.getServerUrl(), serverUrl.getText())) {
-            jenkinsSettings.getFavoriteJobs().clear();
+            jenkinsSettings.clearFavorites();
             jenkinsSettings.setLastSelectedView(null);
         }
 
         jenkinsAppSettings.setServerUrl(serverUrl.getText());
+        jenkinsAppSettings.setOtherServerUrls(getOtherServerUrls());
         jenkinsAppSettings.setDelay(getBuildDelay());
         jenkinsAppSettings.setJobRefreshPeriod(getJobRefreshPeriod());
         jenkinsAppSettings.setRssRefreshPeriod(getRssRefreshPeriod());
@@ -238,6 +245,7 @@ public class ConfigurationPanel {
 
     public void loadConfigurationData(JenkinsAppSettings jenkinsAppSettings, JenkinsSettings jenkinsSettings) {
         serverUrl.setText(jenkinsAppSettings.getServerUrl());
+        otherServerUrls.setText(StringUtils.join(jenkinsAppSettings.getOtherServerUrls(), ", "));
         buildDelay.setText(String.valueOf(jenkinsAppSettings.getBuildDelay()));
 
         jobRefreshPeriod.setText(String.valueOf(jenkinsAppSettings.getJobRefreshPeriod()));
@@ -318,6 +326,14 @@ public class ConfigurationPanel {
         return 0;
     }
 
+    private List<String> getOtherServerUrls() {
+        List<String> urls = new ArrayList<String>();
+        for (String url : StringUtils.split(otherServerUrls.getText(), ", ")) {
+            urls.add(StringUtils.removeEnd(url, "/"));
+        }
+        return urls;
+    }
+
     private String getSuffix() {
         return replaceWithSuffix.getText();
     }
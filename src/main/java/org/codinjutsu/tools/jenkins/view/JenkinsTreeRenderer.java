@@ -30,17 +30,25 @@ import org.codinjutsu.tools.jenkins.util.GuiUtil;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultMutableTreeNode;
-import java.util.List;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
+/**
+ * The state, health and favorite icons only come in a few combinations: their composite icons are created once
+ * and reused by every row, so that scrolling through a large view does not allocate icons.
+ */
 public class JenkinsTreeRenderer extends ColoredTreeCellRenderer {
 
     public static final Icon FAVORITE_ICON = GuiUtil.loadIcon("star_tn.png");
     public static final Icon SERVER_ICON = GuiUtil.loadIcon("server_wrench.png");
 
-    private final List<JenkinsSettings.FavoriteJob> favoriteJobs;
+    private final JenkinsSettings jenkinsSettings;
+
+    private final Map<Icon, Map<Icon, Icon[]>> jobIconsByStateAndHealth = new IdentityHashMap<Icon, Map<Icon, Icon[]>>();
+    private final Map<Icon, Icon> buildIconByState = new IdentityHashMap<Icon, Icon>();
 
-    public JenkinsTreeRenderer(List<JenkinsSettings.FavoriteJob> favoriteJobs) {
-        this.favoriteJobs = favoriteJobs;
+    public JenkinsTreeRenderer(JenkinsSettings jenkinsSettings) {
+        this.jenkinsSettings = jenkinsSettings;
     }
 
     @Override
@@ -61,25 +69,39 @@ public class JenkinsTreeRenderer extends ColoredTreeCellRenderer {
             append(buildLabel(job), getAttribute(job));
 
             setToolTipText(job.findHealthDescription());
-            if (isFavoriteJob(job)) {
-                setIcon(new CompositeIcon(job.getStateIcon(), job.getHealthIcon(), FAVORITE_ICON));
-            } else {
-                setIcon(new CompositeIcon(job.getStateIcon(), job.getHealthIcon()));
-            }
+            setIcon(getJobIcon(job.getStateIcon(), job.getHealthIcon(), isFavoriteJob(job)));
         } else if (userObject instanceof Build) {
             Build build = (Build) node.getUserObject();
             append(buildLabel(build), SimpleTextAttributes.REGULAR_ITALIC_ATTRIBUTES);
-            setIcon(new CompositeIcon(build.getStateIcon()));
+            setIcon(getBuildIcon(build.getStateIcon()));
         }
     }
 
     boolean isFavoriteJob(Job job) {
-        for (JenkinsSettings.FavoriteJob favoriteJob : favoriteJobs) {
-            if (favoriteJob.name.equals(job.getName())) {
-                return true;
-            }
+        return jenkinsSettings.isAFavoriteJob(job.getName());
+    }
+
+    private Icon getJobIcon(Icon stateIcon, Icon healthIcon, boolean favorite) {
+        Map<Icon, Icon[]> iconsByHealth = jobIconsByStateAndHealth.get(stateIcon);
+        if (iconsByHealth == null) {
+            iconsByHealth = new IdentityHashMap<Icon, Icon[]>();
+            jobIconsByStateAndHealth.put(stateIcon, iconsByHealth);
+        }
+        Icon[] icons = iconsByHealth.get(healthIcon);
+        if (icons == null) {
+            icons = new Icon[]{new CompositeIcon(stateIcon, healthIcon), new CompositeIcon(stateIcon, healthIcon, FAVORITE_ICON)};
+            iconsByHealth.put(healthIcon, icons);
+        }
+        return icons[favorite ? 1 : 0];
+    }
+
+    private Icon getBuildIcon(Icon stateIcon) {
+        Icon icon = buildIconByState.get(stateIcon);
+        if (icon == null) {
+            icon = new CompositeIcon(stateIcon);
+            buildIconByState.put(stateIcon, icon);
         }
-        return false;
+        return icon;
     }
 
     public static SimpleTextAttributes getAttribute(Job job) {
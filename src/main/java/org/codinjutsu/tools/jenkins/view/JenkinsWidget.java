@@ -26,6 +26,7 @@ import com.intellij.openapi.wm.ToolWindowManager;
 import com.intellij.ui.components.panels.NonOpaquePanel;
 import org.codinjutsu.tools.jenkins.JenkinsWindowManager;
 import org.codinjutsu.tools.jenkins.logic.BuildStatusAggregator;
+import org.codinjutsu.tools.jenkins.logic.BuildStatusSummary;
 import org.codinjutsu.tools.jenkins.view.util.BuildStatusIcon;
 import org.codinjutsu.tools.jenkins.view.util.WidgetBorderUtil;
 import org.jetbrains.annotations.NotNull;
@@ -34,13 +35,16 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Jenkins status bar widget
  */
-public class JenkinsWidget extends NonOpaquePanel implements CustomStatusBarWidget {
+public class JenkinsWidget extends NonOpaquePanel implements CustomStatusBarWidget, BuildStatusSummary.Listener {
 
     private final Project project;
+    private final BuildStatusIcon buildStatusIcon;
+    private final AtomicBoolean updateScheduled = new AtomicBoolean();
     private StatusBar myStatusBar;
 
     public static JenkinsWidget getInstance(Project project) {
@@ -49,28 +53,31 @@ public class JenkinsWidget extends NonOpaquePanel implements CustomStatusBarWidg
 
     public JenkinsWidget(Project project) {
         this.project = project;
-        JComponent buildStatusIcon = createStatusIcon(new BuildStatusAggregator(0));
+        this.buildStatusIcon = createStatusIcon(BuildStatusAggregator.EMPTY);
         setLayout(new BorderLayout());
         add(buildStatusIcon, BorderLayout.CENTER);
+        BuildStatusSummary.getInstance(project).addListener(this);
     }
 
-    public void updateStatusIcon(final BuildStatusAggregator buildStatusAggregator) {
+    /**
+     * A burst of count changes ends up in a single icon update on the EDT, with the latest counts.
+     */
+    @Override
+    public void statusChanged(final BuildStatusSummary summary) {
+        if (!updateScheduled.compareAndSet(false, true)) {
+            return;
+        }
         ApplicationManager.getApplication().invokeLater(new Runnable() {
             @Override
             public void run() {
-                removeAll();
-
-                final JComponent buildIcon = createStatusIcon(buildStatusAggregator);
-                add(buildIcon, BorderLayout.CENTER);
-
-                updateUI();
+                updateScheduled.set(false);
+                buildStatusIcon.setStatus(summary.getDisplayedStatus());
             }
         });
-
     }
 
-    private JComponent createStatusIcon(BuildStatusAggregator aggregator) {
-        JComponent statusIcon = BuildStatusIcon.createIcon(aggregator);
+    private BuildStatusIcon createStatusIcon(BuildStatusAggregator aggregator) {
+        BuildStatusIcon statusIcon = BuildStatusIcon.createIcon(aggregator);
         statusIcon.addMouseListener(new MouseAdapter() {
             @Override
             public void mousePressed(MouseEvent e) {
@@ -108,6 +115,7 @@ public class JenkinsWidget extends NonOpaquePanel implements CustomStatusBarWidg
     }
 
     public void dispose() {
+        BuildStatusSummary.getInstance(project).removeListener(this);
         if (myStatusBar != null) {
             myStatusBar.removeWidget(ID());
         }
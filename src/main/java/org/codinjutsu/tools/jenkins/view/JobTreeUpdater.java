@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.view;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Job;
+
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.*;
+
+/**
+ * Applies a freshly loaded job list to the job tree as a delta: job nodes are matched by url,
+ * reused when still present and only the inserted, removed and changed ones are notified.
+ */
+class JobTreeUpdater {
+
+    private final DefaultTreeModel model;
+
+    JobTreeUpdater(DefaultTreeModel model) {
+        this.model = model;
+    }
+
+    Delta update(List<Job> jobs, Comparator<Job> jobComparator) {
+        return update((DefaultMutableTreeNode) model.getRoot(), jobs, jobComparator);
+    }
+
+    /**
+     * Same as {@link #update(List, Comparator)} for the job nodes under the given server node.
+     */
+    Delta update(DefaultMutableTreeNode rootNode, List<Job> jobs, Comparator<Job> jobComparator) {
+
+        Map<String, Job> jobByKey = new LinkedHashMap<String, Job>();
+        for (Job job : jobs) {
+            if (!jobByKey.containsKey(keyOf(job))) {
+                jobByKey.put(keyOf(job), job);
+            }
+        }
+        List<Job> sortedJobs = new ArrayList<Job>(jobByKey.values());
+        Collections.sort(sortedJobs, jobComparator);
+
+        Map<String, Integer> targetIndexByKey = new HashMap<String, Integer>();
+        for (int i = 0; i < sortedJobs.size(); i++) {
+            targetIndexByKey.put(keyOf(sortedJobs.get(i)), i);
+        }
+
+        Map<String, DefaultMutableTreeNode> currentNodeByKey = new HashMap<String, DefaultMutableTreeNode>();
+        List<DefaultMutableTreeNode> keptNodes = new ArrayList<DefaultMutableTreeNode>();
+        List<Integer> keptTargetIndexes = new ArrayList<Integer>();
+        boolean[] removed = new boolean[rootNode.getChildCount()];
+        int removedCount = 0;
+        for (int i = 0; i < rootNode.getChildCount(); i++) {
+            DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) rootNode.getChildAt(i);
+            String key = childNode.getUserObject() instanceof Job ? keyOf((Job) childNode.getUserObject()) : null;
+            Integer targetIndex = key == null ? null : targetIndexByKey.get(key);
+            if (targetIndex == null || currentNodeByKey.containsKey(key)) {
+                removed[i] = true;
+                removedCount++;
+            } else {
+                currentNodeByKey.put(key, childNode);
+                keptNodes.add(childNode);
+                keptTargetIndexes.add(targetIndex);
+            }
+        }
+
+        // nodes out of the longest already ordered run are moved: removed then inserted again
+        Set<DefaultMutableTreeNode> stableNodes = new HashSet<DefaultMutableTreeNode>();
+        for (int keptIndex : longestIncreasingRun(keptTargetIndexes)) {
+            stableNodes.add(keptNodes.get(keptIndex));
+        }
+        for (int i = 0; i < rootNode.getChildCount(); i++) {
+            if (!removed[i] && !stableNodes.contains(rootNode.getChildAt(i))) {
+                removed[i] = true;
+            }
+        }
+        removeChildren(rootNode, removed);
+
+        int changedCount = 0;
+        List<Integer> insertedIndexes = new ArrayList<Integer>();
+        List<DefaultMutableTreeNode> changedNodes = new ArrayList<DefaultMutableTreeNode>();
+        for (int i = 0; i < sortedJobs.size(); i++) {
+            Job job = sortedJobs.get(i);
+            DefaultMutableTreeNode node = currentNodeByKey.get(keyOf(job));
+            if (node == null) {
+                node = createJobNode(job);
+            } else {
+                Job previousJob = (Job) node.getUserObject();
+                keepLoadedBuilds(previousJob, job);
+                node.setUserObject(job);
+                if (stableNodes.contains(node) && !sameContent(previousJob, job)) {
+                    changedCount++;
+                    changedNodes.add(node);
+                }
+            }
+
+            if (i >= rootNode.getChildCount() || rootNode.getChildAt(i) != node) {
+                rootNode.insert(node, i);
+                insertedIndexes.add(i);
+            }
+        }
+        if (!insertedIndexes.isEmpty()) {
+            model.nodesWereInserted(rootNode, toArray(insertedIndexes));
+        }
+        if (!changedNodes.isEmpty()) {
+            List<Integer> changedIndexes = new ArrayList<Integer>();
+            for (DefaultMutableTreeNode changedNode : changedNodes) {
+                changedIndexes.add(rootNode.getIndex(changedNode));
+            }
+            Collections.sort(changedIndexes);
+            model.nodesChanged(rootNode, toArray(changedIndexes));
+        }
+
+        int addedCount = sortedJobs.size() - currentNodeByKey.size();
+        int movedCount = currentNodeByKey.size() - stableNodes.size();
+        return new Delta(addedCount, removedCount, changedCount, movedCount);
+    }
+
+    /**
+     * Adds a page of a view being loaded to the job nodes under the given server node: the jobs already shown are
+     * updated in place, or moved when their position changes, the others are inserted. Nothing is removed, the
+     * whole view is applied with {@link #update(DefaultMutableTreeNode, List, Comparator)} once loaded.
+     */
+    Delta append(DefaultMutableTreeNode rootNode, List<Job> jobs, Comparator<Job> jobComparator) {
+        Map<String, DefaultMutableTreeNode> currentNodeByKey = new HashMap<String, DefaultMutableTreeNode>();
+        for (int i = 0; i < rootNode.getChildCount(); i++) {
+            DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) rootNode.getChildAt(i);
+            if (childNode.getUserObject() instanceof Job) {
+                currentNodeByKey.put(keyOf((Job) childNode.getUserObject()), childNode);
+            }
+        }
+
+        int addedCount = 0;
+        int changedCount = 0;
+        int movedCount = 0;
+        for (Job job : jobs) {
+            DefaultMutableTreeNode node = currentNodeByKey.get(keyOf(job));
+            if (node == null) {
+                node = createJobNode(job);
+                currentNodeByKey.put(keyOf(job), node);
+                insertSorted(rootNode, node, jobComparator);
+                addedCount++;
+                continue;
+            }
+            Job previousJob = (Job) node.getUserObject();
+            keepLoadedBuilds(previousJob, job);
+            node.setUserObject(job);
+            if (sameContent(previousJob, job)) {
+                continue;
+            }
+            int index = rootNode.getIndex(node);
+            if (isInOrder(rootNode, index, jobComparator)) {
+                model.nodesChanged(rootNode, new int[]{index});
+                changedCount++;
+            } else {
+                rootNode.remove(index);
+                model.nodesWereRemoved(rootNode, new int[]{index}, new Object[]{node});
+                insertSorted(rootNode, node, jobComparator);
+                movedCount++;
+            }
+        }
+        return new Delta(addedCount, 0, changedCount, movedCount);
+    }
+
+    private void insertSorted(DefaultMutableTreeNode rootNode, DefaultMutableTreeNode node, Comparator<Job> jobComparator) {
+        Job job = (Job) node.getUserObject();
+        int low = 0;
+        int high = rootNode.getChildCount();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Object middleObject = ((DefaultMutableTreeNode) rootNode.getChildAt(middle)).getUserObject();
+            if (middleObject instanceof Job && jobComparator.compare((Job) middleObject, job) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        rootNode.insert(node, low);
+        model.nodesWereInserted(rootNode, new int[]{low});
+    }
+
+    private static boolean isInOrder(DefaultMutableTreeNode rootNode, int index, Comparator<Job> jobComparator) {
+        Job job = (Job) ((DefaultMutableTreeNode) rootNode.getChildAt(index)).getUserObject();
+        return (index == 0 || compare(rootNode.getChildAt(index - 1), job, jobComparator) <= 0)
+                && (index == rootNode.getChildCount() - 1 || compare(rootNode.getChildAt(index + 1), job, jobComparator) >= 0);
+    }
+
+    private static int compare(Object neighbourNode, Job job, Comparator<Job> jobComparator) {
+        Object neighbour = ((DefaultMutableTreeNode) neighbourNode).getUserObject();
+        return neighbour instanceof Job ? jobComparator.compare((Job) neighbour, job) : 0;
+    }
+
+    private void removeChildren(DefaultMutableTreeNode rootNode, boolean[] removed) {
+        List<Integer> removedIndexes = new ArrayList<Integer>();
+        List<Object> removedNodes = new ArrayList<Object>();
+        for (int i = 0; i < removed.length; i++) {
+            if (removed[i]) {
+                removedIndexes.add(i);
+                removedNodes.add(rootNode.getChildAt(i));
+            }
+        }
+        if (removedIndexes.isEmpty()) {
+            return;
+        }
+        for (int i = removedIndexes.size() - 1; i >= 0; i--) {
+            rootNode.remove(removedIndexes.get(i));
+        }
+        model.nodesWereRemoved(rootNode, toArray(removedIndexes), removedNodes.toArray());
+    }
+
+    static DefaultMutableTreeNode createJobNode(Job job) {
+        DefaultMutableTreeNode jobNode = new DefaultMutableTreeNode(job);
+        if (job.isFetchBuild()) {
+            for (Build build : job.getLastBuilds()) {
+                jobNode.add(new DefaultMutableTreeNode(build));
+            }
+        }
+        return jobNode;
+    }
+
+    /**
+     * The build list of a job is only loaded on demand; a view refresh must not collapse it.
+     */
+    private static void keepLoadedBuilds(Job previousJob, Job job) {
+        if (previousJob != job && previousJob.isFetchBuild() && !job.isFetchBuild()) {
+            job.setFetchBuild(true);
+            job.setLastBuilds(previousJob.getLastBuilds());
+        }
+    }
+
+    private static String keyOf(Job job) {
+        return job.getUrl() != null ? job.getUrl() : job.getName();
+    }
+
+    static boolean sameContent(Job job1, Job job2) {
+        if (job1 == job2) {
+            return true;
+        }
+        return ObjectUtils.equals(job1.getName(), job2.getName())
+                && ObjectUtils.equals(job1.getColor(), job2.getColor())
+                && job1.isInQueue() == job2.isInQueue()
+                && job1.isBuildable() == job2.isBuildable()
+                && job1.getHealthIcon() == job2.getHealthIcon()
+                && ObjectUtils.equals(job1.findHealthDescription(), job2.findHealthDescription())
+                && sameBuild(job1.getLastBuild(), job2.getLastBuild());
+    }
+
+    private static boolean sameBuild(Build build1, Build build2) {
+        if (build1 == null || build2 == null) {
+            return build1 == build2;
+        }
+        return build1.getNumber() == build2.getNumber()
+                && build1.isBuilding() == build2.isBuilding()
+                && build1.getStatus() == build2.getStatus()
+                && ObjectUtils.equals(build1.getUrl(), build2.getUrl());
+    }
+
+    /**
+     * Positions (in the given list) of one longest strictly increasing subsequence, O(n log n).
+     */
+    static List<Integer> longestIncreasingRun(List<Integer> values) {
+        int size = values.size();
+        int[] tailPositions = new int[size];
+        int[] previousPositions = new int[size];
+        int length = 0;
+        for (int i = 0; i < size; i++) {
+            int value = values.get(i);
+            int low = 0;
+            int high = length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values.get(tailPositions[middle]) < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            previousPositions[i] = low > 0 ? tailPositions[low - 1] : -1;
+            tailPositions[low] = i;
+            if (low == length) {
+                length++;
+            }
+        }
+
+        LinkedList<Integer> run = new LinkedList<Integer>();
+        for (int position = length > 0 ? tailPositions[length - 1] : -1; position >= 0; position = previousPositions[position]) {
+            run.addFirst(position);
+        }
+        return run;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] array = new int[values.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = values.get(i);
+        }
+        return array;
+    }
+
+    static class Delta {
+
+        private final int added;
+        private final int removed;
+        private final int changed;
+        private final int moved;
+
+        Delta(int added, int removed, int changed, int moved) {
+            this.added = added;
+            this.removed = removed;
+            this.changed = changed;
+            this.moved = moved;
+        }
+
+        int getAdded() {
+            return added;
+        }
+
+        int getRemoved() {
+            return removed;
+        }
+
+        int getChanged() {
+            return changed;
+        }
+
+        int getMoved() {
+            return moved;
+        }
+
+        int getChangedNodeCount() {
+            return added + removed + changed + moved;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d changed nodes (added=%d, removed=%d, changed=%d, moved=%d)", getChangedNodeCount(), added, removed, changed, moved);
+        }
+    }
+}
@@ -167,23 +167,23 @@ public class SelectJobDialog extends JDialog {
         return true;
     }
 
-    private void watchJob(BrowserPanel browserPanel, Job job) {
-        if (changeLists.length > 0) {
-            for(ChangeList list: changeLists) {
-                browserPanel.addToWatch(list.getName(), job);
-            }
+    private void watchJob(BrowserPanel browserPanel, Job job, String queueItemUrl) {
+        String[] changeListNames = new String[changeLists.length];
+        for (int i = 0; i < changeLists.length; i++) {
+            changeListNames[i] = changeLists[i].getName();
         }
+        browserPanel.followTriggeredBuild(job, queueItemUrl, changeListNames);
     }
 
     private void onOK() {
         BrowserPanel browserPanel = BrowserPanel.getInstance(project);
         try {
             if (createPatch()) {
-                RequestManager requestManager = browserPanel.getJenkinsManager();
                 String selectedJobName = (String) jobsList.getSelectedItem();
                 if (selectedJobName != null && !selectedJobName.isEmpty()) {
                     Job selectedJob = browserPanel.getJob(selectedJobName);
                     if (selectedJob != null) {
+                        RequestManager requestManager = browserPanel.getJenkinsManager(selectedJob);
                         if (selectedJob.hasParameters()) {
                             if (selectedJob.hasParameter(UploadPatchToJob.PARAMETER_NAME)) {
                                 JenkinsAppSettings settings = JenkinsAppSettings.getSafeInstance(project);
@@ -191,14 +191,14 @@ public class SelectJobDialog extends JDialog {
                                 VirtualFile virtualFile = UploadPatchToJob.prepareFile(browserPanel, LocalFileSystem.getInstance().refreshAndFindFileByIoFile(new File(FILENAME)), settings, selectedJob);
                                 if (virtualFile != null && virtualFile.exists()) {
                                     files.put(UploadPatchToJob.PARAMETER_NAME, virtualFile);
-                                    requestManager.runBuild(selectedJob, settings, files);
+                                    String queueItemUrl = requestManager.runBuild(selectedJob, settings, files);
                                     //browserPanel.loadSelectedJob();
                                     browserPanel.notifyInfoJenkinsToolWindow(HtmlUtil.createHtmlLinkMessage(
                                         selectedJob.getName() + " build is on going",
                                         selectedJob.getUrl())
                                     );
 
-                                    watchJob(browserPanel, selectedJob);
+                                    watchJob(browserPanel, selectedJob, queueItemUrl);
 
                                 } else {
                                     throw new ConfigurationException(String.format("File \"%s\" not found", virtualFile.getPath()));
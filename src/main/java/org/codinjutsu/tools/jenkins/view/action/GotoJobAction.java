@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.view.action;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.popup.JBPopup;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.ui.ColoredListCellRenderer;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.ScrollPaneFactory;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBTextField;
+import org.apache.commons.lang.StringUtils;
+import org.codinjutsu.tools.jenkins.logic.JobSearchIndex;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.view.BrowserPanel;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Finds a job among all the views of all the servers through the {@link JobSearchIndex}, and selects it in the
+ * job tree.
+ */
+public class GotoJobAction extends AnAction implements DumbAware {
+
+    private static final int MAX_RESULTS = 50;
+
+    public GotoJobAction() {
+        super("Go to Jenkins Job...", "Find a job in any view of the Jenkins servers", AllIcons.Actions.Find);
+    }
+
+    @Override
+    public void actionPerformed(AnActionEvent event) {
+        Project project = ActionUtil.getProject(event);
+        if (project == null) {
+            return;
+        }
+        final BrowserPanel browserPanel = BrowserPanel.getInstance(project);
+        final JobSearchIndex jobSearchIndex = JobSearchIndex.getInstance(project);
+        if (browserPanel == null || jobSearchIndex == null) {
+            return;
+        }
+
+        final JBTextField queryField = new JBTextField(40);
+        final DefaultListModel resultModel = new DefaultListModel();
+        final JBList resultList = new JBList(resultModel);
+        resultList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        resultList.setVisibleRowCount(15);
+        resultList.setCellRenderer(new MatchRenderer());
+        resultList.setFocusable(false);
+        resultList.getEmptyText().setText(jobSearchIndex.size() == 0 ? "No job indexed yet" : "No job found");
+
+        JPanel panel = new JPanel(new BorderLayout());
+        panel.add(queryField, BorderLayout.NORTH);
+        panel.add(ScrollPaneFactory.createScrollPane(resultList), BorderLayout.CENTER);
+
+        final JBPopup popup = JBPopupFactory.getInstance().createComponentPopupBuilder(panel, queryField)
+                .setTitle("Go to Jenkins Job")
+                .setRequestFocus(true)
+                .setMovable(true)
+                .setResizable(true)
+                .setCancelOnClickOutside(true)
+                .createPopup();
+
+        queryField.getDocument().addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(DocumentEvent e) {
+                resultModel.clear();
+                for (JobSearchIndex.Match match : jobSearchIndex.search(queryField.getText(), MAX_RESULTS)) {
+                    resultModel.addElement(match);
+                }
+                if (!resultModel.isEmpty()) {
+                    resultList.setSelectedIndex(0);
+                }
+            }
+        });
+        queryField.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                int selectedIndex = resultList.getSelectedIndex();
+                if (e.getKeyCode() == KeyEvent.VK_DOWN && selectedIndex < resultModel.getSize() - 1) {
+                    select(resultList, selectedIndex + 1);
+                    e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_UP && selectedIndex > 0) {
+                    select(resultList, selectedIndex - 1);
+                    e.consume();
+                } else if (e.getKeyCode() == KeyEvent.VK_ENTER) {
+                    choose(popup, browserPanel, resultList);
+                    e.consume();
+                }
+            }
+        });
+        resultList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    choose(popup, browserPanel, resultList);
+                }
+            }
+        });
+
+        popup.showCenteredInCurrentWindow(project);
+    }
+
+    @Override
+    public void update(AnActionEvent event) {
+        Project project = ActionUtil.getProject(event);
+        event.getPresentation().setEnabled(project != null
+                && BrowserPanel.getInstance(project) != null
+                && JobSearchIndex.getInstance(project) != null);
+    }
+
+    private static void select(JList resultList, int index) {
+        resultList.setSelectedIndex(index);
+        resultList.ensureIndexIsVisible(index);
+    }
+
+    private static void choose(JBPopup popup, BrowserPanel browserPanel, JList resultList) {
+        JobSearchIndex.Match match = (JobSearchIndex.Match) resultList.getSelectedValue();
+        if (match == null) {
+            return;
+        }
+        popup.cancel();
+        browserPanel.selectJob(match);
+    }
+
+    private static class MatchRenderer extends ColoredListCellRenderer {
+
+        @Override
+        protected void customizeCellRenderer(JList list, Object value, int index, boolean selected, boolean hasFocus) {
+            if (value instanceof JobSearchIndex.Match) {
+                JobSearchIndex.Match match = (JobSearchIndex.Match) value;
+                Job job = match.getJob();
+                setIcon(job.getStateIcon());
+                append(job.getName(), SimpleTextAttributes.REGULAR_ATTRIBUTES);
+                append("  " + StringUtils.join(match.getViewNames(), ", ") + " - " + match.getServerUrl(), SimpleTextAttributes.GRAYED_ATTRIBUTES);
+            }
+        }
+    }
+}
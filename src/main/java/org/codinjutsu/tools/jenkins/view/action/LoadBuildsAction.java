@@ -42,7 +42,7 @@ public class LoadBuildsAction extends AnAction implements DumbAware {
                 @Override
                 public void run(@NotNull ProgressIndicator progressIndicator) {
                     progressIndicator.setIndeterminate(true);
-                    RequestManager requestManager = browserPanel.getJenkinsManager();
+                    RequestManager requestManager = browserPanel.getJenkinsManager(job);
                     job.setLastBuilds(requestManager.loadBuilds(job));
                     job.setFetchBuild(true);
                 }
@@ -24,7 +24,6 @@ import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
 import org.apache.log4j.Logger;
 import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
-import org.codinjutsu.tools.jenkins.logic.ExecutorService;
 import org.codinjutsu.tools.jenkins.logic.RequestManager;
 import org.codinjutsu.tools.jenkins.model.Job;
 import org.codinjutsu.tools.jenkins.util.GuiUtil;
@@ -34,7 +33,6 @@ import org.codinjutsu.tools.jenkins.view.BuildParamDialog;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
-import java.util.concurrent.TimeUnit;
 
 public class RunBuildAction extends AnAction implements DumbAware {
 
@@ -60,34 +58,26 @@ public class RunBuildAction extends AnAction implements DumbAware {
             final Job job = browserPanel.getSelectedJob();
             new Task.Backgroundable(project, "Running build", false) {
 
+                private String queueItemUrl;
+
                 @Override
                 public void onSuccess() {
                     notifyOnGoingMessage(job);
-                    ExecutorService.getInstance(project).getExecutor().schedule(new Runnable() {
-                        @Override
-                        public void run() {
-                            GuiUtil.runInSwingThread(new Runnable() {
-                                @Override
-                                public void run() {
-                                    final Job newJob = browserPanel.getJob(job.getName());
-                                    browserPanel.loadJob(newJob);
-                                }
-                            });
-                        }
-                    }, BUILD_STATUS_UPDATE_DELAY, TimeUnit.SECONDS); //FIXME check delay coud be in settings
-
+                    browserPanel.followTriggeredBuild(job, queueItemUrl);
                 }
 
                 @Override
                 public void run(@NotNull ProgressIndicator progressIndicator) {
                     progressIndicator.setIndeterminate(true);
-                    RequestManager requestManager = browserPanel.getJenkinsManager();
+                    RequestManager requestManager = browserPanel.getJenkinsManager(job);
                     if (job.hasParameters()) {
+                        requestManager.loadParameterDefinitions(job);
                         BuildParamDialog.showDialog(job, JenkinsAppSettings.getSafeInstance(project), requestManager, new BuildParamDialog.RunBuildCallback() {
 
-                            public void notifyOnOk(Job job) {
+                            public void notifyOnOk(Job job, String queueItemUrl) {
                                 notifyOnGoingMessage(job);
                                 browserPanel.loadJob(job);
+                                browserPanel.followTriggeredBuild(job, queueItemUrl);
                             }
 
                             public void notifyOnError(Job job, Exception ex) {
@@ -98,7 +88,7 @@ public class RunBuildAction extends AnAction implements DumbAware {
                         });
 
                     } else {
-                        requestManager.runBuild(job, JenkinsAppSettings.getSafeInstance(project));
+                        queueItemUrl = requestManager.runBuild(job, JenkinsAppSettings.getSafeInstance(project));
                     }
                 }
             }.queue();
@@ -23,29 +23,36 @@ import com.intellij.execution.filters.TextConsoleBuilderFactory;
 import com.intellij.execution.ui.ConsoleView;
 import com.intellij.execution.ui.ConsoleViewContentType;
 import com.intellij.execution.ui.RunContentDescriptor;
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.actionSystem.*;
-import com.intellij.openapi.progress.ProgressIndicator;
-import com.intellij.openapi.progress.Task;
 import com.intellij.openapi.project.DumbAware;
 import com.intellij.openapi.project.Project;
-import org.codinjutsu.tools.jenkins.logic.RequestManager;
+import com.intellij.openapi.util.Disposer;
+import org.codinjutsu.tools.jenkins.logic.ConsoleLogBuffer;
+import org.codinjutsu.tools.jenkins.logic.ConsoleLogFollower;
+import org.codinjutsu.tools.jenkins.model.Build;
 import org.codinjutsu.tools.jenkins.model.Job;
 import org.codinjutsu.tools.jenkins.util.GuiUtil;
 import org.codinjutsu.tools.jenkins.view.BrowserPanel;
-import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 
 public class ShowLogAction extends AnAction implements DumbAware {
 
     private static final Icon ICON = GuiUtil.loadIcon("show_log.png");
 
+    private static final int CONSOLE_TAIL_CAPACITY = 1024 * 1024;
+    private static final int PRINT_DELAY_MILLIS = 250;
+
     private final BrowserPanel browserPanel;
 
 
     public ShowLogAction(BrowserPanel browserPanel) {
-        super("Show log", "Show last build's log", ICON);
+        super("Show log", "Show the log of the selected build, or of the last one", ICON);
         this.browserPanel = browserPanel;
     }
 
@@ -54,55 +61,92 @@ public class ShowLogAction extends AnAction implements DumbAware {
         final Project project = ActionUtil.getProject(event);
 
         final BrowserPanel browserPanel = BrowserPanel.getInstance(project);
-        final Job job = browserPanel.getSelectedJob();
-        new Task.Backgroundable(project, job.getName(), false) {
-
-            String consoleContent;
-
+        Build build = browserPanel.getSelectedBuild();
+        Job job = build == null ? browserPanel.getSelectedJob() : browserPanel.getSelectedBuildJob();
+        if (build == null && job != null) {
+            build = job.getLastBuild();
+        }
+        if (build == null) {
+            return;
+        }
+
+        final ConsoleLogBuffer consoleBuffer = new ConsoleLogBuffer(CONSOLE_TAIL_CAPACITY);
+        final ConsoleLogFollower follower = new ConsoleLogFollower(browserPanel.getJenkinsManager(build), build, consoleBuffer);
+        follower.setFollow(build.isBuilding());
+
+        TextConsoleBuilder builder = TextConsoleBuilderFactory.getInstance().createBuilder(project);
+        builder.setViewer(true);
+        final ConsoleView consoleView = builder.getConsole();
+
+        final Timer printTimer = new Timer(PRINT_DELAY_MILLIS, new ActionListener() {
             @Override
-            public void onSuccess() {
-                if (consoleContent == null) {
-                    return;
+            public void actionPerformed(ActionEvent e) {
+                String text = consoleBuffer.drain();
+                if (text != null) {
+                    consoleView.print(text, ConsoleViewContentType.NORMAL_OUTPUT);
                 }
-                GuiUtil.runInSwingThread(() -> {
-                    TextConsoleBuilder builder = TextConsoleBuilderFactory.getInstance().createBuilder(myProject);
-                    builder.setViewer(true);
-                    ConsoleView consoleView = builder.getConsole();
-                    consoleView.print(consoleContent, ConsoleViewContentType.NORMAL_OUTPUT);
-
-                    JPanel panel = new JPanel(new BorderLayout());
-
-                    DefaultActionGroup toolbarActions = new DefaultActionGroup();
-                    ActionToolbar actionToolbar = ActionManager.getInstance().createActionToolbar(ActionPlaces.UNKNOWN, toolbarActions, false);
-                    panel.add(actionToolbar.getComponent(), BorderLayout.WEST);
-                    panel.add(consoleView.getComponent(), BorderLayout.CENTER);
-                    actionToolbar.setTargetComponent(panel);
+            }
+        });
+        Disposer.register(consoleView, new Disposable() {
+            @Override
+            public void dispose() {
+                printTimer.stop();
+                follower.stop();
+            }
+        });
 
-                    toolbarActions.addAll(consoleView.createConsoleActions());
-                    toolbarActions.addAction(new ShowJobResultsAsJUnitViewAction());
-                    panel.updateUI();
+        JPanel panel = new JPanel(new BorderLayout());
 
-                    final RunContentDescriptor contentDescriptor = new RunContentDescriptor(consoleView, null, panel, myTitle);
+        DefaultActionGroup toolbarActions = new DefaultActionGroup();
+        ActionToolbar actionToolbar = ActionManager.getInstance().createActionToolbar(ActionPlaces.UNKNOWN, toolbarActions, false);
+        panel.add(actionToolbar.getComponent(), BorderLayout.WEST);
+        panel.add(consoleView.getComponent(), BorderLayout.CENTER);
+        actionToolbar.setTargetComponent(panel);
 
-                    ExecutionManager.getInstance(project).getContentManager()
-                            .showRunContent(DefaultRunExecutor.getRunExecutorInstance(), contentDescriptor);
-                });
+        toolbarActions.add(new FollowLogAction(follower));
+        toolbarActions.addAll(consoleView.createConsoleActions());
+        toolbarActions.addAction(new ShowJobResultsAsJUnitViewAction());
+        panel.updateUI();
 
-            }
-
-            @Override
-            public void run(@NotNull ProgressIndicator progressIndicator) {
-                RequestManager requestManager = browserPanel.getJenkinsManager();
-                progressIndicator.setIndeterminate(true);
-                consoleContent = requestManager.loadConsoleTextFor(job);
-            }
-        }.queue();
+        String title = String.format("%s #%d", job == null ? "Jenkins" : job.getName(), build.getNumber());
+        RunContentDescriptor contentDescriptor = new RunContentDescriptor(consoleView, null, panel, title);
+        ExecutionManager.getInstance(project).getContentManager()
+                .showRunContent(DefaultRunExecutor.getRunExecutorInstance(), contentDescriptor);
 
+        follower.start();
+        printTimer.start();
     }
 
     @Override
     public void update(AnActionEvent event) {
         Job selectedJob = browserPanel.getSelectedJob();
-        event.getPresentation().setVisible(selectedJob != null && selectedJob.isBuildable());
+        event.getPresentation().setVisible(browserPanel.getSelectedBuild() != null
+                || (selectedJob != null && selectedJob.isBuildable() && selectedJob.getLastBuild() != null));
+    }
+
+    private static class FollowLogAction extends ToggleAction implements DumbAware {
+
+        private final ConsoleLogFollower follower;
+
+        FollowLogAction(ConsoleLogFollower follower) {
+            super("Follow", "Keep reading the log until the build ends", AllIcons.RunConfigurations.Scroll_down);
+            this.follower = follower;
+        }
+
+        @Override
+        public boolean isSelected(AnActionEvent event) {
+            return follower.isFollowing() && follower.hasMoreData();
+        }
+
+        @Override
+        public void setSelected(AnActionEvent event, boolean follow) {
+            follower.setFollow(follow);
+        }
+
+        @Override
+        public void update(AnActionEvent event) {
+            super.update(event);
+            event.getPresentation().setEnabled(follower.hasMoreData());
+        }
     }
 }
@@ -44,7 +44,7 @@ public class StopBuildAction extends AnAction implements DumbAware {
 
                 @Override
                 public void run(@NotNull ProgressIndicator progressIndicator) {
-                    RequestManager requestManager = RequestManager.getInstance(project);
+                    RequestManager requestManager = browserPanel.getJenkinsManager(job);
                     requestManager.stopBuild(job.getLastBuild());
                 }
             }.queue();
@@ -68,7 +68,7 @@ public class UploadPatchToJob extends AnAction implements DumbAware {
         try {
             Job job = browserPanel.getSelectedJob();
 
-            RequestManager requestManager = browserPanel.getJenkinsManager();
+            RequestManager requestManager = browserPanel.getJenkinsManager(job);
 
             if (job.hasParameters()) {
                 if (job.hasParameter(PARAMETER_NAME)) {
@@ -85,9 +85,9 @@ public class UploadPatchToJob extends AnAction implements DumbAware {
                         if (virtualFile.exists()) {
                             Map<String, VirtualFile> files = new HashMap<String, VirtualFile>();
                             files.put(PARAMETER_NAME, virtualFile);
-                            requestManager.runBuild(job, settings, files);
+                            String queueItemUrl = requestManager.runBuild(job, settings, files);
                             notifyOnGoingMessage(job);
-                            browserPanel.loadSelectedJob();
+                            browserPanel.followTriggeredBuild(job, queueItemUrl);
                         } else {
                             message = String.format("File \"%s\" not exists", virtualFile.getPath());
                         }
@@ -13,7 +13,7 @@ import com.offbytwo.jenkins.model.TestCase;
 import com.offbytwo.jenkins.model.TestResult;
 import com.offbytwo.jenkins.model.TestSuites;
 import jetbrains.buildServer.messages.serviceMessages.TestFailed;
-import org.codinjutsu.tools.jenkins.logic.RequestManager;
+import org.codinjutsu.tools.jenkins.logic.JenkinsMasters;
 import org.codinjutsu.tools.jenkins.model.Job;
 
 import java.util.Arrays;
@@ -50,7 +50,7 @@ class JobTestResultsHandler {
     }
 
     void handle() {
-        List<TestResult> testResults = RequestManager.getInstance(project).loadTestResultsFor(job);
+        List<TestResult> testResults = JenkinsMasters.getInstance(project).getRequestManager(job.getUrl()).loadTestResultsFor(job);
         testResults.forEach(this::handleTestResult);
         testEventsProcessor.onFinishTesting();
     }
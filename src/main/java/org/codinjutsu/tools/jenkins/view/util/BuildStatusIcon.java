@@ -31,37 +31,54 @@ public class BuildStatusIcon extends JComponent {
 
     private static final Color FOREGROUND_COLOR = new JLabel().getForeground();
 
-    final Icon icon;
-    final String toolTipText;
+    Icon icon;
+    String toolTipText;
 
-    final int numberToDisplay;
-    private final int numberWith;
+    int numberToDisplay;
+    private int numberWith;
 
-    public static JComponent createIcon(BuildStatusAggregator aggregator) {
-        if (aggregator.hasNoResults()) {
-            return new BuildStatusIcon(Build.ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.NULL), "No builds", 0);
-        }
+    public static BuildStatusIcon createIcon(BuildStatusAggregator aggregator) {
+        BuildStatusIcon statusIcon = new BuildStatusIcon();
+        statusIcon.setStatus(aggregator);
+        return statusIcon;
+    }
 
-        int nbBrokenBuilds = aggregator.getNbBrokenBuilds();
-        if (nbBrokenBuilds > 0) {
-            return new BuildStatusIcon(Build.ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.FAILURE), String.format("%d broken builds", nbBrokenBuilds), nbBrokenBuilds);
-        }
+    private BuildStatusIcon() {
+        setOpaque(false);
+    }
 
+    /**
+     * Only repaints when the displayed icon or number changes, and only lays the status bar out again when the
+     * width of the number changes.
+     */
+    public void setStatus(BuildStatusAggregator aggregator) {
+        int nbBrokenBuilds = aggregator.getNbBrokenBuilds();
         int nbUnstableBuilds = aggregator.getNbUnstableBuilds();
-        if (nbUnstableBuilds > 0) {
-            return new BuildStatusIcon(Build.ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.UNSTABLE), String.format("%d unstable builds", nbUnstableBuilds), nbUnstableBuilds);
+        if (aggregator.hasNoResults()) {
+            update(Build.ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.NULL), "No builds", 0);
+        } else if (nbBrokenBuilds > 0) {
+            update(Build.ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.FAILURE), String.format("%d broken builds", nbBrokenBuilds), nbBrokenBuilds);
+        } else if (nbUnstableBuilds > 0) {
+            update(Build.ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.UNSTABLE), String.format("%d unstable builds", nbUnstableBuilds), nbUnstableBuilds);
+        } else {
+            update(Build.ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.SUCCESS), "No broken builds", 0);
         }
-
-        return new BuildStatusIcon(Build.ICON_BY_BUILD_STATUS_MAP.get(BuildStatusEnum.SUCCESS), "No broken builds", 0);
     }
 
-    private BuildStatusIcon(Icon icon, String toolTipText, int numberToDisplay) {
+    private void update(Icon icon, String toolTipText, int numberToDisplay) {
+        if (icon == this.icon && numberToDisplay == this.numberToDisplay) {
+            return;
+        }
+        int previousNumberWith = numberWith;
         this.icon = icon;
         this.toolTipText = toolTipText;
         this.numberToDisplay = numberToDisplay;
         this.numberWith = numberToDisplay == 0 ? 0 : String.valueOf(numberToDisplay).length() * PIXEL_WIDTH;
-        setOpaque(false);
-
+        setToolTipText(toolTipText);
+        if (numberWith != previousNumberWith) {
+            revalidate();
+        }
+        repaint();
     }
 
     public Dimension getMinimumSize() {
@@ -89,7 +106,6 @@ public class BuildStatusIcon extends JComponent {
         int x = (size.width - icon.getIconWidth() - numberWith) / 2;
         int y = (size.height - icon.getIconHeight()) / 2;
         paintIcon(g, icon, x, y);
-        setToolTipText(toolTipText);
 
         if (numberToDisplay > 0) {
             Font originalFont = g.getFont();
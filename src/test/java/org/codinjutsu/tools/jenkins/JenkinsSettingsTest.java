@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins;
+
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JenkinsSettingsTest {
+
+    @Test
+    public void favoriteJobsAreLookedUpByName() throws Exception {
+        JenkinsSettings jenkinsSettings = new JenkinsSettings();
+        Job mint = job("mint");
+        Job lime = job("lime");
+
+        jenkinsSettings.addFavorite(Arrays.asList(mint, lime));
+        assertTrue(jenkinsSettings.isAFavoriteJob("mint"));
+        assertTrue(jenkinsSettings.isAFavoriteJob("lime"));
+
+        jenkinsSettings.removeFavorite(Collections.singletonList(mint));
+        assertFalse(jenkinsSettings.isAFavoriteJob("mint"));
+        assertTrue(jenkinsSettings.isAFavoriteJob("lime"));
+
+        jenkinsSettings.clearFavorites();
+        assertFalse(jenkinsSettings.isAFavoriteJob("lime"));
+    }
+
+    @Test
+    public void favoriteJobsAreIndexedWhenTheStateIsLoaded() throws Exception {
+        JenkinsSettings.FavoriteJob favoriteJob = new JenkinsSettings.FavoriteJob();
+        favoriteJob.name = "mint";
+        JenkinsSettings.State state = new JenkinsSettings.State();
+        state.favoriteJobs.add(favoriteJob);
+
+        JenkinsSettings jenkinsSettings = new JenkinsSettings();
+        jenkinsSettings.loadState(state);
+
+        assertTrue(jenkinsSettings.isAFavoriteJob("mint"));
+    }
+
+    @Test
+    public void otherServersOnlyGetTheirOwnCredentials() throws Exception {
+        JenkinsSettings.ServerCredentials credentials = new JenkinsSettings.ServerCredentials();
+        credentials.url = "http://otherjenkins/";
+        credentials.username = "other";
+        credentials.crumbData = "otherCrumb";
+        JenkinsSettings.State state = new JenkinsSettings.State();
+        state.username = "main";
+        state.crumbData = "mainCrumb";
+        state.serverCredentials.add(credentials);
+        JenkinsSettings jenkinsSettings = new JenkinsSettings();
+        jenkinsSettings.loadState(state);
+
+        JenkinsSettings otherSettings = jenkinsSettings.forServer("http://otherjenkins");
+        assertEquals("other", otherSettings.getUsername());
+        assertEquals("otherCrumb", otherSettings.getCrumbData());
+
+        JenkinsSettings unknownSettings = jenkinsSettings.forServer("http://unknownjenkins");
+        assertFalse(unknownSettings.isSecurityMode());
+        assertEquals("", unknownSettings.getCrumbData());
+    }
+
+    private static Job job(String name) {
+        return Job.createJob(name, name, "blue", "http://myjenkins/job/" + name + "/", "false", "true");
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class AdaptivePollingTest {
+
+    private final AdaptivePolling polling = new AdaptivePolling("test", 15, 60, 240);
+
+    @Test
+    public void delayBacksOffExponentiallyWhileNothingChanges() {
+        assertThat(polling.nextDelayMillis(false, false, 0), equalTo(120L));
+        assertThat(polling.nextDelayMillis(false, false, 0), equalTo(240L));
+        assertThat(polling.nextDelayMillis(false, false, 0), equalTo(240L));
+        assertThat(polling.nextDelayMillis(false, true, 0), equalTo(60L));
+    }
+
+    @Test
+    public void delayIsShortWhileBuildsAreRunningThenBackToThePeriod() {
+        polling.nextDelayMillis(false, false, 0);
+        assertThat(polling.nextDelayMillis(true, false, 0), equalTo(15L));
+        assertThat(polling.nextDelayMillis(false, false, 0), equalTo(60L));
+        assertThat(polling.nextDelayMillis(false, false, 0), equalTo(120L));
+    }
+
+    @Test
+    public void jobsAreBuildingWhenTheirColorIsAnimatedAndChangedWhenItDiffers() {
+        List<Job> jobs = Arrays.asList(job("mint", "blue"), job("olive", "red_anime"));
+        assertThat(polling.nextDelayMillis(jobs, false), equalTo(15L));
+
+        jobs.get(1).setColor("red");
+        assertThat(polling.nextDelayMillis(jobs, false), equalTo(60L));
+        assertThat(polling.nextDelayMillis(jobs, false), equalTo(120L));
+        assertThat(polling.nextDelayMillis(jobs, true), equalTo(15L));
+    }
+
+    @Test
+    public void effectivePollRateIsMeasuredOverTheLastPolls() {
+        assertThat(polling.getPollsPerHour(), equalTo(0.0));
+        for (int i = 0; i < 40; i++) {
+            polling.nextDelayMillis(false, false, i * 60000L);
+        }
+        assertThat(polling.getPollsPerHour(), equalTo(60.0));
+    }
+
+    private static Job job(String name, String color) {
+        return Job.createJob(name, name, color, "http://jenkins/job/" + name + "/", "false", "true");
+    }
+}
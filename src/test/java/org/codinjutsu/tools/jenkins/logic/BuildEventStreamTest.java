@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.BuildStatusEnum;
+import org.codinjutsu.tools.jenkins.security.HttpTransport;
+import org.codinjutsu.tools.jenkins.security.SecurityClientFactory;
+import org.codinjutsu.tools.jenkins.util.IOUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BuildEventStreamTest {
+
+    private HttpServer server;
+    private HttpTransport httpTransport;
+    private RequestManager requestManager;
+    private JenkinsAppSettings configuration;
+
+    private final List<String> subscriptions = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void jobRunEventsArePushedToTheListener() throws Exception {
+        serveEventStream(
+                ": connected\n\n",
+                "event: job\nid: 1\ndata: " + jobEvent("job_run_started", "mint", "150", null) + "\n\n",
+                "event: job\nid: 2\ndata: {\"jenkins_channel\":\"pipeline\",\"jenkins_event\":\"pipeline_step\"}\n\n",
+                "event: job\nid: 3\ndata: " + jobEvent("job_run_ended", "mint", "150", "FAILURE") + "\n\n");
+
+        RecordingListener listener = new RecordingListener();
+        new BuildEventStream(requestManager, configuration, listener).start();
+
+        assertTrue(listener.closed.await(10, TimeUnit.SECONDS));
+        assertThat(listener.cause, nullValue());
+        assertThat(listener.events, equalTo(Arrays.asList("opened", "started mint #150 (started)", "finished mint #150 (failure)")));
+        assertThat(listener.lastBuild.getStatus(), equalTo(BuildStatusEnum.FAILURE));
+        assertThat(listener.lastBuild.getUrl(), equalTo(configuration.getServerUrl() + "/job/mint/150/"));
+        assertTrue(subscriptions.get(0).contains("\"jenkins_channel\":\"job\""));
+    }
+
+    @Test
+    public void streamIsClosedWithTheCauseWhenTheServerHasNoEventGateway() throws Exception {
+        RecordingListener listener = new RecordingListener();
+        new BuildEventStream(requestManager, configuration, listener).start();
+
+        assertTrue(listener.closed.await(10, TimeUnit.SECONDS));
+        assertThat(listener.cause, notNullValue());
+        assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    public void stoppingTheStreamEndsTheReadOfASilentServer() throws Exception {
+        final CountDownLatch released = new CountDownLatch(1);
+        serveEventGateway(new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream outputStream = exchange.getResponseBody();
+                outputStream.write(": connected\n\n".getBytes("UTF-8"));
+                outputStream.flush();
+                try {
+                    released.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.close();
+            }
+        });
+
+        RecordingListener listener = new RecordingListener();
+        BuildEventStream buildEventStream = new BuildEventStream(requestManager, configuration, listener);
+        buildEventStream.start();
+        assertTrue(listener.opened.await(10, TimeUnit.SECONDS));
+
+        buildEventStream.stop();
+
+        listener.listeningThread.join(TimeUnit.SECONDS.toMillis(10));
+        released.countDown();
+        assertFalse(listener.listeningThread.isAlive());
+        assertThat(listener.closed.getCount(), equalTo(1L));
+    }
+
+    private void serveEventStream(final String... chunks) {
+        serveEventGateway(new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("Content-Type", "text/event-stream");
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream outputStream = exchange.getResponseBody();
+                for (String chunk : chunks) {
+                    outputStream.write(chunk.getBytes("UTF-8"));
+                    outputStream.flush();
+                }
+                outputStream.close();
+                exchange.close();
+            }
+        });
+    }
+
+    private void serveEventGateway(HttpHandler listenHandler) {
+        server.createContext("/sse-gateway/connect", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                respond(exchange, "application/json", "{\"status\":\"OK\"}");
+            }
+        });
+        server.createContext("/sse-gateway/configure", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                subscriptions.add(IOUtils.toString(exchange.getRequestBody(), "UTF-8"));
+                respond(exchange, "application/json", "{\"status\":\"OK\"}");
+            }
+        });
+        server.createContext("/sse-gateway/listen/", listenHandler);
+    }
+
+    private static void respond(HttpExchange exchange, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes("UTF-8");
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(200, bytes.length);
+        OutputStream outputStream = exchange.getResponseBody();
+        outputStream.write(bytes);
+        outputStream.close();
+        exchange.close();
+    }
+
+    private static String jobEvent(String eventName, String jobName, String number, String status) {
+        return "{\"jenkins_channel\":\"job\",\"jenkins_event\":\"" + eventName + "\",\"job_name\":\"" + jobName + "\"," +
+                "\"jenkins_object_id\":\"" + number + "\",\"jenkins_object_url\":\"job/" + jobName + "/" + number + "/\"," +
+                (status == null ? "" : "\"job_run_status\":\"" + status + "\",") +
+                "\"jenkins_event_timestamp\":\"1333373189000\"}";
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.start();
+
+        configuration = new JenkinsAppSettings();
+        configuration.setServerUrl("http://localhost:" + server.getAddress().getPort());
+        httpTransport = new HttpTransport(2);
+        requestManager = new RequestManager(new UrlBuilder(), SecurityClientFactory.none(null, httpTransport));
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        httpTransport.dispose();
+    }
+
+    private static class RecordingListener implements BuildEventListener {
+
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+        private final CountDownLatch opened = new CountDownLatch(1);
+        private final CountDownLatch closed = new CountDownLatch(1);
+        private volatile Build lastBuild;
+        private volatile Exception cause;
+        private volatile Thread listeningThread;
+
+        @Override
+        public void streamOpened() {
+            events.add("opened");
+            listeningThread = Thread.currentThread();
+            opened.countDown();
+        }
+
+        @Override
+        public void buildStarted(String jobName, Build build) {
+            events.add("started " + build.getMessage());
+        }
+
+        @Override
+        public void buildFinished(String jobName, Build build) {
+            lastBuild = build;
+            events.add("finished " + build.getMessage());
+        }
+
+        @Override
+        public void streamClosed(Exception cause) {
+            this.cause = cause;
+            closed.countDown();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class BuildStatusSummaryTest {
+
+    private static final String SERVER_URL = "http://myjenkins";
+
+    private BuildStatusSummary summary;
+    private int notifications;
+
+    @Test
+    public void countsFollowTheStatusChangesOfTheView() {
+        Job mint = job("mint", "SUCCESS");
+        Job capri = job("capri", "FAILURE");
+        summary.updateDisplayedView(SERVER_URL, "All", Arrays.asList(mint, capri, job("pastel", "UNSTABLE")));
+
+        assertThat(summary.getDisplayedStatus(), equalTo(new BuildStatusAggregator(3, 1, 1, 1, 0)));
+
+        summary.updateDisplayedView(SERVER_URL, "All", Arrays.asList(job("mint", "ABORTED"), capri));
+
+        assertThat(summary.getDisplayedStatus(), equalTo(new BuildStatusAggregator(2, 1, 0, 0, 1)));
+        assertThat(notifications, equalTo(2));
+    }
+
+    @Test
+    public void listenersAreNotNotifiedWhenNoCountChanges() {
+        summary.updateDisplayedView(SERVER_URL, "All", Arrays.asList(job("mint", "SUCCESS"), job("capri", "FAILURE")));
+        summary.updateDisplayedView(SERVER_URL, "All", Arrays.asList(job("mint", "SUCCESS"), job("capri", "FAILURE")));
+        summary.updateJob(job("mint", "SUCCESS"));
+        summary.updateJob(job("unknown", "FAILURE"));
+
+        assertThat(notifications, equalTo(1));
+
+        summary.updateJob(job("mint", "FAILURE"));
+
+        assertThat(notifications, equalTo(2));
+        assertThat(summary.getViewStatus(SERVER_URL, "All"), equalTo(new BuildStatusAggregator(2, 2, 0, 0, 0)));
+    }
+
+    @Test
+    public void serverCountsJobsSharedByViewsOnce() {
+        summary.updateView(SERVER_URL, "All", Arrays.asList(job("mint", "SUCCESS"), job("capri", "FAILURE")));
+        summary.updateView("http://otherjenkins", "All", Collections.singletonList(job("mint", "FAILURE")));
+        summary.updateView(SERVER_URL, "Mint", Arrays.asList(job("mint", "SUCCESS"), job("pastel", "UNSTABLE")));
+
+        assertThat(summary.getServerStatus(SERVER_URL), equalTo(new BuildStatusAggregator(3, 1, 1, 1, 0)));
+        assertThat(summary.getViewStatus(SERVER_URL, "All"), equalTo(new BuildStatusAggregator(2, 1, 1, 0, 0)));
+        assertThat(summary.getServerStatus("http://otherjenkins"), equalTo(new BuildStatusAggregator(1, 1, 0, 0, 0)));
+
+        summary.updateView(SERVER_URL, "All", Collections.<Job>emptyList());
+
+        assertThat(summary.getServerStatus(SERVER_URL), equalTo(new BuildStatusAggregator(2, 0, 1, 1, 0)));
+    }
+
+    @Test
+    public void removedViewsAreNotCountedAnymore() {
+        summary.updateDisplayedView(SERVER_URL, "All", Arrays.asList(job("mint", "SUCCESS"), job("capri", "FAILURE")));
+        summary.updateView(SERVER_URL, "Capri", Collections.singletonList(job("capri", "FAILURE")));
+        summary.updateView(SERVER_URL, "Pastel", Collections.singletonList(job("pastel", "UNSTABLE")));
+        int notificationsBefore = notifications;
+
+        summary.retainViews(SERVER_URL, Collections.singletonList("Capri"));
+
+        assertThat(summary.getServerStatus(SERVER_URL), equalTo(new BuildStatusAggregator(2, 1, 1, 0, 0)));
+        assertThat(summary.getViewStatus(SERVER_URL, "Pastel"), equalTo(BuildStatusAggregator.EMPTY));
+        assertThat(summary.getDisplayedStatus(), equalTo(new BuildStatusAggregator(2, 1, 1, 0, 0)));
+        assertThat(notifications, equalTo(notificationsBefore + 1));
+
+        summary.removeServer(SERVER_URL);
+
+        assertThat(summary.getServerStatus(SERVER_URL), equalTo(BuildStatusAggregator.EMPTY));
+    }
+
+    @Test
+    public void clearResetsTheDisplayedCounts() {
+        summary.updateDisplayedView(SERVER_URL, "All", Collections.singletonList(job("mint", "FAILURE")));
+        summary.clear();
+
+        assertThat(summary.getDisplayedStatus(), equalTo(BuildStatusAggregator.EMPTY));
+        assertThat(summary.getServerStatus(SERVER_URL), equalTo(BuildStatusAggregator.EMPTY));
+        assertThat(notifications, equalTo(2));
+    }
+
+    private static Job job(String name, String status) {
+        String url = SERVER_URL + "/job/" + name + "/";
+        return new JobBuilder().job(name, "blue", url, "false", "true")
+                .lastBuild(url + "1/", "1", status, "false", "2012-04-02_10-26-29", 1333373189000L, 10L)
+                .get();
+    }
+
+    @Before
+    public void setUp() {
+        summary = new BuildStatusSummary();
+        summary.addListener(new BuildStatusSummary.Listener() {
+            @Override
+            public void statusChanged(BuildStatusSummary summary) {
+                notifications++;
+            }
+        });
+    }
+}
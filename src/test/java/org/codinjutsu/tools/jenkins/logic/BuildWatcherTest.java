@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.BuildStatusEnum;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.security.HttpTransport;
+import org.codinjutsu.tools.jenkins.security.SecurityClientFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class BuildWatcherTest {
+
+    private HttpServer server;
+    private HttpTransport httpTransport;
+    private JenkinsScheduler scheduler;
+    private RequestManager requestManager;
+    private String serverUrl;
+
+    private final AtomicInteger runningBuildsReads = new AtomicInteger();
+    private final AtomicInteger buildReads = new AtomicInteger();
+    private final List<String> finishedBuilds = Collections.synchronizedList(new ArrayList<String>());
+    private final CountDownLatch finished = new CountDownLatch(2);
+
+    @Test
+    public void buildsOfAServerArePolledWithOneRequestAndOnlyFinishedOnesAreLoaded() throws Exception {
+        serveRunningBuilds(2);
+        Job mint = runningJob("mint", 152);
+        Job olive = runningJob("olive", 17);
+
+        BuildWatcher buildWatcher = createBuildWatcher(10, 40);
+        buildWatcher.watch(mint, "fix login");
+        buildWatcher.watch(olive);
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertThat(finishedBuilds, equalTo(Arrays.asList("olive #17 SUCCESS []", "mint #152 SUCCESS [fix login]")));
+        assertThat(runningBuildsReads.get(), equalTo(3));
+        assertThat(buildReads.get(), equalTo(2));
+        assertFalse(mint.getLastBuild().isBuilding());
+        assertThat(mint.getLastBuild().getStatus(), equalTo(BuildStatusEnum.SUCCESS));
+        assertThat(buildWatcher.getWatched().get("fix login"), equalTo(mint));
+    }
+
+    @Test
+    public void viewRefreshShowingTheFinishedBuildCompletesItWithoutPolling() throws Exception {
+        Job mint = runningJob("mint", 152);
+        BuildWatcher buildWatcher = createBuildWatcher(TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(1));
+        buildWatcher.watch(mint);
+
+        Job refreshedMint = Job.createJob("mint", "mint", "blue", serverUrl + "/job/mint/", "false", "true");
+        refreshedMint.setLastBuild(Build.createBuildFromEvent(serverUrl + "/job/mint/152/", 152L, "FAILURE", false, 0, null));
+        buildWatcher.jobsLoaded(serverUrl, Collections.singletonList(refreshedMint));
+        buildWatcher.jobsLoaded(serverUrl, Collections.singletonList(refreshedMint));
+
+        assertThat(finishedBuilds, equalTo(Collections.singletonList("mint #152 FAILURE []")));
+        assertThat(runningBuildsReads.get(), equalTo(0));
+    }
+
+    @Test
+    public void buildActivityFollowsTheLoadedJobsOfEachServer() throws Exception {
+        BuildWatcher buildWatcher = createBuildWatcher(TimeUnit.MINUTES.toMillis(1), TimeUnit.MINUTES.toMillis(1));
+        buildWatcher.jobsLoaded(serverUrl, Collections.singletonList(runningJob("mint", 152)));
+        buildWatcher.jobsLoaded("http://ci2", Collections.singletonList(Job.createJob("olive", "olive", "blue", "http://ci2/job/olive/", "false", "true")));
+        assertTrue(buildWatcher.isBuildActivity());
+
+        buildWatcher.serverRemoved(serverUrl);
+        assertFalse(buildWatcher.isBuildActivity());
+    }
+
+    private BuildWatcher createBuildWatcher(long minDelayMillis, long maxDelayMillis) {
+        return new BuildWatcher(scheduler, url -> requestManager, url -> serverUrl, new BuildWatchNotifier() {
+            @Override
+            public void buildFinished(Job job, Build build, Collection<String> changeListNames) {
+                finishedBuilds.add(String.format("%s #%d %s %s", job.getName(), build.getNumber(), build.getStatus(), changeListNames));
+                finished.countDown();
+            }
+        }, Runnable::run, minDelayMillis, maxDelayMillis);
+    }
+
+    private Job runningJob(String name, int number) {
+        Job job = Job.createJob(name, name, "blue_anime", serverUrl + "/job/" + name + "/", "false", "true");
+        Build build = new Build();
+        build.setUrl(serverUrl + "/job/" + name + "/" + number + "/");
+        build.setNumber(number);
+        build.setBuilding(true);
+        job.setLastBuild(build);
+        return job;
+    }
+
+    /**
+     * mint #152 stays on its executor for the given number of polls, olive #17 leaves it after the first one.
+     */
+    private void serveRunningBuilds(final int mintPolls) {
+        server.createContext("/computer/api/json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int poll = runningBuildsReads.incrementAndGet();
+                StringBuilder executors = new StringBuilder("{\"currentExecutable\":null}");
+                if (poll <= mintPolls) {
+                    executors.append(",{\"currentExecutable\":{\"url\":\"").append(serverUrl).append("/job/mint/152/\"}}");
+                }
+                String oneOffExecutors = poll < 2 ? "{\"currentExecutable\":{\"url\":\"" + serverUrl + "/job/olive/17/\"}}" : "";
+                respond(exchange, "{\"computer\":[{\"executors\":[" + executors + "],\"oneOffExecutors\":[" + oneOffExecutors + "]}]}");
+            }
+        });
+        HttpHandler buildHandler = new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                buildReads.incrementAndGet();
+                String path = exchange.getRequestURI().getPath();
+                int number = path.contains("mint") ? 152 : 17;
+                respond(exchange, String.format("{\"building\":false,\"number\":%d,\"result\":\"SUCCESS\",\"url\":\"%s%s\"}",
+                        number, serverUrl, path.substring(0, path.indexOf("api/json"))));
+            }
+        };
+        server.createContext("/job/mint/152/", buildHandler);
+        server.createContext("/job/olive/17/", buildHandler);
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes("UTF-8");
+        exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        OutputStream outputStream = exchange.getResponseBody();
+        outputStream.write(body);
+        outputStream.close();
+        exchange.close();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+
+        httpTransport = new HttpTransport(2);
+        scheduler = new JenkinsScheduler();
+        requestManager = new RequestManager(new UrlBuilder(), SecurityClientFactory.none(null, httpTransport));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.dispose();
+        server.stop(0);
+        httpTransport.dispose();
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.security.HttpTransport;
+import org.codinjutsu.tools.jenkins.security.SecurityClientFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConsoleLogFollowerTest {
+
+    private static final String[] CHUNKS = {"Started by user\n", "Building...\n", "Finished: SUCCESS\n"};
+
+    private HttpServer server;
+    private HttpTransport httpTransport;
+    private RequestManager requestManager;
+    private Build build;
+
+    private final List<String> requestedStarts = Collections.synchronizedList(new ArrayList<String>());
+
+    @Test
+    public void followingReadsEachChunkFromTheLastOffsetUntilTheBuildEnds() throws Exception {
+        ConsoleLogBuffer console = new ConsoleLogBuffer(1024);
+        ConsoleLogFollower follower = new ConsoleLogFollower(requestManager, build, console, 10);
+        follower.setFollow(true);
+
+        awaitEnd(follower);
+
+        assertThat(console.drain(), equalTo(CHUNKS[0] + CHUNKS[1] + CHUNKS[2]));
+        assertThat(requestedStarts, equalTo(Arrays.asList("0", "16", "28")));
+        assertFalse(follower.hasMoreData());
+    }
+
+    @Test
+    public void withoutFollowingOnlyTheCurrentConsoleIsRead() throws Exception {
+        ConsoleLogBuffer console = new ConsoleLogBuffer(1024);
+        ConsoleLogFollower follower = new ConsoleLogFollower(requestManager, build, console, 10);
+        follower.start();
+
+        awaitEnd(follower);
+
+        assertThat(console.drain(), equalTo(CHUNKS[0]));
+        assertTrue(follower.hasMoreData());
+    }
+
+    @Test
+    public void bufferKeepsTheTailWhenTheConsoleOutgrowsIt() throws Exception {
+        ConsoleLogBuffer console = new ConsoleLogBuffer(8);
+        char[] chunk = "0123456789".toCharArray();
+        console.write(chunk, 0, 6);
+        console.write(chunk, 6, 4);
+
+        assertThat(console.drain(), equalTo(String.format("[... 2 characters skipped ...]%n") + "23456789"));
+        assertThat(console.drain(), nullValue());
+
+        console.write(chunk, 0, 10);
+        assertThat(console.drain(), equalTo(String.format("[... 2 characters skipped ...]%n") + "23456789"));
+    }
+
+    private static void awaitEnd(ConsoleLogFollower follower) throws InterruptedException {
+        for (int i = 0; i < 500 && follower.isRunning(); i++) {
+            Thread.sleep(10);
+        }
+        assertFalse(follower.isRunning());
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/job/mint/150/logText/progressiveText", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                String start = exchange.getRequestURI().getQuery().replace("start=", "");
+                requestedStarts.add(start);
+                int offset = 0;
+                int index = 0;
+                while (offset < Integer.parseInt(start)) {
+                    offset += CHUNKS[index++].length();
+                }
+                byte[] bytes = CHUNKS[index].getBytes("UTF-8");
+                exchange.getResponseHeaders().add("Content-Type", "text/plain;charset=UTF-8");
+                exchange.getResponseHeaders().add("X-Text-Size", String.valueOf(offset + bytes.length));
+                if (index < CHUNKS.length - 1) {
+                    exchange.getResponseHeaders().add("X-More-Data", "true");
+                }
+                exchange.sendResponseHeaders(200, bytes.length);
+                OutputStream outputStream = exchange.getResponseBody();
+                outputStream.write(bytes);
+                outputStream.close();
+                exchange.close();
+            }
+        });
+        server.start();
+
+        httpTransport = new HttpTransport(2);
+        requestManager = new RequestManager(new UrlBuilder(), SecurityClientFactory.none(null, httpTransport));
+        String buildUrl = "http://localhost:" + server.getAddress().getPort() + "/job/mint/150/";
+        build = Build.createBuildFromEvent(buildUrl, 150L, null, true, 0L, null);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        httpTransport.dispose();
+    }
+}
@@ -24,13 +24,16 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import static java.util.Arrays.asList;
 import static org.codinjutsu.tools.jenkins.model.BuildStatusEnum.FAILURE;
 import static org.codinjutsu.tools.jenkins.model.BuildStatusEnum.SUCCESS;
+import static org.junit.Assert.assertEquals;
 import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
 
 public class JenkinsJsonParserTest {
@@ -74,6 +77,17 @@ public class JenkinsJsonParserTest {
     }
 
 
+    @Test
+    public void loadJobNamesByViewNameWithNestedViews() throws Exception {
+        Map<String, List<Job>> jobsByViewName = jsonParser.createJobsByViewName(IOUtils.toString(getClass().getResourceAsStream("JsonRequestManager_loadJobNamesByView.json")));
+
+        assertEquals(asList("All", "NestedView", "FirstSubView"), new ArrayList<String>(jobsByViewName.keySet()));
+        assertEquals("Mint nightly", jobsByViewName.get("All").get(0).getName());
+        assertEquals("mint", jobsByViewName.get("All").get(0).getRawName());
+        assertEquals(0, jobsByViewName.get("NestedView").size());
+        assertEquals("http://myjenkins/job/capri/", jobsByViewName.get("FirstSubView").get(0).getUrl());
+    }
+
     @Test
     public void loadClassicView() throws Exception {
         List<Job> actualJobs = jsonParser.createViewJobs(IOUtils.toString(getClass().getResourceAsStream("JsonRequestManager_loadClassicView.json")));
@@ -229,6 +243,10 @@ public class JenkinsJsonParserTest {
     @Before
     public void setUp() {
         MockitoAnnotations.initMocks(this);
-        jsonParser = new JenkinsJsonParser();
+        jsonParser = createParser();
+    }
+
+    protected JenkinsParser createParser() {
+        return new JenkinsJsonParser();
     }
 }
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+
+public class JenkinsMastersTest {
+
+    private final JenkinsMasters jenkinsMasters = new JenkinsMasters(null);
+
+    private JenkinsMaster ci;
+    private JenkinsMaster ci2;
+    private JenkinsMaster ci8080;
+
+    @Test
+    public void masterOwnsItsServerUrlAndTheUrlsBelowIt() {
+        assertThat(ci.owns("http://ci"), equalTo(true));
+        assertThat(ci.owns("http://ci/"), equalTo(true));
+        assertThat(ci.owns("http://ci/job/mint/"), equalTo(true));
+        assertThat(ci.owns("http://ci2/job/mint/"), equalTo(false));
+        assertThat(ci.owns("http://ci:8080/job/mint/"), equalTo(false));
+        assertThat(ci.owns(null), equalTo(false));
+    }
+
+    @Test
+    public void urlsAreRoutedToTheMasterOfTheirServer() {
+        assertThat(jenkinsMasters.findMaster("http://ci/job/mint/12/"), equalTo(ci));
+        assertThat(jenkinsMasters.findMaster("http://ci2/job/mint/12/"), equalTo(ci2));
+        assertThat(jenkinsMasters.findMaster("http://ci:8080/job/mint/"), equalTo(ci8080));
+        assertThat(jenkinsMasters.findMaster("http://other/job/mint/"), nullValue());
+    }
+
+    @Before
+    public void setUp() {
+        ci = createMaster("http://ci");
+        ci2 = createMaster("http://ci2/");
+        ci8080 = createMaster("http://ci:8080");
+        jenkinsMasters.getMasters().add(ci);
+        jenkinsMasters.getMasters().add(ci2);
+        jenkinsMasters.getMasters().add(ci8080);
+    }
+
+    @After
+    public void tearDown() {
+        jenkinsMasters.dispose();
+    }
+
+    private static JenkinsMaster createMaster(String serverUrl) {
+        JenkinsAppSettings configuration = new JenkinsAppSettings();
+        configuration.setServerUrl(serverUrl);
+        return new JenkinsMaster(configuration, null);
+    }
+}
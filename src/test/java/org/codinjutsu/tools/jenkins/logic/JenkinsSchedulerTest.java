@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.logic.JenkinsScheduler.Lane;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class JenkinsSchedulerTest {
+
+    private JenkinsScheduler scheduler;
+
+    @Test
+    public void aBlockedLaneDoesNotDelayTheOthers() throws Exception {
+        final CountDownLatch releaseRss = new CountDownLatch(1);
+        scheduler.submit(Lane.RSS, new Runnable() {
+            @Override
+            public void run() {
+                await(releaseRss);
+            }
+        });
+
+        final CountDownLatch viewRefreshed = new CountDownLatch(1);
+        scheduler.submit(Lane.VIEW_REFRESH, new Runnable() {
+            @Override
+            public void run() {
+                viewRefreshed.countDown();
+            }
+        });
+
+        assertTrue(viewRefreshed.await(5, TimeUnit.SECONDS));
+        releaseRss.countDown();
+    }
+
+    @Test
+    public void waitingTaskWithTheSameKeyIsCoalesced() throws Exception {
+        final CountDownLatch releaseLane = new CountDownLatch(1);
+        scheduler.submit(Lane.BUILD_WATCH, new Runnable() {
+            @Override
+            public void run() {
+                await(releaseLane);
+            }
+        });
+
+        final AtomicInteger runs = new AtomicInteger();
+        Runnable countRun = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+        assertTrue(scheduler.submitCoalesced(Lane.BUILD_WATCH, "job/1", countRun));
+        assertThat(scheduler.submitCoalesced(Lane.BUILD_WATCH, "job/1", countRun), equalTo(false));
+        assertThat(scheduler.getStats(Lane.BUILD_WATCH).getQueueDepth(), equalTo(1));
+
+        releaseLane.countDown();
+        scheduler.submit(Lane.BUILD_WATCH, new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(runs.get(), equalTo(1));
+        JenkinsScheduler.LaneStats stats = scheduler.getStats(Lane.BUILD_WATCH);
+        assertThat(stats.getRuns(), equalTo(3L));
+        assertThat(stats.getCoalesced(), equalTo(1L));
+    }
+
+    @Test
+    public void periodicTaskNeverOverlapsItself() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final CountDownLatch threeRuns = new CountDownLatch(3);
+        JenkinsScheduler.PeriodicTask periodicTask = scheduler.scheduleWithFixedDelay(Lane.VIEW_REFRESH, new Runnable() {
+            @Override
+            public void run() {
+                maxRunning.set(Math.max(maxRunning.get(), running.incrementAndGet()));
+                sleep(20);
+                running.decrementAndGet();
+                threeRuns.countDown();
+            }
+        }, 0, 1, TimeUnit.MILLISECONDS);
+        periodicTask.runNow();
+
+        assertTrue(threeRuns.await(5, TimeUnit.SECONDS));
+        periodicTask.cancel();
+        assertThat(maxRunning.get(), equalTo(1));
+    }
+
+    @Test
+    public void pausedSchedulerRunsTheTasksWhichCameDueOnceResumed() throws Exception {
+        scheduler.pause();
+        final AtomicInteger periodicRuns = new AtomicInteger();
+        final CountDownLatch ran = new CountDownLatch(2);
+        JenkinsScheduler.PeriodicTask periodicTask = scheduler.scheduleWithFixedDelay(Lane.VIEW_REFRESH, new Runnable() {
+            @Override
+            public void run() {
+                periodicRuns.incrementAndGet();
+                ran.countDown();
+            }
+        }, 0, 1, TimeUnit.HOURS);
+        scheduler.schedule(Lane.BUILD_WATCH, new Runnable() {
+            @Override
+            public void run() {
+                ran.countDown();
+            }
+        }, 1, TimeUnit.MILLISECONDS);
+        periodicTask.runNow();
+
+        assertThat(ran.await(200, TimeUnit.MILLISECONDS), equalTo(false));
+        scheduler.resume();
+        assertTrue(ran.await(5, TimeUnit.SECONDS));
+        periodicTask.cancel();
+        assertThat(periodicRuns.get(), equalTo(1));
+    }
+
+    @Test
+    public void shorterDelayBringsTheNextRunForward() throws Exception {
+        final CountDownLatch twoRuns = new CountDownLatch(2);
+        final JenkinsScheduler.PeriodicTask periodicTask = scheduler.scheduleWithFixedDelay(Lane.VIEW_REFRESH, new Runnable() {
+            @Override
+            public void run() {
+                twoRuns.countDown();
+            }
+        }, 0, 1, TimeUnit.HOURS);
+
+        sleep(100);
+        periodicTask.setDelay(10, TimeUnit.MILLISECONDS);
+
+        assertTrue(twoRuns.await(5, TimeUnit.SECONDS));
+        periodicTask.cancel();
+        assertThat(periodicTask.getDelay(TimeUnit.MILLISECONDS), equalTo(10L));
+    }
+
+    @Test
+    public void jitterStaysWithinTheRatio() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            long delay = scheduler.jitter(1000);
+            assertTrue(delay >= 900 && delay <= 1100);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Before
+    public void setUp() {
+        scheduler = new JenkinsScheduler(JenkinsScheduler.DEFAULT_JITTER_RATIO);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.dispose();
+    }
+}
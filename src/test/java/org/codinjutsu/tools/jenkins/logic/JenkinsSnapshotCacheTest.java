@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.apache.commons.lang.StringUtils;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Jenkins;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.model.View;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
+
+public class JenkinsSnapshotCacheTest {
+
+    private static final String SERVER_URL = "http://myjenkins:8080/";
+
+    private File snapshotFile;
+
+    @Test
+    public void savedSnapshotIsReadBackFromDisk() throws Exception {
+        Jenkins jenkins = new Jenkins("Jenkins", SERVER_URL);
+        View primaryView = View.createView("All", SERVER_URL);
+        View nestedView = View.createView("Nested", SERVER_URL + "view/Nested/");
+        nestedView.addSubView(View.createNestedView("Sub", SERVER_URL + "view/Nested/view/Sub/"));
+        jenkins.setPrimaryView(primaryView);
+        jenkins.setViews(Arrays.asList(primaryView, nestedView));
+
+        List<Job> jobs = Arrays.asList(
+                new JobBuilder().job("mint", "blue", SERVER_URL + "job/mint/", "false", "true")
+                        .lastBuild(SERVER_URL + "job/mint/150/", "150", "SUCCESS", "false", "2012-04-02_15-26-29", 1333373189000L, 3000L)
+                        .health("health-80plus", "0 tests en echec sur un total de 89 tests")
+                        .parameter("branch", "ChoiceParameterDefinition", "master", "master", "develop")
+                        .get(),
+                new JobBuilder().job("ginger", "Ginger nightly", "red", SERVER_URL + "job/ginger/", "true", "false").get());
+
+        new JenkinsSnapshotCache(snapshotFile).save(jenkins, "All", jobs);
+
+        JenkinsSnapshotCache.Snapshot snapshot = new JenkinsSnapshotCache(snapshotFile).load(SERVER_URL);
+        assertEquals("Jenkins", snapshot.getJenkins().getName());
+        assertReflectionEquals(primaryView, snapshot.getJenkins().getPrimaryView());
+        assertReflectionEquals(jenkins.getViews(), snapshot.getJenkins().getViews());
+        assertReflectionEquals(jobs, snapshot.getJobs("All"));
+        assertNull(snapshot.getJobs("Nested"));
+    }
+
+    @Test
+    public void unchangedJobsAreNotWrittenAgain() throws Exception {
+        Jenkins jenkins = new Jenkins("Jenkins", SERVER_URL);
+        JenkinsSnapshotCache snapshotCache = new JenkinsSnapshotCache(snapshotFile);
+        snapshotCache.save(jenkins, "All", Arrays.asList(new JobBuilder().job("mint", "blue", SERVER_URL + "job/mint/", "false", "true").get()));
+        assertTrue(snapshotFile.delete());
+
+        snapshotCache.save(jenkins, "All", Arrays.asList(new JobBuilder().job("mint", "blue", SERVER_URL + "job/mint/", "false", "true").get()));
+        assertFalse(snapshotFile.exists());
+
+        snapshotCache.save(jenkins, "All", Arrays.asList(new JobBuilder().job("mint", "red", SERVER_URL + "job/mint/", "false", "true").get()));
+        assertTrue(snapshotFile.exists());
+    }
+
+    @Test
+    public void tooLongValuesAreTruncated() throws Exception {
+        Jenkins jenkins = new Jenkins("Jenkins", SERVER_URL);
+        String description = StringUtils.repeat("\u00e9", 70000);
+        new JenkinsSnapshotCache(snapshotFile).save(jenkins, "All", Arrays.asList(new JobBuilder().job("mint", "blue", SERVER_URL + "job/mint/", "false", "true")
+                .health("health-80plus", description).get()));
+
+        Job job = new JenkinsSnapshotCache(snapshotFile).load(SERVER_URL).getJobs("All").get(0);
+        assertTrue(description.startsWith(job.getHealth().getDescription()));
+        assertEquals("mint", job.getName());
+    }
+
+    @Test
+    public void snapshotOfAnotherServerIsIgnored() throws Exception {
+        Jenkins jenkins = new Jenkins("Jenkins", SERVER_URL);
+        new JenkinsSnapshotCache(snapshotFile).save(jenkins, "All", Arrays.<Job>asList());
+
+        assertNull(new JenkinsSnapshotCache(snapshotFile).load("http://anotherjenkins:8080/"));
+    }
+
+    @Test
+    public void corruptedSnapshotIsDiscarded() throws Exception {
+        FileOutputStream output = new FileOutputStream(snapshotFile);
+        output.write("not a snapshot".getBytes("UTF-8"));
+        output.close();
+
+        assertNull(new JenkinsSnapshotCache(snapshotFile).load(SERVER_URL));
+        assertEquals(false, snapshotFile.exists());
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        snapshotFile = File.createTempFile("jenkins", ".snapshot");
+    }
+
+    @After
+    public void tearDown() {
+        snapshotFile.delete();
+    }
+}
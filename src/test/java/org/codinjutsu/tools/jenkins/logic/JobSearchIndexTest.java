@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class JobSearchIndexTest {
+
+    private static final String SERVER_URL = "http://myjenkins";
+
+    private final JobSearchIndex index = new JobSearchIndex();
+
+    @Test
+    public void shortQueriesMatchTheStartOfTheNames() {
+        index.updateView(SERVER_URL, "All", Arrays.asList(job("mint-api"), job("capri"), job("mint")));
+
+        assertThat(namesOf(index.search("mi", 10)), equalTo(Arrays.asList("mint", "mint-api")));
+        assertThat(namesOf(index.search("pr", 10)), equalTo(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void longerQueriesMatchAnywhereInTheNamesStartFirst() {
+        index.updateView(SERVER_URL, "All", Arrays.asList(job("peppermint"), job("mint-api"), job("legacy-mint"), job("capri")));
+
+        assertThat(namesOf(index.search("MINT", 10)), equalTo(Arrays.asList("mint-api", "legacy-mint", "peppermint")));
+        assertThat(namesOf(index.search("mint", 2)), equalTo(Arrays.asList("mint-api", "legacy-mint")));
+        assertThat(namesOf(index.search("minty", 10)), equalTo(Collections.<String>emptyList()));
+    }
+
+    @Test
+    public void displayNamesAreSearchedToo() {
+        index.updateView(SERVER_URL, "All", Collections.singletonList(Job.createJob("mint", "Mint nightly", "blue", url("mint"), "false", "true")));
+
+        assertThat(namesOf(index.search("nightly", 10)), equalTo(Collections.singletonList("Mint nightly")));
+        assertThat(namesOf(index.search("mint", 10)), equalTo(Collections.singletonList("Mint nightly")));
+    }
+
+    @Test
+    public void jobsAreKeptWhileAViewShowsThem() {
+        index.updateView(SERVER_URL, "All", Arrays.asList(job("mint"), job("capri")));
+        index.updateView(SERVER_URL, "Mint", Collections.singletonList(job("mint")));
+
+        assertThat(index.search("mint", 10).get(0).getViewNames(), equalTo(Arrays.asList("All", "Mint")));
+
+        index.updateView(SERVER_URL, "All", Collections.singletonList(job("capri")));
+
+        assertThat(index.search("mint", 10).get(0).getViewNames(), equalTo(Collections.singletonList("Mint")));
+
+        index.updateView(SERVER_URL, "Mint", Collections.<Job>emptyList());
+
+        assertThat(index.search("mint", 10).size(), equalTo(0));
+        assertThat(index.size(), equalTo(1));
+    }
+
+    @Test
+    public void renamedJobsAreIndexedAgain() {
+        index.updateView(SERVER_URL, "All", Collections.singletonList(Job.createJob("mint", "Mint", "blue", url("mint"), "false", "true")));
+        index.updateView(SERVER_URL, "All", Collections.singletonList(Job.createJob("mint", "Peppermint", "blue", url("mint"), "false", "true")));
+
+        assertThat(namesOf(index.search("pepper", 10)), equalTo(Collections.singletonList("Peppermint")));
+        assertThat(index.size(), equalTo(1));
+    }
+
+    @Test
+    public void searchStaysConsistentAfterManyRemovals() {
+        List<Job> jobs = new ArrayList<Job>();
+        for (int i = 0; i < 1000; i++) {
+            jobs.add(job("job-" + i));
+        }
+        index.updateView(SERVER_URL, "All", jobs);
+        index.updateView(SERVER_URL, "All", jobs.subList(900, 1000));
+
+        assertThat(index.size(), equalTo(100));
+        assertThat(namesOf(index.search("job-95", 20)), equalTo(Arrays.asList("job-950", "job-951", "job-952", "job-953",
+                "job-954", "job-955", "job-956", "job-957", "job-958", "job-959")));
+        assertThat(index.search("job-5", 10).size(), equalTo(0));
+    }
+
+    @Test
+    public void removedViewsAreNotSearchedAnymore() {
+        index.updateView(SERVER_URL, "All", Collections.singletonList(job("capri")));
+        index.updateView(SERVER_URL, "Mint", Collections.singletonList(job("mint")));
+
+        index.retainViews(SERVER_URL, Collections.singleton("All"));
+
+        assertThat(index.search("mint", 10).size(), equalTo(0));
+        assertThat(index.search("capri", 10).size(), equalTo(1));
+    }
+
+    @Test
+    public void removedServersAreNotSearchedAnymore() {
+        index.updateView(SERVER_URL, "All", Collections.singletonList(job("mint")));
+        index.updateView("http://otherjenkins", "All", Collections.singletonList(Job.createJob("mint", "mint", "blue", "http://otherjenkins/job/mint/", "false", "true")));
+
+        index.removeServer("http://otherjenkins");
+
+        List<JobSearchIndex.Match> matches = index.search("mint", 10);
+        assertThat(matches.size(), equalTo(1));
+        assertThat(matches.get(0).getServerUrl(), equalTo(SERVER_URL));
+    }
+
+    private static List<String> namesOf(List<JobSearchIndex.Match> matches) {
+        List<String> names = new ArrayList<String>();
+        for (JobSearchIndex.Match match : matches) {
+            names.add(match.getJob().getName());
+        }
+        return names;
+    }
+
+    private static Job job(String name) {
+        return Job.createJob(name, name, "blue", url(name), "false", "true");
+    }
+
+    private static String url(String name) {
+        return SERVER_URL + "/job/" + name + "/";
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.security.HttpTransport;
+import org.codinjutsu.tools.jenkins.security.SecurityClientFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNull.notNullValue;
+import static org.hamcrest.core.IsNull.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class QueueItemTrackerTest {
+
+    private HttpServer server;
+    private HttpTransport httpTransport;
+    private JenkinsScheduler scheduler;
+    private RequestManager requestManager;
+    private QueueItemTracker tracker;
+    private JenkinsAppSettings configuration;
+    private String serverUrl;
+
+    private final AtomicInteger queueItemReads = new AtomicInteger();
+    private volatile int failingReads;
+
+    @Test
+    public void triggeredBuildIsFollowedFromItsQueueItem() throws Exception {
+        serveQueueItem(2, "{\"cancelled\":false,\"why\":null,\"executable\":{\"number\":152,\"url\":\"%s/job/mint/152/\"}}");
+        Job job = Job.createJob("mint", "mint", "blue", serverUrl + "/job/mint/", "false", "true");
+
+        String queueItemUrl = requestManager.runBuild(job, configuration);
+        RecordingListener listener = new RecordingListener();
+        tracker.track(requestManager, queueItemUrl, listener);
+
+        assertThat(queueItemUrl, equalTo(serverUrl + "/queue/item/42/"));
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertThat(listener.reason, nullValue());
+        assertThat(listener.build.getNumber(), equalTo(152));
+        assertThat(listener.build.getUrl(), equalTo(serverUrl + "/job/mint/152/"));
+        assertTrue(listener.build.isBuilding());
+        assertThat(queueItemReads.get(), equalTo(3));
+    }
+
+    @Test
+    public void cancelledQueueItemEndsTheTracking() throws Exception {
+        serveQueueItem(1, "{\"cancelled\":true,\"why\":null}");
+
+        RecordingListener listener = new RecordingListener();
+        tracker.track(requestManager, serverUrl + "/queue/item/42/", listener);
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertThat(listener.reason, equalTo("cancelled"));
+        assertThat(listener.build, nullValue());
+    }
+
+    @Test
+    public void failedReadsAreRetriedUntilTheBuildStarts() throws Exception {
+        failingReads = 2;
+        serveQueueItem(0, "{\"cancelled\":false,\"why\":null,\"executable\":{\"number\":152,\"url\":\"%s/job/mint/152/\"}}");
+
+        RecordingListener listener = new RecordingListener();
+        tracker.track(requestManager, serverUrl + "/queue/item/42/", listener);
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertThat(listener.reason, nullValue());
+        assertThat(listener.build.getNumber(), equalTo(152));
+        assertThat(queueItemReads.get(), equalTo(3));
+    }
+
+    @Test
+    public void trackingEndsWhenTheReadsKeepFailing() throws Exception {
+        failingReads = Integer.MAX_VALUE;
+        serveQueueItem(0, "{\"cancelled\":true,\"why\":null}");
+
+        RecordingListener listener = new RecordingListener();
+        tracker.track(requestManager, serverUrl + "/queue/item/42/", listener);
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertThat(listener.build, nullValue());
+        assertThat(queueItemReads.get(), equalTo(QueueItemTracker.MAX_FAILED_POLLS));
+    }
+
+    @Test
+    public void trackingEndsWhenTheBuildStaysQueuedTooLong() throws Exception {
+        serveQueueItem(Integer.MAX_VALUE, "{\"cancelled\":true,\"why\":null}");
+
+        RecordingListener listener = new RecordingListener();
+        new QueueItemTracker(scheduler, 10, 40, 200).track(requestManager, serverUrl + "/queue/item/42/", listener);
+
+        assertTrue(listener.done.await(10, TimeUnit.SECONDS));
+        assertThat(listener.build, nullValue());
+        assertThat(listener.reason, notNullValue());
+        int reads = queueItemReads.get();
+        Thread.sleep(200);
+        assertThat(queueItemReads.get(), equalTo(reads));
+    }
+
+    @Test
+    public void disposedTrackerStopsPolling() throws Exception {
+        serveQueueItem(Integer.MAX_VALUE, "{\"cancelled\":true,\"why\":null}");
+
+        RecordingListener listener = new RecordingListener();
+        tracker.track(requestManager, serverUrl + "/queue/item/42/", listener);
+        Thread.sleep(100);
+        tracker.dispose();
+        Thread.sleep(100);
+        int reads = queueItemReads.get();
+        Thread.sleep(200);
+
+        assertThat(queueItemReads.get(), equalTo(reads));
+        assertThat(listener.done.getCount(), equalTo(1L));
+    }
+
+    private void serveQueueItem(final int waitingReads, final String leftQueueItem) {
+        server.createContext("/job/mint/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().add("Location", serverUrl + "/queue/item/42/");
+                exchange.sendResponseHeaders(201, -1);
+                exchange.close();
+            }
+        });
+        server.createContext("/queue/item/42/api/json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int read = queueItemReads.incrementAndGet();
+                if (read <= failingReads) {
+                    exchange.sendResponseHeaders(500, -1);
+                    exchange.close();
+                    return;
+                }
+                boolean waiting = read - Math.min(failingReads, read) <= waitingReads;
+                String json = waiting ? "{\"why\":\"Waiting for next available executor\"}" : String.format(leftQueueItem, serverUrl);
+                byte[] body = json.getBytes("UTF-8");
+                exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+                exchange.sendResponseHeaders(200, body.length);
+                OutputStream outputStream = exchange.getResponseBody();
+                outputStream.write(body);
+                outputStream.close();
+                exchange.close();
+            }
+        });
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.start();
+        serverUrl = "http://localhost:" + server.getAddress().getPort();
+
+        configuration = new JenkinsAppSettings();
+        configuration.setServerUrl(serverUrl);
+        httpTransport = new HttpTransport(2);
+        scheduler = new JenkinsScheduler();
+        requestManager = new RequestManager(new UrlBuilder(), SecurityClientFactory.none(null, httpTransport));
+        tracker = new QueueItemTracker(scheduler, 10, 40, TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.dispose();
+        server.stop(0);
+        httpTransport.dispose();
+    }
+
+    private static class RecordingListener implements QueueItemTracker.Listener {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile Build build;
+        private volatile String reason;
+
+        @Override
+        public void buildStarted(Build build) {
+            this.build = build;
+            done.countDown();
+        }
+
+        @Override
+        public void buildNotStarted(String reason) {
+            this.reason = reason;
+            done.countDown();
+        }
+    }
+}
@@ -17,22 +17,40 @@
 package org.codinjutsu.tools.jenkins.logic;
 
 import org.codinjutsu.tools.jenkins.JenkinsAppSettings;
+import org.codinjutsu.tools.jenkins.JenkinsSettings;
 import org.codinjutsu.tools.jenkins.exception.ConfigurationException;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.codinjutsu.tools.jenkins.model.View;
+import org.codinjutsu.tools.jenkins.security.ResponseParser;
 import org.codinjutsu.tools.jenkins.security.SecurityClient;
 import org.codinjutsu.tools.jenkins.security.SecurityClientFactory;
-import org.codinjutsu.tools.jenkins.util.IOUtils;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
+import java.io.InputStreamReader;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import static java.util.Arrays.asList;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.unitils.reflectionassert.ReflectionAssert.assertReflectionEquals;
 
 public class RequestManagerTest {
 
@@ -56,8 +74,7 @@ public class RequestManagerTest {
                 .thenReturn(urlFromConf);
         when(urlBuilderMock.createViewUrl(any(JenkinsPlateform.class), anyString()))
                 .thenReturn(urlFromJenkins);
-        when(securityClientMock.execute(urlFromConf))
-                .thenReturn(IOUtils.toString(getClass().getResourceAsStream("JsonRequestManager_loadJenkinsWorkspaceWithIncorrectPortInTheResponse.json")));
+        respondWith(urlFromConf, "JsonRequestManager_loadJenkinsWorkspaceWithIncorrectPortInTheResponse.json");
         try {
             requestManager.loadJenkinsWorkspace(configuration);
             Assert.fail();
@@ -75,8 +92,7 @@ public class RequestManagerTest {
                 .thenReturn(urlFromConf);
         when(urlBuilderMock.createViewUrl(any(JenkinsPlateform.class), anyString()))
                 .thenReturn(urlFromJenkins);
-        when(securityClientMock.execute(urlFromConf))
-                .thenReturn(IOUtils.toString(getClass().getResourceAsStream("JsonRequestManager_loadJenkinsWorkspaceWithIncorrectPortInTheResponse.json")));
+        respondWith(urlFromConf, "JsonRequestManager_loadJenkinsWorkspaceWithIncorrectPortInTheResponse.json");
         try {
             requestManager.loadJenkinsWorkspace(configuration);
             Assert.fail();
@@ -85,6 +101,244 @@ public class RequestManagerTest {
         }
     }
 
+    @Test
+    public void favoriteJobsThatFailAreLeftOut() throws Exception {
+        List<JenkinsSettings.FavoriteJob> favoriteJobs = asList(favorite("job1"), favorite("job2"), favorite("job3"));
+        for (JenkinsSettings.FavoriteJob favoriteJob : favoriteJobs) {
+            URL jobUrl = new URL(favoriteJob.url + "api/json");
+            when(urlBuilderMock.createJobUrl(favoriteJob.url)).thenReturn(jobUrl);
+            if ("job2".equals(favoriteJob.name)) {
+                when(securityClientMock.get(eq(jobUrl), any(ResponseParser.class))).thenThrow(new ConfigurationException("Not found"));
+            } else {
+                when(securityClientMock.get(eq(jobUrl), any(ResponseParser.class))).thenReturn(new JobBuilder().job(favoriteJob.name, "blue", favoriteJob.url, "false", "true").get());
+            }
+        }
+
+        List<Job> jobs = requestManager.loadFavoriteJobs(favoriteJobs);
+
+        Assert.assertEquals(2, jobs.size());
+        Assert.assertEquals("job1", jobs.get(0).getName());
+        Assert.assertEquals("job3", jobs.get(1).getName());
+    }
+
+    @Test(expected = ConfigurationException.class)
+    public void favoriteJobsErrorIsRaisedWhenNoneCanBeLoaded() throws Exception {
+        JenkinsSettings.FavoriteJob favoriteJob = favorite("job1");
+        URL jobUrl = new URL(favoriteJob.url + "api/json");
+        when(urlBuilderMock.createJobUrl(favoriteJob.url)).thenReturn(jobUrl);
+        when(securityClientMock.get(eq(jobUrl), any(ResponseParser.class))).thenThrow(new ConfigurationException("Not found"));
+
+        requestManager.loadFavoriteJobs(asList(favoriteJob));
+    }
+
+    @Test
+    public void concurrentLoadsOfTheSameJobShareOneRequest() throws Exception {
+        final JenkinsSettings.FavoriteJob favoriteJob = favorite("job1");
+        URL jobUrl = new URL(favoriteJob.url + "api/json");
+        when(urlBuilderMock.createJobUrl(favoriteJob.url)).thenReturn(jobUrl);
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch responseAllowed = new CountDownLatch(1);
+        when(securityClientMock.get(eq(jobUrl), any(ResponseParser.class))).thenAnswer(new Answer<Object>() {
+            @Override
+            public Object answer(InvocationOnMock invocation) throws Throwable {
+                requestStarted.countDown();
+                responseAllowed.await(5, TimeUnit.SECONDS);
+                return new JobBuilder().job(favoriteJob.name, "blue", favoriteJob.url, "false", "true").get();
+            }
+        });
+
+        final Job job = new JobBuilder().job(favoriteJob.name, "blue", favoriteJob.url, "false", "true").get();
+        FutureTask<Job> firstLoad = new FutureTask<Job>(new Callable<Job>() {
+            @Override
+            public Job call() {
+                return requestManager.loadJob(job);
+            }
+        });
+        new Thread(firstLoad).start();
+        Assert.assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+        FutureTask<Job> secondLoad = new FutureTask<Job>(new Callable<Job>() {
+            @Override
+            public Job call() {
+                return requestManager.loadJob(job);
+            }
+        });
+        new Thread(secondLoad).start();
+        while (requestManager.getCoalescedRequestCount() == 0) {
+            Thread.sleep(5);
+        }
+        responseAllowed.countDown();
+
+        Assert.assertSame(firstLoad.get(5, TimeUnit.SECONDS), secondLoad.get(5, TimeUnit.SECONDS));
+        Assert.assertSame(firstLoad.get(), requestManager.loadJob(job));
+        verify(securityClientMock, times(1)).get(eq(jobUrl), any(ResponseParser.class));
+        Assert.assertEquals(1, requestManager.getIssuedRequestCount());
+        Assert.assertEquals(2, requestManager.getCoalescedRequestCount());
+    }
+
+    @Test
+    public void failedLoadsAreNotShared() throws Exception {
+        JenkinsSettings.FavoriteJob favoriteJob = favorite("job1");
+        URL jobUrl = new URL(favoriteJob.url + "api/json");
+        when(urlBuilderMock.createJobUrl(favoriteJob.url)).thenReturn(jobUrl);
+        when(securityClientMock.get(eq(jobUrl), any(ResponseParser.class)))
+                .thenThrow(new ConfigurationException("Server Internal Error"))
+                .thenReturn(new JobBuilder().job(favoriteJob.name, "blue", favoriteJob.url, "false", "true").get());
+        Job job = new JobBuilder().job(favoriteJob.name, "blue", favoriteJob.url, "false", "true").get();
+
+        try {
+            requestManager.loadJob(job);
+            Assert.fail();
+        } catch (ConfigurationException ex) {
+            Assert.assertEquals("Server Internal Error", ex.getMessage());
+        }
+
+        Assert.assertEquals("job1", requestManager.loadJob(job).getName());
+        Assert.assertEquals(2, requestManager.getIssuedRequestCount());
+    }
+
+    @Test
+    public void parameterDefinitionsAreSharedWhileTheParametersStayTheSame() throws Exception {
+        JenkinsSettings.FavoriteJob favoriteJob = favorite("job1");
+        URL parametersUrl = new URL(favoriteJob.url + "api/json?tree=property");
+        when(urlBuilderMock.createJobParametersUrl(favoriteJob.url)).thenReturn(parametersUrl);
+        respondWith(parametersUrl, "JsonRequestManager_loadJobParameters.json");
+
+        Job job = new JobBuilder().job(favoriteJob.name, "blue", favoriteJob.url, "false", "true")
+                .parameter("environment", "ChoiceParameterDefinition", null)
+                .parameter("runIntegrationTest", "BooleanParameterDefinition", null)
+                .get();
+        requestManager.loadParameterDefinitions(job);
+
+        Assert.assertEquals("itg", job.getParameters().get(0).getDefaultValue());
+        Assert.assertEquals(asList("itg", "prp", "prd", "bench"), job.getParameters().get(0).getValues());
+        Assert.assertEquals("true", job.getParameters().get(1).getDefaultValue());
+
+        Job refreshedJob = new JobBuilder().job(favoriteJob.name, "blue", favoriteJob.url, "false", "true")
+                .parameter("environment", "ChoiceParameterDefinition", null)
+                .parameter("runIntegrationTest", "BooleanParameterDefinition", null)
+                .get();
+        requestManager.loadParameterDefinitions(refreshedJob);
+
+        Assert.assertSame(job.getParameters(), refreshedJob.getParameters());
+        verify(securityClientMock, times(1)).get(eq(parametersUrl), any(ResponseParser.class));
+
+        Job reconfiguredJob = new JobBuilder().job(favoriteJob.name, "blue", favoriteJob.url, "false", "true")
+                .parameter("environment", "StringParameterDefinition", null)
+                .get();
+        requestManager.loadParameterDefinitions(reconfiguredJob);
+        Assert.assertEquals(2, requestManager.getIssuedRequestCount() + requestManager.getCoalescedRequestCount());
+    }
+
+    @Test
+    public void viewIsLoadedByPagesHandedOverAsTheyArrive() throws Exception {
+        View view = View.createView("All", "http://myjenkins:8080/view/All/");
+        URL firstPageUrl = new URL(view.getUrl() + "api/json?page=1");
+        URL secondPageUrl = new URL(view.getUrl() + "api/json?page=2");
+        when(urlBuilderMock.createViewPageUrl(view.getUrl(), 0, 100)).thenReturn(firstPageUrl);
+        when(urlBuilderMock.createViewPageUrl(view.getUrl(), 100, 200)).thenReturn(secondPageUrl);
+        when(securityClientMock.get(eq(firstPageUrl), any(ResponseParser.class))).thenReturn(jobs(0, 100));
+        when(securityClientMock.get(eq(secondPageUrl), any(ResponseParser.class))).thenReturn(jobs(100, 130));
+
+        final List<Integer> pageSizes = new ArrayList<Integer>();
+        List<Job> jobs = requestManager.loadJenkinsView(view, new Consumer<List<Job>>() {
+            @Override
+            public void accept(List<Job> page) {
+                pageSizes.add(page.size());
+            }
+        });
+
+        Assert.assertEquals(130, jobs.size());
+        Assert.assertEquals("job129", jobs.get(129).getName());
+        Assert.assertEquals(asList(100, 30), pageSizes);
+    }
+
+    @Test
+    public void viewRefreshLoadsOnlyWhatTheProbeFoundChanged() throws Exception {
+        View view = View.createView("All", "http://myjenkins:8080/view/All/");
+        URL probeUrl = new URL(view.getUrl() + "api/json?probe");
+        URL pageUrl = new URL(view.getUrl() + "api/json?page=1");
+        URL changedJobUrl = new URL("http://myjenkins:8080/job/job1/api/json");
+        when(urlBuilderMock.createViewProbeUrl(view.getUrl())).thenReturn(probeUrl);
+        when(urlBuilderMock.createViewPageUrl(view.getUrl(), 0, 100)).thenReturn(pageUrl);
+        when(urlBuilderMock.createJobUrl("http://myjenkins:8080/job/job1/")).thenReturn(changedJobUrl);
+        when(securityClientMock.get(eq(probeUrl), any(ResponseParser.class)))
+                .thenReturn(asList(probedJob("job0", "blue", "3"), probedJob("job1", "blue", "7")))
+                .thenReturn(asList(probedJob("job0", "blue", "3"), probedJob("job1", "blue", "7")))
+                .thenReturn(asList(probedJob("job0", "blue", "3"), probedJob("job1", "red_anime", "8")));
+        when(securityClientMock.get(eq(pageUrl), any(ResponseParser.class))).thenReturn(jobs(0, 2));
+        Job changedJob = new JobBuilder().job("job1", "red_anime", "http://myjenkins:8080/job/job1/", "false", "true").get();
+        when(securityClientMock.get(eq(changedJobUrl), any(ResponseParser.class))).thenReturn(changedJob);
+
+        List<Job> loadedJobs = requestManager.refreshJenkinsView(view);
+        List<Job> unchangedJobs = requestManager.refreshJenkinsView(view);
+        List<Job> refreshedJobs = requestManager.refreshJenkinsView(view);
+
+        assertReflectionEquals(loadedJobs, unchangedJobs);
+        Assert.assertNotSame(loadedJobs.get(0), unchangedJobs.get(0));
+        assertReflectionEquals(loadedJobs.get(0), refreshedJobs.get(0));
+        Assert.assertSame(changedJob, refreshedJobs.get(1));
+        verify(securityClientMock, times(1)).get(eq(pageUrl), any(ResponseParser.class));
+        verify(securityClientMock, times(1)).get(eq(changedJobUrl), any(ResponseParser.class));
+        Assert.assertEquals(1, requestManager.getFullViewRefreshCount());
+        Assert.assertEquals(1, requestManager.getUnchangedViewRefreshCount());
+        Assert.assertEquals(1, requestManager.getChangedJobsViewRefreshCount());
+    }
+
+    @Test
+    public void viewLoadedByPagesIsTheSnapshotOfItsNextRefresh() throws Exception {
+        View all = View.createView("All", "http://myjenkins:8080/view/All/");
+        View mine = View.createView("Mine", "http://myjenkins:8080/view/Mine/");
+        for (View view : asList(all, mine)) {
+            URL probeUrl = new URL(view.getUrl() + "api/json?probe");
+            URL pageUrl = new URL(view.getUrl() + "api/json?page=1");
+            when(urlBuilderMock.createViewProbeUrl(view.getUrl())).thenReturn(probeUrl);
+            when(urlBuilderMock.createViewPageUrl(view.getUrl(), 0, 100)).thenReturn(pageUrl);
+            when(securityClientMock.get(eq(probeUrl), any(ResponseParser.class))).thenReturn(jobs(0, 2));
+            when(securityClientMock.get(eq(pageUrl), any(ResponseParser.class))).thenReturn(jobs(0, 2));
+        }
+
+        List<Job> allJobs = requestManager.loadJenkinsView(all, null);
+        List<Job> mineJobs = requestManager.loadJenkinsView(mine, null);
+
+        assertReflectionEquals(allJobs, requestManager.refreshJenkinsView(all));
+        assertReflectionEquals(mineJobs, requestManager.refreshJenkinsView(mine));
+        assertReflectionEquals(allJobs, requestManager.refreshJenkinsView(all));
+        Assert.assertEquals(0, requestManager.getFullViewRefreshCount());
+        Assert.assertEquals(3, requestManager.getUnchangedViewRefreshCount());
+    }
+
+    private static Job probedJob(String name, String color, String lastBuildNumber) {
+        String url = "http://myjenkins:8080/job/" + name + "/";
+        return new JobBuilder().job(null, color, url, "false", "false")
+                .lastBuild(null, lastBuildNumber, null, "false", null, null, null)
+                .get();
+    }
+
+    private static List<Job> jobs(int from, int to) {
+        List<Job> jobs = new ArrayList<Job>();
+        for (int i = from; i < to; i++) {
+            jobs.add(new JobBuilder().job("job" + i, "blue", "http://myjenkins:8080/job/job" + i + "/", "false", "true").get());
+        }
+        return jobs;
+    }
+
+    private static JenkinsSettings.FavoriteJob favorite(String name) {
+        JenkinsSettings.FavoriteJob favoriteJob = new JenkinsSettings.FavoriteJob();
+        favoriteJob.name = name;
+        favoriteJob.url = "http://myjenkins:8080/job/" + name + "/";
+        return favoriteJob;
+    }
+
+    private void respondWith(URL url, final String jsonResource) {
+        when(securityClientMock.get(eq(url), any(ResponseParser.class)))
+                .thenAnswer(new Answer<Object>() {
+                    @Override
+                    public Object answer(InvocationOnMock invocation) throws Throwable {
+                        ResponseParser<?> responseParser = (ResponseParser<?>) invocation.getArguments()[1];
+                        return responseParser.parse(new InputStreamReader(getClass().getResourceAsStream(jsonResource), "UTF-8"));
+                    }
+                });
+    }
 
     @Before
     public void setUp() {
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.codinjutsu.tools.jenkins.model.Build;
+import org.codinjutsu.tools.jenkins.model.BuildStatusEnum;
+import org.junit.Test;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+
+public class RssParserTest {
+
+    private final RssParser rssParser = new RssParser();
+
+    @Test
+    public void loadLatestBuildsInFeedOrderWithoutTheRunningOnes() throws Exception {
+        Map<String, Build> latestBuilds = rssParser.loadJenkinsRssLatestBuilds(feedReader());
+
+        assertThat(new ArrayList<String>(latestBuilds.keySet()), equalTo(Arrays.asList("gerrit_master", "hudson_metrics_wip",
+                "infa_release.rss", "infra_jenkins-ci.org_webcontents", "infra_main_svn_to_git", "plugins_subversion", "TESTING-HUDSON-7434")));
+
+        Build build = latestBuilds.get("gerrit_master");
+        assertThat(build.getNumber(), equalTo(170));
+        assertThat(build.getStatus(), equalTo(BuildStatusEnum.FAILURE));
+        assertThat(build.getUrl(), equalTo("http://ci.jenkins-ci.org/job/gerrit_master/170/"));
+        assertThat(build.getMessage(), equalTo("gerrit_master #170 (broken since build #165)"));
+    }
+
+    @Test
+    public void skipBuildsWhichAreNotNewerThanTheLastSeenOne() throws Exception {
+        Map<String, Build> lastSeenBuilds = new HashMap<String, Build>();
+        lastSeenBuilds.put("gerrit_master", Build.createBuildFromRss("http://ci.jenkins-ci.org/job/gerrit_master/170/", "170",
+                "FAILURE", "false", "2011-03-16T14:28:59Z", "gerrit_master #170 (broken since build #165)"));
+        lastSeenBuilds.put("infa_release.rss", Build.createBuildFromRss("http://ci.jenkins-ci.org/job/infa_release.rss/138/", "138",
+                "SUCCESS", "false", "2011-03-16T10:00:00Z", "infa_release.rss #138 (stable)"));
+
+        Map<String, Build> latestBuilds = rssParser.loadJenkinsRssLatestBuilds(feedReader(), lastSeenBuilds);
+
+        assertThat(latestBuilds.containsKey("gerrit_master"), equalTo(false));
+        assertThat(latestBuilds.get("infa_release.rss").getNumber(), equalTo(139));
+        assertThat(latestBuilds.size(), equalTo(6));
+    }
+
+    private Reader feedReader() throws Exception {
+        return new InputStreamReader(getClass().getResourceAsStream("JenkinsRss.xml"), "UTF-8");
+    }
+}
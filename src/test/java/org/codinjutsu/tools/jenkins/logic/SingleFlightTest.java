@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.codinjutsu.tools.jenkins.logic;
+
+import org.junit.Test;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    private final SingleFlight singleFlight = new SingleFlight(60000);
+
+    @Test(timeout = 10000)
+    public void flightFailedByAnErrorIsNotSharedWithTheNextLoad() {
+        try {
+            singleFlight.load("http://ci/job/mint/", () -> {
+                throw new OutOfMemoryError("test");
+            });
+            fail();
+        } catch (OutOfMemoryError expected) {
+        }
+
+        assertThat(singleFlight.load("http://ci/job/mint/", () -> "mint"), equalTo("mint"));
+        assertThat(singleFlight.getIssuedCount(), equalTo(2L));
+    }
+}
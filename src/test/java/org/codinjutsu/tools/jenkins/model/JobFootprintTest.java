@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.model;
+
+import org.codinjutsu.tools.jenkins.logic.JenkinsJsonParser;
+import org.junit.Test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class JobFootprintTest {
+
+    private static final int JOB_COUNT = 10000;
+    private static final long MAX_BYTES_PER_JOB = 520;
+
+    private static final String[] COLORS = {"blue", "red", "yellow", "disabled", "blue_anime", "notbuilt"};
+
+    @Test
+    public void viewOfTenThousandJobsStaysUnderTheBytesPerJobBudget() throws Exception {
+        List<Job> jobs = new JenkinsJsonParser().createViewJobs(viewJson(JOB_COUNT));
+        assertThat(jobs.size(), equalTo(JOB_COUNT));
+
+        long bytesPerJob = deepSizeOf(jobs) / JOB_COUNT;
+
+        assertTrue(String.format("%d bytes per job, expected at most %d", bytesPerJob, MAX_BYTES_PER_JOB), bytesPerJob <= MAX_BYTES_PER_JOB);
+    }
+
+    private static String viewJson(int jobCount) {
+        StringBuilder json = new StringBuilder("{\"name\":\"All\",\"url\":\"http://myjenkins/\",\"jobs\":[");
+        for (int i = 0; i < jobCount; i++) {
+            String name = "module-" + i;
+            String url = "http://myjenkins/job/" + name + "/";
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"").append(name).append("\",\"displayName\":\"").append(name)
+                    .append("\",\"url\":\"").append(url).append("\",\"color\":\"").append(COLORS[i % COLORS.length])
+                    .append("\",\"buildable\":true,\"inQueue\":false")
+                    .append(",\"healthReport\":[{\"description\":\"Build stability: No recent builds failed.\",\"iconUrl\":\"health-80plus.png\"}]")
+                    .append(",\"lastBuild\":{\"id\":\"2012-04-02_15-26-29\",\"building\":false,\"result\":\"SUCCESS\",\"number\":").append(i % 500)
+                    .append(",\"url\":\"").append(url).append(i % 500).append("/\",\"timestamp\":1477640156281,\"duration\":4386421}");
+            if (i % 4 == 0) {
+                json.append(",\"property\":[{\"parameterDefinitions\":[{\"name\":\"branch\",\"type\":\"StringParameterDefinition\"}]}]");
+            }
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Shallow sizes of every object reachable from the root, as laid out by a 64-bit VM with compressed oops.
+     * Enums and classes are left out, shared values such as interned strings are counted once.
+     */
+    private static long deepSizeOf(Object root) throws IllegalAccessException {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+        Deque<Object> pending = new ArrayDeque<Object>();
+        pending.push(root);
+        long size = 0;
+        while (!pending.isEmpty()) {
+            Object object = pending.pop();
+            if (!visited.add(object) || isShared(object)) {
+                continue;
+            }
+            Class<?> type = object.getClass();
+            if (type.isArray()) {
+                int length = Array.getLength(object);
+                Class<?> componentType = type.getComponentType();
+                size += align(16 + (long) length * sizeOf(componentType));
+                if (!componentType.isPrimitive()) {
+                    for (int i = 0; i < length; i++) {
+                        Object element = Array.get(object, i);
+                        if (element != null) {
+                            pending.push(element);
+                        }
+                    }
+                }
+                continue;
+            }
+            long shallowSize = 12;
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    shallowSize += sizeOf(field.getType());
+                    if (!field.getType().isPrimitive()) {
+                        field.setAccessible(true);
+                        Object value = field.get(object);
+                        if (value != null) {
+                            pending.push(value);
+                        }
+                    }
+                }
+            }
+            size += align(shallowSize);
+        }
+        return size;
+    }
+
+    private static boolean isShared(Object object) {
+        return object instanceof Enum || object instanceof Class;
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        if (type == byte.class || type == boolean.class) {
+            return 1;
+        }
+        return 4;
+    }
+
+    private static long align(long size) {
+        return (size + 7) / 8 * 8;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.security;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsNot.not;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultSecurityClientTest {
+
+    private static final String ETAG = "\"42\"";
+
+    private HttpServer server;
+    private HttpTransport httpTransport;
+    private DefaultSecurityClient securityClient;
+
+    private final List<String> receivedMethods = new ArrayList<String>();
+    private final List<String> receivedValidators = new ArrayList<String>();
+    private final List<String> receivedEncodings = new ArrayList<String>();
+
+    @Test
+    public void notModifiedResponseIsParsedAgainFromThePreviousBody() throws Exception {
+        CountingParser parser = new CountingParser();
+        URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/api/json");
+
+        Object firstModel = securityClient.get(url, parser);
+        Object secondModel = securityClient.get(url, parser);
+
+        assertThat(secondModel, not(sameInstance(firstModel)));
+        assertThat(parser.calls.get(), equalTo(2));
+        assertThat(receivedMethods.get(0), equalTo("GET"));
+        assertThat(receivedMethods.get(1), equalTo("GET"));
+        assertThat(receivedValidators.get(1), equalTo(ETAG));
+    }
+
+    @Test
+    public void uncompressedResponseIsCountedAsDecodedToo() throws Exception {
+        URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/api/json");
+
+        String body = securityClient.get(url, new ResponseParser<String>() {
+            @Override
+            public String parse(Reader responseReader) throws IOException {
+                StringBuilder text = new StringBuilder();
+                for (int read; (read = responseReader.read()) != -1; ) {
+                    text.append((char) read);
+                }
+                return text.toString();
+            }
+        });
+
+        TransferStatistics.Counter counter = httpTransport.getTransferStatistics().getCounters().get("/api/json");
+        assertThat(counter.getWireBytes(), equalTo((long) body.length()));
+        assertThat(counter.getDecodedBytes(), equalTo((long) body.length()));
+    }
+
+    @Test
+    public void gzipResponseIsDecodedWhileParsedAndCountedPerEndpoint() throws Exception {
+        StringBuilder jobs = new StringBuilder("{\"jobs\":[");
+        for (int i = 0; i < 200; i++) {
+            jobs.append(i == 0 ? "" : ",").append("{\"name\":\"mint-").append(i).append("\",\"color\":\"blue\"}");
+        }
+        final String json = jobs.append("]}").toString();
+        server.createContext("/job/mint/api/json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                receivedEncodings.add(exchange.getRequestHeaders().getFirst("Accept-Encoding"));
+                ByteArrayOutputStream compressedBody = new ByteArrayOutputStream();
+                GZIPOutputStream gzipStream = new GZIPOutputStream(compressedBody);
+                gzipStream.write(json.getBytes("UTF-8"));
+                gzipStream.close();
+
+                exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+                exchange.getResponseHeaders().add("Content-Type", "application/json;charset=UTF-8");
+                exchange.sendResponseHeaders(200, compressedBody.size());
+                OutputStream outputStream = exchange.getResponseBody();
+                compressedBody.writeTo(outputStream);
+                outputStream.close();
+                exchange.close();
+            }
+        });
+        URL url = new URL("http://localhost:" + server.getAddress().getPort() + "/job/mint/api/json");
+
+        String body = securityClient.get(url, new ResponseParser<String>() {
+            @Override
+            public String parse(Reader responseReader) throws IOException {
+                StringBuilder text = new StringBuilder();
+                char[] buffer = new char[1024];
+                for (int read; (read = responseReader.read(buffer)) != -1; ) {
+                    text.append(buffer, 0, read);
+                }
+                return text.toString();
+            }
+        });
+
+        assertThat(body, equalTo(json));
+        assertThat(receivedEncodings.get(0), equalTo("gzip, deflate"));
+        TransferStatistics.Counter counter = httpTransport.getTransferStatistics().getCounters().get("/job/*/api/json");
+        assertThat(counter.getResponses(), equalTo(1L));
+        assertThat(counter.getDecodedBytes(), equalTo((long) json.length()));
+        assertTrue(counter.getWireBytes() < counter.getDecodedBytes() / 4);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/api/json", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                receivedMethods.add(exchange.getRequestMethod());
+                String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+                receivedValidators.add(ifNoneMatch);
+
+                exchange.getResponseHeaders().add("ETag", ETAG);
+                if (ETAG.equals(ifNoneMatch)) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    byte[] body = "{\"jobs\":[]}".getBytes("UTF-8");
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream outputStream = exchange.getResponseBody();
+                    outputStream.write(body);
+                    outputStream.close();
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+
+        httpTransport = new HttpTransport(2);
+        securityClient = new DefaultSecurityClient(null, httpTransport);
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        httpTransport.dispose();
+    }
+
+    private static class CountingParser implements ResponseParser<Object> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Object parse(Reader responseReader) {
+            calls.incrementAndGet();
+            return new Object();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.security;
+
+import org.apache.commons.httpclient.HttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class HttpTransportTest {
+
+    private HttpTransport httpTransport;
+
+    @Test
+    public void securityClientsShareTheSameConnectionPool() throws Exception {
+        HttpClient firstClient = httpTransport.createHttpClient();
+        HttpClient secondClient = httpTransport.createHttpClient();
+
+        assertThat(firstClient.getHttpConnectionManager(), sameInstance(secondClient.getHttpConnectionManager()));
+    }
+
+    @Test
+    public void maxConnectionsPerHostIsConfigurable() throws Exception {
+        httpTransport.setMaxConnectionsPerHost(4);
+
+        assertThat(httpTransport.getMaxConnectionsPerHost(), equalTo(4));
+    }
+
+    @Test
+    public void statsOfAnUnusedPool() throws Exception {
+        HttpTransport.Stats stats = httpTransport.getStats();
+
+        assertThat(stats.getLeased(), equalTo(0));
+        assertThat(stats.getIdle(), equalTo(0));
+        assertThat(stats.getPending(), equalTo(0));
+    }
+
+    @Before
+    public void setUp() {
+        httpTransport = new HttpTransport(2);
+    }
+
+    @After
+    public void tearDown() {
+        httpTransport.dispose();
+    }
+}
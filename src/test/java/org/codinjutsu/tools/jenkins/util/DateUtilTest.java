@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.util;
+
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class DateUtilTest {
+
+    @Test
+    public void workspaceDateIsReadInTheLocalTimeZone() throws Exception {
+        long expected = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").parse("2012-04-02_15-26-29").getTime();
+
+        assertThat(DateUtil.parseWorkspaceDate("2012-04-02_15-26-29"), equalTo(expected));
+    }
+
+    @Test
+    public void rssDateIsReadInUtc() throws Exception {
+        SimpleDateFormat utcFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+        utcFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        assertThat(DateUtil.parseRssDate("2011-03-16T14:28:59Z"), equalTo(utcFormat.parse("2011-03-16T14:28:59").getTime()));
+        assertThat(DateUtil.parseRssDate("2000-02-29T00:00:00Z"), equalTo(utcFormat.parse("2000-02-29T00:00:00").getTime()));
+        assertThat(DateUtil.parseRssDate("1970-01-01T00:00:00Z"), equalTo(0L));
+    }
+
+    @Test
+    public void invalidDateIsReadAsTheCurrentTime() throws Exception {
+        long before = System.currentTimeMillis();
+
+        for (String invalidDate : new String[]{"15", "2012-02-30_10-00-00", "2012-04-02T15:26:29Z", "2012-04-02_15-26-2x", null}) {
+            long millis = DateUtil.parseWorkspaceDate(invalidDate);
+            assertTrue(invalidDate, millis >= before && millis <= System.currentTimeMillis());
+        }
+    }
+
+    @Test
+    public void datesAreParsedConcurrently() throws Exception {
+        final long expected = DateUtil.parseRssDate("2011-03-16T14:28:59Z");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int j = 0; j < 10000; j++) {
+                            if (DateUtil.parseRssDate("2011-03-16T14:28:59Z") != expected) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
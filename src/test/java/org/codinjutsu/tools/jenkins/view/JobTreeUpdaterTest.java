@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2013 David Boissier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.codinjutsu.tools.jenkins.view;
+
+import org.codinjutsu.tools.jenkins.logic.JobBuilder;
+import org.codinjutsu.tools.jenkins.model.Job;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.core.IsEqual.equalTo;
+import static org.hamcrest.core.IsSame.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class JobTreeUpdaterTest {
+
+    private static final Comparator<Job> BY_NAME = new Comparator<Job>() {
+        @Override
+        public int compare(Job job1, Job job2) {
+            return job1.getName().compareTo(job2.getName());
+        }
+    };
+
+    private DefaultTreeModel model;
+    private DefaultMutableTreeNode rootNode;
+    private JobTreeUpdater jobTreeUpdater;
+    private final List<String> events = new ArrayList<String>();
+
+    @Test
+    public void firstLoadInsertsEveryJob() throws Exception {
+        JobTreeUpdater.Delta delta = jobTreeUpdater.update(asList(job("b", "blue"), job("a", "red")), BY_NAME);
+
+        assertThat(delta.getAdded(), equalTo(2));
+        assertThat(childNames(), equalTo(asList("a", "b")));
+        assertThat(events, equalTo(asList("inserted [0, 1]")));
+    }
+
+    @Test
+    public void unchangedReloadFiresNoEvent() throws Exception {
+        jobTreeUpdater.update(asList(job("a", "blue"), job("b", "blue")), BY_NAME);
+        DefaultMutableTreeNode firstNode = (DefaultMutableTreeNode) rootNode.getChildAt(0);
+        events.clear();
+
+        JobTreeUpdater.Delta delta = jobTreeUpdater.update(asList(job("a", "blue"), job("b", "blue")), BY_NAME);
+
+        assertThat(delta.getChangedNodeCount(), equalTo(0));
+        assertThat(events.isEmpty(), equalTo(true));
+        assertThat((DefaultMutableTreeNode) rootNode.getChildAt(0), sameInstance(firstNode));
+    }
+
+    @Test
+    public void onlyTheDeltaIsNotified() throws Exception {
+        jobTreeUpdater.update(asList(job("a", "blue"), job("b", "blue"), job("c", "blue")), BY_NAME);
+        events.clear();
+
+        JobTreeUpdater.Delta delta = jobTreeUpdater.update(asList(job("a", "blue"), job("c", "red"), job("d", "blue")), BY_NAME);
+
+        assertThat(childNames(), equalTo(asList("a", "c", "d")));
+        assertThat(delta.getAdded(), equalTo(1));
+        assertThat(delta.getRemoved(), equalTo(1));
+        assertThat(delta.getChanged(), equalTo(1));
+        assertThat(events, equalTo(asList("removed [1]", "inserted [2]", "changed [1]")));
+    }
+
+    @Test
+    public void reorderedJobsAreMovedWithoutTouchingTheOthers() throws Exception {
+        Comparator<Job> byColorThenName = new Comparator<Job>() {
+            @Override
+            public int compare(Job job1, Job job2) {
+                int colorComparison = job1.getColor().compareTo(job2.getColor());
+                return colorComparison != 0 ? colorComparison : job1.getName().compareTo(job2.getName());
+            }
+        };
+        jobTreeUpdater.update(asList(job("a", "blue"), job("b", "blue"), job("c", "blue")), byColorThenName);
+        events.clear();
+
+        JobTreeUpdater.Delta delta = jobTreeUpdater.update(asList(job("a", "red"), job("b", "blue"), job("c", "blue")), byColorThenName);
+
+        assertThat(childNames(), equalTo(asList("b", "c", "a")));
+        assertThat(delta.getMoved(), equalTo(1));
+        assertThat(events, equalTo(asList("removed [0]", "inserted [2]")));
+    }
+
+    @Test
+    public void pagesAreAppendedWithoutRemovingTheJobsShown() throws Exception {
+        jobTreeUpdater.update(asList(job("b", "blue"), job("d", "blue")), BY_NAME);
+        events.clear();
+
+        JobTreeUpdater.Delta firstPage = jobTreeUpdater.append(rootNode, asList(job("a", "blue"), job("b", "red")), BY_NAME);
+        JobTreeUpdater.Delta secondPage = jobTreeUpdater.append(rootNode, asList(job("c", "blue")), BY_NAME);
+
+        assertThat(childNames(), equalTo(asList("a", "b", "c", "d")));
+        assertThat(firstPage.getAdded(), equalTo(1));
+        assertThat(firstPage.getChanged(), equalTo(1));
+        assertThat(secondPage.getAdded(), equalTo(1));
+        assertThat(events, equalTo(asList("inserted [0]", "changed [1]", "inserted [2]")));
+    }
+
+    @Test
+    public void longestIncreasingRun() throws Exception {
+        assertThat(JobTreeUpdater.longestIncreasingRun(asList(2, 0, 1, 4, 3)), equalTo(asList(1, 2, 4)));
+    }
+
+    private List<String> childNames() {
+        List<String> names = new ArrayList<String>();
+        for (int i = 0; i < rootNode.getChildCount(); i++) {
+            names.add(((Job) ((DefaultMutableTreeNode) rootNode.getChildAt(i)).getUserObject()).getName());
+        }
+        return names;
+    }
+
+    private static Job job(String name, String color) {
+        return new JobBuilder().job(name, color, "http://myjenkins/job/" + name, "false", "true").get();
+    }
+
+    @Before
+    public void setUp() {
+        rootNode = new DefaultMutableTreeNode();
+        model = new DefaultTreeModel(rootNode);
+        model.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent event) {
+                events.add("changed " + Arrays.toString(event.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent event) {
+                events.add("inserted " + Arrays.toString(event.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent event) {
+                events.add("removed " + Arrays.toString(event.getChildIndices()));
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent event) {
+                events.add("structure");
+            }
+        });
+        jobTreeUpdater = new JobTreeUpdater(model);
+    }
+}